@@ -0,0 +1,40 @@
+package edu.iastate.cs228.hw3.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to build a list of size elements with add(E).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class AppendBenchmark
+{
+  @Param({ "StoutList", "ArrayList", "LinkedList" })
+  public String impl;
+
+  @Param({ "4", "16", "64", "256", "1024" })
+  public int nodeSize;
+
+  @Param({ "10000", "1000000" })
+  public int size;
+
+  @Benchmark
+  public List<Integer> append()
+  {
+      List<Integer> list = ListFactory.create(impl, nodeSize);
+      for (int i = 0; i < size; ++i) {
+          list.add(i);
+      }
+      return list;
+  }
+}
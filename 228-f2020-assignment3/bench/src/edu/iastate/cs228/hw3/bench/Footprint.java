@@ -0,0 +1,87 @@
+package edu.iastate.cs228.hw3.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Estimates the heap used per element by each list implementation and node
+ * size.  JMH measures time, not retained size, so this is a plain program:
+ * it builds several copies of each list, forces garbage collection and
+ * divides the growth in used heap by the number of elements.  The element
+ * objects themselves are shared, so the result is the cost of the list
+ * structure alone.
+ *
+ * Usage: Footprint [size]
+ */
+public final class Footprint
+{
+  /**
+   * Number of lists built per measurement, to average out noise.
+   */
+  private static final int COPIES = 8;
+
+  private Footprint() { }
+
+  public static void main(String[] args)
+  {
+      int size = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+      Integer[] values = new Integer[size];
+      for (int i = 0; i < size; ++i) {
+          values[i] = i;
+      }
+
+      System.out.printf("%-18s %8s %14s%n", "impl", "nodeSize", "bytes/element");
+      for (String impl : new String[] { "StoutList", "CircularStoutList", "ArrayList", "LinkedList" }) {
+          int[] nodeSizes = impl.endsWith("StoutList") ? new int[] { 4, 16, 64, 256, 1024 } : new int[] { 0 };
+          for (int nodeSize : nodeSizes) {
+              double perElement = measure(impl, Math.max(nodeSize, 2), values);
+              System.out.printf("%-18s %8s %14.2f%n", impl, nodeSize == 0 ? "-" : nodeSize, perElement);
+          }
+      }
+  }
+
+  /**
+   * Returns the average retained bytes per element of one implementation.
+   *
+   * @param impl the list implementation
+   * @param nodeSize the node size for StoutList
+   * @param values the elements to add
+   * @return bytes per element
+   */
+  private static double measure(String impl, int nodeSize, Integer[] values)
+  {
+      long before = usedHeap();
+      List<List<Integer>> lists = new ArrayList<>();
+      for (int copy = 0; copy < COPIES; ++copy) {
+          List<Integer> list = ListFactory.create(impl, nodeSize);
+          for (Integer value : values) {
+              list.add(value);
+          }
+          lists.add(list);
+      }
+      long after = usedHeap();
+      if (lists.size() != COPIES) throw new IllegalStateException();
+      return (double) (after - before) / ((long) COPIES * values.length);
+  }
+
+  /**
+   * Returns the used heap after several rounds of garbage collection.
+   *
+   * @return used heap in bytes
+   */
+  private static long usedHeap()
+  {
+      Runtime runtime = Runtime.getRuntime();
+      for (int i = 0; i < 4; ++i) {
+          System.gc();
+          try {
+              Thread.sleep(50);
+          }
+          catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+          }
+      }
+      return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
@@ -0,0 +1,81 @@
+package edu.iastate.cs228.hw3.bench;
+
+import edu.iastate.cs228.hw3.StoutList;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Creates the lists compared by the benchmarks.  The node size only applies
+ * to StoutList; ArrayList and LinkedList ignore it.
+ */
+final class ListFactory
+{
+  /**
+   * Seed for all generated data, so runs are repeatable.
+   */
+  static final long SEED = 228L;
+
+  private ListFactory() { }
+
+  /**
+   * Creates an empty list of the given implementation.
+   *
+   * @param impl one of "StoutList", "CircularStoutList", "ArrayList" or "LinkedList"
+   * @param nodeSize the node size for StoutList
+   * @return the new list
+   */
+  static List<Integer> create(String impl, int nodeSize)
+  {
+      switch (impl) {
+          case "StoutList":
+              return new StoutList<>(nodeSize);
+          case "CircularStoutList":
+              return new StoutList<>(nodeSize, true);
+          case "ArrayList":
+              return new ArrayList<>();
+          case "LinkedList":
+              return new LinkedList<>();
+          default:
+              throw new IllegalArgumentException(impl);
+      }
+  }
+
+  /**
+   * Creates a list of the given implementation holding size random
+   * non-negative values.
+   *
+   * @param impl the list implementation
+   * @param nodeSize the node size for StoutList
+   * @param size the number of elements
+   * @return the filled list
+   */
+  static List<Integer> filled(String impl, int nodeSize, int size)
+  {
+      List<Integer> list = create(impl, nodeSize);
+      Random random = new Random(SEED);
+      for (int i = 0; i < size; ++i) {
+          list.add(random.nextInt(Integer.MAX_VALUE));
+      }
+      return list;
+  }
+
+  /**
+   * Returns size random positions in [0, bound), for positional workloads.
+   *
+   * @param size the number of positions
+   * @param bound the exclusive upper bound
+   * @return the positions
+   */
+  static int[] positions(int size, int bound)
+  {
+      Random random = new Random(SEED + 1);
+      int[] positions = new int[size];
+      for (int i = 0; i < size; ++i) {
+          positions[i] = random.nextInt(bound);
+      }
+      return positions;
+  }
+}
@@ -0,0 +1,66 @@
+package edu.iastate.cs228.hw3.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Random positional access: get(int), and add(int, E) paired with remove(int)
+ * so the list keeps its size across iterations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PositionalBenchmark
+{
+  /**
+   * Number of precomputed random positions, cycled through by each operation.
+   */
+  private static final int POSITIONS = 1 << 16;
+
+  @Param({ "StoutList", "CircularStoutList", "ArrayList", "LinkedList" })
+  public String impl;
+
+  @Param({ "4", "16", "64", "256", "1024" })
+  public int nodeSize;
+
+  @Param({ "10000", "1000000" })
+  public int size;
+
+  private List<Integer> list;
+
+  private int[] positions;
+
+  private int next;
+
+  @Setup(Level.Trial)
+  public void setUp()
+  {
+      list = ListFactory.filled(impl, nodeSize, size);
+      positions = ListFactory.positions(POSITIONS, size);
+  }
+
+  @Benchmark
+  public Integer get()
+  {
+      int pos = positions[next++ & (POSITIONS - 1)];
+      return list.get(pos);
+  }
+
+  @Benchmark
+  public Integer addRemove()
+  {
+      int pos = positions[next++ & (POSITIONS - 1)];
+      list.add(pos, pos);
+      return list.remove(pos);
+  }
+}
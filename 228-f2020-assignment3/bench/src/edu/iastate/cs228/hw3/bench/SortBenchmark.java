@@ -0,0 +1,77 @@
+package edu.iastate.cs228.hw3.bench;
+
+import edu.iastate.cs228.hw3.StoutList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * sort() and sortReverse() on shuffled data.  ArrayList and LinkedList use
+ * List.sort() with the natural and reverse orders.  The list is reshuffled
+ * before every invocation, so keep size large enough that the sort dominates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SortBenchmark
+{
+  @Param({ "StoutList", "ArrayList", "LinkedList" })
+  public String impl;
+
+  @Param({ "4", "16", "64", "256", "1024" })
+  public int nodeSize;
+
+  @Param({ "100000", "1000000" })
+  public int size;
+
+  private List<Integer> list;
+
+  private final Random random = new Random(ListFactory.SEED);
+
+  @Setup(Level.Trial)
+  public void fill()
+  {
+      list = ListFactory.filled(impl, nodeSize, size);
+  }
+
+  @Setup(Level.Invocation)
+  public void shuffle()
+  {
+      Collections.shuffle(list, random);
+  }
+
+  @Benchmark
+  public List<Integer> sort()
+  {
+      if (list instanceof StoutList) {
+          ((StoutList<Integer>) list).sort();
+      }
+      else {
+          list.sort(null);
+      }
+      return list;
+  }
+
+  @Benchmark
+  public List<Integer> sortReverse()
+  {
+      if (list instanceof StoutList) {
+          ((StoutList<Integer>) list).sortReverse();
+      }
+      else {
+          list.sort(Collections.reverseOrder());
+      }
+      return list;
+  }
+}
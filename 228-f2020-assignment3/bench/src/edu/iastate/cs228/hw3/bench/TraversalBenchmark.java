@@ -0,0 +1,79 @@
+package edu.iastate.cs228.hw3.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.ListIterator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full scans with an iterator and with forEach(), and a listIterator pass
+ * that inserts after every eighth element and then removes what it inserted.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TraversalBenchmark
+{
+  @Param({ "StoutList", "ArrayList", "LinkedList" })
+  public String impl;
+
+  @Param({ "4", "16", "64", "256", "1024" })
+  public int nodeSize;
+
+  @Param({ "10000", "1000000" })
+  public int size;
+
+  private List<Integer> list;
+
+  @Setup(Level.Trial)
+  public void setUp()
+  {
+      list = ListFactory.filled(impl, nodeSize, size);
+  }
+
+  @Benchmark
+  public long iterate()
+  {
+      long sum = 0;
+      for (Integer value : list) {
+          sum += value;
+      }
+      return sum;
+  }
+
+  @Benchmark
+  public long forEach()
+  {
+      long[] sum = new long[1];
+      list.forEach(value -> sum[0] += value);
+      return sum[0];
+  }
+
+  @Benchmark
+  public int listIteratorEdits()
+  {
+      int edits = 0;
+      ListIterator<Integer> iter = list.listIterator();
+      while (iter.hasNext()) {
+          if (iter.next() % 8 == 0) {
+              iter.add(-1);
+              ++edits;
+          }
+      }
+      while (iter.hasPrevious()) {
+          if (iter.previous() == -1) {
+              iter.remove();
+          }
+      }
+      return edits;
+  }
+}
@@ -0,0 +1,944 @@
+package edu.iastate.cs228.hw3;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Thread-safe stout list for sharing between threads.
+ *
+ * Reads first run without locking under an optimistic stamp of a StampedLock
+ * and are only retried under the read lock if a writer got in between, so
+ * readers do not block one another or write to shared state.  Replacing an
+ * element changes neither the nodes nor the order-statistics tree, so set()
+ * only holds the read lock plus one of a set of striped monitors picked by
+ * position, and replacements at different positions run in parallel.
+ *
+ * Positional insertions and removals hold the write lock, so unlike
+ * replacements they do not run in parallel even in different nodes.  This is
+ * deliberate: an insertion at a position must be ordered against every
+ * concurrent insertion or removal before that position, since each one moves
+ * it.  With a lock per node and atomically updated tree weights, two writers
+ * could each see some of the other's weight changes but not all, and the
+ * list would end up in a state that no order of the operations produces.
+ * Validating the whole prefix instead means retrying on every concurrent size
+ * change, which serializes the writers just the same.  The write lock is held
+ * only for the O(log n) descent and the in-node edit; collections are copied
+ * before it is taken, and the concurrent writes that scale are replacements
+ * and appends.
+ *
+ * Threads that only append can use append(), which takes no lock.  Appended
+ * elements wait in a buffer until the appender that fills a chunk of it, or
+ * the next structural change, moves them into the list; reads see the list
+ * followed by the buffered elements, so they never wait for that move.
+ *
+ * Iteration copies one node at a time under an optimistic stamp and runs the
+ * action outside any lock, so a long iteration never holds up writers.  The
+ * iterators are weakly consistent: they never throw
+ * ConcurrentModificationException, and each node's worth of elements is read
+ * consistently, but changes made during the iteration may or may not be seen
+ * and may shift elements across the iterator's position.
+ */
+public class ConcurrentStoutList<E extends Comparable<? super E>> extends AbstractList<E>
+{
+  /**
+   * Number of slots in each chunk of the append buffer.
+   */
+  private static final int CHUNK_SIZE = 256;
+
+  /**
+   * Number of monitors set() stripes positions over.  Must be a power of 2.
+   */
+  private static final int STRIPES = 64;
+
+  /**
+   * Number of times a read is tried under an optimistic stamp before it
+   * takes the read lock.
+   */
+  private static final int OPTIMISTIC_ATTEMPTS = 3;
+
+  /**
+   * The list holding the elements.
+   */
+  private final StoutList<E> list;
+
+  /**
+   * Guards list: structural changes hold the write lock, and replacements
+   * and pessimistic reads hold the read lock.
+   */
+  private final StampedLock lock = new StampedLock();
+
+  /**
+   * Monitors that serialize replacements of the same position.
+   */
+  private final Object[] stripes = new Object[STRIPES];
+
+  /**
+   * The oldest chunk of append() that may hold elements not yet moved into
+   * list.  Only written under the write lock.
+   */
+  private Chunk appendHead;
+
+  /**
+   * The chunk append() stores elements in.  It only moves forward, and
+   * every chunk before it is full.
+   */
+  private final AtomicReference<Chunk> appendTail;
+
+  /**
+   * Constructs an empty list with the default node size.
+   */
+  public ConcurrentStoutList()
+  {
+    this(new StoutList<>());
+  }
+
+  /**
+   * Constructs an empty list with the given node size.
+   * @param nodeSize number of elements that may be stored in each node, must be
+   *   an even number
+   */
+  public ConcurrentStoutList(int nodeSize)
+  {
+    this(new StoutList<>(nodeSize));
+  }
+
+  /**
+   * Constructs a list around the given one, which must not be used directly
+   * afterwards.
+   * @param list the list holding the elements
+   */
+  private ConcurrentStoutList(StoutList<E> list)
+  {
+    this.list = list;
+    this.appendHead = new Chunk(0);
+    this.appendTail = new AtomicReference<>(appendHead);
+    for (int i = 0; i < STRIPES; ++i) {
+        stripes[i] = new Object();
+    }
+  }
+
+  /**
+   * Returns the number of elements in the list.
+   *
+   * @return the size of the list
+   */
+  @Override
+  public int size()
+  {
+      for (int attempt = 0; attempt < OPTIMISTIC_ATTEMPTS; ++attempt) {
+          long stamp = lock.tryOptimisticRead();
+          if (stamp == 0) {
+              break;
+          }
+          int size = list.size() + pendingCount();
+          if (lock.validate(stamp)) {
+              return size;
+          }
+      }
+
+      long stamp = lock.readLock();
+      try {
+          return list.size() + pendingCount();
+      }
+      finally {
+          lock.unlockRead(stamp);
+      }
+  }
+
+  /**
+   * Returns the item at the given position.
+   *
+   * @param pos the position of the item
+   * @return the item at pos
+   * @throws IndexOutOfBoundsException if pos is less than 0 or not less than the size
+   */
+  @Override
+  public E get(int pos)
+  {
+      for (int attempt = 0; attempt < OPTIMISTIC_ATTEMPTS; ++attempt) {
+          long stamp = lock.tryOptimisticRead();
+          if (stamp == 0) {
+              break;
+          }
+          try {
+              E item = read(pos);
+              if (lock.validate(stamp)) {
+                  return item;
+              }
+          }
+          catch (RuntimeException e) {
+              // Reads that race with a writer can fail in any way; only
+              // trust the failure if no writer got in.
+              if (lock.validate(stamp)) {
+                  throw e;
+              }
+          }
+      }
+
+      long stamp = lock.readLock();
+      try {
+          return read(pos);
+      }
+      finally {
+          lock.unlockRead(stamp);
+      }
+  }
+
+  /**
+   * Returns the item at the given position, in the list or among the
+   * appended elements that follow it.  Must be called with the read lock
+   * held or under an optimistic stamp.
+   *
+   * @param pos the position of the item
+   * @return the item at pos
+   * @throws IndexOutOfBoundsException if pos is less than 0 or not less than the size
+   */
+  private E read(int pos)
+  {
+      int listSize = list.size();
+      if (pos < listSize) {
+          return list.peek(pos);
+      }
+
+      long seq = drainedCount() + (pos - listSize);
+      if (seq >= appendedCount()) { throw new IndexOutOfBoundsException(); }
+      Chunk chunk = chunkOf(seq);
+      return chunk.items.get((int) (seq - chunk.base));
+  }
+
+  /**
+   * Replaces the item at the given position.  Only replacements of the same
+   * position wait for one another.
+   *
+   * @param pos the position of the item
+   * @param item the new item
+   * @return the item previously at pos
+   * @throws IndexOutOfBoundsException if pos is less than 0 or not less than the size
+   * @throws NullPointerException if the item is equal to null
+   */
+  @Override
+  public E set(int pos, E item)
+  {
+      if (item == null) {
+          throw new NullPointerException();
+      }
+
+      long stamp = lock.readLock();
+      try {
+          synchronized (stripes[pos & (STRIPES - 1)]) {
+              int listSize = list.size();
+              if (pos < listSize) {
+                  return list.replace(pos, item);
+              }
+
+              long seq = drainedCount() + (pos - listSize);
+              if (seq >= appendedCount()) { throw new IndexOutOfBoundsException(); }
+              Chunk chunk = chunkOf(seq);
+              return chunk.items.getAndSet((int) (seq - chunk.base), item);
+          }
+      }
+      finally {
+          lock.unlockRead(stamp);
+      }
+  }
+
+  /**
+   * Adds the item at the end of the list without taking any lock, for many
+   * threads appending at once.  The item is stored with a compare-and-set
+   * into the slot at the fill index of the last chunk of an append buffer,
+   * and the fill index is then moved past it; a thread that loses the slot
+   * helps move the index and tries the next one, and a thread that finds
+   * the chunk full links a new one with a compare-and-set.  A slot is only
+   * counted once it holds its element, so the buffered elements always form
+   * a gap-free prefix of the appends in the order their slots were filled,
+   * and a thread sees its own append in every read that follows it.
+   *
+   * The appender that fills the last slot of a chunk moves the buffered
+   * elements into the list if it can take the write lock without waiting;
+   * otherwise the next such appender or the next structural change does.
+   *
+   * @param item the item to add
+   * @throws NullPointerException if the item is equal to null
+   */
+  public void append(E item)
+  {
+      if (item == null) {
+          throw new NullPointerException();
+      }
+
+      Chunk chunk = appendTail.get();
+      while (true) {
+          int slot = chunk.filled.get();
+          if (slot < CHUNK_SIZE) {
+              boolean stored = chunk.items.compareAndSet(slot, null, item);
+              // Whoever stored the slot, move the fill index past it.
+              chunk.filled.compareAndSet(slot, slot + 1);
+              if (stored) {
+                  if (slot == CHUNK_SIZE - 1) {
+                      tryDrain();
+                  }
+                  return;
+              }
+              continue;
+          }
+
+          Chunk next = chunk.next.get();
+          if (next == null) {
+              Chunk fresh = new Chunk(chunk.base + CHUNK_SIZE);
+              next = chunk.next.compareAndSet(null, fresh) ? fresh : chunk.next.get();
+          }
+          appendTail.compareAndSet(chunk, next);
+          chunk = appendTail.get();
+      }
+  }
+
+  /**
+   * Moves the elements stored by append() into the list if the write lock
+   * is free.
+   */
+  private void tryDrain()
+  {
+      long stamp = lock.tryWriteLock();
+      if (stamp == 0) {
+          return;
+      }
+      try {
+          drain();
+      }
+      finally {
+          lock.unlockWrite(stamp);
+      }
+  }
+
+  /**
+   * Moves the elements stored by append() into the list, up to the fill
+   * index of each chunk.  Must be called with the write lock held.
+   */
+  private void drain()
+  {
+      List<E> items = null;
+      Chunk chunk = appendHead;
+      while (true) {
+          int filled = chunk.filled.get();
+          if (chunk.drained < filled) {
+              if (items == null) {
+                  items = new ArrayList<>();
+              }
+              for (int i = chunk.drained; i < filled; ++i) {
+                  items.add(chunk.items.get(i));
+              }
+              chunk.drained = filled;
+          }
+
+          Chunk next = chunk.next.get();
+          if (filled < CHUNK_SIZE || next == null) {
+              break;
+          }
+          chunk = next;
+      }
+      appendHead = chunk;
+
+      if (items != null) {
+          list.addAll(items);
+      }
+  }
+
+  /**
+   * Returns the number of elements append() has stored since the list was
+   * created.  Reads the fill index of the last chunk without any lock.
+   *
+   * @return the sequence number of the next appended element
+   */
+  private long appendedCount()
+  {
+      Chunk tail = appendTail.get();
+      return tail.base + tail.filled.get();
+  }
+
+  /**
+   * Returns the number of appended elements moved into the list since it was
+   * created.  Must be called with the read lock held or under an optimistic
+   * stamp.
+   *
+   * @return the sequence number of the first element still buffered
+   */
+  private long drainedCount()
+  {
+      return appendHead.base + appendHead.drained;
+  }
+
+  /**
+   * Returns the number of appended elements not yet moved into the list.
+   * Must be called with the read lock held or under an optimistic stamp.
+   *
+   * @return the number of buffered elements
+   */
+  private int pendingCount()
+  {
+      return (int) Math.max(0, appendedCount() - drainedCount());
+  }
+
+  /**
+   * Returns the chunk holding the appended element with the given sequence
+   * number, which must be buffered.  Must be called with the read lock held
+   * or under an optimistic stamp.
+   *
+   * @param seq the sequence number of the element
+   * @return the chunk holding it
+   */
+  private Chunk chunkOf(long seq)
+  {
+      Chunk chunk = appendHead;
+      while (seq >= chunk.base + CHUNK_SIZE) {
+          chunk = chunk.next.get();
+      }
+      return chunk;
+  }
+
+  /**
+   * Copies the items from the given position to the end of the node or
+   * chunk holding it, or as many as fit in dest.  Must be called with the
+   * read lock held or under an optimistic stamp.
+   *
+   * @param pos the position of the first item to copy
+   * @param dest the array to copy into
+   * @return the number of items copied, 0 if pos is not less than the size
+   */
+  private int copyChunk(int pos, Object[] dest)
+  {
+      int listSize = list.size();
+      if (pos < listSize) {
+          return list.copyChunk(pos, dest);
+      }
+
+      long seq = drainedCount() + (pos - listSize);
+      long end = appendedCount();
+      if (seq >= end) {
+          return 0;
+      }
+      Chunk chunk = chunkOf(seq);
+      int from = (int) (seq - chunk.base);
+      int count = (int) Math.min(Math.min(end - seq, CHUNK_SIZE - from), dest.length);
+      for (int i = 0; i < count; ++i) {
+          dest[i] = chunk.items.get(from + i);
+      }
+      return count;
+  }
+
+  /**
+   * Returns the appended elements not yet moved into the list, in order.
+   * Must be called with the read lock held.
+   *
+   * @return a new list of the buffered elements
+   */
+  private List<E> pendingItems()
+  {
+      long end = appendedCount();
+      List<E> items = new ArrayList<>();
+      Chunk chunk = appendHead;
+      for (long seq = drainedCount(); seq < end; ++seq) {
+          if (seq == chunk.base + CHUNK_SIZE) {
+              chunk = chunk.next.get();
+          }
+          items.add(chunk.items.get((int) (seq - chunk.base)));
+      }
+      return items;
+  }
+
+  /**
+   * Adds the item at the end of the list.
+   *
+   * @param item the item to add
+   * @return true
+   * @throws NullPointerException if the item is equal to null
+   */
+  @Override
+  public boolean add(E item)
+  {
+      long stamp = lock.writeLock();
+      try {
+          drain();
+          return list.add(item);
+      }
+      finally {
+          lock.unlockWrite(stamp);
+      }
+  }
+
+  /**
+   * Inserts the item at the given position.
+   *
+   * @param pos the position at which to place the item
+   * @param item the item to add
+   * @throws IndexOutOfBoundsException if pos is less than 0 or greater than the size
+   * @throws NullPointerException if the item is equal to null
+   */
+  @Override
+  public void add(int pos, E item)
+  {
+      long stamp = lock.writeLock();
+      try {
+          drain();
+          list.add(pos, item);
+      }
+      finally {
+          lock.unlockWrite(stamp);
+      }
+  }
+
+  /**
+   * Adds all elements of the given collection at the end of the list as one
+   * atomic change.  The collection is copied before the lock is taken.
+   *
+   * @param c the elements to add
+   * @return true if the list changed
+   * @throws NullPointerException if the collection or any of its elements is null
+   */
+  @Override
+  public boolean addAll(Collection<? extends E> c)
+  {
+      List<E> items = new ArrayList<>(c);
+      long stamp = lock.writeLock();
+      try {
+          drain();
+          return list.addAll(items);
+      }
+      finally {
+          lock.unlockWrite(stamp);
+      }
+  }
+
+  /**
+   * Inserts all elements of the given collection at the given position as
+   * one atomic change.  The collection is copied before the lock is taken.
+   *
+   * @param pos the position at which to insert the elements
+   * @param c the elements to add
+   * @return true if the list changed
+   * @throws IndexOutOfBoundsException if pos is less than 0 or greater than the size
+   * @throws NullPointerException if the collection or any of its elements is null
+   */
+  @Override
+  public boolean addAll(int pos, Collection<? extends E> c)
+  {
+      List<E> items = new ArrayList<>(c);
+      long stamp = lock.writeLock();
+      try {
+          drain();
+          return list.addAll(pos, items);
+      }
+      finally {
+          lock.unlockWrite(stamp);
+      }
+  }
+
+  /**
+   * Removes the item at the given position.
+   *
+   * @param pos the position of the item
+   * @return the item that was removed
+   * @throws IndexOutOfBoundsException if pos is less than 0 or not less than the size
+   */
+  @Override
+  public E remove(int pos)
+  {
+      long stamp = lock.writeLock();
+      try {
+          drain();
+          return list.remove(pos);
+      }
+      finally {
+          lock.unlockWrite(stamp);
+      }
+  }
+
+  /**
+   * Removes the first element equal to the given object.
+   *
+   * @param o the object to remove
+   * @return true if an element was removed
+   */
+  @Override
+  public boolean remove(Object o)
+  {
+      long stamp = lock.writeLock();
+      try {
+          drain();
+          int pos = list.indexOf(o);
+          if (pos < 0) {
+              return false;
+          }
+          list.remove(pos);
+          return true;
+      }
+      finally {
+          lock.unlockWrite(stamp);
+      }
+  }
+
+  /**
+   * Removes every element of the list.
+   */
+  @Override
+  public void clear()
+  {
+      long stamp = lock.writeLock();
+      try {
+          drain();
+          list.clear();
+      }
+      finally {
+          lock.unlockWrite(stamp);
+      }
+  }
+
+  /**
+   * Removes every element that satisfies the given predicate as one atomic
+   * change, in a single pass over the nodes.  The predicate runs under the
+   * write lock, so it must not use the list.
+   *
+   * @param filter the predicate selecting the elements to remove
+   * @return true if any element was removed
+   * @throws NullPointerException if the filter is null
+   */
+  @Override
+  public boolean removeIf(Predicate<? super E> filter)
+  {
+      if (filter == null) throw new NullPointerException();
+
+      long stamp = lock.writeLock();
+      try {
+          drain();
+          return list.removeIf(filter);
+      }
+      finally {
+          lock.unlockWrite(stamp);
+      }
+  }
+
+  /**
+   * Removes every element contained in the given collection as one atomic
+   * change.
+   *
+   * @param c the elements to remove
+   * @return true if any element was removed
+   * @throws NullPointerException if the collection is null
+   */
+  @Override
+  public boolean removeAll(Collection<?> c)
+  {
+      if (c == null) throw new NullPointerException();
+      return removeIf(c::contains);
+  }
+
+  /**
+   * Removes every element not contained in the given collection as one
+   * atomic change.
+   *
+   * @param c the elements to keep
+   * @return true if any element was removed
+   * @throws NullPointerException if the collection is null
+   */
+  @Override
+  public boolean retainAll(Collection<?> c)
+  {
+      if (c == null) throw new NullPointerException();
+      return removeIf(item -> !c.contains(item));
+  }
+
+  /**
+   * Sorts the list by the given comparator as one atomic change.
+   *
+   * @param comp the comparator to sort by, or null for natural order
+   */
+  @Override
+  public void sort(Comparator<? super E> comp)
+  {
+      long stamp = lock.writeLock();
+      try {
+          drain();
+          list.sort(comp);
+      }
+      finally {
+          lock.unlockWrite(stamp);
+      }
+  }
+
+  /**
+   * Returns the position of the first element equal to the given object.
+   * The search holds the read lock, so it runs alongside other readers and
+   * replacements.
+   *
+   * @param o the object to look for
+   * @return the position of the first match, or -1 if there is none
+   */
+  @Override
+  public int indexOf(Object o)
+  {
+      long stamp = lock.readLock();
+      try {
+          int pos = list.indexOf(o);
+          if (pos >= 0 || pendingCount() == 0) {
+              return pos;
+          }
+
+          pos = pendingItems().indexOf(o);
+          return pos < 0 ? -1 : list.size() + pos;
+      }
+      finally {
+          lock.unlockRead(stamp);
+      }
+  }
+
+  /**
+   * Returns the position of the last element equal to the given object.
+   * The search holds the read lock, so it runs alongside other readers and
+   * replacements.
+   *
+   * @param o the object to look for
+   * @return the position of the last match, or -1 if there is none
+   */
+  @Override
+  public int lastIndexOf(Object o)
+  {
+      long stamp = lock.readLock();
+      try {
+          if (pendingCount() > 0) {
+              int pos = pendingItems().lastIndexOf(o);
+              if (pos >= 0) {
+                  return list.size() + pos;
+              }
+          }
+          return list.lastIndexOf(o);
+      }
+      finally {
+          lock.unlockRead(stamp);
+      }
+  }
+
+  /**
+   * Returns true if the list contains the given object.
+   *
+   * @param o the object to look for
+   * @return true if some element equals o
+   */
+  @Override
+  public boolean contains(Object o) { return indexOf(o) >= 0; }
+
+  /**
+   * Returns an array containing all elements of the list in order, read
+   * under the read lock.
+   *
+   * @return a new array holding the elements
+   */
+  @Override
+  public Object[] toArray()
+  {
+      long stamp = lock.readLock();
+      try {
+          if (pendingCount() == 0) {
+              return list.toArray();
+          }
+
+          List<E> items = new ArrayList<>(list);
+          items.addAll(pendingItems());
+          return items.toArray();
+      }
+      finally {
+          lock.unlockRead(stamp);
+      }
+  }
+
+  /**
+   * Returns an array containing all elements of the list in order, using the
+   * given array if it is large enough, read under the read lock.
+   *
+   * @param a the array to fill, if large enough
+   * @return the array holding the elements
+   * @throws ArrayStoreException if an element is not assignable to the array's component type
+   * @throws NullPointerException if the array is null
+   */
+  @Override
+  public <T> T[] toArray(T[] a)
+  {
+      long stamp = lock.readLock();
+      try {
+          if (pendingCount() == 0) {
+              return list.toArray(a);
+          }
+
+          List<E> items = new ArrayList<>(list);
+          items.addAll(pendingItems());
+          return items.toArray(a);
+      }
+      finally {
+          lock.unlockRead(stamp);
+      }
+  }
+
+  /**
+   * Performs the given action for each element, copying one node at a time
+   * and running the action outside any lock.  Like the iterator, this is
+   * weakly consistent.
+   *
+   * @param action the action to perform
+   * @throws NullPointerException if the action is null
+   */
+  @Override
+  public void forEach(Consumer<? super E> action)
+  {
+      if (action == null) throw new NullPointerException();
+
+      ChunkIterator iter = new ChunkIterator();
+      while (iter.hasNext()) {
+          action.accept(iter.next());
+      }
+  }
+
+  /**
+   * Returns a weakly consistent iterator that does not support remove();
+   * removeIf(), removeAll() and retainAll() remove in bulk instead.
+   *
+   * @return the iterator
+   */
+  @Override
+  public Iterator<E> iterator() { return new ChunkIterator(); }
+
+  /**
+   * Weakly consistent iterator that copies the rest of one node, or of one
+   * chunk of appended elements, at a time.
+   * The position of the next element is kept, so after a concurrent change
+   * the next chunk is read from that position in the changed list.
+   */
+  private class ChunkIterator implements Iterator<E>
+  {
+      /**
+       * Elements copied from the current node.
+       */
+      private final Object[] chunk = new Object[list.nodeSize()];
+
+      /**
+       * Number of elements in chunk.
+       */
+      private int count;
+
+      /**
+       * Index in chunk of the next element.
+       */
+      private int index;
+
+      /**
+       * Position in the list of the element after the last one in chunk.
+       */
+      private int pos;
+
+      @Override
+      public boolean hasNext()
+      {
+          if (index < count) {
+              return true;
+          }
+          fill();
+          return index < count;
+      }
+
+      @Override
+      public E next()
+      {
+          if (!hasNext()) throw new NoSuchElementException();
+
+          // Unchecked warning unavoidable.
+          @SuppressWarnings("unchecked")
+          E item = (E) chunk[index];
+          chunk[index++] = null;
+          return item;
+      }
+
+      /**
+       * Copies the elements from pos to the end of the node holding it.
+       */
+      private void fill()
+      {
+          index = 0;
+          for (int attempt = 0; attempt < OPTIMISTIC_ATTEMPTS; ++attempt) {
+              long stamp = lock.tryOptimisticRead();
+              if (stamp == 0) {
+                  break;
+              }
+              try {
+                  count = copyChunk(pos, chunk);
+                  if (lock.validate(stamp)) {
+                      pos += count;
+                      return;
+                  }
+              }
+              catch (RuntimeException e) {
+                  // A writer got in; read again.
+              }
+          }
+
+          long stamp = lock.readLock();
+          try {
+              count = copyChunk(pos, chunk);
+              pos += count;
+          }
+          finally {
+              lock.unlockRead(stamp);
+          }
+      }
+  }
+
+  /**
+   * Fixed-size block of slots that append() stores elements in.
+   */
+  private class Chunk
+  {
+      /**
+       * Sequence number of the element in slot 0.
+       */
+      final long base;
+
+      /**
+       * The stored elements; a slot stays null until its element is stored.
+       */
+      final AtomicReferenceArray<E> items = new AtomicReferenceArray<>(CHUNK_SIZE);
+
+      /**
+       * Number of slots that hold their elements.  The slot at this index may
+       * already be stored by an appender that has not yet moved the index.
+       */
+      final AtomicInteger filled = new AtomicInteger();
+
+      /**
+       * The next chunk, or null if none has been linked yet.
+       */
+      final AtomicReference<Chunk> next = new AtomicReference<>();
+
+      /**
+       * Number of elements moved into the list.  Only written under the write
+       * lock.
+       */
+      int drained;
+
+      /**
+       * Constructs an empty chunk.
+       *
+       * @param base the sequence number of the element in slot 0
+       */
+      Chunk(long base)
+      {
+          this.base = base;
+      }
+  }
+}
@@ -0,0 +1,176 @@
+package edu.iastate.cs228.hw3;
+
+import java.util.Arrays;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.DoubleStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Stout list of unboxed double values.  Each node stores its elements in a
+ * double[], and the rules for adding and removing elements are those of
+ * StoutList, so each node (except possibly the last one) is at least half
+ * full.  sort() orders the values as Double.compare() does, so -0.0 comes
+ * before 0.0 and NaN comes last.
+ */
+public class DoubleStoutList extends PrimitiveStoutList
+{
+  /**
+   * Constructs an empty list with the default node size.
+   */
+  public DoubleStoutList()
+  {
+    this(DEFAULT_NODESIZE);
+  }
+
+  /**
+   * Constructs an empty list with the given node size.
+   * @param nodeSize number of elements that may be stored in each node, must be
+   *   an even number
+   */
+  public DoubleStoutList(int nodeSize)
+  {
+    super(nodeSize);
+  }
+
+  @Override
+  Object newArray(int length) { return new double[length]; }
+
+  @Override
+  void appendElement(StringBuilder sb, Object data, int i) { sb.append(((double[]) data)[i]); }
+
+  @Override
+  void sortNode(Object data, int count) { Arrays.sort((double[]) data, 0, count); }
+
+  @Override
+  void reverseNode(Object data, int count)
+  {
+      double[] values = (double[]) data;
+      for (int i = 0, j = count - 1; i < j; ++i, --j) {
+          double temp = values[i];
+          values[i] = values[j];
+          values[j] = temp;
+      }
+  }
+
+  @Override
+  int compare(Object a, int i, Object b, int j) { return Double.compare(((double[]) a)[i], ((double[]) b)[j]); }
+
+  /**
+   * Adds the value at the end of the list.
+   *
+   * @param value the value to add
+   * @return true
+   */
+  public boolean add(double value)
+  {
+      Node node = append();
+      ((double[]) node.data)[offset] = value;
+      return true;
+  }
+
+  /**
+   * Inserts the value at pos, following the rules of StoutList.add(int, E).
+   *
+   * @param pos the position at which to place the value
+   * @param value the value to add
+   * @throws IndexOutOfBoundsException if pos is less than 0 or greater than the size
+   */
+  public void add(int pos, double value)
+  {
+      Node node = insert(pos);
+      ((double[]) node.data)[offset] = value;
+  }
+
+  /**
+   * Returns the value at pos.
+   *
+   * @param pos the position of the value
+   * @return the value at pos
+   * @throws IndexOutOfBoundsException if pos is less than 0 or not less than the size
+   */
+  public double getDouble(int pos)
+  {
+      checkIndex(pos);
+      Node node = find(pos);
+      return ((double[]) node.data)[offset];
+  }
+
+  /**
+   * Replaces the value at pos.
+   *
+   * @param pos the position of the value
+   * @param value the new value
+   * @return the value previously at pos
+   * @throws IndexOutOfBoundsException if pos is less than 0 or not less than the size
+   */
+  public double setDouble(int pos, double value)
+  {
+      checkIndex(pos);
+      double[] data = (double[]) find(pos).data;
+      double old = data[offset];
+      data[offset] = value;
+      return old;
+  }
+
+  /**
+   * Removes the value at pos, following the rules of StoutList.remove(int).
+   *
+   * @param pos the position of the value
+   * @return the value that was removed
+   * @throws IndexOutOfBoundsException if pos is less than 0 or not less than the size
+   */
+  public double removeDouble(int pos)
+  {
+      checkIndex(pos);
+      Node node = find(pos);
+      double removed = ((double[]) node.data)[offset];
+      remove(node, offset);
+      return removed;
+  }
+
+  /**
+   * Returns the values of the list in order.
+   *
+   * @return a new array holding the values
+   */
+  public double[] toArray()
+  {
+      return (double[]) copyTo(new double[size]);
+  }
+
+  /**
+   * Returns an iterator over the values that reads the node arrays directly.
+   *
+   * @return an unboxed iterator
+   */
+  public PrimitiveIterator.OfDouble iterator()
+  {
+      return new DoubleCursor();
+  }
+
+  /**
+   * Unboxed iterator over the values of this list.
+   */
+  private final class DoubleCursor extends Cursor implements PrimitiveIterator.OfDouble
+  {
+    @Override
+    public double nextDouble()
+    {
+        int index = advance();
+        return ((double[]) node.data)[index];
+    }
+  }
+
+  /**
+   * Returns a sequential stream of the values.
+   *
+   * @return an unboxed stream
+   */
+  public DoubleStream stream()
+  {
+      return StreamSupport.doubleStream(Spliterators.spliterator(iterator(), size,
+              Spliterator.ORDERED | Spliterator.SIZED), false);
+  }
+}
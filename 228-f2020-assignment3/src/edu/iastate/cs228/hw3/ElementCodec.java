@@ -0,0 +1,151 @@
+package edu.iastate.cs228.hw3;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Converts the elements of a StoutList to and from bytes for
+ * StoutList.writeTo() and StoutList.readFrom().  Codecs for the common
+ * element types are provided as constants.
+ *
+ * A codec with a fixed size writes every element in exactly that many bytes,
+ * and the stream stores no per-element length.  Otherwise each element is
+ * preceded by its length in the stream, and encodedSize() must return the
+ * number of bytes encode() will write.
+ */
+public interface ElementCodec<T>
+{
+  /**
+   * Codec for Integer elements, 4 bytes each.
+   */
+  ElementCodec<Integer> INTEGER = new ElementCodec<Integer>()
+  {
+    @Override
+    public int fixedSize() { return Integer.BYTES; }
+
+    @Override
+    public int encodedSize(Integer item) { return Integer.BYTES; }
+
+    @Override
+    public void encode(Integer item, ByteBuffer out) { out.putInt(item); }
+
+    @Override
+    public Integer decode(ByteBuffer in) { return in.getInt(); }
+  };
+
+  /**
+   * Codec for Long elements, 8 bytes each.
+   */
+  ElementCodec<Long> LONG = new ElementCodec<Long>()
+  {
+    @Override
+    public int fixedSize() { return Long.BYTES; }
+
+    @Override
+    public int encodedSize(Long item) { return Long.BYTES; }
+
+    @Override
+    public void encode(Long item, ByteBuffer out) { out.putLong(item); }
+
+    @Override
+    public Long decode(ByteBuffer in) { return in.getLong(); }
+  };
+
+  /**
+   * Codec for Double elements, 8 bytes each.
+   */
+  ElementCodec<Double> DOUBLE = new ElementCodec<Double>()
+  {
+    @Override
+    public int fixedSize() { return Double.BYTES; }
+
+    @Override
+    public int encodedSize(Double item) { return Double.BYTES; }
+
+    @Override
+    public void encode(Double item, ByteBuffer out) { out.putDouble(item); }
+
+    @Override
+    public Double decode(ByteBuffer in) { return in.getDouble(); }
+  };
+
+  /**
+   * Codec for String elements in UTF-8.  Unpaired surrogates are written as
+   * '?', as String.getBytes() does.
+   */
+  ElementCodec<String> STRING = new ElementCodec<String>()
+  {
+    @Override
+    public int encodedSize(String item)
+    {
+      int n = 0;
+      for (int i = 0, length = item.length(); i < length; ++i)
+      {
+        char c = item.charAt(i);
+        if (c < 0x80)
+        {
+          n += 1;
+        }
+        else if (c < 0x800)
+        {
+          n += 2;
+        }
+        else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(item.charAt(i + 1)))
+        {
+          n += 4;
+          ++i;
+        }
+        else if (Character.isSurrogate(c))
+        {
+          n += 1;
+        }
+        else
+        {
+          n += 3;
+        }
+      }
+      return n;
+    }
+
+    @Override
+    public void encode(String item, ByteBuffer out) { out.put(item.getBytes(StandardCharsets.UTF_8)); }
+
+    @Override
+    public String decode(ByteBuffer in)
+    {
+      byte[] bytes = new byte[in.remaining()];
+      in.get(bytes);
+      return new String(bytes, StandardCharsets.UTF_8);
+    }
+  };
+
+  /**
+   * Returns the number of bytes every element is encoded in, or -1 if the
+   * size varies from element to element.
+   * @return the fixed size, or -1
+   */
+  default int fixedSize() { return -1; }
+
+  /**
+   * Returns the number of bytes encode() writes for the given element.
+   * @param item the element, never null
+   * @return the encoded size
+   */
+  int encodedSize(T item);
+
+  /**
+   * Writes an element at the position of the buffer, which has at least
+   * encodedSize(item) bytes remaining.
+   * @param item the element, never null
+   * @param out the buffer to write to
+   */
+  void encode(T item, ByteBuffer out);
+
+  /**
+   * Reads an element from the position of the buffer.  The limit of the
+   * buffer is set at the end of the element, and decode() must read up to it.
+   * @param in the buffer to read from
+   * @return the element, never null
+   */
+  T decode(ByteBuffer in);
+}
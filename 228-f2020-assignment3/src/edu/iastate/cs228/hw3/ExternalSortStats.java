@@ -0,0 +1,173 @@
+package edu.iastate.cs228.hw3;
+
+/**
+ * Progress and throughput of an external sort started by
+ * StoutList.externalSort().  A snapshot is passed to the progress consumer
+ * after each run is written, after each intermediate merge and periodically
+ * during the final merge, and the last one, in phase DONE, is returned.
+ *
+ * Every element is written once when the runs are formed and once more by
+ * each merge pass, so the total work is known as soon as the sort starts and
+ * progress() is the fraction of it done so far.
+ */
+public final class ExternalSortStats
+{
+  /**
+   * The stages of an external sort.
+   */
+  public enum Phase
+  {
+    /**
+     * Sorting ranges of nodes in memory and writing them to run files.
+     */
+    RUNS,
+
+    /**
+     * Merging runs, either into longer runs or back into the list.
+     */
+    MERGE,
+
+    /**
+     * Finished; the list holds the sorted elements.
+     */
+    DONE
+  }
+
+  /**
+   * The stage the sort is in.
+   */
+  private final Phase phase;
+
+  /**
+   * Number of elements being sorted.
+   */
+  private final long elements;
+
+  /**
+   * Number of runs written when the runs were formed.
+   */
+  private final int runs;
+
+  /**
+   * Number of merge passes, including the final one into the list.
+   */
+  private final int mergePasses;
+
+  /**
+   * Number of element writes done so far, to runs or to the list.
+   */
+  private final long elementsProcessed;
+
+  /**
+   * Number of element writes the whole sort takes.
+   */
+  private final long totalWork;
+
+  /**
+   * Number of bytes written to run files.
+   */
+  private final long bytesWritten;
+
+  /**
+   * Number of bytes read from run files.
+   */
+  private final long bytesRead;
+
+  /**
+   * Nanoseconds since the sort started.
+   */
+  private final long elapsedNanos;
+
+  /**
+   * Constructs a snapshot.
+   *
+   * @param phase the stage the sort is in
+   * @param elements number of elements being sorted
+   * @param runs number of runs formed
+   * @param mergePasses number of merge passes
+   * @param elementsProcessed number of element writes done so far
+   * @param totalWork number of element writes the sort takes
+   * @param bytesWritten number of bytes written to run files
+   * @param bytesRead number of bytes read from run files
+   * @param elapsedNanos nanoseconds since the sort started
+   */
+  ExternalSortStats(Phase phase, long elements, int runs, int mergePasses, long elementsProcessed, long totalWork,
+          long bytesWritten, long bytesRead, long elapsedNanos)
+  {
+      this.phase = phase;
+      this.elements = elements;
+      this.runs = runs;
+      this.mergePasses = mergePasses;
+      this.elementsProcessed = elementsProcessed;
+      this.totalWork = totalWork;
+      this.bytesWritten = bytesWritten;
+      this.bytesRead = bytesRead;
+      this.elapsedNanos = elapsedNanos;
+  }
+
+  /**
+   * @return the stage the sort is in
+   */
+  public Phase phase() { return phase; }
+
+  /**
+   * @return the number of elements being sorted
+   */
+  public long elements() { return elements; }
+
+  /**
+   * @return the number of runs the elements are split into
+   */
+  public int runs() { return runs; }
+
+  /**
+   * @return the number of merge passes, including the final one into the list
+   */
+  public int mergePasses() { return mergePasses; }
+
+  /**
+   * @return the number of element writes done so far, to runs or to the list
+   */
+  public long elementsProcessed() { return elementsProcessed; }
+
+  /**
+   * @return the fraction of the sort done, from 0 to 1
+   */
+  public double progress() { return totalWork == 0 ? 1 : (double) elementsProcessed / totalWork; }
+
+  /**
+   * @return the number of bytes written to run files
+   */
+  public long bytesWritten() { return bytesWritten; }
+
+  /**
+   * @return the number of bytes read from run files
+   */
+  public long bytesRead() { return bytesRead; }
+
+  /**
+   * @return the nanoseconds since the sort started
+   */
+  public long elapsedNanos() { return elapsedNanos; }
+
+  /**
+   * @return the element writes per second so far, or 0 if no time has passed
+   */
+  public double elementsPerSecond() { return elapsedNanos == 0 ? 0 : elementsProcessed * 1e9 / elapsedNanos; }
+
+  /**
+   * @return the bytes written and read per second so far, or 0 if no time has passed
+   */
+  public double bytesPerSecond() { return elapsedNanos == 0 ? 0 : (bytesWritten + bytesRead) * 1e9 / elapsedNanos; }
+
+  @Override
+  public String toString()
+  {
+      return "ExternalSortStats[phase=" + phase + ", elements=" + elements + ", runs=" + runs
+              + ", mergePasses=" + mergePasses + ", progress=" + String.format("%.3f", progress())
+              + ", bytesWritten=" + bytesWritten + ", bytesRead=" + bytesRead
+              + ", elapsedMillis=" + elapsedNanos / 1000000
+              + ", elementsPerSecond=" + String.format("%.0f", elementsPerSecond())
+              + ", bytesPerSecond=" + String.format("%.0f", bytesPerSecond()) + "]";
+  }
+}
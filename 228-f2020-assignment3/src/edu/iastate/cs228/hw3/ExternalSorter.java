@@ -0,0 +1,733 @@
+package edu.iastate.cs228.hw3;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * External merge sort over the nodes of a StoutList, used by externalSort().
+ * The runs of a pass are written one after another to a single temporary
+ * file and read back with positional reads, so at most two files are open
+ * at a time however many runs there are.
+ */
+final class ExternalSorter<E extends Comparable<? super E>>
+{
+  /**
+   * Number of runs merged at a time.
+   */
+  static final int MERGE_FAN_IN = 64;
+
+  /**
+   * Number of elements moved into the list between progress reports during
+   * the final merge.
+   */
+  static final int PROGRESS_INTERVAL = 1 << 16;
+
+  /**
+   * The list being sorted.
+   */
+  private final StoutList<E> list;
+
+  /**
+   * The comparator to sort by.
+   */
+  private final Comparator<? super E> comp;
+
+  /**
+   * The codec for the elements.
+   */
+  private final ElementCodec<E> codec;
+
+  /**
+   * The directory to create run files in.
+   */
+  private final Path directory;
+
+  /**
+   * The number of elements sorted in memory at a time.
+   */
+  private final int runSize;
+
+  /**
+   * Receives progress reports, or null.
+   */
+  private final Consumer<? super ExternalSortStats> progress;
+
+  /**
+   * System.nanoTime() when the sort started.
+   */
+  private final long startTime = System.nanoTime();
+
+  /**
+   * Number of elements being sorted.
+   */
+  private final int elements;
+
+  /**
+   * Number of element writes the whole sort takes.
+   */
+  private final long totalWork;
+
+  /**
+   * Number of runs formed.
+   */
+  private int runs;
+
+  /**
+   * Number of merge passes started.
+   */
+  private int mergePasses;
+
+  /**
+   * Number of element writes done so far.
+   */
+  long processed;
+
+  /**
+   * Number of bytes written to run files.
+   */
+  private long bytesWritten;
+
+  /**
+   * Number of bytes read from run files.
+   */
+  private long bytesRead;
+
+  /**
+   * The run files open, closed and deleted if the sort fails.
+   */
+  private final List<RunFile> files = new ArrayList<>();
+
+  /**
+   * The node the final merge is filling.
+   */
+  private StoutList<E>.Node last;
+
+  /**
+   * Number of elements put into the list.
+   */
+  int emitted;
+
+  /**
+   * The runs whose elements are not in the list, read again from their
+   * start if the sort fails: those formed so far while runs are formed,
+   * then the input of the current pass, and null once the final merge is
+   * done.
+   */
+  private List<Run> pending;
+
+  /**
+   * The first node of the detached chain not yet copied into runs, or null
+   * once every node has been.
+   */
+  private StoutList<E>.Node chain;
+
+  /**
+   * The offset in chain of the next element to copy.
+   */
+  private int offset;
+
+  /**
+   * The elements copied out of the chain that are not yet in a run.
+   */
+  private E[] buffer;
+
+  /**
+   * Number of elements at the start of buffer.
+   */
+  private int buffered;
+
+  /**
+   * Constructs a sorter for the current contents of a list.
+   *
+   * @param list the list to sort
+   * @param comp the comparator to sort by
+   * @param codec the codec for the elements
+   * @param directory the directory to create run files in
+   * @param runSize the number of elements sorted in memory at a time
+   * @param progress receives progress reports, or null
+   */
+  ExternalSorter(StoutList<E> list, Comparator<? super E> comp, ElementCodec<E> codec, Path directory, int runSize,
+          Consumer<? super ExternalSortStats> progress)
+  {
+      this.list = list;
+      this.elements = list.size();
+      this.comp = comp;
+      this.codec = codec;
+      this.directory = directory;
+      this.runSize = runSize;
+      this.progress = progress;
+
+      long count = (elements + (long) runSize - 1) / runSize;
+      int passes = 0;
+      while (count > 1) {
+          count = (count + MERGE_FAN_IN - 1) / MERGE_FAN_IN;
+          ++passes;
+      }
+      totalWork = (long) elements * (1 + passes);
+  }
+
+  /**
+   * Sorts the nodes of the list, which has more than runSize elements, into
+   * new nodes appended to it.  The caller has detached the nodes and emptied
+   * the list, and sets its size to emitted and fixes its index afterwards,
+   * whether or not the sort succeeds.  If the sort fails, the elements are
+   * put back into the list unsorted before the exception is thrown.
+   *
+   * @param first the first detached node, whose chain ends at the list's tail
+   * @return the final progress report
+   * @throws IOException if a run file cannot be created, written or read
+   */
+  ExternalSortStats sort(StoutList<E>.Node first) throws IOException
+  {
+      try {
+          List<Run> current = formRuns(first);
+          while (current.size() > MERGE_FAN_IN) {
+              current = mergePass(current);
+          }
+          ++mergePasses;
+          merge(current, null);
+          pending = null;
+          closeAll();
+      }
+      catch (IOException | RuntimeException e) {
+          try {
+              restore();
+          }
+          catch (IOException | RuntimeException suppressed) {
+              e.addSuppressed(suppressed);
+          }
+          for (RunFile file : files) {
+              try {
+                  file.channel.close();
+              }
+              catch (IOException suppressed) {
+                  e.addSuppressed(suppressed);
+              }
+          }
+          files.clear();
+          throw e;
+      }
+
+      return report(ExternalSortStats.Phase.DONE);
+  }
+
+  /**
+   * Cuts the detached chain of nodes into runs of runSize elements, each
+   * sorted in memory and written to one run file.  Nodes are unlinked and
+   * dropped as soon as their elements are copied out, so the merge that
+   * follows holds only the nodes it builds.
+   *
+   * @param first the first node of the chain, which ends at tail
+   * @return the runs, in list order
+   * @throws IOException if the run file cannot be created or written
+   */
+  private List<Run> formRuns(StoutList<E>.Node first) throws IOException
+  {
+      chain = first;
+      pending = new ArrayList<>();
+      RunFile file = new RunFile();
+      // Unchecked warning unavoidable.
+      @SuppressWarnings("unchecked")
+      E[] array = (E[]) new Comparable<?>[Math.min(runSize, elements)];
+      buffer = array;
+      while (chain != list.tail) {
+          list.spillCold(chain);
+          while (offset < chain.count) {
+              // Counted only once read, in case reading a spilled node fails.
+              buffer[buffered] = chain.get(offset);
+              ++buffered;
+              ++offset;
+              if (buffered == buffer.length) {
+                  writeRun(file);
+              }
+          }
+          StoutList<E>.Node next = chain.next;
+          drop(chain);
+          chain = next;
+          offset = 0;
+      }
+      chain = null;
+      if (buffered > 0) {
+          writeRun(file);
+      }
+      buffer = null;
+      file.flush();
+      return pending;
+  }
+
+  /**
+   * Drops a node of the detached chain whose elements have been copied out,
+   * freeing its record in the spill file.  Every link is cleared, so neither
+   * the tree nor the chain keeps the node, or the nodes it pointed to, alive.
+   *
+   * @param node the node to drop
+   */
+  private void drop(StoutList<E>.Node node)
+  {
+      list.freeSpilled(node);
+      node.data = null;
+      node.spillState = null;
+      node.next = null;
+      node.previous = null;
+      node.parent = null;
+      node.left = null;
+      node.right = null;
+  }
+
+  /**
+   * Sorts the buffered elements and appends them to a run file as a new
+   * pending run, which is written out before the buffer is cleared, so that
+   * a failure leaves the elements either in the buffer or in a run that can
+   * be read.
+   *
+   * @param file the file to write to
+   * @throws IOException if writing to the file fails
+   */
+  private void writeRun(RunFile file) throws IOException
+  {
+      Arrays.sort(buffer, 0, buffered, comp);
+      Run run = new Run(file);
+      for (int i = 0; i < buffered; ++i) {
+          file.write(buffer[i]);
+      }
+      file.sync();
+      run.finish(buffered);
+      pending.add(run);
+      Arrays.fill(buffer, 0, buffered, null);
+      processed += buffered;
+      buffered = 0;
+      ++runs;
+      report(ExternalSortStats.Phase.RUNS);
+  }
+
+  /**
+   * Merges groups of MERGE_FAN_IN consecutive runs into longer runs in a
+   * new file, then closes the file the runs were in.
+   *
+   * @param input the runs to merge, in list order
+   * @return the merged runs, in list order
+   * @throws IOException if a run file cannot be created, written or read
+   */
+  private List<Run> mergePass(List<Run> input) throws IOException
+  {
+      ++mergePasses;
+      RunFile file = new RunFile();
+      List<Run> result = new ArrayList<>();
+      for (int i = 0; i < input.size(); i += MERGE_FAN_IN) {
+          Run run = new Run(file);
+          run.finish(merge(input.subList(i, Math.min(i + MERGE_FAN_IN, input.size())), file));
+          result.add(run);
+          report(ExternalSortStats.Phase.MERGE);
+      }
+      file.flush();
+      pending = result;
+      input.get(0).file.close();
+      return result;
+  }
+
+  /**
+   * Merges runs into a run file, or into new full nodes at the end of the
+   * list.  Equal elements are taken from the earliest run, which keeps the
+   * sort stable.
+   *
+   * @param input the runs to merge, in list order
+   * @param out the file to write the merged run to, or null for the list
+   * @return the number of elements merged
+   * @throws IOException if a run file cannot be written or read
+   */
+  private int merge(List<Run> input, RunFile out) throws IOException
+  {
+      PriorityQueue<Run> queue = new PriorityQueue<>(input.size(), (a, b) -> {
+          int c = comp.compare(a.head, b.head);
+          return c != 0 ? c : Integer.compare(a.index, b.index);
+      });
+      for (int i = 0; i < input.size(); ++i) {
+          Run run = input.get(i);
+          run.index = i;
+          if (run.advance()) {
+              queue.add(run);
+          }
+      }
+
+      int merged = 0;
+      while (!queue.isEmpty()) {
+          Run run = queue.poll();
+          if (out != null) {
+              out.write(run.head);
+          }
+          else {
+              emit(run.head);
+          }
+          ++merged;
+          ++processed;
+          if (run.advance()) {
+              queue.add(run);
+          }
+      }
+      return merged;
+  }
+
+  /**
+   * Appends an element to the list during the final merge, in a new node
+   * once the last one is full.
+   *
+   * @param item the element
+   */
+  private void emit(E item)
+  {
+      append(item);
+      if (processed % PROGRESS_INTERVAL == PROGRESS_INTERVAL - 1) {
+          report(ExternalSortStats.Phase.MERGE);
+      }
+  }
+
+  /**
+   * Appends an element to the list, in a new node once the last one is
+   * full.
+   *
+   * @param item the element
+   */
+  private void append(E item)
+  {
+      if (last == null || last.count == last.capacity) {
+          last = list.linkNewLast();
+      }
+      last.data[last.count++] = item;
+      ++emitted;
+  }
+
+  /**
+   * Puts every element back into the list after the sort has failed,
+   * unless the final merge is done.  The nodes the final merge built so
+   * far are dropped, and the list gets the pending runs, read again from
+   * their start, then the buffered elements, then the rest of the chain.
+   *
+   * @throws IOException if a run file cannot be read
+   */
+  private void restore() throws IOException
+  {
+      if (pending == null && chain == null) {
+          return;
+      }
+      list.clear();
+      last = null;
+      emitted = 0;
+
+      if (pending != null) {
+          for (Run run : pending) {
+              run.rewind();
+              while (run.advance()) {
+                  append(run.head);
+              }
+          }
+      }
+      for (int i = 0; i < buffered; ++i) {
+          append(buffer[i]);
+          buffer[i] = null;
+      }
+      buffered = 0;
+      while (chain != null && chain != list.tail) {
+          list.spillCold(chain);
+          for (; offset < chain.count; ++offset) {
+              append(chain.get(offset));
+          }
+          StoutList<E>.Node next = chain.next;
+          drop(chain);
+          chain = next;
+          offset = 0;
+      }
+      chain = null;
+  }
+
+  /**
+   * Closes and deletes the run files still open.
+   *
+   * @throws IOException if closing a file fails
+   */
+  private void closeAll() throws IOException
+  {
+      while (!files.isEmpty()) {
+          files.get(files.size() - 1).close();
+      }
+  }
+
+  /**
+   * Passes a progress report to the consumer, if any.
+   *
+   * @param phase the stage the sort is in
+   * @return the report
+   */
+  ExternalSortStats report(ExternalSortStats.Phase phase)
+  {
+      ExternalSortStats stats = new ExternalSortStats(phase, elements, runs, mergePasses, processed, totalWork,
+              bytesWritten, bytesRead, System.nanoTime() - startTime);
+      if (progress != null) {
+          progress.accept(stats);
+      }
+      return stats;
+  }
+
+  /**
+   * A temporary file that runs are appended to, deleted when closed.
+   * Elements are encoded as StoutList.writeTo() encodes them.
+   */
+  private final class RunFile
+  {
+      /**
+       * The open file.
+       */
+      final FileChannel channel;
+
+      /**
+       * Number of bytes appended so far, including those still buffered.
+       */
+      long end;
+
+      /**
+       * Buffer elements are encoded into before being written.
+       */
+      private ByteBuffer buf = ByteBuffer.allocate(StoutList.STREAM_BUFFER_SIZE);
+
+      /**
+       * Creates and opens a new run file in the directory.
+       *
+       * @throws IOException if the file cannot be created or opened
+       */
+      RunFile() throws IOException
+      {
+          Path file = Files.createTempFile(directory, "stout", ".run");
+          try {
+              channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                      StandardOpenOption.DELETE_ON_CLOSE);
+          }
+          catch (IOException e) {
+              Files.deleteIfExists(file);
+              throw e;
+          }
+          files.add(this);
+      }
+
+      /**
+       * Appends an element.
+       *
+       * @param item the element
+       * @throws IOException if writing to the file fails
+       * @throws IllegalStateException if the codec writes a different
+       *   number of bytes than its encodedSize()
+       */
+      void write(E item) throws IOException
+      {
+          int fixed = codec.fixedSize();
+          int length = fixed >= 0 ? fixed : codec.encodedSize(item);
+          int n = fixed >= 0 ? length : Integer.BYTES + length;
+          buf = StoutList.reserve(channel, buf, n);
+          if (fixed < 0) {
+              buf.putInt(length);
+          }
+          int start = buf.position();
+          codec.encode(item, buf);
+          if (buf.position() - start != length) throw new IllegalStateException();
+          end += n;
+          bytesWritten += n;
+      }
+
+      /**
+       * Writes out the buffered elements, so the runs written so far can be
+       * read even if a later write fails.
+       *
+       * @throws IOException if writing to the file fails
+       */
+      void sync() throws IOException
+      {
+          StoutList.flush(channel, buf);
+      }
+
+      /**
+       * Writes out the buffered elements so the runs can be read, and
+       * releases the buffer.
+       *
+       * @throws IOException if writing to the file fails
+       */
+      void flush() throws IOException
+      {
+          StoutList.flush(channel, buf);
+          buf = null;
+      }
+
+      /**
+       * Closes and deletes the file.
+       *
+       * @throws IOException if closing the file fails
+       */
+      void close() throws IOException
+      {
+          files.remove(this);
+          channel.close();
+      }
+  }
+
+  /**
+   * A run in a run file, read through its own buffer from the position
+   * after the elements already taken.
+   */
+  private final class Run
+  {
+      /**
+       * The file holding the run.
+       */
+      final RunFile file;
+
+      /**
+       * The position in the file where the run starts.
+       */
+      private final long start;
+
+      /**
+       * The position in the file of the next byte to read.
+       */
+      private long position;
+
+      /**
+       * The position in the file where the run ends.
+       */
+      private long end;
+
+      /**
+       * Number of elements in the run.
+       */
+      private int size;
+
+      /**
+       * Number of elements not yet taken.
+       */
+      private int count;
+
+      /**
+       * Buffer the run is read through, allocated on the first read and
+       * no larger than the run unless an element needs more.
+       */
+      private ByteBuffer buf;
+
+      /**
+       * The element taken last.
+       */
+      E head;
+
+      /**
+       * Position of the run among those being merged.
+       */
+      int index;
+
+      /**
+       * Starts a run at the end of a run file.
+       *
+       * @param file the file the run is written to
+       */
+      Run(RunFile file)
+      {
+          this.file = file;
+          this.start = file.end;
+          this.position = start;
+      }
+
+      /**
+       * Ends the run at the end of its file.
+       *
+       * @param size the number of elements written to the run
+       */
+      void finish(int size)
+      {
+          this.size = size;
+          this.count = size;
+          this.end = file.end;
+      }
+
+      /**
+       * Goes back to the first element of the run.
+       */
+      void rewind()
+      {
+          position = start;
+          count = size;
+          buf = null;
+          head = null;
+      }
+
+      /**
+       * Takes the next element into head, releasing the buffer at the end
+       * of the run.
+       *
+       * @return false if the run is exhausted
+       * @throws IOException if reading from the file fails
+       * @throws EOFException if the run ends early
+       * @throws StreamCorruptedException if an element length is negative
+       */
+      boolean advance() throws IOException
+      {
+          if (count == 0) {
+              head = null;
+              buf = null;
+              return false;
+          }
+          if (buf == null) {
+              buf = ByteBuffer.allocate((int) Math.min(StoutList.STREAM_BUFFER_SIZE, end - position)).flip();
+          }
+
+          int length = codec.fixedSize();
+          if (length < 0) {
+              need(Integer.BYTES);
+              length = buf.getInt();
+              if (length < 0) throw new StreamCorruptedException();
+          }
+          need(length);
+          int limit = buf.limit();
+          int end = buf.position() + length;
+          buf.limit(end);
+          head = codec.decode(buf);
+          buf.limit(limit).position(end);
+          --count;
+          return true;
+      }
+
+      /**
+       * Reads from the file until the buffer holds at least n unread bytes,
+       * without reading past the end of the run.
+       *
+       * @param n the number of bytes needed
+       * @throws IOException if reading from the file fails
+       * @throws EOFException if the run ends first
+       */
+      private void need(int n) throws IOException
+      {
+          if (buf.remaining() >= n) {
+              return;
+          }
+          if (buf.capacity() < n) {
+              buf = ByteBuffer.allocate(n).put(buf);
+          }
+          else {
+              buf.compact();
+          }
+          while (buf.position() < n) {
+              buf.limit((int) Math.min(buf.capacity(), buf.position() + end - position));
+              int read = file.channel.read(buf, position);
+              if (read <= 0) throw new EOFException();
+              position += read;
+              bytesRead += read;
+          }
+          buf.flip();
+      }
+  }
+}
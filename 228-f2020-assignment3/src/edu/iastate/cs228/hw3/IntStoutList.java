@@ -0,0 +1,175 @@
+package edu.iastate.cs228.hw3;
+
+import java.util.Arrays;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Stout list of unboxed int values.  Each node stores its elements in an
+ * int[], and the rules for adding and removing elements are those of
+ * StoutList, so each node (except possibly the last one) is at least half
+ * full.
+ */
+public class IntStoutList extends PrimitiveStoutList
+{
+  /**
+   * Constructs an empty list with the default node size.
+   */
+  public IntStoutList()
+  {
+    this(DEFAULT_NODESIZE);
+  }
+
+  /**
+   * Constructs an empty list with the given node size.
+   * @param nodeSize number of elements that may be stored in each node, must be
+   *   an even number
+   */
+  public IntStoutList(int nodeSize)
+  {
+    super(nodeSize);
+  }
+
+  @Override
+  Object newArray(int length) { return new int[length]; }
+
+  @Override
+  void appendElement(StringBuilder sb, Object data, int i) { sb.append(((int[]) data)[i]); }
+
+  @Override
+  void sortNode(Object data, int count) { Arrays.sort((int[]) data, 0, count); }
+
+  @Override
+  void reverseNode(Object data, int count)
+  {
+      int[] values = (int[]) data;
+      for (int i = 0, j = count - 1; i < j; ++i, --j) {
+          int temp = values[i];
+          values[i] = values[j];
+          values[j] = temp;
+      }
+  }
+
+  @Override
+  int compare(Object a, int i, Object b, int j) { return Integer.compare(((int[]) a)[i], ((int[]) b)[j]); }
+
+  /**
+   * Adds the value at the end of the list.
+   *
+   * @param value the value to add
+   * @return true
+   */
+  public boolean add(int value)
+  {
+      Node node = append();
+      ((int[]) node.data)[offset] = value;
+      return true;
+  }
+
+  /**
+   * Inserts the value at pos, following the rules of StoutList.add(int, E).
+   *
+   * @param pos the position at which to place the value
+   * @param value the value to add
+   * @throws IndexOutOfBoundsException if pos is less than 0 or greater than the size
+   */
+  public void add(int pos, int value)
+  {
+      Node node = insert(pos);
+      ((int[]) node.data)[offset] = value;
+  }
+
+  /**
+   * Returns the value at pos.
+   *
+   * @param pos the position of the value
+   * @return the value at pos
+   * @throws IndexOutOfBoundsException if pos is less than 0 or not less than the size
+   */
+  public int getInt(int pos)
+  {
+      checkIndex(pos);
+      Node node = find(pos);
+      return ((int[]) node.data)[offset];
+  }
+
+  /**
+   * Replaces the value at pos.
+   *
+   * @param pos the position of the value
+   * @param value the new value
+   * @return the value previously at pos
+   * @throws IndexOutOfBoundsException if pos is less than 0 or not less than the size
+   */
+  public int setInt(int pos, int value)
+  {
+      checkIndex(pos);
+      int[] data = (int[]) find(pos).data;
+      int old = data[offset];
+      data[offset] = value;
+      return old;
+  }
+
+  /**
+   * Removes the value at pos, following the rules of StoutList.remove(int).
+   *
+   * @param pos the position of the value
+   * @return the value that was removed
+   * @throws IndexOutOfBoundsException if pos is less than 0 or not less than the size
+   */
+  public int removeInt(int pos)
+  {
+      checkIndex(pos);
+      Node node = find(pos);
+      int removed = ((int[]) node.data)[offset];
+      remove(node, offset);
+      return removed;
+  }
+
+  /**
+   * Returns the values of the list in order.
+   *
+   * @return a new array holding the values
+   */
+  public int[] toArray()
+  {
+      return (int[]) copyTo(new int[size]);
+  }
+
+  /**
+   * Returns an iterator over the values that reads the node arrays directly.
+   *
+   * @return an unboxed iterator
+   */
+  public PrimitiveIterator.OfInt iterator()
+  {
+      return new IntCursor();
+  }
+
+  /**
+   * Unboxed iterator over the values of this list.
+   */
+  private final class IntCursor extends Cursor implements PrimitiveIterator.OfInt
+  {
+    @Override
+    public int nextInt()
+    {
+        int index = advance();
+        return ((int[]) node.data)[index];
+    }
+  }
+
+  /**
+   * Returns a sequential stream of the values.
+   *
+   * @return an unboxed stream
+   */
+  public IntStream stream()
+  {
+      return StreamSupport.intStream(Spliterators.spliterator(iterator(), size,
+              Spliterator.ORDERED | Spliterator.SIZED), false);
+  }
+}
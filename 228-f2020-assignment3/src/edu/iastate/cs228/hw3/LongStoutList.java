@@ -0,0 +1,175 @@
+package edu.iastate.cs228.hw3;
+
+import java.util.Arrays;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Stout list of unboxed long values.  Each node stores its elements in a
+ * long[], and the rules for adding and removing elements are those of
+ * StoutList, so each node (except possibly the last one) is at least half
+ * full.
+ */
+public class LongStoutList extends PrimitiveStoutList
+{
+  /**
+   * Constructs an empty list with the default node size.
+   */
+  public LongStoutList()
+  {
+    this(DEFAULT_NODESIZE);
+  }
+
+  /**
+   * Constructs an empty list with the given node size.
+   * @param nodeSize number of elements that may be stored in each node, must be
+   *   an even number
+   */
+  public LongStoutList(int nodeSize)
+  {
+    super(nodeSize);
+  }
+
+  @Override
+  Object newArray(int length) { return new long[length]; }
+
+  @Override
+  void appendElement(StringBuilder sb, Object data, int i) { sb.append(((long[]) data)[i]); }
+
+  @Override
+  void sortNode(Object data, int count) { Arrays.sort((long[]) data, 0, count); }
+
+  @Override
+  void reverseNode(Object data, int count)
+  {
+      long[] values = (long[]) data;
+      for (int i = 0, j = count - 1; i < j; ++i, --j) {
+          long temp = values[i];
+          values[i] = values[j];
+          values[j] = temp;
+      }
+  }
+
+  @Override
+  int compare(Object a, int i, Object b, int j) { return Long.compare(((long[]) a)[i], ((long[]) b)[j]); }
+
+  /**
+   * Adds the value at the end of the list.
+   *
+   * @param value the value to add
+   * @return true
+   */
+  public boolean add(long value)
+  {
+      Node node = append();
+      ((long[]) node.data)[offset] = value;
+      return true;
+  }
+
+  /**
+   * Inserts the value at pos, following the rules of StoutList.add(int, E).
+   *
+   * @param pos the position at which to place the value
+   * @param value the value to add
+   * @throws IndexOutOfBoundsException if pos is less than 0 or greater than the size
+   */
+  public void add(int pos, long value)
+  {
+      Node node = insert(pos);
+      ((long[]) node.data)[offset] = value;
+  }
+
+  /**
+   * Returns the value at pos.
+   *
+   * @param pos the position of the value
+   * @return the value at pos
+   * @throws IndexOutOfBoundsException if pos is less than 0 or not less than the size
+   */
+  public long getLong(int pos)
+  {
+      checkIndex(pos);
+      Node node = find(pos);
+      return ((long[]) node.data)[offset];
+  }
+
+  /**
+   * Replaces the value at pos.
+   *
+   * @param pos the position of the value
+   * @param value the new value
+   * @return the value previously at pos
+   * @throws IndexOutOfBoundsException if pos is less than 0 or not less than the size
+   */
+  public long setLong(int pos, long value)
+  {
+      checkIndex(pos);
+      long[] data = (long[]) find(pos).data;
+      long old = data[offset];
+      data[offset] = value;
+      return old;
+  }
+
+  /**
+   * Removes the value at pos, following the rules of StoutList.remove(int).
+   *
+   * @param pos the position of the value
+   * @return the value that was removed
+   * @throws IndexOutOfBoundsException if pos is less than 0 or not less than the size
+   */
+  public long removeLong(int pos)
+  {
+      checkIndex(pos);
+      Node node = find(pos);
+      long removed = ((long[]) node.data)[offset];
+      remove(node, offset);
+      return removed;
+  }
+
+  /**
+   * Returns the values of the list in order.
+   *
+   * @return a new array holding the values
+   */
+  public long[] toArray()
+  {
+      return (long[]) copyTo(new long[size]);
+  }
+
+  /**
+   * Returns an iterator over the values that reads the node arrays directly.
+   *
+   * @return an unboxed iterator
+   */
+  public PrimitiveIterator.OfLong iterator()
+  {
+      return new LongCursor();
+  }
+
+  /**
+   * Unboxed iterator over the values of this list.
+   */
+  private final class LongCursor extends Cursor implements PrimitiveIterator.OfLong
+  {
+    @Override
+    public long nextLong()
+    {
+        int index = advance();
+        return ((long[]) node.data)[index];
+    }
+  }
+
+  /**
+   * Returns a sequential stream of the values.
+   *
+   * @return an unboxed stream
+   */
+  public LongStream stream()
+  {
+      return StreamSupport.longStream(Spliterators.spliterator(iterator(), size,
+              Spliterator.ORDERED | Spliterator.SIZED), false);
+  }
+}
@@ -0,0 +1,127 @@
+package edu.iastate.cs228.hw3;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Stout list of int values stored off the heap in a memory-mapped file.
+ * The nodes and their elements live in the file, so the list can be larger
+ * than the heap and reopens without being rebuilt; see MappedStoutList for
+ * the layout.  The rules for adding and removing elements are those of
+ * StoutList, so each node (except possibly the last one) is at least half
+ * full.
+ */
+public class MappedIntStoutList extends MappedStoutList
+{
+  /**
+   * Opens the list stored in the given file, or creates an empty one with the
+   * given node size if the file does not exist or is empty.
+   * @param file the file to store the list in
+   * @param nodeSize number of elements that may be stored in each node, must be
+   *   an even number
+   * @throws IOException if the file cannot be opened or mapped, or holds
+   *   something other than a list of int values
+   * @throws IllegalArgumentException if the node size is invalid or differs
+   *   from the one stored in the file
+   */
+  public MappedIntStoutList(Path file, int nodeSize) throws IOException
+  {
+    super(file, nodeSize, Kind.INT);
+  }
+
+  /**
+   * Adds the value at the end of the list.
+   *
+   * @param value the value to add
+   * @return true
+   */
+  public boolean add(int value)
+  {
+      addBits(value);
+      return true;
+  }
+
+  /**
+   * Inserts the value at pos, following the rules of StoutList.add(int, E).
+   *
+   * @param pos the position at which to place the value
+   * @param value the value to add
+   * @throws IndexOutOfBoundsException if pos is less than 0 or greater than the size
+   */
+  public void add(int pos, int value)
+  {
+      addBits(pos, value);
+  }
+
+  /**
+   * Returns the value at pos.
+   *
+   * @param pos the position of the value
+   * @return the value at pos
+   * @throws IndexOutOfBoundsException if pos is less than 0 or not less than the size
+   */
+  public int getInt(int pos)
+  {
+      return (int) getBits(pos);
+  }
+
+  /**
+   * Replaces the value at pos.
+   *
+   * @param pos the position of the value
+   * @param value the new value
+   * @return the value previously at pos
+   * @throws IndexOutOfBoundsException if pos is less than 0 or not less than the size
+   */
+  public int setInt(int pos, int value)
+  {
+      return (int) setBits(pos, value);
+  }
+
+  /**
+   * Removes the value at pos, following the rules of StoutList.remove(int).
+   *
+   * @param pos the position of the value
+   * @return the value that was removed
+   * @throws IndexOutOfBoundsException if pos is less than 0 or not less than the size
+   */
+  public int removeInt(int pos)
+  {
+      return (int) removeBits(pos);
+  }
+
+  /**
+   * Returns an iterator over the values that reads the mapped nodes directly.
+   *
+   * @return an unboxed iterator
+   */
+  public PrimitiveIterator.OfInt iterator()
+  {
+      return new IntCursor();
+  }
+
+  /**
+   * Unboxed iterator over the values of this list.
+   */
+  private final class IntCursor extends Cursor implements PrimitiveIterator.OfInt
+  {
+    @Override
+    public int nextInt() { return (int) nextBits(); }
+  }
+
+  /**
+   * Returns a sequential stream of the values.
+   *
+   * @return an unboxed stream
+   */
+  public IntStream stream()
+  {
+      return StreamSupport.intStream(Spliterators.spliterator(iterator(), size,
+              Spliterator.ORDERED | Spliterator.SIZED), false);
+  }
+}
@@ -0,0 +1,1053 @@
+package edu.iastate.cs228.hw3;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Node structure shared by the memory-mapped primitive stout lists.  The
+ * nodes live off the heap, in fixed-size slots of a file mapped with
+ * FileChannel.map(), and are linked by slot number instead of by reference.
+ * Each slot holds the node's links, its count, its fields in the
+ * order-statistics treap and its elements:
+ *
+ * <pre>
+ *   next, previous, count, parent, left, right, priority, weight  (ints)
+ *   nodeSize elements                                            (width bytes each)
+ * </pre>
+ *
+ * A header at the start of the file holds the node size, the size, the
+ * first and last nodes, the root of the treap and the list of free slots.
+ * Since the whole structure is in the file, reopening a list maps the file
+ * and reads the header; nothing is rebuilt and the heap holds only the
+ * mapped buffers.  The slots are mapped in regions of about 64 MB, and the
+ * file grows a region at a time, so a list is not limited to the 2 GB of a
+ * single mapping.  Slots of removed nodes go on a free list for reuse; the
+ * file never shrinks.
+ *
+ * Elements are read and written through the list's Kind, as the raw bits of
+ * a long, so the list operations are the same for every element type and
+ * the subclasses only convert the bits to and from their type.
+ *
+ * The rules for adding and removing elements are those of
+ * PrimitiveStoutList, and so of StoutList: each node (except possibly the
+ * last one) is at least half full.
+ *
+ * Changes are written to the mapped memory and reach the file when the
+ * operating system writes the pages back, or when force() or close() is
+ * called.  A crash in between can leave the file inconsistent.  A list must
+ * not be used after close(), and must not be opened twice at once.
+ */
+abstract class MappedStoutList implements Closeable
+{
+  /**
+   * Slot number standing for the dummy head or tail, or for no node.
+   */
+  static final int NONE = -1;
+
+  /**
+   * First four bytes of a mapped list file, "STOM" in ASCII.
+   */
+  private static final int MAGIC = 0x53544F4D;
+
+  /**
+   * Version of the file layout.
+   */
+  private static final int VERSION = 1;
+
+  /**
+   * Number of bytes reserved for the header at the start of the file.
+   */
+  private static final int HEADER_BYTES = 64;
+
+  /**
+   * Approximate number of bytes in each mapped region of slots.
+   */
+  private static final int REGION_BYTES = 1 << 26;
+
+  /**
+   * Byte offsets of the header fields.
+   */
+  private static final int H_MAGIC = 0, H_VERSION = 4, H_KIND = 8, H_NODESIZE = 12, H_SIZE = 16,
+          H_FIRST = 20, H_LAST = 24, H_ROOT = 28, H_FREE = 32, H_SLOTS = 36, H_SEED = 40;
+
+  /**
+   * Byte offsets of the node fields within a slot.
+   */
+  private static final int NEXT = 0, PREVIOUS = 4, COUNT = 8, PARENT = 12, LEFT = 16, RIGHT = 20,
+          PRIORITY = 24, WEIGHT = 28, DATA = 32;
+
+  /**
+   * Number of elements that can be stored in each node.
+   */
+  final int nodeSize;
+
+  /**
+   * The type of the elements.
+   */
+  private final Kind kind;
+
+  /**
+   * Number of bytes in each slot.
+   */
+  private final int slotBytes;
+
+  /**
+   * Number of slots in each mapped region.
+   */
+  private final int slotsPerRegion;
+
+  /**
+   * The file the list is stored in.
+   */
+  private final FileChannel channel;
+
+  /**
+   * The mapped header.
+   */
+  private final MappedByteBuffer header;
+
+  /**
+   * The mapped regions of slots, in file order, or null once closed.
+   */
+  private List<MappedByteBuffer> regions = new ArrayList<>();
+
+  /**
+   * Number of elements in the list.
+   */
+  int size;
+
+  /**
+   * The first and last nodes, the root of the treap and the first free slot,
+   * or NONE.
+   */
+  private int first, last, root, free;
+
+  /**
+   * Number of slots ever allocated; slots from here on have never been used.
+   */
+  private int slots;
+
+  /**
+   * State of the xorshift generator used for treap priorities.
+   */
+  private int seed;
+
+  /**
+   * Offset within the node returned by the last call to find(), insert() or append().
+   */
+  int offset;
+
+  /**
+   * Opens the list stored in the given file, or creates an empty one with the
+   * given node size if the file does not exist or is empty.
+   *
+   * @param file the file to store the list in
+   * @param nodeSize number of elements that may be stored in each node, must be
+   *   an even number
+   * @param kind the type of the elements, whose tag is stored in the file
+   * @throws IOException if the file cannot be opened or mapped, or holds
+   *   something other than a list of this kind
+   * @throws IllegalArgumentException if the node size is invalid or differs
+   *   from the one stored in the file
+   */
+  MappedStoutList(Path file, int nodeSize, Kind kind) throws IOException
+  {
+    if (nodeSize <= 0 || nodeSize % 2 != 0 || nodeSize > (Integer.MAX_VALUE - DATA) / kind.width) {
+        throw new IllegalArgumentException();
+    }
+
+    this.nodeSize = nodeSize;
+    this.kind = kind;
+    slotBytes = DATA + nodeSize * kind.width;
+    slotsPerRegion = Math.max(1, REGION_BYTES / slotBytes);
+    channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try {
+        boolean exists = channel.size() > 0;
+        header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+        if (exists) {
+            if (header.getInt(H_MAGIC) != MAGIC || header.getInt(H_VERSION) != VERSION
+                    || header.getInt(H_KIND) != kind.tag) {
+                throw new IOException("not a mapped stout list of this kind: " + file);
+            }
+            if (header.getInt(H_NODESIZE) != nodeSize) throw new IllegalArgumentException();
+
+            size = header.getInt(H_SIZE);
+            first = header.getInt(H_FIRST);
+            last = header.getInt(H_LAST);
+            root = header.getInt(H_ROOT);
+            free = header.getInt(H_FREE);
+            slots = header.getInt(H_SLOTS);
+            seed = header.getInt(H_SEED);
+            int mapped = (slots + slotsPerRegion - 1) / slotsPerRegion;
+            if (slots < 0 || channel.size() < HEADER_BYTES + (long) mapped * slotsPerRegion * slotBytes) {
+                throw new IOException("truncated mapped stout list: " + file);
+            }
+            while (regions.size() < mapped) {
+                mapRegion();
+            }
+        }
+        else {
+            header.putInt(H_MAGIC, MAGIC);
+            header.putInt(H_VERSION, VERSION);
+            header.putInt(H_KIND, kind.tag);
+            header.putInt(H_NODESIZE, nodeSize);
+            seed = 0x2545F491;
+            reset();
+        }
+    }
+    catch (IOException | RuntimeException e) {
+        channel.close();
+        throw e;
+    }
+  }
+
+  /**
+   * Returns the current amount of items held within the list.
+   *
+   * @return the size of the list
+   */
+  public int size() { return size; }
+
+  /**
+   * Returns true if the list holds no elements.
+   *
+   * @return true if the list is empty
+   */
+  public boolean isEmpty() { return size == 0; }
+
+  /**
+   * Removes every element from the list.  The slots are kept in the file
+   * and reused.
+   */
+  public void clear()
+  {
+      region(NONE);
+      reset();
+  }
+
+  /**
+   * Writes any changes still in the mapped memory to the file.
+   */
+  public void force()
+  {
+      region(NONE);
+      header.force();
+      for (MappedByteBuffer region : regions) {
+          region.force();
+      }
+  }
+
+  /**
+   * Writes any changes to the file and closes it.  The mappings are
+   * released when they are garbage collected.
+   *
+   * @throws IOException if closing the file fails
+   */
+  @Override
+  public void close() throws IOException
+  {
+      if (regions == null) {
+          return;
+      }
+      force();
+      regions = null;
+      channel.close();
+  }
+
+  /**
+   * Returns the node holding pos and sets offset to its offset in that node.
+   * Precondition: 0 <= pos < size
+   *
+   * @param pos the position to look up
+   * @return the node holding pos
+   */
+  final int find(int pos)
+  {
+      int current = root;
+      while (true) {
+          int left = get(current, LEFT);
+          int leftWeight = weight(left);
+          int count = get(current, COUNT);
+          if (pos < leftWeight) {
+              current = left;
+          }
+          else if (pos < leftWeight + count) {
+              offset = pos - leftWeight;
+              return current;
+          }
+          else {
+              pos -= leftWeight + count;
+              current = get(current, RIGHT);
+          }
+      }
+  }
+
+  /**
+   * Checks that pos refers to an element.
+   *
+   * @param pos the position to check
+   * @throws IndexOutOfBoundsException if pos is less than 0 or not less than the size
+   */
+  final void checkIndex(int pos)
+  {
+      if (pos < 0 || pos >= size) { throw new IndexOutOfBoundsException(); }
+  }
+
+  /**
+   * Makes room for a new element at the end of the list.  The caller must store
+   * the element at offset in the returned node.
+   *
+   * @return the node to store the element in
+   */
+  private int append()
+  {
+      int node = last;
+      if (size == 0 || count(node) == nodeSize) {
+          node = allocate();
+          link(last, node);
+      }
+      offset = count(node);
+      put(node, COUNT, offset + 1);
+      adjustWeight(node, 1);
+      ++size;
+      saveHeader();
+      return node;
+  }
+
+  /**
+   * Makes room for a new element at pos, following the same rules as
+   * StoutList.add(int, E), including the split of a full node.  The caller
+   * must store the element at offset in the returned node.
+   *
+   * @param pos the position of the new element
+   * @return the node to store the element in
+   * @throws IndexOutOfBoundsException if pos is less than 0 or greater than the size
+   */
+  private int insert(int pos)
+  {
+      if (pos < 0 || pos > size) { throw new IndexOutOfBoundsException(); }
+      if (pos == size) {
+          return append();
+      }
+
+      int node = find(pos);
+      int previous = get(node, PREVIOUS);
+      if (offset == 0 && previous != NONE && count(previous) < nodeSize) {
+          node = previous;
+          offset = count(node);
+      }
+      else if (count(node) == nodeSize) {
+          int half = nodeSize / 2;
+          int newNode = allocate();
+
+          move(node, half, newNode, 0, half);
+          put(node, COUNT, half);
+          adjustWeight(node, -half);
+          put(newNode, COUNT, half);
+          link(node, newNode);
+
+          if (offset > half) {
+              node = newNode;
+              offset -= half;
+          }
+      }
+
+      int count = count(node);
+      move(node, offset, node, offset + 1, count - offset);
+      put(node, COUNT, count + 1);
+      adjustWeight(node, 1);
+      ++size;
+      saveHeader();
+      return node;
+  }
+
+  /**
+   * Removes the element at the given offset of a node, following the same
+   * rules as StoutList.remove(int), including the mini-merge and full merge
+   * with the successor.
+   *
+   * @param node the node holding the element
+   * @param offset the offset of the element within node
+   */
+  final void remove(int node, int offset)
+  {
+      int half = nodeSize / 2;
+
+      int count = count(node);
+      move(node, offset + 1, node, offset, count - offset - 1);
+      put(node, COUNT, --count);
+      adjustWeight(node, -1);
+
+      int successor = get(node, NEXT);
+      if (count == 0) {
+          unlink(node);
+          release(node);
+      }
+      else if (successor != NONE && count < half) {
+          int successorCount = count(successor);
+          if (successorCount > half) {
+              move(successor, 0, node, count, 1);
+              move(successor, 1, successor, 0, successorCount - 1);
+              put(node, COUNT, count + 1);
+              adjustWeight(node, 1);
+              put(successor, COUNT, successorCount - 1);
+              adjustWeight(successor, -1);
+          }
+          else {
+              move(successor, 0, node, count, successorCount);
+              put(node, COUNT, count + successorCount);
+              adjustWeight(node, successorCount);
+              unlink(successor);
+              release(successor);
+          }
+      }
+      --size;
+      saveHeader();
+  }
+
+  /**
+   * Adds an element at the end of the list.
+   *
+   * @param bits the element, as the bits of its kind
+   */
+  final void addBits(long bits)
+  {
+      int node = append();
+      kind.write(region(node), slot(node, offset), bits);
+  }
+
+  /**
+   * Inserts an element at pos, following the rules of StoutList.add(int, E).
+   *
+   * @param pos the position at which to place the element
+   * @param bits the element, as the bits of its kind
+   * @throws IndexOutOfBoundsException if pos is less than 0 or greater than the size
+   */
+  final void addBits(int pos, long bits)
+  {
+      int node = insert(pos);
+      kind.write(region(node), slot(node, offset), bits);
+  }
+
+  /**
+   * Returns the element at pos.
+   *
+   * @param pos the position of the element
+   * @return the element, as the bits of its kind
+   * @throws IndexOutOfBoundsException if pos is less than 0 or not less than the size
+   */
+  final long getBits(int pos)
+  {
+      checkIndex(pos);
+      int node = find(pos);
+      return kind.read(region(node), slot(node, offset));
+  }
+
+  /**
+   * Replaces the element at pos.
+   *
+   * @param pos the position of the element
+   * @param bits the new element, as the bits of its kind
+   * @return the element previously at pos
+   * @throws IndexOutOfBoundsException if pos is less than 0 or not less than the size
+   */
+  final long setBits(int pos, long bits)
+  {
+      checkIndex(pos);
+      int node = find(pos);
+      int slot = slot(node, offset);
+      long old = kind.read(region(node), slot);
+      kind.write(region(node), slot, bits);
+      return old;
+  }
+
+  /**
+   * Removes the element at pos, following the rules of StoutList.remove(int).
+   *
+   * @param pos the position of the element
+   * @return the element that was removed
+   * @throws IndexOutOfBoundsException if pos is less than 0 or not less than the size
+   */
+  final long removeBits(int pos)
+  {
+      checkIndex(pos);
+      int node = find(pos);
+      long removed = kind.read(region(node), slot(node, offset));
+      remove(node, offset);
+      return removed;
+  }
+
+  /**
+   * Returns the first node, or NONE if the list is empty.
+   *
+   * @return the first node
+   */
+  final int firstNode() { return first; }
+
+  /**
+   * Returns the node after the given one, or NONE if it is the last.
+   *
+   * @param node a node of the list
+   * @return the next node
+   */
+  final int nextNode(int node) { return get(node, NEXT); }
+
+  /**
+   * Returns the number of elements in a node.
+   *
+   * @param node a node of the list
+   * @return the count of node
+   */
+  final int count(int node) { return get(node, COUNT); }
+
+  /**
+   * Returns the mapped region holding a node's slot.
+   *
+   * @param node a node of the list, or NONE to only check that the list is open
+   * @return the region, or null for NONE
+   * @throws IllegalStateException if the list has been closed
+   */
+  final MappedByteBuffer region(int node)
+  {
+      if (regions == null) throw new IllegalStateException("closed");
+      return node == NONE ? null : regions.get(node / slotsPerRegion);
+  }
+
+  /**
+   * Returns the index in its region of the element at the given offset of a
+   * node.
+   *
+   * @param node a node of the list
+   * @param offset the offset of the element
+   * @return the byte index of the element
+   */
+  final int slot(int node, int offset)
+  {
+      return (node % slotsPerRegion) * slotBytes + DATA + offset * kind.width;
+  }
+
+  /**
+   * Appends element i of a node to a string builder.
+   *
+   * @param sb the builder
+   * @param node the node
+   * @param i the offset of the element
+   */
+  private void appendElement(StringBuilder sb, int node, int i)
+  {
+      kind.append(sb, kind.read(region(node), slot(node, i)));
+  }
+
+  /**
+   * Returns a string representation of this list showing
+   * the internal structure of the nodes.
+   */
+  public String toStringInternal()
+  {
+      StringBuilder sb = new StringBuilder();
+      sb.append('[');
+      for (int current = first; current != NONE; current = nextNode(current)) {
+          sb.append('(');
+          int count = count(current);
+          for (int i = 0; i < nodeSize; ++i) {
+              if (i > 0) sb.append(", ");
+              if (i < count) {
+                  appendElement(sb, current, i);
+              }
+              else {
+                  sb.append('-');
+              }
+          }
+          sb.append(')');
+          if (nextNode(current) != NONE) sb.append(", ");
+      }
+      sb.append(']');
+      return sb.toString();
+  }
+
+  /**
+   * Returns the elements of the list in order, as in AbstractCollection.toString().
+   */
+  @Override
+  public String toString()
+  {
+      StringBuilder sb = new StringBuilder();
+      sb.append('[');
+      for (int current = first; current != NONE; current = nextNode(current)) {
+          for (int i = 0, count = count(current); i < count; ++i) {
+              if (sb.length() > 1) sb.append(", ");
+              appendElement(sb, current, i);
+          }
+      }
+      sb.append(']');
+      return sb.toString();
+  }
+
+  /**
+   * Empties the list and writes the header.
+   */
+  private void reset()
+  {
+      size = 0;
+      first = NONE;
+      last = NONE;
+      root = NONE;
+      free = NONE;
+      slots = 0;
+      saveHeader();
+  }
+
+  /**
+   * Writes the fields kept on the heap to the header.
+   */
+  private void saveHeader()
+  {
+      header.putInt(H_SIZE, size);
+      header.putInt(H_FIRST, first);
+      header.putInt(H_LAST, last);
+      header.putInt(H_ROOT, root);
+      header.putInt(H_FREE, free);
+      header.putInt(H_SLOTS, slots);
+      header.putInt(H_SEED, seed);
+  }
+
+  /**
+   * Maps the next region of slots, growing the file if needed.
+   *
+   * @throws IOException if the region cannot be mapped
+   */
+  private void mapRegion() throws IOException
+  {
+      long start = HEADER_BYTES + (long) regions.size() * slotsPerRegion * slotBytes;
+      regions.add(channel.map(FileChannel.MapMode.READ_WRITE, start, (long) slotsPerRegion * slotBytes));
+  }
+
+  /**
+   * Takes a slot for a new empty node, from the free list if possible.
+   *
+   * @return the new node
+   * @throws UncheckedIOException if the file cannot be grown
+   */
+  private int allocate()
+  {
+      int node;
+      if (free != NONE) {
+          node = free;
+          free = get(node, NEXT);
+      }
+      else {
+          if (slots == regions.size() * slotsPerRegion) {
+              try {
+                  mapRegion();
+              }
+              catch (IOException e) {
+                  throw new UncheckedIOException(e);
+              }
+          }
+          node = slots++;
+      }
+      put(node, COUNT, 0);
+      return node;
+  }
+
+  /**
+   * Puts the slot of an unlinked node on the free list.
+   *
+   * @param node the node to release
+   */
+  private void release(int node)
+  {
+      put(node, NEXT, free);
+      free = node;
+  }
+
+  /**
+   * Moves length elements between nodes, or within one node, as
+   * System.arraycopy() does.
+   *
+   * @param from the source node
+   * @param fromOffset the offset of the first element to move
+   * @param to the destination node
+   * @param toOffset the offset to move it to
+   * @param length the number of elements
+   */
+  private void move(int from, int fromOffset, int to, int toOffset, int length)
+  {
+      if (length > 0) {
+          region(to).put(slot(to, toOffset), region(from), slot(from, fromOffset), length * kind.width);
+      }
+  }
+
+  /**
+   * Reads an int field of a node.
+   *
+   * @param node a node of the list
+   * @param field the byte offset of the field
+   * @return the value of the field
+   */
+  private int get(int node, int field)
+  {
+      return region(node).getInt((node % slotsPerRegion) * slotBytes + field);
+  }
+
+  /**
+   * Writes an int field of a node.
+   *
+   * @param node a node of the list
+   * @param field the byte offset of the field
+   * @param value the new value
+   */
+  private void put(int node, int field, int value)
+  {
+      region(node).putInt((node % slotsPerRegion) * slotBytes + field, value);
+  }
+
+  /**
+   * Links a new node into the list right after pred and inserts it into the
+   * order-statistics tree.
+   *
+   * @param pred the node after which to link, or NONE for the front
+   * @param node the node to link
+   */
+  private void link(int pred, int node)
+  {
+      int successor = pred == NONE ? first : get(pred, NEXT);
+      put(node, PREVIOUS, pred);
+      put(node, NEXT, successor);
+      if (successor == NONE) {
+          last = node;
+      }
+      else {
+          put(successor, PREVIOUS, node);
+      }
+      if (pred == NONE) {
+          first = node;
+      }
+      else {
+          put(pred, NEXT, node);
+      }
+
+      int count = count(node);
+      put(node, PARENT, NONE);
+      put(node, LEFT, NONE);
+      put(node, RIGHT, NONE);
+      put(node, WEIGHT, count);
+      put(node, PRIORITY, nextPriority());
+
+      if (root == NONE) {
+          root = node;
+          return;
+      }
+
+      int parent;
+      if (pred == NONE) {
+          parent = leftmost(root);
+          put(parent, LEFT, node);
+      }
+      else if (get(pred, RIGHT) == NONE) {
+          parent = pred;
+          put(parent, RIGHT, node);
+      }
+      else {
+          parent = leftmost(get(pred, RIGHT));
+          put(parent, LEFT, node);
+      }
+      put(node, PARENT, parent);
+      adjustWeight(parent, count);
+
+      while (get(node, PARENT) != NONE && get(node, PRIORITY) > get(get(node, PARENT), PRIORITY)) {
+          rotateUp(node);
+      }
+  }
+
+  /**
+   * Unlinks a node from the list and removes it from the order-statistics tree.
+   *
+   * @param node the node to unlink
+   */
+  private void unlink(int node)
+  {
+      while (true) {
+          int left = get(node, LEFT);
+          int right = get(node, RIGHT);
+          if (left == NONE && right == NONE) {
+              break;
+          }
+          if (left == NONE) {
+              rotateUp(right);
+          }
+          else if (right == NONE || get(left, PRIORITY) > get(right, PRIORITY)) {
+              rotateUp(left);
+          }
+          else {
+              rotateUp(right);
+          }
+      }
+
+      int parent = get(node, PARENT);
+      if (parent == NONE) {
+          root = NONE;
+      }
+      else {
+          if (get(parent, LEFT) == node) {
+              put(parent, LEFT, NONE);
+          }
+          else {
+              put(parent, RIGHT, NONE);
+          }
+          adjustWeight(parent, -get(node, WEIGHT));
+      }
+
+      int previous = get(node, PREVIOUS);
+      int next = get(node, NEXT);
+      if (previous == NONE) {
+          first = next;
+      }
+      else {
+          put(previous, NEXT, next);
+      }
+      if (next == NONE) {
+          last = previous;
+      }
+      else {
+          put(next, PREVIOUS, previous);
+      }
+  }
+
+  /**
+   * Rotates a node above its parent, keeping the subtree weights correct.
+   *
+   * @param node the node to rotate up, which must have a parent
+   */
+  private void rotateUp(int node)
+  {
+      int parent = get(node, PARENT);
+      int grandparent = get(parent, PARENT);
+
+      if (get(parent, LEFT) == node) {
+          int child = get(node, RIGHT);
+          put(parent, LEFT, child);
+          if (child != NONE) put(child, PARENT, parent);
+          put(node, RIGHT, parent);
+      }
+      else {
+          int child = get(node, LEFT);
+          put(parent, RIGHT, child);
+          if (child != NONE) put(child, PARENT, parent);
+          put(node, LEFT, parent);
+      }
+      put(parent, PARENT, node);
+      put(node, PARENT, grandparent);
+
+      if (grandparent == NONE) {
+          root = node;
+      }
+      else if (get(grandparent, LEFT) == parent) {
+          put(grandparent, LEFT, node);
+      }
+      else {
+          put(grandparent, RIGHT, node);
+      }
+
+      put(node, WEIGHT, get(parent, WEIGHT));
+      put(parent, WEIGHT, count(parent) + weight(get(parent, LEFT)) + weight(get(parent, RIGHT)));
+  }
+
+  /**
+   * Adds delta to the weight of a node and all of its ancestors.
+   *
+   * @param node the node
+   * @param delta the change in the number of elements
+   */
+  private void adjustWeight(int node, int delta)
+  {
+      for (int n = node; n != NONE; n = get(n, PARENT)) {
+          put(n, WEIGHT, get(n, WEIGHT) + delta);
+      }
+  }
+
+  /**
+   * Returns the leftmost node of the given subtree.
+   *
+   * @param node the root of the subtree
+   * @return the leftmost node
+   */
+  private int leftmost(int node)
+  {
+      for (int left = get(node, LEFT); left != NONE; left = get(node, LEFT)) {
+          node = left;
+      }
+      return node;
+  }
+
+  /**
+   * Returns the number of elements in the given subtree.
+   *
+   * @param node the root of the subtree, possibly NONE
+   * @return the total count of the subtree
+   */
+  private int weight(int node)
+  {
+      return node == NONE ? 0 : get(node, WEIGHT);
+  }
+
+  /**
+   * Returns the next treap priority.
+   *
+   * @return a pseudo-random priority
+   */
+  private int nextPriority()
+  {
+      seed ^= seed << 13;
+      seed ^= seed >>> 17;
+      seed ^= seed << 5;
+      return seed;
+  }
+
+  /**
+   * Walks the mapped nodes in order for the unboxed iterators of the
+   * subclasses.
+   */
+  abstract class Cursor
+  {
+    /**
+     * The node holding the next element.
+     */
+    private int node = first;
+
+    /**
+     * The offset of the next element within node.
+     */
+    private int index;
+
+    /**
+     * The number of elements not yet returned.
+     */
+    private int remaining = size;
+
+    /**
+     * Returns true if there are elements not yet returned.
+     *
+     * @return true if nextBits() has an element to return
+     */
+    public boolean hasNext() { return remaining > 0; }
+
+    /**
+     * Returns the next element.
+     *
+     * @return the element, as the bits of its kind
+     * @throws NoSuchElementException if every element has been returned
+     */
+    final long nextBits()
+    {
+        if (remaining == 0) { throw new NoSuchElementException(); }
+
+        if (index == count(node)) {
+            node = nextNode(node);
+            index = 0;
+        }
+        --remaining;
+        return kind.read(region(node), slot(node, index++));
+    }
+  }
+
+  /**
+   * Element types of the mapped lists.  Each reads and writes its elements
+   * in a buffer as the raw bits of a long; a double is stored as the bits
+   * of Double.doubleToRawLongBits(), which is what putDouble() writes.
+   */
+  enum Kind
+  {
+    INT('I', Integer.BYTES)
+    {
+      @Override
+      long read(ByteBuffer buffer, int index) { return buffer.getInt(index); }
+
+      @Override
+      void write(ByteBuffer buffer, int index, long bits) { buffer.putInt(index, (int) bits); }
+
+      @Override
+      void append(StringBuilder sb, long bits) { sb.append((int) bits); }
+    },
+
+    LONG('J', Long.BYTES)
+    {
+      @Override
+      long read(ByteBuffer buffer, int index) { return buffer.getLong(index); }
+
+      @Override
+      void write(ByteBuffer buffer, int index, long bits) { buffer.putLong(index, bits); }
+
+      @Override
+      void append(StringBuilder sb, long bits) { sb.append(bits); }
+    },
+
+    DOUBLE('D', Double.BYTES)
+    {
+      @Override
+      long read(ByteBuffer buffer, int index) { return buffer.getLong(index); }
+
+      @Override
+      void write(ByteBuffer buffer, int index, long bits) { buffer.putLong(index, bits); }
+
+      @Override
+      void append(StringBuilder sb, long bits) { sb.append(Double.longBitsToDouble(bits)); }
+    };
+
+    /**
+     * Tag of the type, stored in the file header.
+     */
+    final int tag;
+
+    /**
+     * Number of bytes in each element.
+     */
+    final int width;
+
+    /**
+     * Constructs an element type.
+     * @param tag the tag stored in the file header
+     * @param width the number of bytes in each element
+     */
+    Kind(int tag, int width)
+    {
+      this.tag = tag;
+      this.width = width;
+    }
+
+    /**
+     * Reads an element.
+     *
+     * @param buffer the buffer holding the element
+     * @param index the byte index of the element
+     * @return the element, as bits
+     */
+    abstract long read(ByteBuffer buffer, int index);
+
+    /**
+     * Writes an element.
+     *
+     * @param buffer the buffer to hold the element
+     * @param index the byte index of the element
+     * @param bits the element, as bits
+     */
+    abstract void write(ByteBuffer buffer, int index, long bits);
+
+    /**
+     * Appends an element to a string builder as its type prints it.
+     *
+     * @param sb the builder
+     * @param bits the element, as bits
+     */
+    abstract void append(StringBuilder sb, long bits);
+  }
+}
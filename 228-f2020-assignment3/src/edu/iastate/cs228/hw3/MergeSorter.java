@@ -0,0 +1,207 @@
+package edu.iastate.cs228.hw3;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Bottom-up merge sort over the nodes of a list, used by sort() and, on
+ * ranges of nodes, by parallelSort().  Runs are chains of nodes linked
+ * through next and terminated by null; merged output is packed into full
+ * nodes, taken from a pool of drained input nodes whenever possible.
+ */
+final class MergeSorter<E extends Comparable<? super E>>
+{
+  /**
+   * The list being sorted.
+   */
+  private final StoutList<E> list;
+
+  /**
+   * The comparator to sort by.
+   */
+  private final Comparator<? super E> comp;
+
+  /**
+   * Drained nodes available for reuse, linked through next.
+   */
+  private StoutList<E>.Node free;
+
+  /**
+   * First node of the run being written.
+   */
+  private StoutList<E>.Node outFirst;
+
+  /**
+   * Last node of the run being written.
+   */
+  private StoutList<E>.Node outLast;
+
+  /**
+   * Constructs a sorter for a list using the given comparator.
+   *
+   * @param list the list to sort
+   * @param comp the comparator to sort by
+   */
+  MergeSorter(StoutList<E> list, Comparator<? super E> comp)
+  {
+      this.list = list;
+      this.comp = comp;
+  }
+
+  /**
+   * Sorts the whole list and relinks the sorted nodes between head and tail.
+   */
+  void sort()
+  {
+      List<StoutList<E>.Node> nodes = list.detachNodes();
+      list.relinkSorted(sortRange(nodes, 0, nodes.size()));
+
+      // Nodes left in the pool are dropped; clear their links so the
+      // clock of a spilling list drops them too.
+      while (free != null) {
+          StoutList<E>.Node next = free.next;
+          free.next = null;
+          free = next;
+      }
+  }
+
+  /**
+   * Sorts the nodes in nodes[from, to) into a single run.
+   *
+   * @param nodes the detached nodes of the list
+   * @param from the first node to sort
+   * @param to one past the last node to sort
+   * @return the first node of the sorted run
+   */
+  StoutList<E>.Node sortRange(List<StoutList<E>.Node> nodes, int from, int to)
+  {
+      List<StoutList<E>.Node> runs = new ArrayList<>(to - from);
+      for (int i = from; i < to; ++i) {
+          StoutList<E>.Node node = nodes.get(i);
+          node.normalize();
+          Arrays.sort(node.data, 0, node.count, comp);
+          runs.add(node);
+      }
+
+      while (runs.size() > 1) {
+          int merged = 0;
+          for (int i = 0; i + 1 < runs.size(); i += 2) {
+              runs.set(merged++, merge(runs.get(i), runs.get(i + 1)));
+          }
+          if (runs.size() % 2 != 0) {
+              runs.set(merged++, runs.get(runs.size() - 1));
+          }
+          runs.subList(merged, runs.size()).clear();
+      }
+      return runs.get(0);
+  }
+
+  /**
+   * Merges two sorted runs into a new run of full nodes.  Elements of a are
+   * taken first when equal, which keeps the sort stable.
+   *
+   * @param a the first run, which precedes b in the list
+   * @param b the second run
+   * @return the first node of the merged run
+   */
+  StoutList<E>.Node merge(StoutList<E>.Node a, StoutList<E>.Node b)
+  {
+      outFirst = null;
+      outLast = null;
+      int i = 0;
+      int j = 0;
+
+      while (a != null && b != null) {
+          if (comp.compare(b.data[j], a.data[i]) < 0) {
+              emit(b.data[j]);
+              b.data[j++] = null;
+              if (j == b.count) {
+                  StoutList<E>.Node next = b.next;
+                  release(b);
+                  b = next;
+                  j = 0;
+              }
+          }
+          else {
+              emit(a.data[i]);
+              a.data[i++] = null;
+              if (i == a.count) {
+                  StoutList<E>.Node next = a.next;
+                  release(a);
+                  a = next;
+                  i = 0;
+              }
+          }
+      }
+
+      drain(a, i);
+      drain(b, j);
+      return outFirst;
+  }
+
+  /**
+   * Copies the rest of a run to the output, starting at the given offset of its first node.
+   *
+   * @param run the remaining run, possibly null
+   * @param offset the offset of the first remaining element in run
+   */
+  private void drain(StoutList<E>.Node run, int offset)
+  {
+      while (run != null) {
+          for (int i = offset; i < run.count; ++i) {
+              emit(run.data[i]);
+              run.data[i] = null;
+          }
+          StoutList<E>.Node next = run.next;
+          release(run);
+          run = next;
+          offset = 0;
+      }
+  }
+
+  /**
+   * Appends an element to the run being written, starting a new node when the last one is full.
+   *
+   * @param item the element to append
+   */
+  private void emit(E item)
+  {
+      if (outLast == null || outLast.count == list.nodeSize) {
+          StoutList<E>.Node node = free;
+          if (node != null) {
+              free = node.next;
+          }
+          else {
+              node = list.newNode();
+          }
+          node.next = null;
+
+          if (outLast == null) {
+              outFirst = node;
+          }
+          else {
+              outLast.next = node;
+          }
+          outLast = node;
+      }
+      outLast.data[outLast.count++] = item;
+  }
+
+  /**
+   * Returns a drained node to the pool.
+   *
+   * @param node a node whose elements have all been emitted
+   */
+  private void release(StoutList<E>.Node node)
+  {
+      if (node.capacity != list.nodeSize || node.data.length < list.nodeSize) {
+          return;
+      }
+      node.count = 0;
+      node.start = 0;
+      node.next = free;
+      free = node;
+  }
+}
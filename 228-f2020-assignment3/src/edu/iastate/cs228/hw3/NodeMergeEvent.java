@@ -0,0 +1,39 @@
+package edu.iastate.cs228.hw3;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for a StoutList merge after a remove.  Only
+ * committed by lists whose stats are enabled.
+ */
+@Name("edu.iastate.cs228.hw3.NodeMerge")
+@Label("StoutList Node Merge")
+@Category("StoutList")
+@Description("A node fell below half full and took elements from its successor")
+@StackTrace(false)
+class NodeMergeEvent extends Event
+{
+  /**
+   * True for a full merge, which deletes the successor; false for a mini-merge,
+   * which moves one element.
+   */
+  @Label("Full Merge")
+  boolean full;
+
+  /**
+   * Number of elements that can be stored in each node.
+   */
+  @Label("Node Size")
+  int nodeSize;
+
+  /**
+   * Number of elements in the list before the remove.
+   */
+  @Label("List Size")
+  int listSize;
+}
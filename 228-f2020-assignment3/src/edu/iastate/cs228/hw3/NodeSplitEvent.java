@@ -0,0 +1,32 @@
+package edu.iastate.cs228.hw3;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for a StoutList node split.  Only committed by lists
+ * whose stats are enabled.
+ */
+@Name("edu.iastate.cs228.hw3.NodeSplit")
+@Label("StoutList Node Split")
+@Category("StoutList")
+@Description("A full node was split in two to make room for an insert")
+@StackTrace(false)
+class NodeSplitEvent extends Event
+{
+  /**
+   * Number of elements that can be stored in each node.
+   */
+  @Label("Node Size")
+  int nodeSize;
+
+  /**
+   * Number of elements in the list before the insert.
+   */
+  @Label("List Size")
+  int listSize;
+}
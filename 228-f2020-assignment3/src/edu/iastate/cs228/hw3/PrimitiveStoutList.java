@@ -0,0 +1,822 @@
+package edu.iastate.cs228.hw3;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Node structure shared by the primitive stout lists.  Each node stores its
+ * elements in a primitive array (int[], long[] or double[], created by the
+ * subclass), and the rules for adding and removing elements are the same as
+ * those of StoutList: each node (except possibly the last one) is at least
+ * half full.  Nodes are also kept in an order-statistics treap, so finding
+ * the node that holds a position takes O(log n).
+ *
+ * Elements are moved with System.arraycopy(), which works on any array type;
+ * subclasses only read and write individual slots, and supply the few
+ * per-type hooks that sorting needs.
+ */
+abstract class PrimitiveStoutList
+{
+  /**
+   * Default number of elements that may be stored in each node.
+   */
+  static final int DEFAULT_NODESIZE = 4;
+
+  /**
+   * Number of elements that can be stored in each node.
+   */
+  final int nodeSize;
+
+  /**
+   * Dummy node for head.
+   */
+  final Node head;
+
+  /**
+   * Dummy node for tail.
+   */
+  final Node tail;
+
+  /**
+   * Number of elements in the list.
+   */
+  int size;
+
+  /**
+   * Root of the order-statistics tree over the nodes, or null if the list is empty.
+   */
+  private Node root;
+
+  /**
+   * State of the xorshift generator used for treap priorities.
+   */
+  private int seed = 0x2545F491;
+
+  /**
+   * Offset within the node returned by the last call to find(), insert() or append().
+   */
+  int offset;
+
+  /**
+   * Constructs an empty list with the given node size.
+   * @param nodeSize number of elements that may be stored in each node, must be
+   *   an even number
+   */
+  PrimitiveStoutList(int nodeSize)
+  {
+    if (nodeSize <= 0 || nodeSize % 2 != 0) throw new IllegalArgumentException();
+
+    this.nodeSize = nodeSize;
+    head = new Node(null);
+    tail = new Node(null);
+    head.next = tail;
+    tail.previous = head;
+  }
+
+  /**
+   * Creates the backing array of a node.
+   *
+   * @param length the capacity of the array
+   * @return a new primitive array
+   */
+  abstract Object newArray(int length);
+
+  /**
+   * Appends element i of a node's backing array to a string builder.
+   *
+   * @param sb the builder
+   * @param data the backing array
+   * @param i the index of the element
+   */
+  abstract void appendElement(StringBuilder sb, Object data, int i);
+
+  /**
+   * Sorts the first count elements of a node's backing array in ascending order.
+   *
+   * @param data the backing array
+   * @param count the number of elements
+   */
+  abstract void sortNode(Object data, int count);
+
+  /**
+   * Reverses the first count elements of a node's backing array.
+   *
+   * @param data the backing array
+   * @param count the number of elements
+   */
+  abstract void reverseNode(Object data, int count);
+
+  /**
+   * Compares a[i] with b[j] in the order sortNode() uses.
+   *
+   * @param a the backing array of the first element
+   * @param i the index of the first element
+   * @param b the backing array of the second element
+   * @param j the index of the second element
+   * @return a negative number, zero or a positive number as a[i] is less than,
+   *   equal to or greater than b[j]
+   */
+  abstract int compare(Object a, int i, Object b, int j);
+
+  /**
+   * Returns the current amount of items held within the list.
+   *
+   * @return the size of the list
+   */
+  public int size() { return size; }
+
+  /**
+   * Returns true if the list holds no elements.
+   *
+   * @return true if the list is empty
+   */
+  public boolean isEmpty() { return size == 0; }
+
+  /**
+   * Removes every element from the list.
+   */
+  public void clear()
+  {
+      head.next = tail;
+      tail.previous = head;
+      root = null;
+      size = 0;
+  }
+
+  /**
+   * Returns the node holding pos and sets offset to its offset in that node.
+   * Precondition: 0 <= pos < size
+   *
+   * @param pos the position to look up
+   * @return the node holding pos
+   */
+  final Node find(int pos)
+  {
+      Node current = root;
+      while (true) {
+          int leftWeight = weight(current.left);
+          if (pos < leftWeight) {
+              current = current.left;
+          }
+          else if (pos < leftWeight + current.count) {
+              offset = pos - leftWeight;
+              return current;
+          }
+          else {
+              pos -= leftWeight + current.count;
+              current = current.right;
+          }
+      }
+  }
+
+  /**
+   * Checks that pos refers to an element.
+   *
+   * @param pos the position to check
+   * @throws IndexOutOfBoundsException if pos is less than 0 or not less than the size
+   */
+  final void checkIndex(int pos)
+  {
+      if (pos < 0 || pos >= size) { throw new IndexOutOfBoundsException(); }
+  }
+
+  /**
+   * Makes room for a new element at the end of the list.  The caller must store
+   * the element at offset in the returned node.
+   *
+   * @return the node to store the element in
+   */
+  final Node append()
+  {
+      Node node = tail.previous;
+      if (size == 0 || node.count == nodeSize) {
+          node = new Node(newArray(nodeSize));
+          link(tail.previous, node);
+      }
+      offset = node.count++;
+      node.adjustWeight(1);
+      ++size;
+      return node;
+  }
+
+  /**
+   * Makes room for a new element at pos, following the same rules as
+   * StoutList.add(int, E), including the split of a full node.  The caller
+   * must store the element at offset in the returned node.
+   *
+   * @param pos the position of the new element
+   * @return the node to store the element in
+   * @throws IndexOutOfBoundsException if pos is less than 0 or greater than the size
+   */
+  final Node insert(int pos)
+  {
+      if (pos < 0 || pos > size) { throw new IndexOutOfBoundsException(); }
+      if (pos == size) {
+          return append();
+      }
+
+      Node node = find(pos);
+      if (offset == 0 && node.previous != head && node.previous.count < nodeSize) {
+          node = node.previous;
+          offset = node.count;
+      }
+      else if (node.count == nodeSize) {
+          int half = nodeSize / 2;
+          Node newNode = new Node(newArray(nodeSize));
+
+          System.arraycopy(node.data, half, newNode.data, 0, half);
+          node.count = half;
+          node.adjustWeight(-half);
+          newNode.count = half;
+          link(node, newNode);
+
+          if (offset > half) {
+              node = newNode;
+              offset -= half;
+          }
+      }
+
+      System.arraycopy(node.data, offset, node.data, offset + 1, node.count - offset);
+      ++node.count;
+      node.adjustWeight(1);
+      ++size;
+      return node;
+  }
+
+  /**
+   * Removes the element at the given offset of a node, following the same
+   * rules as StoutList.remove(int), including the mini-merge and full merge
+   * with the successor.
+   *
+   * @param node the node holding the element
+   * @param offset the offset of the element within node
+   */
+  final void remove(Node node, int offset)
+  {
+      int half = nodeSize / 2;
+
+      System.arraycopy(node.data, offset + 1, node.data, offset, node.count - offset - 1);
+      --node.count;
+      node.adjustWeight(-1);
+
+      if (node.count == 0) {
+          unlink(node);
+      }
+      else if (node.next != tail && node.count < half) {
+          Node successor = node.next;
+          if (successor.count > half) {
+              System.arraycopy(successor.data, 0, node.data, node.count, 1);
+              System.arraycopy(successor.data, 1, successor.data, 0, successor.count - 1);
+              ++node.count;
+              node.adjustWeight(1);
+              --successor.count;
+              successor.adjustWeight(-1);
+          }
+          else {
+              System.arraycopy(successor.data, 0, node.data, node.count, successor.count);
+              node.count += successor.count;
+              node.adjustWeight(successor.count);
+              unlink(successor);
+          }
+      }
+      --size;
+  }
+
+  /**
+   * Copies all elements into a primitive array of the given type.
+   *
+   * @param result an array of length at least size
+   * @return result
+   */
+  final Object copyTo(Object result)
+  {
+      int pos = 0;
+      for (Node current = head.next; current != tail; current = current.next) {
+          System.arraycopy(current.data, 0, result, pos, current.count);
+          pos += current.count;
+      }
+      return result;
+  }
+
+  /**
+   * Sorts the list in the NON-DECREASING order.  After sorting, all nodes but
+   * (possibly) the last one are full.
+   */
+  public void sort()
+  {
+      sortNodes(1);
+  }
+
+  /**
+   * Sorts the list in the NON-INCREASING order.  After sorting, all nodes but
+   * (possibly) the last one are full.
+   */
+  public void sortReverse()
+  {
+      sortNodes(-1);
+  }
+
+  /**
+   * Sorts the list without copying it out: each node is sorted in place, and
+   * the nodes are then merged pairwise as runs, bottom up.  Every merge writes
+   * into nodes that the runs it reads have already been drained of, so
+   * besides the list itself only a few spare nodes and one reference per node
+   * are allocated.
+   *
+   * @param sign 1 to sort in ascending order, -1 in descending order
+   */
+  private void sortNodes(int sign)
+  {
+      if (size == 0) {
+          return;
+      }
+
+      List<Node> runs = new ArrayList<>();
+      for (Node current = head.next; current != tail; ) {
+          Node next = current.next;
+          sortNode(current.data, current.count);
+          if (sign < 0) {
+              reverseNode(current.data, current.count);
+          }
+          current.next = null;
+          runs.add(current);
+          current = next;
+      }
+
+      Node[] spare = new Node[1];
+      while (runs.size() > 1) {
+          List<Node> merged = new ArrayList<>((runs.size() + 1) / 2);
+          for (int i = 0; i + 1 < runs.size(); i += 2) {
+              merged.add(merge(runs.get(i), runs.get(i + 1), sign, spare));
+          }
+          if (runs.size() % 2 != 0) {
+              merged.add(runs.get(runs.size() - 1));
+          }
+          runs = merged;
+      }
+
+      Node previous = head;
+      for (Node current = runs.get(0); current != null; current = current.next) {
+          current.previous = previous;
+          previous.next = current;
+          previous = current;
+      }
+      previous.next = tail;
+      tail.previous = previous;
+      rebuildIndex();
+  }
+
+  /**
+   * Merges two sorted runs of nodes into one run of full nodes (except
+   * possibly its last), taking from the first run on ties.  A run is a chain
+   * of nodes linked through next and ending in null.  Each node of the runs
+   * is put on the spare chain once it has been drained, and output nodes are
+   * taken from there before new ones are allocated.
+   *
+   * @param a the first run
+   * @param b the second run
+   * @param sign 1 if the runs are in ascending order, -1 if descending
+   * @param spare holds the first node of the spare chain, possibly null
+   * @return the first node of the merged run
+   */
+  private Node merge(Node a, Node b, int sign, Node[] spare)
+  {
+      Node first = null;
+      Node out = null;
+      int i = 0;
+      int j = 0;
+      while (a != null || b != null) {
+          if (out == null || out.count == nodeSize) {
+              Node node = spare[0];
+              if (node == null) {
+                  node = new Node(newArray(nodeSize));
+              }
+              else {
+                  spare[0] = node.next;
+                  node.next = null;
+                  node.count = 0;
+              }
+              if (out == null) {
+                  first = node;
+              }
+              else {
+                  out.next = node;
+              }
+              out = node;
+          }
+
+          // Copy the longest stretch of one run that goes before the head of
+          // the other, up to the end of its node or of the output node.
+          int room = nodeSize - out.count;
+          if (b == null || a != null && sign * compare(a.data, i, b.data, j) <= 0) {
+              int limit = Math.min(room, a.count - i);
+              int n = 1;
+              while (n < limit && (b == null || sign * compare(a.data, i + n, b.data, j) <= 0)) {
+                  ++n;
+              }
+              System.arraycopy(a.data, i, out.data, out.count, n);
+              out.count += n;
+              i += n;
+              if (i == a.count) {
+                  Node next = a.next;
+                  a.next = spare[0];
+                  spare[0] = a;
+                  a = next;
+                  i = 0;
+              }
+          }
+          else {
+              int limit = Math.min(room, b.count - j);
+              int n = 1;
+              while (n < limit && (a == null || sign * compare(a.data, i, b.data, j + n) > 0)) {
+                  ++n;
+              }
+              System.arraycopy(b.data, j, out.data, out.count, n);
+              out.count += n;
+              j += n;
+              if (j == b.count) {
+                  Node next = b.next;
+                  b.next = spare[0];
+                  spare[0] = b;
+                  b = next;
+                  j = 0;
+              }
+          }
+      }
+      return first;
+  }
+
+  /**
+   * Returns a string representation of this list showing
+   * the internal structure of the nodes.
+   */
+  public String toStringInternal()
+  {
+      StringBuilder sb = new StringBuilder();
+      sb.append('[');
+      for (Node current = head.next; current != tail; current = current.next) {
+          sb.append('(');
+          for (int i = 0; i < nodeSize; ++i) {
+              if (i > 0) sb.append(", ");
+              if (i < current.count) {
+                  appendElement(sb, current.data, i);
+              }
+              else {
+                  sb.append('-');
+              }
+          }
+          sb.append(')');
+          if (current.next != tail) sb.append(", ");
+      }
+      sb.append(']');
+      return sb.toString();
+  }
+
+  /**
+   * Returns the elements of the list in order, as in AbstractCollection.toString().
+   */
+  @Override
+  public String toString()
+  {
+      StringBuilder sb = new StringBuilder();
+      sb.append('[');
+      for (Node current = head.next; current != tail; current = current.next) {
+          for (int i = 0; i < current.count; ++i) {
+              if (sb.length() > 1) sb.append(", ");
+              appendElement(sb, current.data, i);
+          }
+      }
+      sb.append(']');
+      return sb.toString();
+  }
+
+  /**
+   * Links a new node into the list right after pred and inserts it into the
+   * order-statistics tree.
+   *
+   * @param pred the node after which to link, possibly the head
+   * @param node the node to link
+   */
+  private void link(Node pred, Node node)
+  {
+      node.previous = pred;
+      node.next = pred.next;
+      pred.next.previous = node;
+      pred.next = node;
+
+      node.parent = null;
+      node.left = null;
+      node.right = null;
+      node.weight = node.count;
+      node.priority = nextPriority();
+
+      if (root == null) {
+          root = node;
+          return;
+      }
+
+      Node parent;
+      if (pred == head) {
+          parent = leftmost(root);
+          parent.left = node;
+      }
+      else if (pred.right == null) {
+          parent = pred;
+          parent.right = node;
+      }
+      else {
+          parent = leftmost(pred.right);
+          parent.left = node;
+      }
+      node.parent = parent;
+      parent.adjustWeight(node.count);
+
+      while (node.parent != null && node.priority > node.parent.priority) {
+          rotateUp(node);
+      }
+  }
+
+  /**
+   * Unlinks a node from the list and removes it from the order-statistics tree.
+   *
+   * @param node the node to unlink
+   */
+  private void unlink(Node node)
+  {
+      while (node.left != null || node.right != null) {
+          if (node.left == null) {
+              rotateUp(node.right);
+          }
+          else if (node.right == null || node.left.priority > node.right.priority) {
+              rotateUp(node.left);
+          }
+          else {
+              rotateUp(node.right);
+          }
+      }
+
+      Node parent = node.parent;
+      if (parent == null) {
+          root = null;
+      }
+      else {
+          if (parent.left == node) {
+              parent.left = null;
+          }
+          else {
+              parent.right = null;
+          }
+          parent.adjustWeight(-node.weight);
+      }
+      node.parent = null;
+
+      node.previous.next = node.next;
+      node.next.previous = node.previous;
+      node.next = null;
+      node.previous = null;
+  }
+
+  /**
+   * Rotates a node above its parent, keeping the subtree weights correct.
+   *
+   * @param node the node to rotate up, which must have a parent
+   */
+  private void rotateUp(Node node)
+  {
+      Node parent = node.parent;
+      Node grandparent = parent.parent;
+
+      if (parent.left == node) {
+          parent.left = node.right;
+          if (node.right != null) node.right.parent = parent;
+          node.right = parent;
+      }
+      else {
+          parent.right = node.left;
+          if (node.left != null) node.left.parent = parent;
+          node.left = parent;
+      }
+      parent.parent = node;
+      node.parent = grandparent;
+
+      if (grandparent == null) {
+          root = node;
+      }
+      else if (grandparent.left == parent) {
+          grandparent.left = node;
+      }
+      else {
+          grandparent.right = node;
+      }
+
+      node.weight = parent.weight;
+      parent.weight = parent.count + weight(parent.left) + weight(parent.right);
+  }
+
+  /**
+   * Rebuilds the order-statistics tree from the linked nodes as a balanced tree.
+   */
+  private void rebuildIndex()
+  {
+      List<Node> nodes = new ArrayList<>();
+      for (Node current = head.next; current != tail; current = current.next) {
+          nodes.add(current);
+      }
+
+      int[] priorities = new int[nodes.size()];
+      for (int i = 0; i < priorities.length; ++i) {
+          priorities[i] = nextPriority();
+      }
+      Arrays.sort(priorities);
+
+      root = buildIndex(nodes, 0, nodes.size(), null, priorities, new int[] { priorities.length });
+  }
+
+  /**
+   * Builds a balanced subtree over nodes[from, to), handing out priorities in
+   * pre-order from largest to smallest.
+   *
+   * @param nodes the nodes in list order
+   * @param from the first node in the subtree
+   * @param to one past the last node in the subtree
+   * @param parent the parent of the subtree
+   * @param priorities the priorities to hand out, in increasing order
+   * @param next one past the next priority to hand out
+   * @return the root of the subtree
+   */
+  private Node buildIndex(List<Node> nodes, int from, int to, Node parent, int[] priorities, int[] next)
+  {
+      if (from >= to) {
+          return null;
+      }
+
+      int mid = (from + to) >>> 1;
+      Node node = nodes.get(mid);
+      node.parent = parent;
+      node.priority = priorities[--next[0]];
+      node.left = buildIndex(nodes, from, mid, node, priorities, next);
+      node.right = buildIndex(nodes, mid + 1, to, node, priorities, next);
+      node.weight = node.count + weight(node.left) + weight(node.right);
+      return node;
+  }
+
+  /**
+   * Returns the leftmost node of the given subtree.
+   *
+   * @param node the root of the subtree
+   * @return the leftmost node
+   */
+  private static Node leftmost(Node node)
+  {
+      while (node.left != null) {
+          node = node.left;
+      }
+      return node;
+  }
+
+  /**
+   * Returns the number of elements in the given subtree.
+   *
+   * @param node the root of the subtree, possibly null
+   * @return the total count of the subtree
+   */
+  private static int weight(Node node)
+  {
+      return node == null ? 0 : node.weight;
+  }
+
+  /**
+   * Returns the next treap priority.
+   *
+   * @return a pseudo-random priority
+   */
+  private int nextPriority()
+  {
+      seed ^= seed << 13;
+      seed ^= seed >>> 17;
+      seed ^= seed << 5;
+      return seed;
+  }
+
+  /**
+   * Walks the node arrays in order for the unboxed iterators of the
+   * subclasses, which read the slot that advance() returns.
+   */
+  abstract class Cursor
+  {
+    /**
+     * The node holding the next value.
+     */
+    Node node = head.next;
+
+    /**
+     * The offset of the next value within node.
+     */
+    private int index;
+
+    /**
+     * The number of values not yet returned.
+     */
+    private int remaining = size;
+
+    /**
+     * Returns true if there are values not yet returned.
+     *
+     * @return true if advance() has a value to move past
+     */
+    public boolean hasNext() { return remaining > 0; }
+
+    /**
+     * Moves past the next value, leaving node on the node that holds it.
+     *
+     * @return the offset of the value within node
+     * @throws NoSuchElementException if every value has been returned
+     */
+    final int advance()
+    {
+        if (remaining == 0) { throw new NoSuchElementException(); }
+
+        if (index == node.count) {
+            node = node.next;
+            index = 0;
+        }
+        --remaining;
+        return index++;
+    }
+  }
+
+  /**
+   * Node type for the primitive lists.  Slots at or past count hold stale
+   * values and are never read.
+   */
+  static final class Node
+  {
+    /**
+     * Backing primitive array of this node.
+     */
+    final Object data;
+
+    /**
+     * Link to next node.
+     */
+    Node next;
+
+    /**
+     * Link to previous node.
+     */
+    Node previous;
+
+    /**
+     * Number of elements in this node.
+     */
+    int count;
+
+    /**
+     * Parent of this node in the order-statistics tree.
+     */
+    Node parent;
+
+    /**
+     * Left child of this node in the order-statistics tree.
+     */
+    Node left;
+
+    /**
+     * Right child of this node in the order-statistics tree.
+     */
+    Node right;
+
+    /**
+     * Treap priority; a node's priority is never less than its children's.
+     */
+    int priority;
+
+    /**
+     * Total number of elements in the subtree rooted at this node.
+     */
+    int weight;
+
+    /**
+     * Constructs an empty node backed by the given array.
+     * @param data the backing array, or null for a dummy node
+     */
+    Node(Object data)
+    {
+      this.data = data;
+    }
+
+    /**
+     * Adds delta to the weight of this node and all of its ancestors.
+     * @param delta the change in the number of elements
+     */
+    void adjustWeight(int delta)
+    {
+      for (Node n = this; n != null; n = n.parent)
+      {
+        n.weight += delta;
+      }
+    }
+  }
+}
@@ -0,0 +1,139 @@
+package edu.iastate.cs228.hw3;
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
+
+/**
+ * Immutable view of a StoutList as it was when snapshot() was called.  It
+ * holds the root of the order-statistics tree and the size of that moment,
+ * and reads the nodes through their tree links alone: the list keeps
+ * relinking the originals into its own copies, but never changes the
+ * elements, counts or children of a node it has not copied.
+ */
+final class Snapshot<E extends Comparable<? super E>> extends AbstractList<E> implements RandomAccess
+{
+  /**
+   * The root of the order-statistics tree over the nodes, or null if the
+   * snapshot is empty.
+   */
+  private final StoutList<E>.Node root;
+
+  /**
+   * Number of elements in the snapshot.
+   */
+  private final int size;
+
+  /**
+   * Constructs a snapshot of the given nodes.
+   *
+   * @param root the root of the tree over the nodes
+   * @param size the number of elements
+   */
+  Snapshot(StoutList<E>.Node root, int size)
+  {
+      this.root = root;
+      this.size = size;
+  }
+
+  @Override
+  public int size() { return size; }
+
+  @Override
+  public E get(int index)
+  {
+      if (index < 0 || index >= size) { throw new IndexOutOfBoundsException(); }
+
+      int target = index;
+      StoutList<E>.Node current = root;
+      while (true) {
+          int leftWeight = StoutList.weight(current.left);
+          if (target < leftWeight) {
+              current = current.left;
+          }
+          else if (target < leftWeight + current.count) {
+              return current.get(target - leftWeight);
+          }
+          else {
+              target -= leftWeight + current.count;
+              current = current.right;
+          }
+      }
+  }
+
+  @Override
+  public void forEach(Consumer<? super E> action)
+  {
+      if (action == null) throw new NullPointerException();
+
+      forEach(root, action);
+  }
+
+  /**
+   * Passes the elements of the given subtree to the action in order.
+   * Only left children are recursed into, so the depth of the recursion
+   * is at most the height of the tree.
+   *
+   * @param node the root of the subtree, possibly null
+   * @param action the action to perform on each element
+   */
+  private void forEach(StoutList<E>.Node node, Consumer<? super E> action)
+  {
+      for (; node != null; node = node.right) {
+          forEach(node.left, action);
+          for (int i = 0, count = node.count; i < count; ++i) {
+              action.accept(node.get(i));
+          }
+      }
+  }
+
+  @Override
+  public Iterator<E> iterator()
+  {
+      return new Iterator<E>()
+      {
+          /**
+           * The nodes still to visit whose left subtrees have been
+           * visited or are being visited, nearest first.
+           */
+          private final ArrayDeque<StoutList<E>.Node> pending = pushLeft(new ArrayDeque<>(), root);
+
+          private StoutList<E>.Node node = pending.poll();
+          private int index;
+
+          @Override
+          public boolean hasNext() { return node != null; }
+
+          @Override
+          public E next()
+          {
+              if (node == null) throw new NoSuchElementException();
+
+              E item = node.get(index);
+              if (++index == node.count) {
+                  node = pushLeft(pending, node.right).poll();
+                  index = 0;
+              }
+              return item;
+          }
+      };
+  }
+
+  /**
+   * Pushes the given node and its chain of left children onto a stack.
+   *
+   * @param stack the stack of nodes still to visit
+   * @param node the node to start from, possibly null
+   * @return the stack
+   */
+  private ArrayDeque<StoutList<E>.Node> pushLeft(ArrayDeque<StoutList<E>.Node> stack, StoutList<E>.Node node)
+  {
+      for (; node != null; node = node.left) {
+          stack.push(node);
+      }
+      return stack;
+  }
+}
@@ -0,0 +1,85 @@
+package edu.iastate.cs228.hw3;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Fork/join task that sorts a range of the detached nodes of a list for
+ * parallelSort().  Ranges with fewer than the threshold number of elements
+ * are sorted sequentially; larger ranges are split in half, sorted
+ * concurrently and merged.
+ */
+final class SortTask<E extends Comparable<? super E>> extends RecursiveTask<StoutList<E>.Node>
+{
+  /**
+   * Version of the serialized form inherited from ForkJoinTask.  Tasks
+   * are never serialized.
+   */
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * The list being sorted.
+   */
+  private final StoutList<E> list;
+
+  /**
+   * The detached nodes of the list.
+   */
+  private final List<StoutList<E>.Node> nodes;
+
+  /**
+   * The first node to sort.
+   */
+  private final int from;
+
+  /**
+   * One past the last node to sort.
+   */
+  private final int to;
+
+  /**
+   * The comparator to sort by.
+   */
+  private final Comparator<? super E> comp;
+
+  /**
+   * Number of nodes below which the range is sorted sequentially.
+   */
+  private final int grain;
+
+  /**
+   * Constructs a task for nodes[from, to).
+   *
+   * @param list the list being sorted
+   * @param nodes the detached nodes of the list
+   * @param from the first node to sort
+   * @param to one past the last node to sort
+   * @param comp the comparator to sort by
+   * @param grain number of nodes below which the range is sorted sequentially
+   */
+  SortTask(StoutList<E> list, List<StoutList<E>.Node> nodes, int from, int to, Comparator<? super E> comp,
+          int grain)
+  {
+      this.list = list;
+      this.nodes = nodes;
+      this.from = from;
+      this.to = to;
+      this.comp = comp;
+      this.grain = grain;
+  }
+
+  @Override
+  protected StoutList<E>.Node compute()
+  {
+      if (to - from <= grain) {
+          return new MergeSorter<>(list, comp).sortRange(nodes, from, to);
+      }
+
+      int mid = (from + to) >>> 1;
+      SortTask<E> left = new SortTask<>(list, nodes, from, mid, comp, grain);
+      left.fork();
+      StoutList<E>.Node right = new SortTask<>(list, nodes, mid, to, comp, grain).compute();
+      return new MergeSorter<>(list, comp).merge(left.join(), right);
+  }
+}
@@ -0,0 +1,465 @@
+package edu.iastate.cs228.hw3;
+
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+/**
+ * Stout list that keeps its elements in sorted order, either their natural
+ * order or that of a comparator.  Elements are inserted at their place in the
+ * order, after any equal elements, so the list is a sorted multiset that
+ * keeps insertion order among equal elements.
+ *
+ * Insertions and searches descend the order-statistics tree by the first
+ * element of each node and then binary-search the node found, so add(),
+ * contains(), indexOf() and the navigation methods take O(log n)
+ * comparisons.  An insertion then goes through the usual StoutList rules,
+ * splitting the node if it is full.
+ *
+ * Operations that would put an element at a chosen position, such as
+ * add(int, E), set(), addFirst(), addLast() and ListIterator.add(), and the
+ * sort methods, throw UnsupportedOperationException.  Removals are
+ * supported, so pollFirst() and pollLast() remove the smallest and largest
+ * elements.
+ */
+public class SortedStoutList<E extends Comparable<? super E>> extends StoutList<E>
+{
+  /**
+   * The comparator given to the constructor, or null for natural order.
+   */
+  private final Comparator<? super E> comparator;
+
+  /**
+   * The order of the list, never null.
+   */
+  private final Comparator<? super E> order;
+
+  /**
+   * Constructs an empty list in natural order with the default node size.
+   */
+  public SortedStoutList()
+  {
+    this(null);
+  }
+
+  /**
+   * Constructs an empty list in the order of the given comparator with the
+   * default node size.
+   * @param comparator the order of the list, or null for natural order
+   */
+  public SortedStoutList(Comparator<? super E> comparator)
+  {
+    super();
+    this.comparator = comparator;
+    this.order = comparator == null ? Comparator.naturalOrder() : comparator;
+  }
+
+  /**
+   * Constructs an empty list in the order of the given comparator with the
+   * given node size and node layout.
+   * @param nodeSize number of elements that may be stored in each node, must be
+   *   an even number
+   * @param circular true to store the elements of each node in a ring buffer
+   * @param comparator the order of the list, or null for natural order
+   */
+  public SortedStoutList(int nodeSize, boolean circular, Comparator<? super E> comparator)
+  {
+    super(nodeSize, circular);
+    this.comparator = comparator;
+    this.order = comparator == null ? Comparator.naturalOrder() : comparator;
+  }
+
+  /**
+   * Returns the comparator that orders the list.
+   *
+   * @return the comparator, or null if the list is in natural order
+   */
+  public Comparator<? super E> comparator() { return comparator; }
+
+  /**
+   * Inserts the item at its place in the order, after any equal elements.
+   *
+   * @param item the item to add
+   * @return true
+   * @throws NullPointerException if the item is equal to null
+   */
+  @Override
+  public boolean add(E item)
+  {
+      if (item == null) {
+          throw new NullPointerException();
+      }
+
+      super.add(search(item, order, true), item);
+      return true;
+  }
+
+  /**
+   * Inserts every element of the given collection at its place in the order.
+   *
+   * @param c the elements to add
+   * @return true if the list changed
+   * @throws NullPointerException if the collection or any of its elements is null
+   */
+  @Override
+  public boolean addAll(Collection<? extends E> c)
+  {
+      for (E item : c) {
+          add(item);
+      }
+      return !c.isEmpty();
+  }
+
+  /**
+   * Not supported, since the position of an element is given by the order.
+   *
+   * @throws UnsupportedOperationException always
+   */
+  @Override
+  public void add(int pos, E item) { throw new UnsupportedOperationException(); }
+
+  /**
+   * Not supported, since the position of an element is given by the order.
+   *
+   * @throws UnsupportedOperationException always
+   */
+  @Override
+  public boolean addAll(int pos, Collection<? extends E> c) { throw new UnsupportedOperationException(); }
+
+  /**
+   * Not supported, since the position of an element is given by the order.
+   *
+   * @throws UnsupportedOperationException always
+   */
+  @Override
+  public E set(int pos, E item) { throw new UnsupportedOperationException(); }
+
+  /**
+   * Not supported, since the position of an element is given by the order.
+   * This is also what offerFirst() and push() call; offer() inserts in
+   * order like add().
+   *
+   * @throws UnsupportedOperationException always
+   */
+  @Override
+  public void addFirst(E item) { throw new UnsupportedOperationException(); }
+
+  /**
+   * Not supported, since the position of an element is given by the order.
+   * This is also what offerLast() calls.
+   *
+   * @throws UnsupportedOperationException always
+   */
+  @Override
+  public void addLast(E item) { throw new UnsupportedOperationException(); }
+
+  /**
+   * Not supported, since the position of an element is given by the order.
+   *
+   * @throws UnsupportedOperationException always
+   */
+  @Override
+  public void concat(StoutList<E> other) { throw new UnsupportedOperationException(); }
+
+  /**
+   * Not supported, since the position of an element is given by the order.
+   *
+   * @throws UnsupportedOperationException always
+   */
+  @Override
+  public void splice(int pos, StoutList<E> other) { throw new UnsupportedOperationException(); }
+
+  /**
+   * Not supported, since the list is always sorted in its own order.
+   *
+   * @throws UnsupportedOperationException always
+   */
+  @Override
+  public void sort(Comparator<? super E> comp) { throw new UnsupportedOperationException(); }
+
+  /**
+   * Not supported, since the list is always sorted in its own order.
+   *
+   * @throws UnsupportedOperationException always
+   */
+  @Override
+  public void parallelSort(Comparator<? super E> comp, int threshold) { throw new UnsupportedOperationException(); }
+
+  /**
+   * Not supported, since the list is always sorted in its own order.
+   *
+   * @throws UnsupportedOperationException always
+   */
+  @Override
+  public ExternalSortStats externalSort(Comparator<? super E> comp, ElementCodec<E> codec, Path directory, int runSize,
+          Consumer<? super ExternalSortStats> progress) { throw new UnsupportedOperationException(); }
+
+  /**
+   * Not supported, since the list is always sorted in its own order.  This
+   * is what sort() on a subList() view calls.
+   *
+   * @throws UnsupportedOperationException always
+   */
+  @Override
+  void sortRange(int fromIndex, int toIndex, Comparator<? super E> comp) { throw new UnsupportedOperationException(); }
+
+  /**
+   * Constructs a list iterator whose add() and set() are not supported.
+   *
+   * @return the list iterator
+   */
+  @Override
+  public ListIterator<E> listIterator() { return listIterator(0); }
+
+  /**
+   * Constructs a list iterator at the given index whose add() and set() are
+   * not supported.
+   *
+   * @param index the position at which to construct the iterator
+   * @return the list iterator
+   */
+  @Override
+  public ListIterator<E> listIterator(int index) { return new SortedListIterator(super.listIterator(index)); }
+
+  /**
+   * Returns true if the list contains an element equal to o in the order.
+   *
+   * @param o the object to look for
+   * @return true if some element compares equal to o
+   * @throws ClassCastException if o cannot be compared with the elements
+   */
+  @Override
+  public boolean contains(Object o) { return indexOf(o) >= 0; }
+
+  /**
+   * Returns the position of the first element equal to o in the order.
+   *
+   * @param o the object to look for
+   * @return the position of the first match, or -1 if there is none
+   * @throws ClassCastException if o cannot be compared with the elements
+   */
+  @Override
+  public int indexOf(Object o)
+  {
+      if (o == null) {
+          return -1;
+      }
+
+      // Unchecked warning unavoidable.
+      @SuppressWarnings("unchecked")
+      E key = (E) o;
+      int pos = search(key, order, false);
+      return pos < size() && order.compare(get(pos), key) == 0 ? pos : -1;
+  }
+
+  /**
+   * Returns the position of the last element equal to o in the order.
+   *
+   * @param o the object to look for
+   * @return the position of the last match, or -1 if there is none
+   * @throws ClassCastException if o cannot be compared with the elements
+   */
+  @Override
+  public int lastIndexOf(Object o)
+  {
+      if (o == null) {
+          return -1;
+      }
+
+      // Unchecked warning unavoidable.
+      @SuppressWarnings("unchecked")
+      E key = (E) o;
+      int pos = search(key, order, true) - 1;
+      return pos >= 0 && order.compare(get(pos), key) == 0 ? pos : -1;
+  }
+
+  /**
+   * Removes the first element equal to o in the order.
+   *
+   * @param o the object to remove
+   * @return true if an element was removed
+   * @throws ClassCastException if o cannot be compared with the elements
+   */
+  @Override
+  public boolean remove(Object o)
+  {
+      int pos = indexOf(o);
+      if (pos < 0) {
+          return false;
+      }
+      remove(pos);
+      return true;
+  }
+
+  /**
+   * Returns the first element of the list.
+   *
+   * @return the smallest element
+   * @throws NoSuchElementException if the list is empty
+   */
+  public E first()
+  {
+      if (isEmpty()) throw new NoSuchElementException();
+      return get(0);
+  }
+
+  /**
+   * Returns the last element of the list.
+   *
+   * @return the largest element
+   * @throws NoSuchElementException if the list is empty
+   */
+  public E last()
+  {
+      if (isEmpty()) throw new NoSuchElementException();
+      return get(size() - 1);
+  }
+
+  /**
+   * Returns the last element less than or equal to the given one.
+   *
+   * @param e the element to search for
+   * @return the greatest element not after e, or null if there is none
+   */
+  public E floor(E e)
+  {
+      int pos = search(e, order, true);
+      return pos == 0 ? null : get(pos - 1);
+  }
+
+  /**
+   * Returns the first element greater than or equal to the given one.
+   *
+   * @param e the element to search for
+   * @return the least element not before e, or null if there is none
+   */
+  public E ceiling(E e)
+  {
+      int pos = search(e, order, false);
+      return pos == size() ? null : get(pos);
+  }
+
+  /**
+   * Returns the last element strictly less than the given one.
+   *
+   * @param e the element to search for
+   * @return the greatest element before e, or null if there is none
+   */
+  public E lower(E e)
+  {
+      int pos = search(e, order, false);
+      return pos == 0 ? null : get(pos - 1);
+  }
+
+  /**
+   * Returns the first element strictly greater than the given one.
+   *
+   * @param e the element to search for
+   * @return the least element after e, or null if there is none
+   */
+  public E higher(E e)
+  {
+      int pos = search(e, order, true);
+      return pos == size() ? null : get(pos);
+  }
+
+  /**
+   * Returns the number of elements from fromElement, inclusive, to
+   * toElement, exclusive.
+   *
+   * @param fromElement the low end of the range
+   * @param toElement the high end of the range
+   * @return the number of elements in the range
+   * @throws IllegalArgumentException if fromElement is after toElement
+   */
+  public int rangeSize(E fromElement, E toElement)
+  {
+      int[] bounds = bounds(fromElement, toElement);
+      return bounds[1] - bounds[0];
+  }
+
+  /**
+   * Returns a view of the elements from fromElement, inclusive, to
+   * toElement, exclusive.  The view is backed by this list, so removals
+   * through it remove from this list; like this list, it does not support
+   * adding or replacing elements.
+   *
+   * @param fromElement the low end of the range
+   * @param toElement the high end of the range
+   * @return the elements in the range
+   * @throws IllegalArgumentException if fromElement is after toElement
+   */
+  public List<E> range(E fromElement, E toElement)
+  {
+      int[] bounds = bounds(fromElement, toElement);
+      return subList(bounds[0], bounds[1]);
+  }
+
+  /**
+   * Returns the positions of the first element not before fromElement and
+   * of the first element not before toElement.
+   *
+   * @param fromElement the low end of the range
+   * @param toElement the high end of the range
+   * @return the two positions
+   */
+  private int[] bounds(E fromElement, E toElement)
+  {
+      if (order.compare(fromElement, toElement) > 0) throw new IllegalArgumentException();
+
+      return new int[] { search(fromElement, order, false), search(toElement, order, false) };
+  }
+
+  /**
+   * List iterator that forwards to a StoutList iterator but rejects add()
+   * and set(), which could break the order.
+   */
+  private class SortedListIterator implements ListIterator<E>
+  {
+      /**
+       * The iterator being forwarded to.
+       */
+      private final ListIterator<E> iter;
+
+      /**
+       * Constructs an iterator forwarding to the given one.
+       *
+       * @param iter the iterator being forwarded to
+       */
+      SortedListIterator(ListIterator<E> iter)
+      {
+          this.iter = iter;
+      }
+
+      @Override
+      public boolean hasNext() { return iter.hasNext(); }
+
+      @Override
+      public E next() { return iter.next(); }
+
+      @Override
+      public boolean hasPrevious() { return iter.hasPrevious(); }
+
+      @Override
+      public E previous() { return iter.previous(); }
+
+      @Override
+      public int nextIndex() { return iter.nextIndex(); }
+
+      @Override
+      public int previousIndex() { return iter.previousIndex(); }
+
+      @Override
+      public void remove() { iter.remove(); }
+
+      @Override
+      public void set(E e) { throw new UnsupportedOperationException(); }
+
+      @Override
+      public void add(E e) { throw new UnsupportedOperationException(); }
+  }
+}
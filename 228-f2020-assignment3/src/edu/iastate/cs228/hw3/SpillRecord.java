@@ -0,0 +1,44 @@
+package edu.iastate.cs228.hw3;
+
+/**
+ * Location of a node's elements in a spill file.
+ */
+final class SpillRecord
+{
+  /**
+   * The file holding the record.
+   */
+  final SpillStore store;
+
+  /**
+   * Offset of the record in the file.
+   */
+  final long position;
+
+  /**
+   * Length of the record in bytes.
+   */
+  final int length;
+
+  /**
+   * Length of the space the record occupies, which may be longer than the
+   * record when it was written over a longer one.
+   */
+  final int slot;
+
+  /**
+   * Constructs a record.
+   *
+   * @param store the file holding the record
+   * @param position the offset of the record
+   * @param length the length of the record
+   * @param slot the length of the space it occupies
+   */
+  SpillRecord(SpillStore store, long position, int length, int slot)
+  {
+      this.store = store;
+      this.position = position;
+      this.length = length;
+      this.slot = slot;
+  }
+}
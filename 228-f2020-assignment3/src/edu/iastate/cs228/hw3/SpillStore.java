@@ -0,0 +1,302 @@
+package edu.iastate.cs228.hw3;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * File that a spilling StoutList writes its nodes to, shared with the
+ * lists split from it along with the clock and the budget.  The elements of
+ * a node are written as one record, in the encoding StoutList.writeTo()
+ * uses for a node's elements, either over the node's previous record if it
+ * owns one that is large enough, or else in the smallest free space that
+ * fits it, or at the end of the file.  The space of a record is freed when
+ * its node outgrows it or is dropped from its list; free spaces next to
+ * each other are joined, and free space at the end of the file is cut off,
+ * so under churn the file stays close to the size of the records in use.
+ * The file is deleted when the last list using it stops spilling.
+ */
+final class SpillStore
+{
+  /**
+   * The open spill file.
+   */
+  private final FileChannel channel;
+
+  /**
+   * The codec for the elements.
+   */
+  private final ElementCodec<Object> codec;
+
+  /**
+   * Length of the file, where a new record goes if no free space fits it.
+   */
+  private long end;
+
+  /**
+   * Offsets of the free spaces, by length.
+   */
+  private final TreeMap<Long, TreeSet<Long>> freeByLength = new TreeMap<>();
+
+  /**
+   * Lengths of the free spaces, by offset.
+   */
+  private final TreeMap<Long, Long> freeByPosition = new TreeMap<>();
+
+  /**
+   * Buffer records are encoded into and decoded from, grown as needed.
+   */
+  private ByteBuffer buf = ByteBuffer.allocate(1 << 12);
+
+  /**
+   * Number of nodes the lists spilling to this file keep in memory.
+   */
+  final int residentNodes;
+
+  /**
+   * The nodes in memory, in the order the clock hand visits them.  Nodes
+   * that have been unlinked or spilled since they were added are dropped
+   * when the hand reaches them.
+   */
+  final ArrayDeque<Object> clock = new ArrayDeque<>();
+
+  /**
+   * Number of lists spilling to this file.
+   */
+  int users = 1;
+
+  /**
+   * Opens a spill file, creating or truncating it.
+   *
+   * @param file the path of the file
+   * @param codec the codec for the elements
+   * @param residentNodes the number of nodes to keep in memory
+   * @throws IOException if the file cannot be opened
+   */
+  SpillStore(Path file, ElementCodec<?> codec, int residentNodes) throws IOException
+  {
+      this.residentNodes = residentNodes;
+      this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+              StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+      // Unchecked warning unavoidable.
+      @SuppressWarnings("unchecked")
+      ElementCodec<Object> objectCodec = (ElementCodec<Object>) codec;
+      this.codec = objectCodec;
+  }
+
+  /**
+   * Writes the elements of a node as a new record, over the previous record
+   * of the node if it fits there, and otherwise in new space, freeing that
+   * of the previous record.
+   *
+   * @param data the array of the node
+   * @param start the index of the first element in data
+   * @param count the number of elements, which wrap around the end of data
+   * @param previous a record the node owns and may overwrite, or null
+   * @return the record written
+   * @throws UncheckedIOException if writing to the file fails
+   * @throws IllegalStateException if the codec writes a different number
+   *   of bytes than its encodedSize()
+   */
+  SpillRecord write(Object[] data, int start, int count, SpillRecord previous)
+  {
+      int fixed = codec.fixedSize();
+      int length = 0;
+      for (int i = 0, j = start; i < count; ++i, j = j + 1 == data.length ? 0 : j + 1) {
+          length += fixed >= 0 ? fixed : Integer.BYTES + codec.encodedSize(data[j]);
+      }
+      if (buf.capacity() < length) {
+          buf = ByteBuffer.allocate(Math.max(length, buf.capacity() * 2));
+      }
+      buf.clear();
+      for (int i = 0, j = start; i < count; ++i, j = j + 1 == data.length ? 0 : j + 1) {
+          int at = buf.position();
+          if (fixed < 0) {
+              buf.position(at + Integer.BYTES);
+          }
+          codec.encode(data[j], buf);
+          if (fixed < 0) {
+              buf.putInt(at, buf.position() - at - Integer.BYTES);
+          }
+      }
+      if (buf.position() != length) throw new IllegalStateException();
+      buf.flip();
+
+      long position;
+      int slot;
+      if (previous != null && previous.slot >= length) {
+          position = previous.position;
+          slot = previous.slot;
+      }
+      else {
+          if (previous != null) {
+              free(previous);
+          }
+          position = allocate(length);
+          slot = length;
+      }
+      try {
+          while (buf.hasRemaining()) {
+              channel.write(buf, position + buf.position());
+          }
+      }
+      catch (IOException e) {
+          throw new UncheckedIOException(e);
+      }
+      return new SpillRecord(this, position, length, slot);
+  }
+
+  /**
+   * Takes space for a record from the smallest free space that fits it,
+   * returning the rest of that space to the free list, or from the end of
+   * the file.
+   *
+   * @param length the length of the record
+   * @return the offset of the space
+   */
+  private long allocate(int length)
+  {
+      Map.Entry<Long, TreeSet<Long>> fit = freeByLength.ceilingEntry((long) length);
+      if (fit == null) {
+          long position = end;
+          end += length;
+          return position;
+      }
+      long position = fit.getValue().first();
+      removeFree(position, fit.getKey());
+      if (fit.getKey() > length) {
+          addFree(position + length, fit.getKey() - length);
+      }
+      return position;
+  }
+
+  /**
+   * Frees the space of a record, which no node reads from then on.  The
+   * space is joined with the free spaces on either side, and cut off the
+   * file if it reaches the end.
+   *
+   * @param record the record to free
+   * @throws UncheckedIOException if the file cannot be shortened
+   */
+  void free(SpillRecord record)
+  {
+      long position = record.position;
+      long length = record.slot;
+      Map.Entry<Long, Long> before = freeByPosition.lowerEntry(position);
+      if (before != null && before.getKey() + before.getValue() == position) {
+          removeFree(before.getKey(), before.getValue());
+          position = before.getKey();
+          length += before.getValue();
+      }
+      Long after = freeByPosition.get(position + length);
+      if (after != null) {
+          removeFree(position + length, after);
+          length += after;
+      }
+
+      if (position + length == end) {
+          end = position;
+          try {
+              channel.truncate(end);
+          }
+          catch (IOException e) {
+              throw new UncheckedIOException(e);
+          }
+      }
+      else {
+          addFree(position, length);
+      }
+  }
+
+  /**
+   * Adds a free space to both maps.
+   *
+   * @param position the offset of the space
+   * @param length the length of the space
+   */
+  private void addFree(long position, long length)
+  {
+      freeByPosition.put(position, length);
+      freeByLength.computeIfAbsent(length, k -> new TreeSet<>()).add(position);
+  }
+
+  /**
+   * Removes a free space from both maps.
+   *
+   * @param position the offset of the space
+   * @param length the length of the space
+   */
+  private void removeFree(long position, long length)
+  {
+      freeByPosition.remove(position);
+      TreeSet<Long> positions = freeByLength.get(length);
+      positions.remove(position);
+      if (positions.isEmpty()) {
+          freeByLength.remove(length);
+      }
+  }
+
+  /**
+   * Returns the length of the file.
+   *
+   * @return the number of bytes in the file
+   */
+  long length() { return end; }
+
+  /**
+   * Reads the elements of a record into the start of an array.
+   *
+   * @param record the record to read
+   * @param dest the array to read into
+   * @param count the number of elements in the record
+   * @throws UncheckedIOException if reading from the file fails
+   */
+  void read(SpillRecord record, Object[] dest, int count)
+  {
+      if (buf.capacity() < record.length) {
+          buf = ByteBuffer.allocate(Math.max(record.length, buf.capacity() * 2));
+      }
+      buf.clear().limit(record.length);
+      try {
+          while (buf.hasRemaining()) {
+              if (channel.read(buf, record.position + buf.position()) < 0) throw new EOFException();
+          }
+      }
+      catch (IOException e) {
+          throw new UncheckedIOException(e);
+      }
+      buf.flip();
+
+      int fixed = codec.fixedSize();
+      for (int i = 0; i < count; ++i) {
+          int length = fixed >= 0 ? fixed : buf.getInt();
+          int end = buf.position() + length;
+          buf.limit(end);
+          dest[i] = codec.decode(buf);
+          buf.limit(record.length).position(end);
+      }
+  }
+
+  /**
+   * Closes and deletes the file.
+   *
+   * @throws UncheckedIOException if closing the file fails
+   */
+  void close()
+  {
+      try {
+          channel.close();
+      }
+      catch (IOException e) {
+          throw new UncheckedIOException(e);
+      }
+  }
+}
@@ -1,31 +1,127 @@
 package edu.iastate.cs228.hw3;
 
-import java.io.Serializable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.AbstractList;
 import java.util.AbstractSequentialList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Deque;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.ListIterator;
 import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Implementation of the list interface based on linked nodes
  * that store multiple items per node.  Rules for adding and removing
  * elements ensure that each node (except possibly the last one)
  * is at least half full.
+ *
+ * The nodes are additionally kept in an order-statistics tree (a treap
+ * keyed by position and weighted by each node's count), so finding the
+ * node that holds a given position takes O(log n) instead of a walk
+ * from the head.
+ *
+ * The list is also a Deque.  Its head and tail operations work directly on
+ * the first and last nodes; so that pollFirst() can drain the first node
+ * without merging, the first node is exempt from the half-full rule like
+ * the last one, and is unlinked once empty.
+ *
+ * A list too large for memory can spill its nodes to a file with
+ * enableSpill().  Nodes that have not been used recently are written out and
+ * left in place as stubs that keep only their count, capacity and first
+ * element, so the index, positional lookups and the descent of a sorted
+ * search never read the file; a stub is read back when an operation or
+ * iterator reaches its elements.
  */
-public class StoutList<E extends Comparable<? super E>> extends AbstractSequentialList<E>
+public class StoutList<E extends Comparable<? super E>> extends AbstractSequentialList<E> implements Deque<E>
 {
+  /**
+   * Receives the elements of one node from forEachChunk().  Node arrays are
+   * created as Comparable[], so they are passed as Object[]; every element in
+   * the given range is a T.
+   */
+  @FunctionalInterface
+  public interface ChunkConsumer<T>
+  {
+    /**
+     * Accepts data[from, from + length) of a node's backing array.
+     * @param data the backing array of the node
+     * @param from the offset of the first element
+     * @param length the number of elements
+     */
+    void accept(Object[] data, int from, int length);
+  }
+
   /**
    * Default number of elements that may be stored in each node.
    */
   private static final int DEFAULT_NODESIZE = 4;
+
+  /**
+   * Default number of elements below which parallelSort() sorts sequentially.
+   */
+  private static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 13;
+
+  /**
+   * Number of nodes a positional lookup walks from the finger before it
+   * falls back to the order-statistics tree.
+   */
+  private static final int FINGER_REACH = 8;
+
+  /**
+   * Largest capacity adaptive node sizing grows a node to, unless the node
+   * size is larger.
+   */
+  private static final int MAX_ADAPTIVE_NODESIZE = 1024;
+
+  /**
+   * First four bytes of a stream written by writeTo(), "STOU" in ASCII.
+   */
+  private static final int STREAM_MAGIC = 0x53544F55;
+
+  /**
+   * Version of the stream format written by writeTo().
+   */
+  private static final int STREAM_VERSION = 1;
+
+  /**
+   * Size of the buffer writeTo() and readFrom() move bytes through.
+   */
+  static final int STREAM_BUFFER_SIZE = 1 << 16;
   
   /**
    * Number of elements that can be stored in each node.
    */
-  private final int nodeSize;
+  final int nodeSize;
   
+  /**
+   * Whether nodes store their elements in a ring buffer.
+   */
+  private final boolean circular;
+
   /**
    * Dummy node for head.  It should be private but set to public here only  
    * for grading purpose.  In practice, you should always make the head of a 
@@ -36,13 +132,95 @@ public class StoutList<E extends Comparable<? super E>> extends AbstractSequenti
   /**
    * Dummy node for tail.
    */
-  private final Node tail;
+  final Node tail;
   
   /**
    * Number of elements in the list.
    */
   private int size;
 
+  /**
+   * Root of the order-statistics tree over the nodes of this list, or null
+   * if the list is empty.  The dummy head and tail are never in the tree.
+   */
+  private Node root;
+
+  /**
+   * State of the xorshift generator used for treap priorities.
+   */
+  private int seed = 0x2545F491;
+
+  /**
+   * The node found by the last positional lookup, or null if a structural
+   * change has happened since.  Lookups near it walk from it instead of
+   * descending the order-statistics tree.
+   */
+  private Node finger;
+
+  /**
+   * Position of the first element of finger.
+   */
+  private int fingerStart;
+
+  /**
+   * Structural counters, or null while stats are disabled.
+   */
+  private Recorder recorder;
+
+  /**
+   * Whether some nodes may be shared with a snapshot, in which case a write
+   * copies each node it changes unless the node carries the current version.
+   */
+  private boolean shared;
+
+  /**
+   * Version of the nodes the list may change in place.  snapshot() starts a
+   * new version, so every node the snapshot holds has an older one, while
+   * nodes made or copied since carry this one.
+   */
+  private Object version = new Object();
+
+  /**
+   * Number of times the list has copied nodes away from a snapshot, so
+   * iterators can tell that the nodes they hold may no longer be the list's.
+   */
+  private int skeleton;
+
+  /**
+   * The latest snapshot, returned again by snapshot() until the next write.
+   */
+  private List<E> snapshot;
+
+  /**
+   * Whether each positional insertion or removal also does one step of
+   * incremental compaction.
+   */
+  private boolean incrementalCompaction;
+
+  /**
+   * The node the next incremental compaction step fills from its successor,
+   * or null to start over at the first node.
+   */
+  private Node compactCursor;
+
+  /**
+   * Whether node capacities adapt to the way each region of the list is
+   * modified.
+   */
+  private boolean adaptiveNodeSize;
+
+  /**
+   * Number of elements added at the end of the list since the last
+   * insertion or removal at a position inside it.
+   */
+  private int appendRun;
+
+  /**
+   * File the nodes are spilled to, along with the clock of nodes in memory,
+   * or null if the list keeps every node in memory.
+   */
+  SpillStore spill;
+
   /**
    * Constructs an empty list with the default node size.
    */
@@ -57,6 +235,21 @@ public class StoutList<E extends Comparable<? super E>> extends AbstractSequenti
    *   an even number
    */
   public StoutList(int nodeSize)
+  {
+    this(nodeSize, false);
+  }
+
+  /**
+   * Constructs an empty list with the given node size and node layout.  In the
+   * circular layout each node's array is used as a ring buffer, so inserting or
+   * removing an element shifts whichever side of it is shorter, and edits at
+   * either end of a node take constant time.  This pays off for large node
+   * sizes with edits near the front of nodes.
+   * @param nodeSize number of elements that may be stored in each node, must be 
+   *   an even number
+   * @param circular true to store the elements of each node in a ring buffer
+   */
+  public StoutList(int nodeSize, boolean circular)
   {
     if (nodeSize <= 0 || nodeSize % 2 != 0) throw new IllegalArgumentException();
 
@@ -65,6 +258,7 @@ public class StoutList<E extends Comparable<? super E>> extends AbstractSequenti
     head.next = tail;
     tail.previous = head;
     this.nodeSize = nodeSize;
+    this.circular = circular;
   }
   
   /**
@@ -80,6 +274,8 @@ public class StoutList<E extends Comparable<? super E>> extends AbstractSequenti
 	  this.tail = tail; 
 	  this.nodeSize = nodeSize; 
 	  this.size = size; 
+	  this.circular = false;
+	  rebuildIndex();
   }
 
   /**
@@ -90,6 +286,26 @@ public class StoutList<E extends Comparable<? super E>> extends AbstractSequenti
   @Override
   public int size() { return size; }
 
+  /**
+   * Removes every element from the list.
+   */
+  @Override
+  public void clear()
+  {
+      if (spill != null && !shared) {
+          discardFrom(head.next);
+      }
+      head.next = tail;
+      tail.previous = head;
+      root = null;
+      finger = null;
+      compactCursor = null;
+      shared = false;
+      snapshot = null;
+      size = 0;
+      ++modCount;
+  }
+
   /**
    * Adds the item provided at the end of the current list.
    *
@@ -103,41 +319,182 @@ public class StoutList<E extends Comparable<? super E>> extends AbstractSequenti
     if (item == null) {
         throw new NullPointerException();
     }
+    detach();
+    spillCold(tail.previous);
+    if (size > 0) {
+        own(tail.previous);
+    }
 
-    if (size == 0) {
-        Node node = new Node();
+    if (size == 0 || tail.previous.count == tail.previous.capacity) {
+        Node node = appendNode();
+        link(tail.previous, node);
         node.addItem(item);
+    }
+    else {
+        tail.previous.addItem(item);
+    }
+
+    ++appendRun;
+    ++size;
+    ++modCount;
+    return true;
+  }
+
+  /**
+   * Adds all elements of the given collection at the end of the list.
+   *
+   * @param c the elements to add
+   * @return true if the list changed
+   * @throws NullPointerException if the collection or any of its elements is null
+   */
+  @Override
+  public boolean addAll(Collection<? extends E> c)
+  {
+      return addAll(size, c);
+  }
 
-        node.next = tail;
-        node.previous = head;
+  /**
+   * Inserts all elements of the given collection at pos, in the collection's
+   * iteration order.  The elements are copied out with toArray() and packed
+   * straight into full nodes: the node holding pos is split once, and its tail
+   * is packed after the new elements.  If the last node written would be less
+   * than half full and is not the last node of the list, it shares elements
+   * with the node before it.
+   *
+   * @param pos the position of the first inserted element
+   * @param c the elements to add
+   * @return true if the list changed
+   * @throws IndexOutOfBoundsException if pos is less than 0 or greater than the size
+   * @throws NullPointerException if the collection or any of its elements is null
+   */
+  @Override
+  public boolean addAll(int pos, Collection<? extends E> c)
+  {
+      if (pos < 0 || pos > size) { throw new IndexOutOfBoundsException(); }
 
-        head.next = node;
-        tail.previous = node;
+      Object[] items = c.toArray();
+      for (Object item : items) {
+          if (item == null) throw new NullPointerException();
+      }
+      detach();
+      if (items.length == 0) {
+          return false;
+      }
 
-        ++size;
-        return true;
-    }
-    else if (tail.previous.count == nodeSize) {
-        Node node = new Node();
-        node.addItem(item);
+      // Find the node to write into and the offset at which the new elements start.
+      Node node;
+      int offset;
+      if (size == 0) {
+          node = newNode();
+          link(head, node);
+          offset = 0;
+      }
+      else {
+          NodeInfo nodeInfo = findForWrite(pos);
+          node = nodeInfo.node;
+          offset = nodeInfo.offset;
+          if (offset == 0 && node.previous != head) {
+              node = node.previous;
+              offset = node.count;
+          }
+      }
+      node.ensureCapacity();
+      node.normalize();
+      finger = null;
+      Node after = node.next;
+      Object[] suffix = Arrays.copyOfRange(node.data, offset, node.count);
 
-        node.previous = tail.previous;
-        node.next = tail;
+      // Node keeps its own capacity; the new nodes get the node size.
+      int half = nodeSize / 2;
+      int capacity = node.capacity;
+      int total = offset + items.length + suffix.length;
+      int nodes = total <= capacity ? 1 : 1 + (total - capacity + nodeSize - 1) / nodeSize;
+      int last = nodes == 1 ? total : total - capacity - (nodes - 2) * nodeSize;
+      int beforeLast = nodes == 2 ? capacity : nodeSize;
+      if (nodes > 1 && last < half && after != tail) {
+          int moved = Math.min(nodeSize, (beforeLast + last) / 2) - last;
+          beforeLast -= moved;
+          last += moved;
+      }
 
-        tail.previous.next = node;
-        tail.previous = node;
+      // Linking each new node through the index is O(log n); for large batches
+      // it is cheaper to link them raw and rebuild the index once.
+      boolean rebuild = (nodes - 1) * 4 >= size / nodeSize;
 
-        ++size;
-        return true;
-    }
-    else if (tail.previous.count < nodeSize) {
-        tail.previous.addItem(item);
+      // New nodes first, since they may take elements from the prefix of node.
+      int start = nodes == 1 ? total : (nodes == 2 ? beforeLast : capacity);
+      Node previous = node;
+      for (int i = 1; i < nodes; ++i) {
+          int count = i == nodes - 1 ? last : (i == nodes - 2 ? beforeLast : nodeSize);
+          Node newNode = newNode();
+          for (int j = 0; j < count; ++j) {
+              newNode.data[j] = bulkItem(node, offset, items, suffix, start + j);
+          }
+          newNode.count = count;
+          start += count;
 
-        ++size;
-        return true;
-    }
+          if (rebuild) {
+              newNode.previous = previous;
+              newNode.next = after;
+              previous.next = newNode;
+              after.previous = newNode;
+          }
+          else {
+              link(previous, newNode);
+          }
+          previous = newNode;
+      }
+
+      int count = nodes == 1 ? total : (nodes == 2 ? beforeLast : capacity);
+      for (int j = offset; j < count; ++j) {
+          node.data[j] = bulkItem(node, offset, items, suffix, j);
+      }
+      Arrays.fill(node.data, count, node.data.length, null);
+      int delta = count - node.count;
+      node.count = count;
+
+      size += items.length;
+      ++modCount;
+      if (rebuild && shared) {
+          // Copies the shared nodes and rebuilds the index over them.
+          unshare();
+      }
+      else if (rebuild) {
+          rebuildIndex();
+      }
+      else {
+          node.adjustWeight(delta);
+      }
+      return true;
+  }
 
-    return false;
+  /**
+   * Returns element k of the sequence written by addAll(): the first offset
+   * elements of node, then the new items, then the old tail of node.
+   *
+   * @param node the node being split
+   * @param offset the number of elements kept at the front of node
+   * @param items the elements being inserted
+   * @param suffix the elements of node that followed offset
+   * @param k the index into the sequence
+   * @return the element at k
+   */
+  private E bulkItem(Node node, int offset, Object[] items, Object[] suffix, int k)
+  {
+      Object item;
+      if (k < offset) {
+          item = node.data[k];
+      }
+      else if (k - offset < items.length) {
+          item = items[k - offset];
+      }
+      else {
+          item = suffix[k - offset - items.length];
+      }
+      // Unchecked warning unavoidable.
+      @SuppressWarnings("unchecked")
+      E result = (E) item;
+      return result;
   }
 
   /**
@@ -153,33 +510,15 @@ public class StoutList<E extends Comparable<? super E>> extends AbstractSequenti
    *
    * @param pos the position at which to place the item
    * @param item the item to be added to the list
+   * @throws IndexOutOfBoundsException if pos is less than 0 or greater than the size
    */
   @Override
   public void add(int pos, E item)
   {
-      Node currentNode;
-      int currentNodeInt = pos / nodeSize;
-      int offset = pos % nodeSize;
-      int count = 0;
-
-      currentNode = head.next;
-      while (currentNode.count != 0 && count < currentNodeInt){
-          currentNode = currentNode.next;
-          ++count;
-      }
-
-      if (currentNode.count == 0){
-          Node node = new Node();
-          currentNode = node;
-
-          (tail.previous).next = node;
-          node.next = tail;
-          node.previous = tail.previous;
-          tail.previous = node;
-      }
+      if (pos < 0 || pos > size) { throw new IndexOutOfBoundsException(); }
 
-      NodeInfo nodeInfo = new NodeInfo(currentNode, offset);
-      nodeInfo.add(item);
+      detach();
+      findForWrite(pos).add(item);
   }
 
     /**
@@ -194,622 +533,4105 @@ public class StoutList<E extends Comparable<? super E>> extends AbstractSequenti
      *
      * @param pos the position of the item to be removed
      * @return the item that was removed
+     * @throws IndexOutOfBoundsException if pos is less than 0 or not less than the size
      */
   @Override
   public E remove(int pos)
   {
-      if(pos > size) { throw new IndexOutOfBoundsException(); }
+      if (pos < 0 || pos >= size) { throw new IndexOutOfBoundsException(); }
 
-      Node currentNode;
+      detach();
+      return findForWrite(pos).remove();
+  }
 
-      currentNode = head.next;
-      int count = currentNode.count;
-      while (count < pos){
-          currentNode = currentNode.next;
-          count += currentNode.count;
+  /**
+   * Inserts the item at the front of the list.  It goes straight into the
+   * first node; if that node is full, its upper half is first split off into
+   * a new node, so the cost is amortized O(1) and, in the circular layout,
+   * no elements are shifted.
+   *
+   * @param item the item to add
+   * @throws NullPointerException if the item is equal to null
+   */
+  @Override
+  public void addFirst(E item)
+  {
+      if (item == null) {
+          throw new NullPointerException();
       }
+      detach();
+      spillCold(head.next);
 
-      int offset;
-      if(currentNode.count == 0) {
-          currentNode = currentNode.previous;
-          offset = currentNode.count;
+      Node first = head.next == tail ? tail : own(head.next);
+      if (first == tail) {
+          first = newNode();
+          link(head, first);
       }
-      else {
-          offset = pos - (count - currentNode.count);
+      else if (first.count == first.capacity) {
+          int half = first.capacity / 2;
+          Node newNode = newNode(first.capacity);
+          if (recorder != null) {
+              recordSplit();
+          }
+          first.normalize();
+          System.arraycopy(first.data, half, newNode.data, 0, first.count - half);
+          Arrays.fill(first.data, half, first.count, null);
+          newNode.count = first.count - half;
+          first.adjustWeight(half - first.count);
+          first.count = half;
+          link(first, newNode);
       }
+      first.addItem(0, item);
+      fingerInserted(first, 0);
 
-      if(offset > currentNode.count - 1) {
-          currentNode = currentNode.next;
-          offset = 0;
-      }
+      ++size;
+      ++modCount;
+  }
 
-      NodeInfo nodeInfo = new NodeInfo(currentNode, offset);
+  /**
+   * Adds the item at the end of the list, like add().
+   *
+   * @param item the item to add
+   * @throws NullPointerException if the item is equal to null
+   */
+  @Override
+  public void addLast(E item) { add(item); }
 
-      return nodeInfo.remove();
+  /**
+   * Inserts the item at the front of the list.
+   *
+   * @param item the item to add
+   * @return true
+   * @throws NullPointerException if the item is equal to null
+   */
+  @Override
+  public boolean offerFirst(E item)
+  {
+      addFirst(item);
+      return true;
   }
 
   /**
-   * Sort all elements in the stout list in the NON-DECREASING order. You may do the following. 
-   * Traverse the list and copy its elements into an array, deleting every visited node along 
-   * the way.  Then, sort the array by calling the insertionSort() method.  (Note that sorting 
-   * efficiency is not a concern for this project.)  Finally, copy all elements from the array 
-   * back to the stout list, creating new nodes for storage. After sorting, all nodes but 
-   * (possibly) the last one must be full of elements.  
-   *  
-   * Comparator<E> must have been implemented for calling insertionSort().    
+   * Adds the item at the end of the list.
+   *
+   * @param item the item to add
+   * @return true
+   * @throws NullPointerException if the item is equal to null
    */
-  public void sort()
+  @Override
+  public boolean offerLast(E item)
   {
-	  ListComparator comp = new ListComparator();
-	  StoutListIterator iterator = new StoutListIterator();
-
-      Node currentNode = head.next;
+      addLast(item);
+      return true;
+  }
 
-      // Unchecked warning unavoidable.
-	  E[] listData = (E[]) new Comparable[size];
+  /**
+   * Adds the item with add(), which for a plain StoutList is the end of
+   * the list.
+   *
+   * @param item the item to add
+   * @return true
+   * @throws NullPointerException if the item is equal to null
+   */
+  @Override
+  public boolean offer(E item) { return add(item); }
 
-	  int count = 0;
-	  while(iterator.hasNext())
-	  {
-	      listData[count] = iterator.next();
+  /**
+   * Inserts the item at the front of the list.
+   *
+   * @param item the item to add
+   * @throws NullPointerException if the item is equal to null
+   */
+  @Override
+  public void push(E item) { addFirst(item); }
 
-	      if (!currentNode.equals(iterator.currentNode)){
-              currentNode = currentNode.next;
-              (currentNode.previous).previous = null;
-              (currentNode.previous).next = null;
-          }
-	      ++count;
+  /**
+   * Removes and returns the first item.  It is taken straight from the
+   * first node, which is unlinked once empty rather than merged with its
+   * successor.
+   *
+   * @return the first item, or null if the list is empty
+   */
+  @Override
+  public E pollFirst()
+  {
+      if (size == 0) {
+          return null;
       }
+      detach();
+      spillCold(head.next);
 
-	  head.next = tail;
-	  tail.previous = head;
-	  size = 0;
-
-	  insertionSort(listData, comp);
+      Node first = own(head.next);
+      E item = first.get(0);
+      first.removeItem(0);
+      if (first.count == 0) {
+          unlink(first);
+      }
+      else {
+          fingerRemoved(first, 0);
+      }
 
-      this.addAll(Arrays.asList(listData));
+      --size;
+      ++modCount;
+      return item;
   }
-  
+
   /**
-   * Sort all elements in the stout list in the NON-INCREASING order. Call the bubbleSort()
-   * method.  After sorting, all but (possibly) the last nodes must be filled with elements.  
-   *  
-   * Comparable<? super E> must be implemented for calling bubbleSort(). 
+   * Removes and returns the last item, unlinking the last node once empty.
+   *
+   * @return the last item, or null if the list is empty
    */
-  public void sortReverse() 
+  @Override
+  public E pollLast()
   {
-      StoutListIterator iterator = new StoutListIterator();
-
-      Node currentNode = head;
-
-      // Unchecked warning unavoidable.
-      E[] listData = (E[]) new Comparable[size];
-
-      int count = 0;
-      while(iterator.hasNext())
-      {
-          listData[count] = iterator.next();
-
-          if (!currentNode.equals(iterator.currentNode)){
-              currentNode = currentNode.next;
-              (currentNode.previous).previous = null;
-              (currentNode.previous).next = null;
-          }
-          ++count;
+      if (size == 0) {
+          return null;
       }
+      detach();
+      spillCold(tail.previous);
 
-      head.next = tail;
-      tail.previous = head;
-      size = 0;
+      Node last = own(tail.previous);
+      E item = last.get(last.count - 1);
+      last.removeItem(last.count - 1);
+      if (last.count == 0) {
+          unlink(last);
+      }
 
-      bubbleSort(listData);
+      --size;
+      ++modCount;
+      return item;
+  }
 
-      this.addAll(Arrays.asList(listData));
+  /**
+   * Removes and returns the first item.
+   *
+   * @return the first item
+   * @throws NoSuchElementException if the list is empty
+   */
+  @Override
+  public E removeFirst()
+  {
+      if (size == 0) throw new NoSuchElementException();
+      return pollFirst();
   }
 
   /**
-   * Constructs a new StoutListIterator
+   * Removes and returns the last item.
    *
-   * @return the StoutListIterator
+   * @return the last item
+   * @throws NoSuchElementException if the list is empty
    */
   @Override
-  public Iterator<E> iterator() { return new StoutListIterator(); }
+  public E removeLast()
+  {
+      if (size == 0) throw new NoSuchElementException();
+      return pollLast();
+  }
 
   /**
-   * Constructs a new StoutListIterator
+   * Removes and returns the first item.
    *
-   * @return the StoutListIterator
+   * @return the first item, or null if the list is empty
    */
   @Override
-  public ListIterator<E> listIterator() { return new StoutListIterator(); }
+  public E poll() { return pollFirst(); }
 
   /**
-   * Constructs a new StoutListIterator at the given index
+   * Removes and returns the first item.
    *
-   * @param index the position at which to construct the new StoutListIterator
-   * @return the StoutListIterator
+   * @return the first item
+   * @throws NoSuchElementException if the list is empty
    */
   @Override
-  public ListIterator<E> listIterator(int index) { return new StoutListIterator(index); }
-  
+  public E remove() { return removeFirst(); }
+
   /**
-   * Returns a string representation of this list showing
-   * the internal structure of the nodes.
+   * Removes and returns the first item.
+   *
+   * @return the first item
+   * @throws NoSuchElementException if the list is empty
    */
-  public String toStringInternal()
-  {
-    return toStringInternal(null);
-  }
+  @Override
+  public E pop() { return removeFirst(); }
 
   /**
-   * Returns a string representation of this list showing the internal
-   * structure of the nodes and the position of the iterator.
+   * Returns the first item without removing it.
    *
-   * @param iter
-   *            an iterator for this list
+   * @return the first item, or null if the list is empty
    */
-  public String toStringInternal(ListIterator<E> iter) 
-  {
-      int count = 0;
-      int position = -1;
-      if (iter != null) {
-          position = iter.nextIndex();
-      }
+  @Override
+  public E peekFirst() { return size == 0 ? null : head.next.get(0); }
 
-      StringBuilder sb = new StringBuilder();
-      sb.append('[');
-      Node current = head.next;
-      while (current != tail) {
-          sb.append('(');
-          E data = current.data[0];
-          if (data == null) {
-              sb.append("-");
-          } else {
-              if (position == count) {
-                  sb.append("| ");
-                  position = -1;
-              }
-              sb.append(data.toString());
-              ++count;
+  /**
+   * Returns the last item without removing it.
+   *
+   * @return the last item, or null if the list is empty
+   */
+  @Override
+  public E peekLast() { return size == 0 ? null : tail.previous.get(tail.previous.count - 1); }
+
+  /**
+   * Returns the first item without removing it.
+   *
+   * @return the first item, or null if the list is empty
+   */
+  @Override
+  public E peek() { return peekFirst(); }
+
+  /**
+   * Returns the first item without removing it.
+   *
+   * @return the first item
+   * @throws NoSuchElementException if the list is empty
+   */
+  @Override
+  public E getFirst()
+  {
+      if (size == 0) throw new NoSuchElementException();
+      return peekFirst();
+  }
+
+  /**
+   * Returns the last item without removing it.
+   *
+   * @return the last item
+   * @throws NoSuchElementException if the list is empty
+   */
+  @Override
+  public E getLast()
+  {
+      if (size == 0) throw new NoSuchElementException();
+      return peekLast();
+  }
+
+  /**
+   * Returns the first item without removing it.
+   *
+   * @return the first item
+   * @throws NoSuchElementException if the list is empty
+   */
+  @Override
+  public E element() { return getFirst(); }
+
+  /**
+   * Removes the first element equal to o, like remove(Object).
+   *
+   * @param o the object to remove
+   * @return true if an element was removed
+   */
+  @Override
+  public boolean removeFirstOccurrence(Object o) { return remove(o); }
+
+  /**
+   * Removes the last element equal to o.
+   *
+   * @param o the object to remove
+   * @return true if an element was removed
+   */
+  @Override
+  public boolean removeLastOccurrence(Object o)
+  {
+      int pos = lastIndexOf(o);
+      if (pos < 0) {
+          return false;
+      }
+      remove(pos);
+      return true;
+  }
+
+  /**
+   * Returns an iterator over the elements from last to first.
+   *
+   * @return the descending iterator
+   */
+  @Override
+  public Iterator<E> descendingIterator() { return new DescendingIterator(listIterator(size)); }
+
+  /**
+   * Returns the item at the given position.
+   *
+   * @param pos the position of the item
+   * @return the item at pos
+   * @throws IndexOutOfBoundsException if pos is less than 0 or not less than the size
+   */
+  @Override
+  public E get(int pos)
+  {
+      if (pos < 0 || pos >= size) { throw new IndexOutOfBoundsException(); }
+
+      NodeInfo nodeInfo = find(pos);
+      return nodeInfo.node.get(nodeInfo.offset);
+  }
+
+  /**
+   * Replaces the item at the given position.
+   *
+   * @param pos the position of the item
+   * @param item the new item
+   * @return the item previously at pos
+   * @throws IndexOutOfBoundsException if pos is less than 0 or not less than the size
+   * @throws NullPointerException if the item is equal to null
+   */
+  @Override
+  public E set(int pos, E item)
+  {
+      if (item == null) { throw new NullPointerException(); }
+      if (pos < 0 || pos >= size) { throw new IndexOutOfBoundsException(); }
+
+      detach();
+      NodeInfo nodeInfo = find(pos);
+      Node node = own(nodeInfo.node);
+      E old = node.get(nodeInfo.offset);
+      node.set(nodeInfo.offset, item);
+      return old;
+  }
+
+  /**
+   * Sort all elements in the stout list in the NON-DECREASING order.  The sort is
+   * stable and runs in O(n log n) time.  After sorting, all nodes but (possibly)
+   * the last one are full of elements.
+   */
+  public void sort()
+  {
+      sort(null);
+  }
+
+  /**
+   * Sort all elements in the stout list in the NON-INCREASING order.  After sorting,
+   * all but (possibly) the last nodes are filled with elements.
+   */
+  public void sortReverse()
+  {
+      sort(Comparator.reverseOrder());
+  }
+
+  /**
+   * Sorts the list according to the given comparator with a stable merge sort
+   * that works directly on the node arrays.  Each node is first sorted on its
+   * own, then runs of nodes are merged pairwise into chains of full nodes,
+   * reusing the nodes the merge has already drained.  After sorting, all nodes
+   * but (possibly) the last one are full of elements.
+   *
+   * @param comp the comparator to sort by, or null for the natural ordering
+   */
+  @Override
+  public void sort(Comparator<? super E> comp)
+  {
+      unshare();
+      ++modCount;
+      if (size < 2) {
+          return;
+      }
+
+      new MergeSorter<>(this, comp == null ? Comparator.naturalOrder() : comp).sort();
+  }
+
+  /**
+   * Sorts the list in the NON-DECREASING order, using all available cores for
+   * large lists.  The result is the same as that of sort().
+   */
+  public void parallelSort()
+  {
+      parallelSort(null);
+  }
+
+  /**
+   * Sorts the list in the NON-INCREASING order, using all available cores for
+   * large lists.  The result is the same as that of sortReverse().
+   */
+  public void parallelSortReverse()
+  {
+      parallelSort(Comparator.reverseOrder());
+  }
+
+  /**
+   * Sorts the list according to the given comparator, using all available cores
+   * for large lists.  The result is the same as that of sort(comp).
+   *
+   * @param comp the comparator to sort by, or null for the natural ordering
+   */
+  public void parallelSort(Comparator<? super E> comp)
+  {
+      parallelSort(comp, DEFAULT_PARALLEL_THRESHOLD);
+  }
+
+  /**
+   * Sorts the list according to the given comparator.  Node runs are sorted and
+   * merged concurrently in the common fork/join pool, down to ranges of about
+   * threshold elements, which are sorted sequentially.  Lists smaller than the
+   * threshold, and lists that spill to a file, are sorted by sort(comp).  The
+   * result is the same as that of sort(comp).
+   *
+   * @param comp the comparator to sort by, or null for the natural ordering
+   * @param threshold number of elements below which sorting is sequential
+   * @throws IllegalArgumentException if threshold is not positive
+   */
+  public void parallelSort(Comparator<? super E> comp, int threshold)
+  {
+      if (threshold <= 0) throw new IllegalArgumentException();
+
+      if (size < threshold || ForkJoinPool.getCommonPoolParallelism() <= 1 || spill != null) {
+          sort(comp);
+          return;
+      }
+
+      unshare();
+      ++modCount;
+      Comparator<? super E> order = comp == null ? Comparator.naturalOrder() : comp;
+      List<Node> nodes = detachNodes();
+      int grain = Math.max(1, threshold / nodeSize);
+      relinkSorted(ForkJoinPool.commonPool().invoke(new SortTask<>(this, nodes, 0, nodes.size(), order, grain)));
+  }
+
+  /**
+   * Sorts the list in the NON-DECREASING order with an external merge sort.
+   * The result is the same as that of sort().
+   *
+   * @param codec the codec for the elements
+   * @param directory the directory to create the run files in
+   * @param runSize the number of elements sorted in memory at a time
+   * @return the final progress and throughput of the sort
+   * @throws IOException if a run file cannot be created, written or read
+   * @throws IllegalArgumentException if runSize is not positive
+   */
+  public ExternalSortStats externalSort(ElementCodec<E> codec, Path directory, int runSize) throws IOException
+  {
+      return externalSort(null, codec, directory, runSize, null);
+  }
+
+  /**
+   * Sorts the list in the NON-INCREASING order with an external merge sort.
+   * The result is the same as that of sortReverse().
+   *
+   * @param codec the codec for the elements
+   * @param directory the directory to create the run files in
+   * @param runSize the number of elements sorted in memory at a time
+   * @return the final progress and throughput of the sort
+   * @throws IOException if a run file cannot be created, written or read
+   * @throws IllegalArgumentException if runSize is not positive
+   */
+  public ExternalSortStats externalSortReverse(ElementCodec<E> codec, Path directory, int runSize) throws IOException
+  {
+      return externalSort(Comparator.reverseOrder(), codec, directory, runSize, null);
+  }
+
+  /**
+   * Sorts the list according to the given comparator with an external merge
+   * sort, for lists too large to sort in memory.  The nodes are read from the
+   * front in ranges of runSize elements; each range is sorted in an array,
+   * written as a run to a temporary file in the given directory, and dropped
+   * from the list.  The runs are then merged ExternalSorter.MERGE_FAN_IN at a time, in as
+   * many passes as it takes, and the last pass streams the elements back
+   * into new full nodes.  Besides the list itself, the heap holds at most
+   * runSize elements and a 64 KB buffer per run being merged, so on a list
+   * that spills to a file the whole sort runs in bounded memory.  The result
+   * is the same as that of sort(comp); a list of at most runSize elements is
+   * simply sorted by sort(comp).
+   *
+   * The progress consumer receives a snapshot after each run is written,
+   * after each run produced by an intermediate merge, and every
+   * ExternalSorter.PROGRESS_INTERVAL elements during the final merge.  If a run cannot be
+   * written or read, or the comparator, codec or consumer throws, the list
+   * keeps all its elements, but in no particular order: they are read back
+   * from the runs completed so far and joined with those not yet written,
+   * which takes another pass over the run files.  Only if that fails too,
+   * as reported by a suppressed exception, may elements be lost.  The files
+   * are deleted either way.
+   *
+   * @param comp the comparator to sort by, or null for the natural ordering
+   * @param codec the codec for the elements
+   * @param directory the directory to create the run files in
+   * @param runSize the number of elements sorted in memory at a time
+   * @param progress receives the progress of the sort, or null
+   * @return the final progress and throughput of the sort
+   * @throws IOException if a run file cannot be created, written or read
+   * @throws IllegalArgumentException if runSize is not positive
+   */
+  public ExternalSortStats externalSort(Comparator<? super E> comp, ElementCodec<E> codec, Path directory, int runSize,
+          Consumer<? super ExternalSortStats> progress) throws IOException
+  {
+      if (runSize <= 0) throw new IllegalArgumentException();
+
+      Comparator<? super E> order = comp == null ? Comparator.naturalOrder() : comp;
+      ExternalSorter<E> sorter = new ExternalSorter<>(this, order, codec, directory, runSize, progress);
+      if (size <= runSize) {
+          sort(order);
+          sorter.processed = size;
+          return sorter.report(ExternalSortStats.Phase.DONE);
+      }
+
+      unshare();
+      ++modCount;
+      Node first = head.next;
+      head.next = tail;
+      tail.previous = head;
+      root = null;
+      finger = null;
+      compactCursor = null;
+      size = 0;
+
+      try {
+          return sorter.sort(first);
+      }
+      finally {
+          // On failure the sorter has put the elements back unsorted.
+          size = sorter.emitted;
+          rebuildIndex();
+      }
+  }
+
+  /**
+   * Allocates a node and links it in last, for the final merge of
+   * externalSort() to fill.  Cold nodes are spilled first if the list is
+   * spilling.
+   *
+   * @return the new empty node
+   */
+  Node linkNewLast()
+  {
+      Node node = newNode();
+      node.previous = tail.previous;
+      node.next = tail;
+      tail.previous.next = node;
+      tail.previous = node;
+      spillCold(node);
+      return node;
+  }
+
+  /**
+   * Constructs a new StoutListIterator
+   *
+   * @return the StoutListIterator
+   */
+  @Override
+  public Iterator<E> iterator() { return new StoutListIterator(); }
+
+  /**
+   * Constructs a new StoutListIterator
+   *
+   * @return the StoutListIterator
+   */
+  @Override
+  public ListIterator<E> listIterator() { return new StoutListIterator(); }
+
+  /**
+   * Constructs a new StoutListIterator at the given index
+   *
+   * @param index the position at which to construct the new StoutListIterator
+   * @return the StoutListIterator
+   */
+  @Override
+  public ListIterator<E> listIterator(int index) { return new StoutListIterator(index); }
+  
+  /**
+   * Performs the given action for each element of the list, in order, reading
+   * the node arrays directly.
+   *
+   * @param action the action to perform
+   * @throws NullPointerException if the action is null
+   */
+  @Override
+  public void forEach(Consumer<? super E> action)
+  {
+      if (action == null) throw new NullPointerException();
+
+      // The action may unlink the node being read, so the loops stop as soon
+      // as the list changes, as ArrayList.forEach() does.
+      int expectedModCount = modCount;
+      for (Node current = head.next; current != tail && modCount == expectedModCount; current = current.next) {
+          spillCold(current);
+          for (int i = 0, count = current.count; i < count && modCount == expectedModCount; ++i) {
+              action.accept(current.get(i));
           }
+      }
+      if (modCount != expectedModCount) throw new ConcurrentModificationException();
+  }
 
-          for (int i = 1; i < nodeSize; ++i) {
-             sb.append(", ");
-              data = current.data[i];
-              if (data == null) {
-                  sb.append("-");
-              } else {
-                  if (position == count) {
-                      sb.append("| ");
-                      position = -1;
-                  }
-                  sb.append(data.toString());
-                  ++count;
+  /**
+   * Passes the backing array of each node to the given consumer, in order,
+   * along with the range of it that holds elements.  In the circular layout a
+   * node whose elements wrap around the end of its array is passed as two
+   * ranges.  The arrays are not copied,
+   * so the consumer must not modify them or keep them after it returns.
+   *
+   * @param consumer the consumer of each node's elements
+   * @throws NullPointerException if the consumer is null
+   */
+  public void forEachChunk(ChunkConsumer<? super E> consumer)
+  {
+      if (consumer == null) throw new NullPointerException();
 
-                  // iterator at end
-                  if (position == size && count == size) {
-                      sb.append(" |");
-                      position = -1;
+      int expectedModCount = modCount;
+      for (Node current = head.next; current != tail && modCount == expectedModCount; current = current.next) {
+          spillCold(current);
+          current.load();
+          int count = current.count;
+          int first = Math.min(count, current.data.length - current.start);
+          consumer.accept(current.data, current.start, first);
+          if (first < count && modCount == expectedModCount) {
+              consumer.accept(current.data, 0, count - first);
+          }
+      }
+      if (modCount != expectedModCount) throw new ConcurrentModificationException();
+  }
+
+  /**
+   * Removes every element that satisfies the given predicate.  The predicate
+   * is first tested on every element, so the list is left unchanged if it
+   * throws.  The survivors are then moved forward within the existing nodes
+   * in one pass, the nodes left empty at the end are dropped, and the index
+   * is rebuilt once, so every node except the last one ends up full.  This
+   * takes linear time however many elements are removed.
+   *
+   * @param filter the predicate that selects the elements to remove
+   * @return true if any element was removed
+   * @throws NullPointerException if the predicate is null
+   */
+  @Override
+  public boolean removeIf(Predicate<? super E> filter)
+  {
+      if (filter == null) throw new NullPointerException();
+
+      int expectedModCount = modCount;
+      long[] doomed = null;
+      int removed = 0;
+      int pos = 0;
+      for (Node current = head.next; current != tail; current = current.next) {
+          for (int i = 0, count = current.count; i < count; ++i, ++pos) {
+              if (filter.test(current.get(i))) {
+                  if (doomed == null) {
+                      doomed = new long[((size - 1) >> 6) + 1];
                   }
-             }
+                  doomed[pos >> 6] |= 1L << pos;
+                  ++removed;
+              }
           }
-          sb.append(')');
-          current = current.next;
-          if (current != tail)
-              sb.append(", ");
       }
-      sb.append("]");
-      return sb.toString();
+      if (modCount != expectedModCount) throw new ConcurrentModificationException();
+      if (removed == 0) {
+          return false;
+      }
+      unshare();
+
+      // The writer never passes the reader, so a writer slot is either in a
+      // node that has been read already or below the next slot to be read.
+      Node writer = head.next;
+      int written = 0;
+      pos = 0;
+      for (Node reader = head.next; reader != tail; reader = reader.next) {
+          reader.normalize();
+          for (int i = 0, count = reader.count; i < count; ++i, ++pos) {
+              if ((doomed[pos >> 6] & (1L << pos)) != 0) {
+                  continue;
+              }
+              if (written == writer.capacity) {
+                  writer.count = written;
+                  writer = writer.next;
+                  written = 0;
+              }
+              writer.data[written++] = reader.data[i];
+          }
+      }
+
+      if (written == 0 && writer == head.next) {
+          if (spill != null) {
+              discardFrom(head.next);
+          }
+          head.next = tail;
+          tail.previous = head;
+      }
+      else {
+          writer.count = written;
+          Arrays.fill(writer.data, written, writer.data.length, null);
+          if (spill != null) {
+              discardFrom(writer.next);
+          }
+          writer.next = tail;
+          tail.previous = writer;
+      }
+      size -= removed;
+      rebuildIndex();
+      ++modCount;
+      return true;
+  }
+
+  /**
+   * Removes every element contained in the given collection, in one pass.
+   *
+   * @param c the elements to remove
+   * @return true if any element was removed
+   * @throws NullPointerException if the collection is null
+   */
+  @Override
+  public boolean removeAll(Collection<?> c)
+  {
+      if (c == null) throw new NullPointerException();
+
+      return removeIf(c::contains);
   }
 
+  /**
+   * Removes every element not contained in the given collection, in one pass.
+   *
+   * @param c the elements to keep
+   * @return true if any element was removed
+   * @throws NullPointerException if the collection is null
+   */
+  @Override
+  public boolean retainAll(Collection<?> c)
+  {
+      if (c == null) throw new NullPointerException();
+
+      return removeIf(item -> !c.contains(item));
+  }
 
   /**
-   * Node type for this list.  Each node holds a maximum
-   * of nodeSize elements in an array.  Empty slots
-   * are null.
+   * Returns an array containing all elements of the list in order.
+   *
+   * @return a new array holding the elements
    */
-  private class Node
+  @Override
+  public Object[] toArray()
   {
-    /**
-     * Array of actual data elements.
+      Object[] result = new Object[size];
+      int pos = 0;
+      for (Node current = head.next; current != tail; current = current.next) {
+          spillCold(current);
+          current.copyTo(result, pos);
+          pos += current.count;
+      }
+      return result;
+  }
+
+  /**
+   * Returns an array containing all elements of the list in order, using the
+   * given array if it is large enough.
+   *
+   * @param a the array to fill, if large enough
+   * @return the array holding the elements
+   * @throws ArrayStoreException if an element is not assignable to the array's component type
+   * @throws NullPointerException if the array is null
+   */
+  @Override
+  public <T> T[] toArray(T[] a)
+  {
+      if (a.length < size) {
+          // Unchecked warning unavoidable.
+          @SuppressWarnings("unchecked")
+          T[] grown = (T[]) Array.newInstance(a.getClass().getComponentType(), size);
+          a = grown;
+      }
+
+      int pos = 0;
+      for (Node current = head.next; current != tail; current = current.next) {
+          spillCold(current);
+          current.copyTo(a, pos);
+          pos += current.count;
+      }
+      if (a.length > size) {
+          a[size] = null;
+      }
+      return a;
+  }
+
+  /**
+   * Returns true if the list contains the given object.
+   *
+   * @param o the object to look for
+   * @return true if some element equals o
+   */
+  @Override
+  public boolean contains(Object o) { return indexOf(o) >= 0; }
+
+  /**
+   * Returns the position of the first element equal to the given object.
+   *
+   * @param o the object to look for
+   * @return the position of the first match, or -1 if there is none
+   */
+  @Override
+  public int indexOf(Object o)
+  {
+      if (o == null) {
+          return -1;
+      }
+
+      int pos = 0;
+      for (Node current = head.next; current != tail; current = current.next) {
+          spillCold(current);
+          for (int i = 0, count = current.count; i < count; ++i) {
+              if (o.equals(current.get(i))) {
+                  return pos + i;
+              }
+          }
+          pos += current.count;
+      }
+      return -1;
+  }
+
+  /**
+   * Returns the position of the last element equal to the given object.
+   *
+   * @param o the object to look for
+   * @return the position of the last match, or -1 if there is none
+   */
+  @Override
+  public int lastIndexOf(Object o)
+  {
+      if (o == null) {
+          return -1;
+      }
+
+      int pos = size;
+      for (Node current = tail.previous; current != head; current = current.previous) {
+          spillCold(current);
+          pos -= current.count;
+          for (int i = current.count - 1; i >= 0; --i) {
+              if (o.equals(current.get(i))) {
+                  return pos + i;
+              }
+          }
+      }
+      return -1;
+  }
+
+  /**
+   * Returns a sequential stream over the list, backed by the node spliterator.
+   *
+   * @return a stream of the elements
+   */
+  @Override
+  public Stream<E> stream() { return StreamSupport.stream(spliterator(), false); }
+
+  /**
+   * Removes the elements from pos to the end and returns them as a new list
+   * with the same node size and layout.  The nodes after pos are moved to the
+   * new list as a whole chain; only the node holding pos is split, and the
+   * first node of the new list is refilled from its successor if it is less
+   * than half full.  This takes O(nodeSize + log n) time.  If this list
+   * spills, the new list spills to the same file, within the same budget,
+   * and holds a share of the file until it is joined to a list with
+   * concat() or splice() or stops spilling with disableSpill(); the file is
+   * deleted only once every share is given up.
+   *
+   * @param pos the position of the first element to move
+   * @return a list holding the elements from pos on
+   * @throws IndexOutOfBoundsException if pos is less than 0 or greater than the size
+   */
+  public StoutList<E> splitAt(int pos)
+  {
+      if (pos < 0 || pos > size) { throw new IndexOutOfBoundsException(); }
+
+      StoutList<E> rest = new StoutList<>(nodeSize, circular);
+      if (pos == size) {
+          return rest;
+      }
+      detach();
+
+      NodeInfo nodeInfo = locate(pos);
+      Node first = own(nodeInfo.node);
+      if (nodeInfo.offset > 0) {
+          Node node = first;
+          int moved = node.count - nodeInfo.offset;
+          first = newNode(node.capacity);
+          node.normalize();
+          System.arraycopy(node.data, nodeInfo.offset, first.data, 0, moved);
+          Arrays.fill(node.data, nodeInfo.offset, node.count, null);
+          node.count = nodeInfo.offset;
+          node.adjustWeight(-moved);
+          first.count = moved;
+          link(node, first);
+          if (recorder != null) {
+              recordSplit();
+          }
+      }
+
+      Node last = tail.previous;
+      Node pred = first.previous;
+      rest.root = cutBefore(first);
+      pred.next = tail;
+      tail.previous = pred;
+      rest.head.next = first;
+      first.previous = rest.head;
+      last.next = rest.tail;
+      rest.tail.previous = last;
+      rest.size = size - pos;
+      size = pos;
+      finger = null;
+      compactCursor = null;
+      ++modCount;
+
+      if (spill != null) {
+          rest.spill = spill;
+          ++spill.users;
+      }
+      // The nodes the new list gets keep their versions, so it owns the
+      // same nodes this list did.
+      rest.shared = shared;
+      rest.version = version;
+      rest.refill(first);
+      return rest;
+  }
+
+  /**
+   * Moves every element of the given list to the end of this list, leaving
+   * the other list empty.  The nodes of the other list are linked in as a
+   * whole chain, and only the last node of this list is refilled if it is
+   * less than half full, so this takes O(nodeSize + log n) time.  If only
+   * the other list spills, this list takes over its file and budget; if
+   * both spill to different files, the nodes of the other list are first
+   * read back into memory.  Either way the moved nodes spill with the nodes
+   * of this list from then on, and the other list stops spilling, giving
+   * up its share of the file even if it is empty.
+   *
+   * @param other the list whose elements to move
+   * @throws IllegalArgumentException if other is this list or has a
+   *   different node size or layout
+   * @throws NullPointerException if other is null
+   */
+  public void concat(StoutList<E> other)
+  {
+      if (other == this || other.nodeSize != nodeSize || other.circular != circular) {
+          throw new IllegalArgumentException();
+      }
+
+      concatNodes(other);
+  }
+
+  /**
+   * Moves the nodes of another list with the same node size and layout to
+   * the end of this list.  Unlike concat(), this is not overridden by
+   * subclasses that restrict where elements may go, so it can be used to put
+   * back the pieces of a list cut by splitAt().
+   *
+   * @param other the list whose nodes to move
+   */
+  private void concatNodes(StoutList<E> other)
+  {
+      if (other.size == 0) {
+          // A piece emptied after splitAt() still holds a share of the file.
+          other.discard();
+          return;
+      }
+      detach();
+      other.detach();
+      takeSpill(other);
+
+      // Unless the lists have the same version, a node of the other list
+      // may carry this list's version without being this list's to change,
+      // so this list starts a new one.
+      if ((shared || other.shared) && other.version != version) {
+          version = new Object();
+      }
+      if (other.shared) {
+          shared = true;
+      }
+
+      // The join changes the right spine of this tree and the left spine of
+      // the other, which both lists own by now and which end up above every
+      // other node, so they all take this list's version.
+      for (Node node = root; node != null; node = node.right) {
+          node = own(node);
+          node.version = version;
+      }
+      for (Node node = other.root; node != null; node = node.left) {
+          node = other.own(node);
+          node.version = version;
+      }
+
+      Node last = tail.previous;
+      if (last != head) {
+          last.ensureCapacity();
+      }
+      last.next = other.head.next;
+      other.head.next.previous = last;
+      other.tail.previous.next = tail;
+      tail.previous = other.tail.previous;
+      root = join(root, other.root);
+      root.parent = null;
+      size += other.size;
+      finger = null;
+      ++modCount;
+
+      other.head.next = other.tail;
+      other.tail.previous = other.head;
+      other.root = null;
+      other.finger = null;
+      other.compactCursor = null;
+      other.size = 0;
+      ++other.modCount;
+
+      refill(last);
+  }
+
+  /**
+   * Moves every element of the given list into this list at pos, leaving the
+   * other list empty.  This is a splitAt() followed by two concat() calls, so
+   * it takes O(nodeSize + log n) time.
+   *
+   * @param pos the position at which to insert the elements
+   * @param other the list whose elements to move
+   * @throws IndexOutOfBoundsException if pos is less than 0 or greater than the size
+   * @throws IllegalArgumentException if other is this list or has a
+   *   different node size or layout
+   * @throws NullPointerException if other is null
+   */
+  public void splice(int pos, StoutList<E> other)
+  {
+      if (pos < 0 || pos > size) { throw new IndexOutOfBoundsException(); }
+      if (other == this || other.nodeSize != nodeSize || other.circular != circular) {
+          throw new IllegalArgumentException();
+      }
+
+      StoutList<E> rest = splitAt(pos);
+      concat(other);
+      concat(rest);
+  }
+
+  /**
+   * Returns a view of the elements from fromIndex, inclusive, to toIndex,
+   * exclusive.  The view reads and writes through this list's node iterator
+   * and positional lookup, and its clear(), removeIf() and sort() cut the
+   * range out with splitAt(), work on it as a list of its own and put it back,
+   * so they do not go element by element through this list.  The view
+   * becomes invalid if this list is structurally modified other than through
+   * the view.
+   *
+   * @param fromIndex the position of the first element of the view
+   * @param toIndex one past the position of the last element of the view
+   * @return the view
+   * @throws IndexOutOfBoundsException if fromIndex is less than 0 or toIndex
+   *   is greater than the size
+   * @throws IllegalArgumentException if fromIndex is greater than toIndex
+   */
+  @Override
+  public List<E> subList(int fromIndex, int toIndex)
+  {
+      if (fromIndex < 0 || toIndex > size) { throw new IndexOutOfBoundsException(); }
+      if (fromIndex > toIndex) throw new IllegalArgumentException();
+
+      return new SubList(null, fromIndex, toIndex - fromIndex);
+  }
+
+  /**
+   * Removes the elements from fromIndex, inclusive, to toIndex, exclusive.
+   * The range is cut out with splitAt() and the rest joined back on, so the
+   * nodes inside the range are dropped as a whole chain, and this takes
+   * O(nodeSize + log n) time however long the range is, plus a pass over the
+   * dropped nodes if the list spills.
+   *
+   * @param fromIndex the position of the first element to remove
+   * @param toIndex one past the position of the last element to remove
+   */
+  @Override
+  protected void removeRange(int fromIndex, int toIndex)
+  {
+      if (fromIndex >= toIndex) {
+          return;
+      }
+
+      StoutList<E> rest = splitAt(toIndex);
+      splitAt(fromIndex).discard();
+      concatNodes(rest);
+  }
+
+  /**
+   * Removes the elements from fromIndex, inclusive, to toIndex, exclusive,
+   * that satisfy the given predicate, by cutting the range out, filtering it
+   * with removeIf() and putting it back.
+   *
+   * @param fromIndex the position of the first element of the range
+   * @param toIndex one past the position of the last element of the range
+   * @param filter the predicate that selects the elements to remove
+   * @return the number of elements removed
+   */
+  int removeRangeIf(int fromIndex, int toIndex, Predicate<? super E> filter)
+  {
+      if (filter == null) throw new NullPointerException();
+
+      StoutList<E> rest = splitAt(toIndex);
+      StoutList<E> range = splitAt(fromIndex);
+      int count = range.size;
+      try {
+          range.removeIf(filter);
+          return count - range.size;
+      }
+      finally {
+          concatNodes(range);
+          concatNodes(rest);
+      }
+  }
+
+  /**
+   * Sorts the elements from fromIndex, inclusive, to toIndex, exclusive, by
+   * cutting the range out, sorting it with sort() and putting it back.
+   *
+   * @param fromIndex the position of the first element of the range
+   * @param toIndex one past the position of the last element of the range
+   * @param comp the comparator to sort by, or null for natural order
+   */
+  void sortRange(int fromIndex, int toIndex, Comparator<? super E> comp)
+  {
+      StoutList<E> rest = splitAt(toIndex);
+      StoutList<E> range = splitAt(fromIndex);
+      try {
+          range.sort(comp);
+      }
+      finally {
+          concatNodes(range);
+          concatNodes(rest);
+      }
+  }
+
+  /**
+   * Repacks the elements into as few nodes as possible, so every node except
+   * the last one is full.  This takes one linear pass that moves the elements
+   * forward within the existing nodes and drops the nodes left empty at the
+   * end.  After heavy removals, when most nodes are only half full, this
+   * roughly halves the memory held by the list.
+   */
+  public void compact()
+  {
+      if (size == 0) {
+          return;
+      }
+      unshare();
+
+      Node writer = head.next;
+      writer.normalize();
+      for (Node reader = writer.next; reader != tail; reader = reader.next) {
+          reader.normalize();
+          int from = 0;
+          int count = reader.count;
+          while (from < count) {
+              if (writer.count == writer.capacity) {
+                  // The writer never passes the reader, so the next node has
+                  // already been read unless it is the reader itself, whose
+                  // unread elements are moved down within its own array.
+                  writer = writer.next;
+                  writer.count = 0;
+              }
+              int n = Math.min(writer.capacity - writer.count, count - from);
+              System.arraycopy(reader.data, from, writer.data, writer.count, n);
+              writer.count += n;
+              from += n;
+          }
+      }
+      Arrays.fill(writer.data, writer.count, writer.data.length, null);
+      if (spill != null) {
+          discardFrom(writer.next);
+      }
+      writer.next = tail;
+      tail.previous = writer;
+
+      rebuildIndex();
+      ++modCount;
+  }
+
+  /**
+   * Shrinks the array of the last node to the number of elements it holds.
+   * The array grows back to the node size when an element is next added to
+   * that node or a node is linked after it.  Calling compact() first leaves
+   * the last node as the only one with free capacity.
+   */
+  public void trimToSize()
+  {
+      detach();
+      Node last = tail.previous;
+      if (last != head) {
+          last = own(last);
+          last.load();
+      }
+      if (last != head && last.count < last.data.length) {
+          last.normalize();
+          last.data = Arrays.copyOf(last.data, last.count);
+          ++modCount;
+      }
+  }
+
+  /**
+   * Turns incremental compaction on or off.  While on, every positional
+   * insertion or removal, including those made through an iterator, also
+   * tops up one node from its successor, or merges the two if the elements
+   * of both fit in one node.  Each step moves at most one node of elements, and
+   * the steps sweep through the list from front to back and start over, so
+   * nodes left half full by removals are filled again over time.
+   *
+   * @param enabled true to compact incrementally
+   */
+  public void setIncrementalCompaction(boolean enabled)
+  {
+      incrementalCompaction = enabled;
+      compactCursor = null;
+  }
+
+  /**
+   * Returns true if positional insertions and removals compact incrementally.
+   *
+   * @return true if incremental compaction is on
+   */
+  public boolean isIncrementalCompaction() { return incrementalCompaction; }
+
+  /**
+   * Turns adaptive node sizing on or off.  While on, node capacities follow
+   * the way each region of the list is modified:
+   * <ul>
+   * <li>When the last node fills up after a run of appends at least as long
+   * as its capacity, the node appended after it gets twice its capacity, up
+   * to 1024 elements or the node size if that is larger.  Long append runs
+   * thus end up in a few large nodes, which need fewer allocations and
+   * tree nodes.</li>
+   * <li>When an insertion finds a grown node full, instead of splitting it
+   * in two, the node is split into three nodes of half its capacity, each
+   * about two thirds full.  Repeated splits in an edit-heavy region thus
+   * bring its nodes back down to the node size, where each insertion or
+   * removal moves fewer elements.</li>
+   * </ul>
+   * Every node except the last stays at least half full relative to its own
+   * capacity.  Turning sizing off keeps the capacities already chosen;
+   * grown nodes are then split in two as usual.
+   *
+   * @param enabled true to size nodes adaptively
+   */
+  public void setAdaptiveNodeSize(boolean enabled)
+  {
+      adaptiveNodeSize = enabled;
+      appendRun = 0;
+  }
+
+  /**
+   * Returns true if node capacities adapt to the way the list is modified.
+   *
+   * @return true if adaptive node sizing is on
+   */
+  public boolean isAdaptiveNodeSize() { return adaptiveNodeSize; }
+
+  /**
+   * Returns an immutable view of the current contents of the list, which
+   * later changes to the list do not affect.  Taking the snapshot copies
+   * nothing and takes O(1) time.  The snapshot keeps the current nodes and
+   * reads them through their tree links only.  A later write that changes a
+   * node first copies it, together with those of its ancestors in the
+   * order-statistics tree that are still shared, and relinks the copies in
+   * place of the originals; a copy shares its array until it writes to it.
+   * So each write copies O(log n) node objects at most and the arrays of the
+   * nodes it changes, and the cost of a snapshot grows with the writes that
+   * follow it rather than with the size of the list.  Operations that rebuild
+   * the whole index, such as sort(), still copy every shared node.
+   *
+   * @return an unmodifiable list of the current elements
+   */
+  public List<E> snapshot()
+  {
+      if (snapshot == null) {
+          version = new Object();
+          shared = true;
+          snapshot = new Snapshot<>(root, size);
+      }
+      return snapshot;
+  }
+
+  /**
+   * Turns collection of structural counters on or off.  While on, the list
+   * counts node splits, merges, node allocations and positional lookups, and
+   * commits NodeSplitEvent and NodeMergeEvent to Flight Recorder when those
+   * events are enabled in a recording.  While off, each counting site costs a
+   * single null check.  Turning stats on again starts the counters from zero.
+   *
+   * @param enabled true to collect stats
+   */
+  public void setStatsEnabled(boolean enabled)
+  {
+      if (!enabled) {
+          recorder = null;
+      }
+      else if (recorder == null) {
+          recorder = new Recorder();
+      }
+  }
+
+  /**
+   * Returns true if structural counters are being collected.
+   *
+   * @return true if stats are enabled
+   */
+  public boolean isStatsEnabled() { return recorder != null; }
+
+  /**
+   * Returns a snapshot of the structural counters and of the current node
+   * occupancy.  Taking the occupancy histogram visits every node.
+   *
+   * @return the stats of this list
+   */
+  public StoutListStats stats()
+  {
+      int largest = nodeSize;
+      long capacity = 0;
+      for (Node current = head.next; current != tail; current = current.next) {
+          largest = Math.max(largest, current.capacity);
+          capacity += current.capacity;
+      }
+      long[] occupancy = new long[largest + 1];
+      for (Node current = head.next; current != tail; current = current.next) {
+          ++occupancy[current.count];
+      }
+
+      long[] counters = new long[8];
+      Recorder r = recorder;
+      if (r != null) {
+          counters[0] = r.splits.sum();
+          counters[1] = r.miniMerges.sum();
+          counters[2] = r.fullMerges.sum();
+          counters[3] = r.nodeAllocations.sum();
+          counters[4] = r.lookups.sum();
+          counters[5] = r.fingerHits.sum();
+          counters[6] = r.lookupSteps.sum();
+          counters[7] = r.maxLookupSteps.get();
+      }
+      return new StoutListStats(counters, nodeSize, size, capacity, occupancy);
+  }
+
+  /**
+   * Writes the list to a channel in a compact binary format that keeps the
+   * node layout, so readFrom() can rebuild the same nodes.  The stream holds
+   * a header with the node size, the layout, the size and the number of
+   * nodes, then for each node its capacity, its count and its elements as
+   * encoded by the codec.  Elements are preceded by their length unless the
+   * codec has a fixed size.  Bytes go out through one 64 KB buffer, which
+   * only grows for an element larger than that.
+   *
+   * @param out the channel to write to
+   * @param codec the codec for the elements
+   * @throws IOException if writing to the channel fails
+   * @throws IllegalStateException if the codec writes a different number of
+   *   bytes than its encodedSize()
+   * @throws ConcurrentModificationException if the list is modified while
+   *   being written
+   */
+  public void writeTo(WritableByteChannel out, ElementCodec<? super E> codec) throws IOException
+  {
+      int nodes = 0;
+      for (Node current = head.next; current != tail; current = current.next) {
+          ++nodes;
+      }
+
+      int expectedModCount = modCount;
+      int fixed = codec.fixedSize();
+      ByteBuffer buf = ByteBuffer.allocate(STREAM_BUFFER_SIZE);
+      buf.putInt(STREAM_MAGIC).putInt(STREAM_VERSION).putInt(nodeSize).put((byte) (circular ? 1 : 0));
+      buf.putInt(size).putInt(nodes);
+      for (Node current = head.next; current != tail; current = current.next) {
+          spillCold(current);
+          buf = reserve(out, buf, 2 * Integer.BYTES);
+          buf.putInt(current.capacity).putInt(current.count);
+          for (int i = 0; i < current.count; ++i) {
+              E item = current.get(i);
+              int length = fixed >= 0 ? fixed : codec.encodedSize(item);
+              buf = reserve(out, buf, fixed >= 0 ? length : Integer.BYTES + length);
+              if (fixed < 0) {
+                  buf.putInt(length);
+              }
+              int start = buf.position();
+              codec.encode(item, buf);
+              if (buf.position() - start != length) throw new IllegalStateException();
+          }
+      }
+      if (modCount != expectedModCount) throw new ConcurrentModificationException();
+      flush(out, buf);
+  }
+
+  /**
+   * Reads a list written by writeTo().  The nodes are rebuilt directly with
+   * the capacities and counts in the stream, without going through add(),
+   * and the elements are decoded straight into them, so only the list and a
+   * 64 KB buffer are allocated however long the stream is.  The index is
+   * built once at the end.
+   *
+   * @param in the channel to read from
+   * @param codec the codec for the elements, matching the one they were
+   *   written with
+   * @return the list read
+   * @throws IOException if reading from the channel fails
+   * @throws EOFException if the stream ends early
+   * @throws StreamCorruptedException if the stream is not a valid list
+   */
+  public static <E extends Comparable<? super E>> StoutList<E> readFrom(ReadableByteChannel in, ElementCodec<? extends E> codec) throws IOException
+  {
+      ByteBuffer buf = ByteBuffer.allocate(STREAM_BUFFER_SIZE);
+      buf.flip();
+      buf = fill(in, buf, 5 * Integer.BYTES + 1);
+      if (buf.getInt() != STREAM_MAGIC) throw new StreamCorruptedException("not a StoutList stream");
+      if (buf.getInt() != STREAM_VERSION) throw new StreamCorruptedException("unsupported version");
+      int nodeSize = buf.getInt();
+      boolean circular = buf.get() != 0;
+      int size = buf.getInt();
+      int nodes = buf.getInt();
+      if (nodeSize <= 0 || nodeSize % 2 != 0 || size < 0 || nodes < 0) throw new StreamCorruptedException();
+
+      StoutList<E> list = new StoutList<>(nodeSize, circular);
+      int fixed = codec.fixedSize();
+      long total = 0;
+      StoutList<E>.Node previous = list.head;
+      for (int k = 0; k < nodes; ++k) {
+          buf = fill(in, buf, 2 * Integer.BYTES);
+          int capacity = buf.getInt();
+          int count = buf.getInt();
+          if (capacity < nodeSize || capacity % nodeSize != 0 || count <= 0 || count > capacity
+                  || (k > 0 && k < nodes - 1 && count < capacity / 2)) {
+              throw new StreamCorruptedException("bad node " + k);
+          }
+
+          StoutList<E>.Node node = list.newNode(capacity);
+          for (int i = 0; i < count; ++i) {
+              int length = fixed;
+              if (fixed < 0) {
+                  buf = fill(in, buf, Integer.BYTES);
+                  length = buf.getInt();
+                  if (length < 0) throw new StreamCorruptedException();
+              }
+              buf = fill(in, buf, length);
+              int limit = buf.limit();
+              int end = buf.position() + length;
+              buf.limit(end);
+              E item = codec.decode(buf);
+              if (item == null || buf.position() != end) throw new StreamCorruptedException();
+              buf.limit(limit);
+              node.data[i] = item;
+          }
+          node.count = count;
+          node.previous = previous;
+          previous.next = node;
+          previous = node;
+          total += count;
+      }
+      if (total != size) throw new StreamCorruptedException("size mismatch");
+
+      previous.next = list.tail;
+      list.tail.previous = previous;
+      list.size = size;
+      list.rebuildIndex();
+      return list;
+  }
+
+  /**
+   * Makes room for n more bytes in a buffer being written, flushing it to
+   * the channel if needed.
+   *
+   * @param out the channel to flush to
+   * @param buf the buffer, in write mode
+   * @param n the number of bytes needed
+   * @return buf, or a larger buffer if n does not fit in it
+   * @throws IOException if writing to the channel fails
+   */
+  static ByteBuffer reserve(WritableByteChannel out, ByteBuffer buf, int n) throws IOException
+  {
+      if (buf.remaining() < n) {
+          flush(out, buf);
+          if (buf.capacity() < n) {
+              buf = ByteBuffer.allocate(n);
+          }
+      }
+      return buf;
+  }
+
+  /**
+   * Writes the contents of a buffer to a channel and clears it.
+   *
+   * @param out the channel to write to
+   * @param buf the buffer, in write mode
+   * @throws IOException if writing to the channel fails
+   */
+  static void flush(WritableByteChannel out, ByteBuffer buf) throws IOException
+  {
+      buf.flip();
+      while (buf.hasRemaining()) {
+          out.write(buf);
+      }
+      buf.clear();
+  }
+
+  /**
+   * Reads from a channel until a buffer holds at least n unread bytes.
+   *
+   * @param in the channel to read from
+   * @param buf the buffer, in read mode
+   * @param n the number of bytes needed
+   * @return buf, or a larger buffer if n does not fit in it, in read mode
+   * @throws IOException if reading from the channel fails
+   * @throws EOFException if the channel ends first
+   */
+  private static ByteBuffer fill(ReadableByteChannel in, ByteBuffer buf, int n) throws IOException
+  {
+      if (buf.remaining() >= n) {
+          return buf;
+      }
+      if (buf.capacity() < n) {
+          buf = ByteBuffer.allocate(n).put(buf);
+      }
+      else {
+          buf.compact();
+      }
+      while (buf.position() < n) {
+          if (in.read(buf) < 0) throw new EOFException();
+      }
+      buf.flip();
+      return buf;
+  }
+
+  /**
+   * Creates a spliterator over the elements of this list that splits at node
+   * boundaries and reads the node arrays directly.
+   *
+   * @return a SIZED, SUBSIZED, ORDERED and NONNULL spliterator
+   */
+  @Override
+  public Spliterator<E> spliterator() { return new StoutSpliterator(head.next, 0, 0, size); }
+
+  /**
+   * Returns a string representation of this list showing
+   * the internal structure of the nodes.
+   */
+  public String toStringInternal()
+  {
+    return toStringInternal(null);
+  }
+
+  /**
+   * Returns a string representation of this list showing the internal
+   * structure of the nodes and the position of the iterator.
+   *
+   * @param iter
+   *            an iterator for this list
+   */
+  public String toStringInternal(ListIterator<E> iter) 
+  {
+      int count = 0;
+      int position = -1;
+      if (iter != null) {
+          position = iter.nextIndex();
+      }
+
+      StringBuilder sb = new StringBuilder();
+      sb.append('[');
+      Node current = head.next;
+      while (current != tail) {
+          sb.append('(');
+          E data = current.count > 0 ? current.get(0) : null;
+          if (data == null) {
+              sb.append("-");
+          } else {
+              if (position == count) {
+                  sb.append("| ");
+                  position = -1;
+              }
+              sb.append(data.toString());
+              ++count;
+          }
+
+          for (int i = 1; i < current.capacity; ++i) {
+             sb.append(", ");
+              data = i < current.count ? current.get(i) : null;
+              if (data == null) {
+                  sb.append("-");
+              } else {
+                  if (position == count) {
+                      sb.append("| ");
+                      position = -1;
+                  }
+                  sb.append(data.toString());
+                  ++count;
+
+                  // iterator at end
+                  if (position == size && count == size) {
+                      sb.append(" |");
+                      position = -1;
+                  }
+             }
+          }
+          sb.append(')');
+          current = current.next;
+          if (current != tail)
+              sb.append(", ");
+      }
+      sb.append("]");
+      return sb.toString();
+  }
+
+  /**
+   * Returns the node and offset holding the given position.  If pos equals
+   * the size of the list, the tail is returned with offset 0, which the
+   * rules in NodeInfo.add() treat as an append.
+   *
+   * The lookup first walks at most FINGER_REACH nodes from the finger, the
+   * node found by the previous lookup, and only falls back to the
+   * order-statistics tree if pos is farther away.  Either way the node
+   * found becomes the new finger.  If the list spills, cold nodes are
+   * spilled before it returns, keeping the node found in memory.
+   * Precondition: 0 <= pos <= size
+   *
+   * @param pos the position to look up
+   * @return the node containing pos and the offset of pos within it
+   */
+  private NodeInfo find(int pos)
+  {
+      if (pos == size) {
+          spillCold(tail.previous);
+          return new NodeInfo(tail, 0, pos);
+      }
+
+      if (finger != null) {
+          Node current = finger;
+          int start = fingerStart;
+          for (int steps = 0; steps <= FINGER_REACH; ++steps) {
+              if (pos < start) {
+                  current = current.previous;
+                  start -= current.count;
+              }
+              else if (pos >= start + current.count) {
+                  start += current.count;
+                  current = current.next;
+              }
+              else {
+                  finger = current;
+                  fingerStart = start;
+                  if (recorder != null) {
+                      recorder.recordLookup(steps + 1, true);
+                  }
+                  spillCold(current);
+                  return new NodeInfo(current, pos - start, pos);
+              }
+          }
+      }
+
+      NodeInfo nodeInfo = locate(pos);
+      finger = nodeInfo.node;
+      fingerStart = pos - nodeInfo.offset;
+      if (recorder != null) {
+          recorder.recordLookup(depth(nodeInfo.node), false);
+      }
+      spillCold(nodeInfo.node);
+      return nodeInfo;
+  }
+
+  /**
+   * Looks up a position like find(), for a positional insertion or removal:
+   * the node found and its neighbours are first copied away from any
+   * snapshot they are shared with.
+   * Precondition: 0 <= pos <= size
+   *
+   * @param pos the position to look up
+   * @return the node containing pos and the offset of pos within it
+   */
+  private NodeInfo findForWrite(int pos)
+  {
+      NodeInfo nodeInfo = find(pos);
+      nodeInfo.node = ownAround(nodeInfo.node);
+      return nodeInfo;
+  }
+
+  /**
+   * Returns the node and offset holding the given position by descending the
+   * order-statistics tree.  Unlike find(), this does not read or update the
+   * finger, so it only reads the list.  The descent gives up after as many
+   * steps as there are elements, which can only happen when the tree is read
+   * without synchronization while another thread changes it.
+   * Precondition: 0 <= pos <= size
+   *
+   * @param pos the position to look up
+   * @return the node containing pos and the offset of pos within it
+   * @throws ConcurrentModificationException if the descent does not end
+   */
+  private NodeInfo locate(int pos)
+  {
+      if (pos == size) {
+          return new NodeInfo(tail, 0, pos);
+      }
+
+      int target = pos;
+      Node current = root;
+      for (int steps = 0; steps <= size; ++steps) {
+          int leftWeight = weight(current.left);
+          if (target < leftWeight) {
+              current = current.left;
+          }
+          else if (target < leftWeight + current.count) {
+              return new NodeInfo(current, target - leftWeight, pos);
+          }
+          else {
+              target -= leftWeight + current.count;
+              current = current.right;
+          }
+      }
+      throw new ConcurrentModificationException();
+  }
+
+  /**
+   * Returns the item at the given position without reading or updating the
+   * finger, so that several threads may call it at once.
+   *
+   * @param pos the position of the item
+   * @return the item at pos
+   * @throws IndexOutOfBoundsException if pos is less than 0 or not less than the size
+   */
+  E peek(int pos)
+  {
+      if (pos < 0 || pos >= size) { throw new IndexOutOfBoundsException(); }
+
+      NodeInfo nodeInfo = locate(pos);
+      return nodeInfo.node.get(nodeInfo.offset);
+  }
+
+  /**
+   * Replaces the item at the given position without reading or updating the
+   * finger.  Callers that run it from several threads at once must make sure
+   * no two of them replace the same position at the same time.
+   *
+   * @param pos the position of the item
+   * @param item the new item
+   * @return the item previously at pos
+   * @throws IndexOutOfBoundsException if pos is less than 0 or not less than the size
+   * @throws NullPointerException if the item is equal to null
+   */
+  E replace(int pos, E item)
+  {
+      if (item == null) { throw new NullPointerException(); }
+      if (pos < 0 || pos >= size) { throw new IndexOutOfBoundsException(); }
+
+      detach();
+      NodeInfo nodeInfo = locate(pos);
+      Node node = own(nodeInfo.node);
+      E old = node.get(nodeInfo.offset);
+      node.set(nodeInfo.offset, item);
+      return old;
+  }
+
+  /**
+   * Copies the items from the given position to the end of the node holding
+   * it, or as many as fit in dest, without reading or updating the finger.
+   *
+   * @param pos the position of the first item to copy
+   * @param dest the array to copy into
+   * @return the number of items copied, 0 if pos is not less than the size
+   */
+  int copyChunk(int pos, Object[] dest)
+  {
+      if (pos < 0 || pos >= size) {
+          return 0;
+      }
+
+      NodeInfo nodeInfo = locate(pos);
+      Node node = nodeInfo.node;
+      int count = Math.min(node.count - nodeInfo.offset, dest.length);
+      for (int i = 0; i < count; ++i) {
+          dest[i] = node.get(nodeInfo.offset + i);
+      }
+      return count;
+  }
+
+  /**
+   * Returns the number of elements that may be stored in each node.
+   *
+   * @return the node size
+   */
+  int nodeSize() { return nodeSize; }
+
+  /**
+   * Returns the position of the first element that is greater than key, or
+   * greater than or equal to key if after is false, assuming the list is in
+   * the order of comp.  Since the in-order sequence of the order-statistics
+   * tree is the list order, the tree is descended as a search tree keyed by
+   * the first element of each node, and the node found is then
+   * binary-searched.  Stubs keep their first element in memory, so in a
+   * spilling list only the node found is read back.  The node found becomes
+   * the finger, so an insertion or lookup at the returned position does not
+   * descend the tree again.
+   *
+   * @param key the element to search for
+   * @param comp the order of the list
+   * @param after true to return the position after any elements equal to key
+   * @return the insertion point of key, between 0 and size inclusive
+   */
+  int search(E key, Comparator<? super E> comp, boolean after)
+  {
+      Node found = null;
+      int foundStart = 0;
+      int start = 0;
+      Node current = root;
+      while (current != null) {
+          int leftWeight = weight(current.left);
+          int c = comp.compare(current.peekFirst(), key);
+          if (c < 0 || (after && c == 0)) {
+              found = current;
+              foundStart = start + leftWeight;
+              start += leftWeight + current.count;
+              current = current.right;
+          }
+          else {
+              current = current.left;
+          }
+      }
+      if (found == null) {
+          return 0;
+      }
+
+      // Every node before found starts at or below its first element, and
+      // every node after it starts past key, so the insertion point is in
+      // found or right after it.
+      int low = 1;
+      int high = found.count;
+      while (low < high) {
+          int mid = (low + high) >>> 1;
+          int c = comp.compare(found.get(mid), key);
+          if (c < 0 || (after && c == 0)) {
+              low = mid + 1;
+          }
+          else {
+              high = mid;
+          }
+      }
+      finger = found;
+      fingerStart = foundStart;
+      return foundStart + low;
+  }
+
+  /**
+   * Updates the finger after an item was added at pos to the given node
+   * without any node being linked or unlinked.
+   *
+   * @param node the node that received the item
+   * @param pos the position of the item
+   */
+  private void fingerInserted(Node node, int pos)
+  {
+      if (finger != null && node != finger && pos <= fingerStart) {
+          ++fingerStart;
+      }
+  }
+
+  /**
+   * Updates the finger after the item at pos was removed from the given node
+   * without any node being linked or unlinked.
+   *
+   * @param node the node that lost the item
+   * @param pos the position of the item
+   */
+  private void fingerRemoved(Node node, int pos)
+  {
+      if (finger != null && node != finger && pos < fingerStart) {
+          --fingerStart;
+      }
+  }
+
+  /**
+   * Does one step of incremental compaction at the cursor.  The cursor node
+   * is filled from the front of its successor, which keeps at least half of
+   * its elements unless it is the last node.  If the two fit in one node,
+   * the successor is merged into the cursor node and the cursor stays put;
+   * otherwise the cursor moves on to the successor, wrapping around to the
+   * first node at the end of the list.
+   */
+  private void compactStep()
+  {
+      Node node = compactCursor == null ? head.next : compactCursor;
+      if (node == tail || node.next == tail) {
+          compactCursor = null;
+          return;
+      }
+      node = own(node);
+      Node successor = own(node.next);
+
+      if (node.count + successor.count <= node.capacity) {
+          mergeNext(node);
+          compactCursor = node;
+          if (recorder != null) {
+              recordMerge(true);
+          }
+          return;
+      }
+
+      int keep = successor.next == tail ? 1 : successor.capacity / 2;
+      int n = Math.min(node.capacity - node.count, successor.count - keep);
+      if (n > 0) {
+          moveFirst(node, n);
+      }
+      compactCursor = successor;
+  }
+
+  /**
+   * Restores the half-full rule for a node left with less than half its
+   * capacity by cutting or joining lists.  As in NodeInfo.remove(), its
+   * successor is merged into it if both fit in one node, and otherwise just
+   * enough elements are moved from the front of the successor if it can
+   * spare them.  If it cannot, the successor has the larger capacity and
+   * the node is merged into it instead.  A successor of smaller capacity may
+   * be merged without filling the node to half, so this repeats until it is.
+   *
+   * @param node the node to check, possibly the head
+   */
+  private void refill(Node node)
+  {
+      if (node == head) {
+          return;
+      }
+
+      int half = node.capacity / 2;
+      while (node.next != tail && node.count < half) {
+          node = own(node);
+          Node successor = own(node.next);
+          int n = half - node.count;
+          if (node.count + successor.count <= node.capacity) {
+              mergeNext(node);
+          }
+          else if (successor.next == tail || successor.count - n >= successor.capacity / 2) {
+              moveFirst(node, n);
+          }
+          else {
+              mergeIntoNext(node);
+              return;
+          }
+      }
+  }
+
+  /**
+   * Moves every element of a node's successor into it and unlinks the
+   * successor.
+   * Precondition: node.count + node.next.count <= node.capacity
+   *
+   * @param node the node to merge into
+   */
+  private void mergeNext(Node node)
+  {
+      Node successor = node.next;
+      node.normalize();
+      successor.copyTo(node.data, node.count);
+      node.count += successor.count;
+      node.adjustWeight(successor.count);
+      unlink(successor);
+  }
+
+  /**
+   * Moves every element of a node to the front of its successor and unlinks
+   * the node.
+   * Precondition: node.count + node.next.count <= node.next.capacity
+   *
+   * @param node the node to merge away
+   */
+  private void mergeIntoNext(Node node)
+  {
+      Node successor = node.next;
+      successor.ensureCapacity();
+      successor.normalize();
+      System.arraycopy(successor.data, 0, successor.data, node.count, successor.count);
+      node.copyTo(successor.data, 0);
+      successor.count += node.count;
+      successor.adjustWeight(node.count);
+      unlink(node);
+  }
+
+  /**
+   * Replaces a full node with three nodes of half its capacity, each about
+   * two thirds full.  The node itself keeps the first third in a new, smaller
+   * array.
+   * Precondition: node.count == node.capacity and node.capacity >= 4
+   *
+   * @param node the node to split
+   */
+  private void splitInThree(Node node)
+  {
+      int capacity = node.capacity / 2;
+      int count = node.count;
+      node.normalize();
+      E[] data = node.data;
+
+      int kept = count / 3 + (count % 3 > 0 ? 1 : 0);
+      int from = kept;
+      Node previous = node;
+      for (int i = 1; i < 3; ++i) {
+          int n = count / 3 + (i < count % 3 ? 1 : 0);
+          Node newNode = newNode(capacity);
+          System.arraycopy(data, from, newNode.data, 0, n);
+          newNode.count = n;
+          from += n;
+          link(previous, newNode);
+          previous = newNode;
+      }
+
+      node.data = Arrays.copyOf(data, capacity);
+      Arrays.fill(node.data, kept, capacity, null);
+      node.capacity = capacity;
+      node.count = kept;
+      node.adjustWeight(kept - count);
+  }
+
+  /**
+   * Allocates a node to append after the last node.  With adaptive node
+   * sizing, it gets twice the capacity of the last node if that node was
+   * filled by a run of appends, and the node size otherwise.
+   *
+   * @return a new empty node
+   */
+  private Node appendNode()
+  {
+      Node last = tail.previous;
+      if (!adaptiveNodeSize || last == head || appendRun < last.capacity) {
+          return newNode();
+      }
+      int capacity = last.capacity;
+      if (capacity * 2 <= Math.max(nodeSize, MAX_ADAPTIVE_NODESIZE)) {
+          capacity *= 2;
+      }
+      return newNode(capacity);
+  }
+
+  /**
+   * Moves the first n elements of a node's successor to the end of the node.
+   * Precondition: 0 < n <= node.capacity - node.count and n < node.next.count
+   *
+   * @param node the node to move elements into
+   * @param n the number of elements to move
+   */
+  private void moveFirst(Node node, int n)
+  {
+      Node successor = node.next;
+      node.normalize();
+      successor.normalize();
+      System.arraycopy(successor.data, 0, node.data, node.count, n);
+      System.arraycopy(successor.data, n, successor.data, 0, successor.count - n);
+      Arrays.fill(successor.data, successor.count - n, successor.count, null);
+      node.count += n;
+      node.adjustWeight(n);
+      successor.count -= n;
+      successor.adjustWeight(-n);
+      if (finger == successor) {
+          fingerStart += n;
+      }
+  }
+
+  /**
+   * Forgets the latest snapshot before a write that copies the nodes it
+   * changes with own(), so that the next snapshot() sees the write.
+   */
+  private void detach()
+  {
+      if (snapshot != null) {
+          snapshot = null;
+      }
+  }
+
+  /**
+   * Gives the list its own copy of every node that may be shared with a
+   * snapshot, for a write about to change nodes all over the list, and
+   * rebuilds the index over the nodes.  Like own(), each copy shares its
+   * array until it writes to it.
+   */
+  private void unshare()
+  {
+      snapshot = null;
+      if (!shared) {
+          return;
+      }
+
+      Node previous = head;
+      for (Node node = head.next; node != tail; node = node.next) {
+          Node copy = node.version == version ? node : copyOf(node);
+          copy.previous = previous;
+          previous.next = copy;
+          previous = copy;
+      }
+      previous.next = tail;
+      tail.previous = previous;
+      rebuildIndex();
+
+      shared = false;
+      ++skeleton;
+  }
+
+  /**
+   * Returns the node a write may change in place of the given one.  If the
+   * node may be shared with a snapshot, it is replaced by a copy, after its
+   * parent in the order-statistics tree has been given the same treatment,
+   * so a node the list owns only ever hangs below nodes it owns and the
+   * snapshot keeps the originals untouched.  The copy takes the original's
+   * place in the linked list, the tree, the finger and the compaction
+   * cursor; iterators find their nodes again by position.
+   *
+   * @param node a node of the list other than the head and the tail
+   * @return node, or the copy that replaced it
+   */
+  private Node own(Node node)
+  {
+      if (!shared || node.version == version) {
+          return node;
+      }
+
+      Node parent = node.parent == null ? null : own(node.parent);
+      Node copy = copyOf(node);
+      copy.priority = node.priority;
+      copy.weight = node.weight;
+      copy.left = node.left;
+      copy.right = node.right;
+      copy.parent = parent;
+      if (copy.left != null) {
+          copy.left.parent = copy;
+      }
+      if (copy.right != null) {
+          copy.right.parent = copy;
+      }
+      if (parent == null) {
+          root = copy;
+      }
+      else if (parent.left == node) {
+          parent.left = copy;
+      }
+      else {
+          parent.right = copy;
+      }
+
+      // The original keeps its links, so the clock of the spill file still
+      // treats it as linked and can spill it while the snapshot holds it.
+      copy.previous = node.previous;
+      copy.next = node.next;
+      node.previous.next = copy;
+      node.next.previous = copy;
+      if (finger == node) {
+          finger = copy;
+      }
+      if (compactCursor == node) {
+          compactCursor = copy;
+      }
+      ++skeleton;
+      return copy;
+  }
+
+  /**
+   * Owns the given node and its neighbours in the linked list, which are all
+   * the nodes a positional insertion or removal at it changes before it
+   * links or unlinks nodes.
+   *
+   * @param node a node of the list, possibly the tail
+   * @return node, or the copy that replaced it
+   */
+  private Node ownAround(Node node)
+  {
+      if (!shared) {
+          return node;
+      }
+      if (node != tail) {
+          node = own(node);
+          if (node.next != tail) {
+              own(node.next);
+          }
+      }
+      if (node.previous != head) {
+          own(node.previous);
+      }
+      return node;
+  }
+
+  /**
+   * Returns a node holding the same elements as the given one, sharing its
+   * array until it writes to it and its record in the spill file until it
+   * is spilled again.  The copy carries the current version but is not
+   * linked anywhere.
+   *
+   * @param node the node to copy
+   * @return the copy
+   */
+  private Node copyOf(Node node)
+  {
+      Node copy = new Node(node.data);
+      copy.capacity = node.capacity;
+      copy.count = node.count;
+      copy.start = node.start;
+      copy.frozen = true;
+      if (node.spillState != null) {
+          copy.spillState = new SpillState();
+          copy.spillState.record = node.spillState.record;
+          copy.spillState.firstItem = node.spillState.firstItem;
+          copy.spillState.dirty = node.spillState.dirty;
+      }
+      if (spill != null && copy.data != null) {
+          track(copy);
+      }
+      return copy;
+  }
+
+  /**
+   * Allocates a node for the list, counting it if stats are enabled.
+   *
+   * @return a new empty node
+   */
+  Node newNode()
+  {
+      return newNode(nodeSize);
+  }
+
+  /**
+   * Allocates a node with the given capacity, counting it if stats are
+   * enabled.
+   *
+   * @param capacity the capacity of the node
+   * @return a new empty node
+   */
+  private Node newNode(int capacity)
+  {
+      if (recorder != null) {
+          recorder.nodeAllocations.increment();
+      }
+      Node node = new Node(capacity);
+      if (spill != null) {
+          track(node);
+      }
+      return node;
+  }
+
+  /**
+   * Starts spilling nodes to the given file.  From then on the list keeps
+   * at most residentNodes nodes in memory between operations: whenever an
+   * operation or iterator is about to use a node, the nodes beyond the
+   * budget are chosen with the CLOCK algorithm (a node used since the hand
+   * last passed it gets a second chance), written to the file with the
+   * codec and replaced by stubs.  A node is only written again if it has
+   * changed since it was read back.  Counts and the index stay in memory, so
+   * a lookup reads only the node it lands on.  Lists split from this one
+   * share the file and the budget.
+   *
+   * Operations that restructure the whole list, such as sort(), removeIf(),
+   * compact() and large addAll() calls, read every node they touch back into
+   * memory, which is then trimmed to the budget by the next operation.
+   * Reading a stub changes it, so a spilling list and its snapshots must not
+   * be read concurrently, and must not be used through ConcurrentStoutList.
+   *
+   * @param file the spill file, which is created or truncated, and deleted
+   *   when spilling stops, or as soon as it is opened on platforms that allow
+   *   an open file to be deleted
+   * @param codec the codec for the elements
+   * @param residentNodes the number of nodes to keep in memory
+   * @throws IOException if the file cannot be opened
+   * @throws IllegalArgumentException if residentNodes is not positive
+   * @throws IllegalStateException if the list is already spilling
+   */
+  public void enableSpill(Path file, ElementCodec<E> codec, int residentNodes) throws IOException
+  {
+      if (residentNodes <= 0) throw new IllegalArgumentException();
+      if (spill != null) throw new IllegalStateException();
+
+      spill = new SpillStore(file, codec, residentNodes);
+      for (Node current = head.next; current != tail; current = current.next) {
+          track(current);
+      }
+      spillCold(null);
+  }
+
+  /**
+   * Stops spilling, reading every spilled node back into memory.  The spill
+   * file is closed and deleted unless lists split from this one still spill
+   * to it, so a piece cut with splitAt() that is not joined back should be
+   * cleared and then stopped with this method.  Snapshots taken while the list was spilling must not be read
+   * afterwards, since their stubs refer to the file.
+   *
+   * @throws UncheckedIOException if a node cannot be read back
+   */
+  public void disableSpill()
+  {
+      if (spill == null) {
+          return;
+      }
+
+      Set<Node> nodes = Collections.newSetFromMap(new IdentityHashMap<>());
+      for (Node current = head.next; current != tail; current = current.next) {
+          current.load();
+          freeSpilled(current);
+          current.spillState = null;
+          nodes.add(current);
+      }
+      if (--spill.users == 0) {
+          spill.close();
+      }
+      else {
+          spill.clock.removeAll(nodes);
+      }
+      spill = null;
+  }
+
+  /**
+   * Returns true if the list spills nodes to a file.
+   *
+   * @return true if spilling is enabled
+   */
+  public boolean isSpillEnabled() { return spill != null; }
+
+  /**
+   * Moves the spill state of a list whose nodes are about to be linked onto
+   * the end of this one, so that every node of the joined list in memory is
+   * on the clock of its spill file.
+   *
+   * @param other the list whose nodes will be moved
+   */
+  private void takeSpill(StoutList<E> other)
+  {
+      if (other.spill == spill) {
+          if (spill != null) {
+              --spill.users;
+          }
+      }
+      else if (spill == null) {
+          spill = other.spill;
+          for (Node current = head.next; current != tail; current = current.next) {
+              track(current);
+          }
+      }
+      else {
+          other.disableSpill();
+          for (Node current = other.head.next; current != other.tail; current = current.next) {
+              track(current);
+          }
+      }
+      other.spill = null;
+  }
+
+  /**
+   * Empties a list cut with splitAt() whose elements are no longer wanted,
+   * giving up its share of the spill file without reading its nodes back.
+   * The nodes are taken off the clock now rather than when the hand reaches
+   * them, unless a snapshot shares them, and the file is closed once no
+   * list spills to it.
+   */
+  private void discard()
+  {
+      if (spill != null) {
+          if (!shared) {
+              Set<Node> nodes = Collections.newSetFromMap(new IdentityHashMap<>());
+              for (Node current = head.next; current != tail; current = current.next) {
+                  nodes.add(current);
+              }
+              spill.clock.removeAll(nodes);
+              discardFrom(head.next);
+          }
+          if (--spill.users == 0) {
+              spill.close();
+          }
+          spill = null;
+      }
+      clear();
+  }
+
+  /**
+   * Clears the next links of the nodes from first up to the tail, which the
+   * caller is about to drop from the list, so that the clock of the spill
+   * file drops them too, and frees the records they own.
+   *
+   * @param first the first node dropped
+   */
+  private void discardFrom(Node first)
+  {
+      Node current = first;
+      while (current != tail) {
+          Node next = current.next;
+          current.next = null;
+          freeSpilled(current);
+          current = next;
+      }
+  }
+
+  /**
+   * Frees the record a node that is being dropped from the list owns in the
+   * spill file, so that the space can be used for other records.  A record
+   * the node does not own may still be read by the node it was copied from.
+   *
+   * @param node the node being dropped
+   */
+  void freeSpilled(Node node)
+  {
+      SpillState state = node.spillState;
+      if (state != null && state.owner && state.record.store == spill) {
+          spill.free(state.record);
+          state.record = null;
+          state.owner = false;
+      }
+  }
+
+  /**
+   * Puts a node in memory on the clock of the spill file, giving it spill
+   * bookkeeping if it has none yet.
+   *
+   * @param node the node
+   */
+  private void track(Node node)
+  {
+      if (node.spillState == null) {
+          node.spillState = new SpillState();
+      }
+      spill.clock.add(node);
+  }
+
+  /**
+   * Spills the nodes on the clock beyond the budget.  The hand takes nodes
+   * from the front of the clock: a node used since the hand last passed it,
+   * or the node about to be used, goes to the back instead, and nodes that
+   * were unlinked are dropped.  The clock may hold nodes of lists split from
+   * this one, which are not in the middle of an operation either.  This runs
+   * only where an operation or iterator is about to use a node, never while
+   * an operation holds node arrays.
+   *
+   * @param keep the node about to be used, or null
+   */
+  void spillCold(Node keep)
+  {
+      if (spill == null) {
+          return;
+      }
+      // The head or tail, passed for an empty list, has no bookkeeping.
+      if (keep != null && keep.spillState != null) {
+          keep.spillState.referenced = true;
+      }
+
+      ArrayDeque<Object> clock = spill.clock;
+      while (clock.size() > spill.residentNodes) {
+          // Unchecked warning unavoidable.
+          @SuppressWarnings("unchecked")
+          Node node = (Node) clock.poll();
+          if (node.data == null || node.next == null) {
+              continue;
+          }
+          SpillState state = node.spillState;
+          if (node == keep || state.referenced) {
+              state.referenced = false;
+              clock.add(node);
+              continue;
+          }
+
+          if (state.dirty || state.record == null) {
+              SpillRecord previous = state.owner && state.record.store == spill ? state.record : null;
+              state.record = spill.write(node.data, node.start, node.count, previous);
+              state.owner = true;
+          }
+          state.firstItem = node.data[node.start];
+          state.dirty = false;
+          node.data = null;
+          node.start = 0;
+          node.frozen = false;
+      }
+  }
+
+  /**
+   * Counts a node split and reports it to Flight Recorder.
+   */
+  private void recordSplit()
+  {
+      recorder.splits.increment();
+      NodeSplitEvent event = new NodeSplitEvent();
+      if (event.isEnabled()) {
+          event.nodeSize = nodeSize;
+          event.listSize = size;
+          event.commit();
+      }
+  }
+
+  /**
+   * Counts a merge and reports it to Flight Recorder.
+   *
+   * @param full true for a full merge, false for a mini-merge
+   */
+  private void recordMerge(boolean full)
+  {
+      (full ? recorder.fullMerges : recorder.miniMerges).increment();
+      NodeMergeEvent event = new NodeMergeEvent();
+      if (event.isEnabled()) {
+          event.full = full;
+          event.nodeSize = nodeSize;
+          event.listSize = size;
+          event.commit();
+      }
+  }
+
+  /**
+   * Returns the number of nodes on the path from the root of the
+   * order-statistics tree to the given node, inclusive.
+   *
+   * @param node a node in the tree
+   * @return the depth of node, counting the root as 1
+   */
+  private int depth(Node node)
+  {
+      int depth = 0;
+      for (; node != null; node = node.parent) {
+          ++depth;
+      }
+      return depth;
+  }
+
+  /**
+   * Links a new node into the list right after pred and inserts it into the
+   * order-statistics tree.
+   *
+   * @param pred the node after which to link, possibly the head
+   * @param node the node to link
+   */
+  private void link(Node pred, Node node)
+  {
+      finger = null;
+      if (pred != head) {
+          pred.ensureCapacity();
+      }
+      node.previous = pred;
+      node.next = pred.next;
+      pred.next.previous = node;
+      pred.next = node;
+
+      node.parent = null;
+      node.left = null;
+      node.right = null;
+      node.weight = node.count;
+      node.priority = nextPriority();
+
+      if (root == null) {
+          root = node;
+          return;
+      }
+
+      // The in-order successor of pred is the new node, so it goes in the
+      // leftmost empty slot of pred's right subtree.
+      Node parent;
+      if (pred == head) {
+          parent = own(leftmost(root));
+          parent.left = node;
+      }
+      else if (pred.right == null) {
+          parent = pred;
+          parent.right = node;
+      }
+      else {
+          parent = own(leftmost(pred.right));
+          parent.left = node;
+      }
+      node.parent = parent;
+      parent.adjustWeight(node.count);
+
+      while (node.parent != null && node.priority > node.parent.priority) {
+          rotateUp(node);
+      }
+  }
+
+  /**
+   * Unlinks a node from the list and removes it from the order-statistics tree.
+   *
+   * @param node the node to unlink
+   */
+  private void unlink(Node node)
+  {
+      finger = null;
+      if (node == compactCursor) {
+          compactCursor = null;
+      }
+      while (node.left != null || node.right != null) {
+          if (node.left == null) {
+              rotateUp(own(node.right));
+          }
+          else if (node.right == null || node.left.priority > node.right.priority) {
+              rotateUp(own(node.left));
+          }
+          else {
+              rotateUp(own(node.right));
+          }
+      }
+
+      Node parent = node.parent;
+      if (parent == null) {
+          root = null;
+      }
+      else {
+          if (parent.left == node) {
+              parent.left = null;
+          }
+          else {
+              parent.right = null;
+          }
+          parent.adjustWeight(-node.weight);
+      }
+      node.parent = null;
+
+      node.previous.next = node.next;
+      node.next.previous = node.previous;
+      node.next = null;
+      node.previous = null;
+      if (spill != null) {
+          freeSpilled(node);
+      }
+  }
+
+  /**
+   * Rotates a node above its parent, keeping the subtree weights correct.
+   *
+   * @param node the node to rotate up, which must have a parent
+   */
+  private void rotateUp(Node node)
+  {
+      Node parent = node.parent;
+      Node grandparent = parent.parent;
+
+      if (parent.left == node) {
+          parent.left = node.right;
+          if (node.right != null) node.right.parent = parent;
+          node.right = parent;
+      }
+      else {
+          parent.right = node.left;
+          if (node.left != null) node.left.parent = parent;
+          node.left = parent;
+      }
+      parent.parent = node;
+      node.parent = grandparent;
+
+      if (grandparent == null) {
+          root = node;
+      }
+      else if (grandparent.left == parent) {
+          grandparent.left = node;
+      }
+      else {
+          grandparent.right = node;
+      }
+
+      node.weight = parent.weight;
+      parent.weight = parent.count + weight(parent.left) + weight(parent.right);
+  }
+
+  /**
+   * Rebuilds the order-statistics tree from the linked nodes as a balanced
+   * tree.  Used after operations that restructure many nodes at once.
+   */
+  private void rebuildIndex()
+  {
+      finger = null;
+      compactCursor = null;
+      List<Node> nodes = new ArrayList<>();
+      for (Node current = head.next; current != tail; current = current.next) {
+          nodes.add(current);
+      }
+
+      // Priorities are handed out in pre-order from largest to smallest, so
+      // every parent outranks its children.
+      int[] priorities = new int[nodes.size()];
+      for (int i = 0; i < priorities.length; ++i) {
+          priorities[i] = nextPriority();
+      }
+      Arrays.sort(priorities);
+
+      root = buildIndex(nodes, 0, nodes.size(), null, priorities, new int[] { priorities.length });
+  }
+
+  /**
+   * Builds a balanced subtree over nodes[from, to).
+   *
+   * @param nodes the nodes in list order
+   * @param from the first node in the subtree
+   * @param to one past the last node in the subtree
+   * @param parent the parent of the subtree
+   * @param priorities the priorities to hand out, in increasing order
+   * @param next one past the next priority to hand out
+   * @return the root of the subtree
+   */
+  private Node buildIndex(List<Node> nodes, int from, int to, Node parent, int[] priorities, int[] next)
+  {
+      if (from >= to) {
+          return null;
+      }
+
+      int mid = (from + to) >>> 1;
+      Node node = nodes.get(mid);
+      node.parent = parent;
+      node.priority = priorities[--next[0]];
+      node.left = buildIndex(nodes, from, mid, node, priorities, next);
+      node.right = buildIndex(nodes, mid + 1, to, node, priorities, next);
+      node.weight = node.count + weight(node.left) + weight(node.right);
+      return node;
+  }
+
+  /**
+   * Cuts the order-statistics tree just before the given node.  The node is
+   * rotated up to the root, its left subtree becomes the tree of this list,
+   * and the node is then rotated back down to a place that suits its
+   * priority.
+   *
+   * @param node the first node of the part to cut off
+   * @return the root of the tree holding node and the nodes after it
+   */
+  private Node cutBefore(Node node)
+  {
+      while (node.parent != null) {
+          rotateUp(node);
+      }
+      Node before = node.left;
+      node.left = null;
+      node.weight = node.count + weight(node.right);
+      if (before != null) {
+          before.parent = null;
+      }
+
+      // Rotating the right child up leaves node without a left child, so
+      // only its right side needs to be followed.
+      Node top = node;
+      while (node.right != null && node.right.priority > node.priority) {
+          Node child = own(node.right);
+          rotateUp(child);
+          if (top == node) {
+              top = child;
+          }
+      }
+      top.parent = null;
+      root = before;
+      return top;
+  }
+
+  /**
+   * Joins two trees whose nodes are all in list order, every node of the
+   * first before every node of the second, by merging the right spine of the
+   * first with the left spine of the second in priority order.
+   *
+   * @param first the root of the first tree, possibly null
+   * @param second the root of the second tree, possibly null
+   * @return the root of the joined tree, whose parent is not set
+   */
+  private Node join(Node first, Node second)
+  {
+      if (first == null) {
+          return second;
+      }
+      if (second == null) {
+          return first;
+      }
+
+      if (first.priority > second.priority) {
+          Node right = join(first.right, second);
+          first.right = right;
+          right.parent = first;
+          first.weight = first.count + weight(first.left) + right.weight;
+          return first;
+      }
+      else {
+          Node left = join(first, second.left);
+          second.left = left;
+          left.parent = second;
+          second.weight = second.count + left.weight + weight(second.right);
+          return second;
+      }
+  }
+
+  /**
+   * Returns the leftmost node of the given subtree.
+   *
+   * @param node the root of the subtree
+   * @return the leftmost node
+   */
+  private Node leftmost(Node node)
+  {
+      while (node.left != null) {
+          node = node.left;
+      }
+      return node;
+  }
+
+  /**
+   * Returns the number of elements in the given subtree.
+   *
+   * @param node the root of the subtree, possibly null
+   * @return the total count of the subtree
+   */
+  static int weight(StoutList<?>.Node node)
+  {
+      return node == null ? 0 : node.weight;
+  }
+
+  /**
+   * Returns the next treap priority.
+   *
+   * @return a pseudo-random priority
+   */
+  private int nextPriority()
+  {
+      seed ^= seed << 13;
+      seed ^= seed >>> 17;
+      seed ^= seed << 5;
+      return seed;
+  }
+
+
+  /**
+   * Node type for this list.  Each node holds a maximum
+   * of capacity elements in an array, nodeSize unless the
+   * list sizes nodes adaptively.  Empty slots are null.  A
+   * node spilled to disk is a stub without an array.
+   */
+  class Node
+  {
+    /**
+     * Array of actual data elements, or null while the node is spilled.
+     */
+    public E[] data;
+    
+    /**
+     * Link to next node.
+     */
+    public Node next;
+    
+    /**
+     * Link to previous node;
+     */
+    public Node previous;
+    
+    /**
+     * Index of the next available offset in this node, also 
+     * equal to the number of elements in this node.
+     */
+    public int count;
+
+    /**
+     * Number of elements this node can hold.  The node size of the list,
+     * or a power-of-two multiple of it for a node grown by adaptive sizing.
+     */
+    int capacity;
+
+    /**
+     * Parent of this node in the order-statistics tree.
+     */
+    Node parent;
+
+    /**
+     * Left child of this node in the order-statistics tree.
+     */
+    Node left;
+
+    /**
+     * Right child of this node in the order-statistics tree.
+     */
+    Node right;
+
+    /**
+     * Treap priority; a node's priority is never less than its children's.
+     */
+    int priority;
+
+    /**
+     * Total number of elements in the subtree rooted at this node.
+     */
+    int weight;
+
+    /**
+     * Array index of the element at offset 0.  Always 0 unless the list
+     * uses the circular layout, in which the elements occupy count slots
+     * starting at start and wrapping around the end of the array.  The
+     * array holds capacity slots, except in a last node shrunk by
+     * trimToSize(), which grows back when an element is added.
+     */
+    int start;
+
+    /**
+     * Whether data is shared with a snapshot, so it must be copied before
+     * this node writes to it.
+     */
+    boolean frozen;
+
+    /**
+     * Version of the list when this node was made; the list changes the
+     * node in place only while its version is the same.
+     */
+    Object version;
+
+    /**
+     * The spill bookkeeping of this node, or null if the list has never put
+     * it on the clock of a spill file.  A stub always has one.
+     */
+    SpillState spillState;
+
+    /**
+     * Constructs an empty node.
+     */
+    Node()
+    {
+      this(nodeSize);
+    }
+
+    /**
+     * Constructs an empty node that can hold the given number of elements.
+     * @param capacity the capacity of the node
+     */
+    // Unchecked warning unavoidable.
+    @SuppressWarnings("unchecked")
+    Node(int capacity)
+    {
+      this((E[]) new Comparable<?>[capacity]);
+    }
+
+    /**
+     * Constructs a node over the given array, whose length is the capacity.
+     * @param data the array of the node, or null for a stub whose capacity
+     *   the caller sets
+     */
+    Node(E[] data)
+    {
+      this.data = data;
+      this.capacity = data == null ? 0 : data.length;
+      this.version = StoutList.this.version;
+    }
+
+    /**
+     * Reads the elements of a stub back from the spill file and puts the
+     * node on the clock.  Code that reads data directly calls this, or
+     * thaw(), first.
+     */
+    void load()
+    {
+      if (data == null)
+      {
+        // Unchecked warning unavoidable.
+        @SuppressWarnings("unchecked")
+        E[] loaded = (E[]) new Comparable<?>[capacity];
+        SpillRecord record = spillState.record;
+        record.store.read(record, loaded, count);
+        data = loaded;
+        start = 0;
+        frozen = false;
+        spillState.firstItem = null;
+        spillState.dirty = false;
+        spillState.referenced = true;
+        record.store.clock.add(this);
+      }
+    }
+
+    /**
+     * Gives this node its own copy of data if it is shared with a snapshot,
+     * reading it back first if the node is a stub, and marks it as changed.
+     */
+    void thaw()
+    {
+      load();
+      if (spillState != null)
+      {
+        spillState.dirty = true;
+      }
+      if (frozen)
+      {
+        data = data.clone();
+        frozen = false;
+      }
+    }
+
+    /**
+     * Returns the element at offset 0 without reading a stub back.
+     * Precondition: count > 0
+     * @return the first element of this node
+     */
+    E peekFirst()
+    {
+      return data == null ? spillState.firstItem : data[start];
+    }
+
+    /**
+     * Returns the array index of the element at the given offset.
+     * @param offset the offset of an element within this node
+     * @return the index of that element in data
+     */
+    int slot(int offset)
+    {
+      int i = start + offset;
+      return i >= data.length ? i - data.length : i;
+    }
+
+    /**
+     * Returns the element at the given offset.
+     * Precondition: 0 <= offset < count
+     * @param offset the offset of the element
+     * @return the element
+     */
+    E get(int offset)
+    {
+      load();
+      return data[slot(offset)];
+    }
+
+    /**
+     * Replaces the element at the given offset.
+     * Precondition: 0 <= offset < count
+     * @param offset the offset of the element
+     * @param item the new element
+     */
+    void set(int offset, E item)
+    {
+      thaw();
+      data[slot(offset)] = item;
+    }
+
+    /**
+     * Rotates a circular node so that its elements start at index 0, which
+     * lets them be moved with System.arraycopy().  Code that writes to data
+     * directly calls this first, so it also thaws the node.
+     */
+    void normalize()
+    {
+      thaw();
+      if (start == 0)
+      {
+        return;
+      }
+      // Rotate left by start with three reversals.
+      reverse(0, start);
+      reverse(start, data.length);
+      reverse(0, data.length);
+      start = 0;
+    }
+
+    /**
+     * Reverses data[from, to).
+     * @param from the first index
+     * @param to one past the last index
+     */
+    private void reverse(int from, int to)
+    {
+      for (int i = from, j = to - 1; i < j; ++i, --j)
+      {
+        E temp = data[i];
+        data[i] = data[j];
+        data[j] = temp;
+      }
+    }
+
+    /**
+     * Copies the elements of this node, in order, into an array.
+     * @param dest the array to copy into
+     * @param pos the index in dest of the first element
+     */
+    void copyTo(Object[] dest, int pos)
+    {
+      load();
+      int first = Math.min(count, data.length - start);
+      System.arraycopy(data, start, dest, pos, first);
+      System.arraycopy(data, 0, dest, pos + first, count - first);
+    }
+
+    /**
+     * Restores the full capacity of a node whose array was shrunk by
+     * trimToSize().
+     */
+    void ensureCapacity()
+    {
+      load();
+      if (data.length < capacity)
+      {
+        normalize();
+        data = Arrays.copyOf(data, capacity);
+      }
+    }
+
+    /**
+     * Adds an item to this node at the first available offset.
+     * Precondition: count < capacity
+     * @param item element to be added
+     */
+    void addItem(E item)
+    {
+      if (count >= capacity)
+      {
+        return;
+      }
+      ensureCapacity();
+      thaw();
+      data[slot(count++)] = item;
+      adjustWeight(1);
+      //useful for debugging
+        //System.out.println("Added " + item.toString() + " at index " + count + " to node "  + Arrays.toString(data));
+    }
+  
+    /**
+     * Adds an item to this node at the indicated offset, shifting
+     * elements to the right as necessary.  In the circular layout, the
+     * elements before offset are shifted left instead when there are
+     * fewer of them.
+     * 
+     * Precondition: count < capacity
+     * @param offset array index at which to put the new element
+     * @param item element to be added
+     */
+    void addItem(int offset, E item)
+    {
+      if (count >= capacity)
+      {
+    	  return;
+      }
+      ensureCapacity();
+      thaw();
+      if (circular && offset < count - offset)
+      {
+        start = start == 0 ? data.length - 1 : start - 1;
+        shift(1, offset, -1);
+      }
+      else
+      {
+        shift(offset, count - offset, 1);
+      }
+      ++count;
+      data[slot(offset)] = item;
+      adjustWeight(1);
+      //useful for debugging 
+        //System.out.println("Added " + item.toString() + " at index " + offset + " to node: "  + Arrays.toString(data));
+    }
+
+    /**
+     * Deletes an element from this node at the indicated offset, 
+     * shifting the elements after it left.  In the circular layout, the
+     * elements before offset are shifted right instead when there are
+     * fewer of them.
+     * Precondition: 0 <= offset < count
+     * @param offset the offset of the item to remove within the node
+     */
+    void removeItem(int offset)
+    {
+      thaw();
+      if (circular && offset < count - 1 - offset)
+      {
+        shift(0, offset, 1);
+        data[start] = null;
+        start = start == data.length - 1 ? 0 : start + 1;
+      }
+      else
+      {
+        shift(offset + 1, count - offset - 1, -1);
+        data[slot(count - 1)] = null;
+      }
+      --count;
+      if (count == 0)
+      {
+        start = 0;
+      }
+      adjustWeight(-1);
+    }
+
+    /**
+     * Moves the elements at offsets [from, from + length) one offset left or
+     * right, copying each run that does not wrap around the end of the array
+     * with System.arraycopy().
+     * @param from the offset of the first element to move
+     * @param length the number of elements to move
+     * @param delta -1 to move left or 1 to move right
+     */
+    private void shift(int from, int length, int delta)
+    {
+      if (delta < 0)
+      {
+        while (length > 0)
+        {
+          int src = slot(from);
+          int dest = src == 0 ? data.length - 1 : src - 1;
+          int run = Math.min(length, Math.min(data.length - src, data.length - dest));
+          System.arraycopy(data, src, data, dest, run);
+          from += run;
+          length -= run;
+        }
+      }
+      else
+      {
+        while (length > 0)
+        {
+          int src = slot(from + length - 1);
+          int dest = src == data.length - 1 ? 0 : src + 1;
+          int run = Math.min(length, Math.min(src + 1, dest + 1));
+          System.arraycopy(data, src - run + 1, data, dest - run + 1, run);
+          length -= run;
+        }
+      }
+    }
+
+    /**
+     * Adds delta to the weight of this node and all of its ancestors.
+     * @param delta the change in the number of elements
+     */
+    void adjustWeight(int delta)
+    {
+      for (Node n = this; n != null; n = n.parent)
+      {
+        n.weight += delta;
+      }
+    }
+  }
+
+  /**
+   * Spill bookkeeping of a node, kept apart from the node so that the nodes
+   * of a list that never spills do not carry it.  A node gets one when it
+   * is first put on the clock of a spill file, and drops it when the list
+   * stops spilling.
+   */
+  final class SpillState
+  {
+    /**
+     * The last copy of the node's elements in the spill file, or null if it
+     * has never been spilled.  While the node is a stub this holds its
+     * elements.
+     */
+    SpillRecord record;
+
+    /**
+     * The element at offset 0 while the node is a stub, so that a search
+     * can compare against it without reading the node back; null while the
+     * node is in memory.
+     */
+    E firstItem;
+
+    /**
+     * Whether record was written for the node, so a new copy may be written
+     * over it.  Copies made for snapshots share the record of the node they
+     * copy and do not own it.
+     */
+    boolean owner;
+
+    /**
+     * Whether the node's data has changed since it was read from record.
+     */
+    boolean dirty;
+
+    /**
+     * Whether the node has been used since the clock hand last passed it.
+     */
+    boolean referenced;
+  }
+
+  /**
+   * Iterator returned by descendingIterator(), which walks a list iterator
+   * backwards from the end.
+   */
+  private class DescendingIterator implements Iterator<E>
+  {
+      /**
+       * The list iterator walked backwards.
+       */
+      private final ListIterator<E> iter;
+
+      /**
+       * Constructs an iterator walking the given list iterator backwards.
+       *
+       * @param iter a list iterator at the end of the list
+       */
+      DescendingIterator(ListIterator<E> iter)
+      {
+          this.iter = iter;
+      }
+
+      @Override
+      public boolean hasNext() { return iter.hasPrevious(); }
+
+      @Override
+      public E next() { return iter.previous(); }
+
+      @Override
+      public void remove() { iter.remove(); }
+  }
+
+  /**
+   * Used to iterate through the list and determine if there is a next/previous element, what that element is,
+   * and add, remove, or set the item at that position
+   */
+  private class StoutListIterator implements ListIterator<E>
+  {
+      /**
+       * The node holding the element that would be returned by next()
+       */
+	Node currentNode;
+
+	/**
+     * The offset within currentNode of the element that would be returned by next(), which may equal
+     * currentNode.count when the cursor sits after the node's last element
+     */
+	int currentIndex;
+
+	/**
+     * The overall position of the cursor
+     */
+	int currentPosition;
+
+	/**
+     * Checks whether or not next() or previous() have been called since the last add() or remove()
+     */
+	boolean nextOrPrev;
+
+	/**
+     * The node holding the last element returned by next() or previous()
+     */
+	Node returnedNode;
+
+	/**
+     * The offset within returnedNode of the last element returned by next() or previous()
+     */
+	int returnedIndex;
+
+	/**
+     * The list's skeleton count when currentNode and returnedNode were found
+     */
+	int expectedSkeleton;
+
+    /**
+     * Default constructor 
+     */
+    public StoutListIterator()
+    {
+        this(0);
+    }
+
+    /**
+     * Constructor finds node at a given position.
+     * @param pos
+     *  the position of the cursor
+     * @throws IndexOutOfBoundsException if pos is less than 0 or greater than the size
+     */
+    public StoutListIterator(int pos)
+    {
+        if (pos < 0 || pos > size) { throw new IndexOutOfBoundsException(); }
+
+        seek(pos);
+        nextOrPrev = false;
+        returnedIndex = -1;
+        expectedSkeleton = skeleton;
+    }
+
+    /**
+     * Returns true if this list iterator has more elements when traversing the list in the forward direction.
+     * (In other words, returns true if next() would return an element rather than throwing an exception.)
+     *
+     * @return true if the list iterator has more elements when traversing the list in the forward direction
+     */
+    @Override
+    public boolean hasNext()
+    {
+        return currentPosition < size;
+    }
+
+    /**
+     * Returns the next element in the list and advances the cursor position. This method may be called repeatedly
+     * to iterate through the list, or intermixed with calls to previous() to go back and forth. (Note that alternating
+     * calls to next and previous will return the same element repeatedly.)
+     *
+     * @return the next element in the list
+     * @throws NoSuchElementException if the iteration has no next element
+     */
+    @Override
+    public E next()
+    {
+        if (!hasNext()) { throw new NoSuchElementException(); }
+        resync(false);
+
+        if (currentIndex == currentNode.count) {
+            currentNode = currentNode.next;
+            currentIndex = 0;
+            spillCold(currentNode);
+        }
+
+        returnedNode = currentNode;
+        returnedIndex = currentIndex;
+        nextOrPrev = true;
+
+        ++currentIndex;
+        ++currentPosition;
+        return returnedNode.get(returnedIndex);
+    }
+
+    /**
+     * Returns true if this list iterator has more elements when traversing the list in the reverse direction.
+     * (In other words, returns true if previous() would return an element rather than throwing an exception.)
+     *
+     * @return true if the list iterator has more elements when traversing the list in the reverse direction
+     */
+    @Override
+    public boolean hasPrevious() { return currentPosition > 0; }
+
+    /**
+     * Returns the previous element in the list and moves the cursor position backwards. This method may be called
+     * repeatedly to iterate through the list backwards, or intermixed with calls to next() to go back and forth.
+     * (Note that alternating calls to next and previous will return the same element repeatedly.)
+     *
+     * @return the previous element in the list
+     * @throws NoSuchElementException if the iteration has no previous element
+     */
+    @Override
+    public E previous()
+    {
+        if (!hasPrevious()) { throw new NoSuchElementException(); }
+        resync(false);
+
+        if (currentIndex == 0) {
+            currentNode = currentNode.previous;
+            currentIndex = currentNode.count;
+            spillCold(currentNode);
+        }
+
+        --currentIndex;
+        --currentPosition;
+
+        returnedNode = currentNode;
+        returnedIndex = currentIndex;
+        nextOrPrev = true;
+        return returnedNode.get(returnedIndex);
+    }
+
+    /**
+     * Returns the index of the element that would be returned by a subsequent call to next().
+     * (Returns list size if the list iterator is at the end of the list.)
+     *
+     * @return the index of the element that would be returned by a subsequent call to next, or list size if the
+     *            list iterator is at the end of the list
      */
-    // Unchecked warning unavoidable.
-    public E[] data = (E[]) new Comparable[nodeSize];
-    
+    @Override
+    public int nextIndex()
+    {
+        return currentPosition;
+    }
+
     /**
-     * Link to next node.
+     * Returns the index of the element that would be returned by a subsequent call to previous().
+     * (Returns -1 if the list iterator is at the beginning of the list.)
+     *
+     * @return the index of the element that would be returned by a subsequent call to previous, or -1 if the
+     *            list iterator is at the beginning of the list
      */
-    public Node next;
-    
+    @Override
+    public int previousIndex()
+    {
+        return currentPosition - 1;
+    }
+
     /**
-     * Link to previous node;
+     * Removes from the list the last element that was returned by next() or previous() (optional operation).
+     * This call can only be made once per call to next or previous. It can be made only if add(E) has not been called
+     * after the last call to next or previous.
+     *
+     * @throws IllegalStateException if neither next nor previous have been called, or remove or add have been called
+     *              after the last call to next or previous
      */
-    public Node previous;
-    
+    @Override
+    public void remove()
+    {
+        if(!nextOrPrev) { throw new IllegalStateException(); }
+        resync(true);
+
+        // The removed element was before the cursor if it came from next().
+        boolean beforeCursor = returnedNode != currentNode || returnedIndex < currentIndex;
+
+        int pos = beforeCursor ? currentPosition - 1 : currentPosition;
+        NodeInfo nodeInfo = new NodeInfo(ownAround(returnedNode), returnedIndex, pos);
+        nodeInfo.remove();
+
+        seek(pos);
+        nextOrPrev = false;
+    }
+
     /**
-     * Index of the next available offset in this node, also 
-     * equal to the number of elements in this node.
+     * Replaces the last element returned by next() or previous() with the specified element (optional operation).
+     * This call can be made only if neither remove() nor add(E) have been called after the last call to next or previous.
+     *
+     * @param e the element with which to replace the last element returned by next or previous
+     * @throws IllegalArgumentException if some aspect of the specified element prevents it from being added to this list
+     * @throws IllegalStateException if neither next nor previous have been called, or remove or add have been called
+     *              after the last call to next or previous
      */
-    public int count;
+    @Override
+    public void set(E e)
+    {
+        if(e == null) { throw new IllegalArgumentException(); }
+        if(!nextOrPrev) { throw new IllegalStateException(); }
+        resync(true);
+
+        Node node = own(returnedNode);
+        if (currentNode == returnedNode) {
+            currentNode = node;
+        }
+        returnedNode = node;
+        returnedNode.set(returnedIndex, e);
+    }
 
     /**
-     * Adds an item to this node at the first available offset.
-     * Precondition: count < nodeSize
-     * @param item element to be added
+     * Inserts the specified element into the list (optional operation). The element is inserted immediately before
+     * the element that would be returned by next(), if any, and after the element that would be returned by previous(),
+     * if any. (If the list contains no elements, the new element becomes the sole element on the list.) The new
+     * element is inserted before the implicit cursor: a subsequent call to next would be unaffected, and a subsequent
+     * call to previous would return the new element. (This call increases by one the value that would be returned
+     * by a call to nextIndex or previousIndex.)
+     *
+     * @param e the element to insert
+     * @throws IllegalArgumentException if some aspect of this element prevents it from being added to this list
      */
-    void addItem(E item)
+    @Override
+    public void add(E e)
     {
-      if (count >= nodeSize)
-      {
-        return;
-      }
-      data[count++] = item;
-      //useful for debugging
-        //System.out.println("Added " + item.toString() + " at index " + count + " to node "  + Arrays.toString(data));
+        if(e == null) { throw new IllegalArgumentException(); }
+        resync(true);
+
+        findForWrite(currentPosition).add(e);
+
+        seek(currentPosition + 1);
+        nextOrPrev = false;
     }
-  
+
     /**
-     * Adds an item to this node at the indicated offset, shifting
-     * elements to the right as necessary.
-     * 
-     * Precondition: count < nodeSize
-     * @param offset array index at which to put the new element
-     * @param item element to be added
+     * Moves the iterator onto the list's own nodes if the list has copied
+     * nodes away from a snapshot since the iterator found its nodes, first
+     * making the list forget its snapshot if the iterator is about to write.
+     * @param write true if the caller is about to change the list
      */
-    void addItem(int offset, E item)
+    private void resync(boolean write)
     {
-      if (count >= nodeSize)
-      {
-    	  return;
-      }
-        if (count - offset >= 0) System.arraycopy(data, offset, data, offset + 1, count - offset);
-      ++count;
-      data[offset] = item;
-      //useful for debugging 
-        //System.out.println("Added " + item.toString() + " at index " + offset + " to node: "  + Arrays.toString(data));
+        if (write) {
+            detach();
+        }
+        if (expectedSkeleton == skeleton) {
+            return;
+        }
+
+        boolean beforeCursor = returnedNode != currentNode || returnedIndex < currentIndex;
+        seek(currentPosition);
+        if (nextOrPrev) {
+            NodeInfo nodeInfo = find(beforeCursor ? currentPosition - 1 : currentPosition);
+            returnedNode = nodeInfo.node;
+            returnedIndex = nodeInfo.offset;
+        }
+        expectedSkeleton = skeleton;
     }
 
     /**
-     * Deletes an element from this node at the indicated offset, 
-     * shifting elements left as necessary.
-     * Precondition: 0 <= offset < count
-     * @param offset the offset of the item to remove within the node
+     * Moves the cursor so that the next element returned by next() is at the given position.
+     * @param pos the new position of the cursor
      */
-    void removeItem(int offset)
+    private void seek(int pos)
     {
-      E item = data[offset];
-      for (int i = offset + 1; i < nodeSize; ++i)
-      {
-        data[i - 1] = data[i];
-      }
-      data[count - 1] = null;
-      --count;
+        NodeInfo nodeInfo = find(pos);
+        if (nodeInfo.node == tail && tail.previous != head) {
+            currentNode = tail.previous;
+            currentIndex = currentNode.count;
+        }
+        else {
+            currentNode = nodeInfo.node;
+            currentIndex = nodeInfo.offset;
+        }
+        currentPosition = pos;
     }
   }
+  
 
   /**
-   * Used to iterate through the list and determine if there is a next/previous element, what that element is,
-   * and add, remove, or set the item at that position
+   * View of a range of positions of this list, returned by subList().  Single
+   * elements are read and written through this list's positional methods,
+   * iteration goes through its node iterator, and range operations are
+   * handed to removeRange(), removeRangeIf() and sortRange().
    */
-  private class StoutListIterator implements ListIterator<E>
+  private class SubList extends AbstractList<E>
   {
       /**
-       * The current node selected by the iterator
+       * The view this view was taken from, or null if it was taken from the
+       * list itself.
        */
-	Node currentNode;
+      private final SubList parent;
 
-	/**
-     * The current offset within the currentNode
-     */
-	int currentIndex;
+      /**
+       * Position in the list of the first element of the view.
+       */
+      private final int offset;
 
-	/**
-     * The overall position of the cursor
-     */
-	int currentPosition;
+      /**
+       * Number of elements in the view.
+       */
+      private int size;
 
-	/**
-     * Checks whether or not next() or previous() have been called since the last add() or remove()
-     */
-	boolean nextOrPrev;
+      /**
+       * The list's modCount as of the last change made through the view.
+       */
+      private int expectedModCount;
 
-	/**
-     * The last index returned by next() or previous()
-     */
-	int returnedIndex;
+      /**
+       * Constructs a view of the given range of positions.
+       *
+       * @param parent the view this view is taken from, or null
+       * @param offset the position of the first element
+       * @param size the number of elements
+       */
+      SubList(SubList parent, int offset, int size)
+      {
+          this.parent = parent;
+          this.offset = offset;
+          this.size = size;
+          this.expectedModCount = StoutList.this.modCount;
+      }
 
-    /**
-     * Default constructor 
-     */
-    public StoutListIterator()
-    {
-    	currentNode = head;
-        next();
-    	currentIndex = 0;
-    	currentPosition = 0;
-        nextOrPrev = false;
-        returnedIndex = -1;
-    }
+      @Override
+      public int size()
+      {
+          checkForComodification();
+          return size;
+      }
 
-    /**
-     * Constructor finds node at a given position.
-     * @param pos
-     *  the position of the cursor
-     */
-    public StoutListIterator(int pos)
-    {
-        currentPosition = pos - 1;
-    	currentIndex = (pos % nodeSize) - 1;
-        nextOrPrev = false;
-        returnedIndex = -1;
+      @Override
+      public E get(int index)
+      {
+          if (index < 0 || index >= size) { throw new IndexOutOfBoundsException(); }
+          checkForComodification();
+          return StoutList.this.get(offset + index);
+      }
+
+      @Override
+      public E set(int index, E item)
+      {
+          if (index < 0 || index >= size) { throw new IndexOutOfBoundsException(); }
+          checkForComodification();
+          return StoutList.this.set(offset + index, item);
+      }
+
+      @Override
+      public void add(int index, E item)
+      {
+          if (index < 0 || index > size) { throw new IndexOutOfBoundsException(); }
+          checkForComodification();
+          StoutList.this.add(offset + index, item);
+          updateSizeAndModCount(1);
+      }
+
+      @Override
+      public E remove(int index)
+      {
+          if (index < 0 || index >= size) { throw new IndexOutOfBoundsException(); }
+          checkForComodification();
+          E removed = StoutList.this.remove(offset + index);
+          updateSizeAndModCount(-1);
+          return removed;
+      }
+
+      @Override
+      public boolean addAll(Collection<? extends E> c) { return addAll(size, c); }
+
+      @Override
+      public boolean addAll(int index, Collection<? extends E> c)
+      {
+          if (index < 0 || index > size) { throw new IndexOutOfBoundsException(); }
+          checkForComodification();
+          int count = c.size();
+          if (count == 0) {
+              return false;
+          }
+          StoutList.this.addAll(offset + index, c);
+          updateSizeAndModCount(count);
+          return true;
+      }
+
+      @Override
+      protected void removeRange(int fromIndex, int toIndex)
+      {
+          checkForComodification();
+          StoutList.this.removeRange(offset + fromIndex, offset + toIndex);
+          updateSizeAndModCount(fromIndex - toIndex);
+      }
+
+      @Override
+      public boolean removeIf(Predicate<? super E> filter)
+      {
+          checkForComodification();
+          int removed = removeRangeIf(offset, offset + size, filter);
+          updateSizeAndModCount(-removed);
+          return removed > 0;
+      }
+
+      @Override
+      public boolean removeAll(Collection<?> c)
+      {
+          if (c == null) throw new NullPointerException();
+
+          return removeIf(c::contains);
+      }
+
+      @Override
+      public boolean retainAll(Collection<?> c)
+      {
+          if (c == null) throw new NullPointerException();
+
+          return removeIf(item -> !c.contains(item));
+      }
+
+      @Override
+      public void sort(Comparator<? super E> comp)
+      {
+          checkForComodification();
+          sortRange(offset, offset + size, comp);
+          updateSizeAndModCount(0);
+      }
+
+      @Override
+      public void forEach(Consumer<? super E> action)
+      {
+          if (action == null) throw new NullPointerException();
+          checkForComodification();
+          if (size == 0) {
+              return;
+          }
+
+          NodeInfo nodeInfo = locate(offset);
+          Node current = nodeInfo.node;
+          int i = nodeInfo.offset;
+          for (int remaining = size; remaining > 0; current = current.next, i = 0) {
+              spillCold(current);
+              for (int count = Math.min(current.count, i + remaining); i < count; ++i, --remaining) {
+                  action.accept(current.get(i));
+              }
+          }
+          checkForComodification();
+      }
+
+      @Override
+      public Iterator<E> iterator() { return listIterator(0); }
+
+      @Override
+      public ListIterator<E> listIterator(int index)
+      {
+          if (index < 0 || index > size) { throw new IndexOutOfBoundsException(); }
+          checkForComodification();
+          return new SubListIterator(StoutList.this.listIterator(offset + index));
+      }
+
+      @Override
+      public List<E> subList(int fromIndex, int toIndex)
+      {
+          if (fromIndex < 0 || toIndex > size) { throw new IndexOutOfBoundsException(); }
+          if (fromIndex > toIndex) throw new IllegalArgumentException();
+          checkForComodification();
+          return new SubList(this, offset + fromIndex, toIndex - fromIndex);
+      }
+
+      /**
+       * Throws if the list was structurally modified other than through this
+       * view.
+       */
+      private void checkForComodification()
+      {
+          if (StoutList.this.modCount != expectedModCount) throw new ConcurrentModificationException();
+      }
+
+      /**
+       * Records a change made through this view in it and the views it was
+       * taken from.
+       *
+       * @param delta the change in the number of elements
+       */
+      private void updateSizeAndModCount(int delta)
+      {
+          for (SubList view = this; view != null; view = view.parent) {
+              view.size += delta;
+              view.expectedModCount = StoutList.this.modCount;
+          }
+      }
+
+      /**
+       * List iterator over the view that forwards to an iterator over the
+       * list, stopping at the ends of the view.
+       */
+      private class SubListIterator implements ListIterator<E>
+      {
+          /**
+           * The iterator over the list.
+           */
+          private final ListIterator<E> iter;
+
+          /**
+           * Constructs an iterator forwarding to the given one.
+           *
+           * @param iter an iterator over the list, positioned inside the view
+           */
+          SubListIterator(ListIterator<E> iter)
+          {
+              this.iter = iter;
+          }
+
+          @Override
+          public boolean hasNext() { return nextIndex() < size; }
+
+          @Override
+          public E next()
+          {
+              if (!hasNext()) throw new NoSuchElementException();
+              return iter.next();
+          }
+
+          @Override
+          public boolean hasPrevious() { return previousIndex() >= 0; }
+
+          @Override
+          public E previous()
+          {
+              if (!hasPrevious()) throw new NoSuchElementException();
+              return iter.previous();
+          }
 
-        int currentNodeInt = pos / nodeSize;
-        int count = 0;
+          @Override
+          public int nextIndex() { return iter.nextIndex() - offset; }
 
-        currentNode = head;
-        next();
-        while (currentNode.count != 0 && count < currentNodeInt){
-            currentNode = currentNode.next;
-            ++count;
-        }
+          @Override
+          public int previousIndex() { return nextIndex() - 1; }
 
-    }
+          @Override
+          public void remove()
+          {
+              checkForComodification();
+              iter.remove();
+              updateSizeAndModCount(-1);
+          }
 
-    /**
-     * Returns true if this list iterator has more elements when traversing the list in the forward direction.
-     * (In other words, returns true if next() would return an element rather than throwing an exception.)
-     *
-     * @return true if the list iterator has more elements when traversing the list in the forward direction
-     */
-    @Override
-    public boolean hasNext()
-    {
-        if (currentIndex < nodeSize - 1) {
-            for (int i = currentIndex; i < nodeSize; ++i) {
-                if (currentNode.data[i] != null){
-                    return true;
-                }
-            }
-        }
-        return currentNode.next.count != 0;
-    }
+          @Override
+          public void set(E e)
+          {
+              checkForComodification();
+              iter.set(e);
+          }
 
-    /**
-     * Returns the next element in the list and advances the cursor position. This method may be called repeatedly
-     * to iterate through the list, or intermixed with calls to previous() to go back and forth. (Note that alternating
-     * calls to next and previous will return the same element repeatedly.)
-     *
-     * @return the next element in the list
-     * @throws NoSuchElementException if the iteration has no next element
-     */
-    @Override
-    public E next()
-    {
-        if(currentNode.count == 0)
-        {
-            if (currentNode.next.count != 0) {
-                currentNode = currentNode.next;
-                currentIndex = 0;
-                ++currentPosition;
-
-                nextOrPrev = true;
-                returnedIndex = 0;
-                return currentNode.data[0];
-            }
-        }
-        else if (currentIndex < nodeSize)
-        {
-            for (int i = currentIndex; i < nodeSize; ++i) {
-                if (currentNode.data[i] != null){
-                    ++currentPosition;
-                    ++currentIndex;
-
-                    nextOrPrev = true;
-                    returnedIndex = i;
-                    return currentNode.data[i];
-                }
-                ++currentPosition;
-            }
-        }
-        if (currentNode.next.count != 0) {
-            currentNode = currentNode.next;
-            currentIndex = 1;
-            ++currentPosition;
+          @Override
+          public void add(E e)
+          {
+              checkForComodification();
+              iter.add(e);
+              updateSizeAndModCount(1);
+          }
+      }
+  }
 
-            nextOrPrev = true;
-            returnedIndex = 0;
-            return currentNode.data[0];
-        }
-        throw new NoSuchElementException();
-    }
+  /**
+   * Spliterator over a range of positions that splits at node boundaries, so
+   * each half covers whole nodes whose arrays are read directly.
+   */
+  private class StoutSpliterator implements Spliterator<E>
+  {
+      /**
+       * The node holding the next element.
+       */
+      private Node node;
 
-    /**
-     * Returns true if this list iterator has more elements when traversing the list in the reverse direction.
-     * (In other words, returns true if previous() would return an element rather than throwing an exception.)
-     *
-     * @return true if the list iterator has more elements when traversing the list in the reverse direction
-     */
-    @Override
-    public boolean hasPrevious() { return currentPosition > 0 || currentNode.previous.count != 0; }
+      /**
+       * The offset of the next element within node.
+       */
+      private int offset;
 
-    /**
-     * Returns the previous element in the list and moves the cursor position backwards. This method may be called
-     * repeatedly to iterate through the list backwards, or intermixed with calls to next() to go back and forth.
-     * (Note that alternating calls to next and previous will return the same element repeatedly.)
-     *
-     * @return the previous element in the list
-     * @throws NoSuchElementException if the iteration has no previous element
-     */
-    @Override
-    public E previous()
-    {
-        if (currentIndex > 0) {
-            --currentPosition;
-            --currentIndex;
+      /**
+       * The position of the next element.
+       */
+      private int index;
 
-            nextOrPrev = true;
-            returnedIndex = currentPosition;
-            return currentNode.data[currentIndex];
-        }
-        if (currentNode.previous.count != 0) {
-            for (int i = nodeSize - 1; i > 0; --i) {
-                if (currentNode.data[i] != null) {
-                    --currentPosition;
-                    --currentIndex;
-
-                    currentNode = currentNode.previous;
-                    currentIndex = 0;
-
-                    nextOrPrev = true;
-                    returnedIndex = currentPosition;
-                    return currentNode.data[i];
-                }
-                --currentPosition;
-            }
-        }
-        throw new NoSuchElementException();
-    }
+      /**
+       * One past the position of the last element covered.
+       */
+      private final int fence;
 
-    /**
-     * Returns the index of the element that would be returned by a subsequent call to next().
-     * (Returns list size if the list iterator is at the end of the list.)
-     *
-     * @return the index of the element that would be returned by a subsequent call to next, or list size if the
-     *            list iterator is at the end of the list
-     */
-    @Override
-    public int nextIndex()
-    {
-        return currentPosition;
-    }
+      /**
+       * The modCount of the list when this spliterator was created.
+       */
+      private final int expectedModCount;
 
-    /**
-     * Returns the index of the element that would be returned by a subsequent call to previous().
-     * (Returns -1 if the list iterator is at the beginning of the list.)
-     *
-     * @return the index of the element that would be returned by a subsequent call to previous, or -1 if the
-     *            list iterator is at the beginning of the list
-     */
-    @Override
-    public int previousIndex()
-    {
-        return currentPosition - 1;
-    }
+      /**
+       * Constructs a spliterator over [index, fence) starting at the given node and offset.
+       *
+       * @param node the node holding the element at index
+       * @param offset the offset of that element within node
+       * @param index the first position covered
+       * @param fence one past the last position covered
+       */
+      StoutSpliterator(Node node, int offset, int index, int fence)
+      {
+          this.node = node;
+          this.offset = offset;
+          this.index = index;
+          this.fence = fence;
+          this.expectedModCount = modCount;
+      }
 
-    /**
-     * Removes from the list the last element that was returned by next() or previous() (optional operation).
-     * This call can only be made once per call to next or previous. It can be made only if add(E) has not been called
-     * after the last call to next or previous.
-     *
-     * @throws IllegalStateException if neither next nor previous have been called, or remove or add have been called
-     *              after the last call to next or previous
-     */
-    @Override
-    public void remove()
-    {
-        if(!nextOrPrev) { throw new IllegalStateException(); }
+      @Override
+      public boolean tryAdvance(Consumer<? super E> action)
+      {
+          if (action == null) throw new NullPointerException();
+          if (index >= fence) {
+              return false;
+          }
 
-        NodeInfo nodeInfo = new NodeInfo(currentNode, returnedIndex % 4);
-        nodeInfo.remove();
+          if (offset == node.count) {
+              node = node.next;
+              offset = 0;
+              spillCold(node);
+          }
+          E item = node.get(offset++);
+          ++index;
+          action.accept(item);
+          if (modCount != expectedModCount) throw new ConcurrentModificationException();
+          return true;
+      }
 
-        nextOrPrev = false;
-    }
+      @Override
+      public void forEachRemaining(Consumer<? super E> action)
+      {
+          if (action == null) throw new NullPointerException();
 
-    /**
-     * Replaces the last element returned by next() or previous() with the specified element (optional operation).
-     * This call can be made only if neither remove() nor add(E) have been called after the last call to next or previous.
-     *
-     * @param e the element with which to replace the last element returned by next or previous
-     * @throws IllegalArgumentException if some aspect of the specified element prevents it from being added to this list
-     * @throws IllegalStateException if neither next nor previous have been called, or remove or add have been called
-     *              after the last call to next or previous
-     */
-    @Override
-    public void set(E e)
-    {
-        if(e == null) { throw new IllegalArgumentException(); }
-        if(!nextOrPrev) { throw new IllegalStateException(); }
+          // Checking between nodes keeps the traversal off a node the action
+          // has unlinked, without a check per element.
+          Node current = node;
+          int i = offset;
+          int remaining = fence - index;
+          while (remaining > 0 && modCount == expectedModCount) {
+              if (i == current.count) {
+                  current = current.next;
+                  i = 0;
+              }
+              spillCold(current);
+              int end = Math.min(current.count, i + remaining);
+              for (int j = i; j < end; ++j) {
+                  action.accept(current.get(j));
+              }
+              remaining -= end - i;
+              i = end;
+          }
+          node = current;
+          offset = i;
+          index = fence;
+          if (modCount != expectedModCount) throw new ConcurrentModificationException();
+      }
 
-        currentNode.removeItem(returnedIndex);
-        --returnedIndex;
-        currentNode.addItem(returnedIndex, e);
-    }
+      @Override
+      public Spliterator<E> trySplit()
+      {
+          // Faulting nodes in is not thread-safe, so a spilling list is traversed sequentially.
+          if (fence - index < 2 || spill != null) {
+              return null;
+          }
 
-    /**
-     * Inserts the specified element into the list (optional operation). The element is inserted immediately before
-     * the element that would be returned by next(), if any, and after the element that would be returned by previous(),
-     * if any. (If the list contains no elements, the new element becomes the sole element on the list.) The new
-     * element is inserted before the implicit cursor: a subsequent call to next would be unaffected, and a subsequent
-     * call to previous would return the new element. (This call increases by one the value that would be returned
-     * by a call to nextIndex or previousIndex.)
-     *
-     * @param e the element to insert
-     * @throws IllegalArgumentException if some aspect of this element prevents it from being added to this list
-     */
-    @Override
-    public void add(E e)
-    {
-        if(e == null) { throw new IllegalArgumentException(); }
+          // Split at the start of the node holding the midpoint, or of the one after it.
+          // Spliterators may split concurrently, so this must not touch the finger.
+          NodeInfo mid = locate((index + fence) >>> 1);
+          int split = ((index + fence) >>> 1) - mid.offset;
+          Node splitNode = mid.node;
+          if (split <= index) {
+              split += splitNode.count;
+              splitNode = splitNode.next;
+          }
+          if (split >= fence) {
+              return null;
+          }
 
-        NodeInfo nodeInfo = new NodeInfo(currentNode, returnedIndex % 4);
-        nodeInfo.add(e);
+          StoutSpliterator prefix = new StoutSpliterator(node, offset, index, split);
+          node = splitNode;
+          offset = 0;
+          index = split;
+          return prefix;
+      }
 
-        nextOrPrev = false;
-    }
+      @Override
+      public long estimateSize()
+      {
+          return fence - index;
+      }
 
-      // Other methods you may want to add or override that could possibly facilitate
-    // other operations, for instance, addition, access to the previous element, etc.
-    // 
-    // ...
-    // 
+      @Override
+      public int characteristics()
+      {
+          return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.NONNULL;
+      }
   }
-  
 
   /**
-   * Sort an array arr[] using the insertion sort algorithm in the NON-DECREASING order. 
-   * @param arr   array storing elements from the list 
-   * @param comp  comparator used in sorting 
+   * Detaches every node from the list for sorting.  Each node is returned as a
+   * run of its own, with its next link cleared.
+   *
+   * @return the nodes of the list in order
    */
-  private void insertionSort(E[] arr, Comparator<? super E> comp)
+  List<Node> detachNodes()
   {
-      int i, j;
-      E temp;
-
-      for (i = 1; i < arr.length; i++)
-      {
-          temp = arr[i];
-          j = i - 1;
+      List<Node> nodes = new ArrayList<>();
+      Node current = head.next;
+      while (current != tail) {
+          Node next = current.next;
+          current.thaw();
+          current.next = null;
+          nodes.add(current);
+          current = next;
+      }
+      return nodes;
+  }
 
-          while (j >= 0 && comp.compare(arr[j], temp) > 0)
-          {
-              arr[j + 1] = arr[j];
-              j = j - 1;
+  /**
+   * Links a sorted run back in between head and tail and rebuilds the index.
+   *
+   * @param first the first node of the run
+   */
+  void relinkSorted(Node first)
+  {
+      Node previous = head;
+      for (Node current = first; current != null; current = current.next) {
+          if (current.next != null) {
+              current.ensureCapacity();
           }
-          arr[j + 1] = temp;
+          current.previous = previous;
+          previous.next = current;
+          previous = current;
       }
+      previous.next = tail;
+      tail.previous = previous;
+      rebuildIndex();
   }
 
   /**
-   * Sort arr[] using the bubble sort algorithm in the NON-INCREASING order. For a 
-   * description of bubble sort please refer to Section 6.1 in the project description. 
-   * You must use the compareTo() method from an implementation of the Comparable 
-   * interface by the class E or ? super E. 
-   * @param arr  array holding elements from the list
+   * Structural counters of a list with stats enabled.  Adders are used because
+   * parallelSort() allocates nodes from several threads.
    */
-  private void bubbleSort(E[] arr)
+  private static final class Recorder
   {
-      int n = arr.length;
-      for (int i = 0; i < n-1; i++)
+      /**
+       * Number of node splits.
+       */
+      final LongAdder splits = new LongAdder();
+
+      /**
+       * Number of mini-merges.
+       */
+      final LongAdder miniMerges = new LongAdder();
+
+      /**
+       * Number of full merges.
+       */
+      final LongAdder fullMerges = new LongAdder();
+
+      /**
+       * Number of nodes allocated.
+       */
+      final LongAdder nodeAllocations = new LongAdder();
+
+      /**
+       * Number of positional lookups.
+       */
+      final LongAdder lookups = new LongAdder();
+
+      /**
+       * Number of positional lookups resolved from the finger.
+       */
+      final LongAdder fingerHits = new LongAdder();
+
+      /**
+       * Total nodes visited by positional lookups.
+       */
+      final LongAdder lookupSteps = new LongAdder();
+
+      /**
+       * Most nodes visited by a single positional lookup.
+       */
+      final LongAccumulator maxLookupSteps = new LongAccumulator(Math::max, 0);
+
+      /**
+       * Counts a positional lookup.
+       *
+       * @param steps the number of nodes visited
+       * @param fingerHit true if the lookup walked from the finger
+       */
+      void recordLookup(int steps, boolean fingerHit)
       {
-          for (int j = 0; j < n-i-1; j++)
-          {
-              if (arr[j].compareTo(arr[j+1]) < 0)
-              {
-                  E temp = arr[j];
-                  arr[j] = arr[j+1];
-                  arr[j+1] = temp;
-              }
+          lookups.increment();
+          if (fingerHit) {
+              fingerHits.increment();
           }
+          lookupSteps.add(steps);
+          maxLookupSteps.accumulate(steps);
       }
   }
 
@@ -830,16 +4652,23 @@ public class StoutList<E extends Comparable<? super E>> extends AbstractSequenti
        */
       int offset;
 
+      /**
+       * The position in the list that the operation has to be done on.
+       */
+      int pos;
+
       /**
        * Constructs a new NodeInfo with the given node and offset.
        *
        * @param node the node with the item
        * @param offset the index of the item within the node
+       * @param pos the position of the item in the list
        */
-      NodeInfo(Node node, int offset)
+      NodeInfo(Node node, int offset, int pos)
       {
           this.node = node;
           this.offset = offset;
+          this.pos = pos;
       }
 
       /**
@@ -852,43 +4681,63 @@ public class StoutList<E extends Comparable<? super E>> extends AbstractSequenti
           if (item == null) {
               throw new NullPointerException();
           }
+          boolean appended = node == tail;
 
           if (size == 0) {
-              Node node = new Node();
+              Node node = newNode();
+              link(head, node);
               node.addItem(item);
-
-              node.next = tail;
-              node.previous = head;
-
-              head.next = node;
-              tail.previous = node;
-
-              ++size;
-              return;
           }
-
-          if (node.count < nodeSize) {
+          else if (offset == 0 && node.previous != head && node.previous.count < node.previous.capacity) {
+              node.previous.addItem(item);
+              fingerInserted(node.previous, pos);
+          }
+          else if (node == tail) {
+              Node node = appendNode();
+              link(tail.previous, node);
+              node.addItem(item);
+          }
+          else if (node.count < node.capacity) {
               node.addItem(offset, item);
+              fingerInserted(node, pos);
+          }
+          else if (adaptiveNodeSize && node.capacity > nodeSize) {
+              // A grown node in a region being edited: shrink it and retry.
+              splitInThree(node);
+              if (recorder != null) {
+                  recordSplit();
+              }
+              locate(pos).add(item);
+              return;
           }
           else {
-              Node newNode = new Node();
-
-              for (int i = nodeSize / 2; i < nodeSize; ++i) {
-                  newNode.addItem(node.data[nodeSize / 2]);
-                  node.removeItem(nodeSize / 2);
+              int half = node.capacity / 2;
+              Node newNode = newNode(node.capacity);
+              if (recorder != null) {
+                  recordSplit();
               }
-              if (offset <= nodeSize / 2) {
+
+              node.normalize();
+              System.arraycopy(node.data, half, newNode.data, 0, half);
+              Arrays.fill(node.data, half, node.capacity, null);
+              node.count = half;
+              node.adjustWeight(-half);
+              newNode.count = half;
+              link(node, newNode);
+
+              if (offset <= half) {
                   node.addItem(offset, item);
               }
               else {
-                  newNode.addItem(offset - (nodeSize / 2), item);
+                  newNode.addItem(offset - half, item);
               }
-              newNode.next = node.next;
-              newNode.previous = node;
-              (node.next).previous = newNode;
-              node.next = newNode;
           }
+          appendRun = appended ? appendRun + 1 : 0;
           ++size;
+          ++modCount;
+          if (incrementalCompaction) {
+              compactStep();
+          }
       }
 
       /**
@@ -898,61 +4747,50 @@ public class StoutList<E extends Comparable<? super E>> extends AbstractSequenti
        */
       public E remove()
       {
-          E removed;
-
-          if((node.next.count == 0 || node.count > nodeSize / 2)) {
-              if(node.count == 1) {
-                  removed = node.data[0];
-                  node.removeItem(0);
-
-                  node.previous.next = tail;
-                  node.next.previous= node.previous;
-                  node.next = null;
-                  node.previous = null;
-              }
-              else {
-                  removed = node.data[offset];
-                  node.removeItem(offset);
-              }
+          E removed = node.get(offset);
+          int half = node.capacity / 2;
 
+          if (node.next == tail && node.count == 1) {
+              node.removeItem(0);
+              unlink(node);
+          }
+          else if (node.next == tail || node.count > half) {
+              node.removeItem(offset);
+              fingerRemoved(node, pos);
           }
           else {
-              if(node.next.count > nodeSize / 2) {
-                  removed = node.data[offset];
-                  node.removeItem(offset);
+              node.removeItem(offset);
+              Node successor = node.next;
 
-                  node.addItem(node.count, node.next.data[0]);
-                  node.next.removeItem(0);
+              if (successor.count > successor.capacity / 2) {
+                  node.addItem(successor.get(0));
+                  successor.removeItem(0);
+                  finger = null;
+                  if (recorder != null) {
+                      recordMerge(false);
+                  }
               }
               else {
-                  node.removeItem(offset);
-                  removed = node.data[offset];
-
-                  for(int i = 0; i < node.next.count; ++i) {
-                      node.addItem(node.count, node.next.data[i]);
+                  if (node.count + successor.count <= node.capacity) {
+                      mergeNext(node);
+                  }
+                  else {
+                      // The successor has the larger capacity.
+                      mergeIntoNext(node);
+                  }
+                  if (recorder != null) {
+                      recordMerge(true);
                   }
-
-                  node.next.previous = null;
-                  node.next = node.next.next;
-                  node.next.previous.next = null;
-                  node.next.previous = node;
               }
           }
 
+          appendRun = 0;
           --size;
+          ++modCount;
+          if (incrementalCompaction) {
+              compactStep();
+          }
           return removed;
       }
   }
-
-  /**
-   * The comparator used to see if two Comparable<E> objects are equal.
-   */
-  private class ListComparator implements Comparator<E>
-  {
-      @Override
-      public int compare(E o1, E o2)
-      {
-          return o1.compareTo(o2);
-      }
-  }
-}
\ No newline at end of file
+}
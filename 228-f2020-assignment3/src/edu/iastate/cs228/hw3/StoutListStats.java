@@ -0,0 +1,193 @@
+package edu.iastate.cs228.hw3;
+
+import java.util.Arrays;
+
+/**
+ * Snapshot of the structural counters of a StoutList, returned by
+ * StoutList.stats().  Counters are only collected while stats are enabled on
+ * the list and are zero otherwise; the node occupancy histogram is taken from
+ * the list when the snapshot is made and is always available.
+ */
+public final class StoutListStats
+{
+  /**
+   * Number of node splits in NodeInfo.add().
+   */
+  private final long splits;
+
+  /**
+   * Number of mini-merges in NodeInfo.remove().
+   */
+  private final long miniMerges;
+
+  /**
+   * Number of full merges in NodeInfo.remove().
+   */
+  private final long fullMerges;
+
+  /**
+   * Number of nodes allocated.
+   */
+  private final long nodeAllocations;
+
+  /**
+   * Number of positional lookups.
+   */
+  private final long lookups;
+
+  /**
+   * Number of positional lookups resolved by walking from the finger.
+   */
+  private final long fingerHits;
+
+  /**
+   * Total nodes visited by positional lookups.
+   */
+  private final long lookupSteps;
+
+  /**
+   * Most nodes visited by a single positional lookup.
+   */
+  private final long maxLookupSteps;
+
+  /**
+   * Number of elements that can be stored in each node.
+   */
+  private final int nodeSize;
+
+  /**
+   * Number of elements in the list.
+   */
+  private final int size;
+
+  /**
+   * Total number of elements the nodes can hold.
+   */
+  private final long capacity;
+
+  /**
+   * occupancy[c] is the number of nodes holding exactly c elements.
+   */
+  private final long[] occupancy;
+
+  /**
+   * Constructs a snapshot.
+   *
+   * @param counters splits, mini-merges, full merges, node allocations, lookups,
+   *   finger hits, lookup steps and max lookup steps, in that order
+   * @param nodeSize number of elements that can be stored in each node
+   * @param size number of elements in the list
+   * @param capacity total number of elements the nodes can hold
+   * @param occupancy number of nodes holding each possible count
+   */
+  StoutListStats(long[] counters, int nodeSize, int size, long capacity, long[] occupancy)
+  {
+      this.splits = counters[0];
+      this.miniMerges = counters[1];
+      this.fullMerges = counters[2];
+      this.nodeAllocations = counters[3];
+      this.lookups = counters[4];
+      this.fingerHits = counters[5];
+      this.lookupSteps = counters[6];
+      this.maxLookupSteps = counters[7];
+      this.nodeSize = nodeSize;
+      this.size = size;
+      this.capacity = capacity;
+      this.occupancy = occupancy;
+  }
+
+  /**
+   * @return the number of node splits
+   */
+  public long splits() { return splits; }
+
+  /**
+   * @return the number of mini-merges, which move one element from the successor
+   */
+  public long miniMerges() { return miniMerges; }
+
+  /**
+   * @return the number of full merges, which delete the successor
+   */
+  public long fullMerges() { return fullMerges; }
+
+  /**
+   * @return the number of nodes allocated
+   */
+  public long nodeAllocations() { return nodeAllocations; }
+
+  /**
+   * @return the number of positional lookups
+   */
+  public long lookups() { return lookups; }
+
+  /**
+   * @return the number of positional lookups resolved by walking from the finger
+   */
+  public long fingerHits() { return fingerHits; }
+
+  /**
+   * @return the average number of nodes visited per positional lookup, or 0 if there were none
+   */
+  public double averageLookupSteps() { return lookups == 0 ? 0 : (double) lookupSteps / lookups; }
+
+  /**
+   * @return the most nodes visited by a single positional lookup
+   */
+  public long maxLookupSteps() { return maxLookupSteps; }
+
+  /**
+   * @return the number of elements that can be stored in each node
+   */
+  public int nodeSize() { return nodeSize; }
+
+  /**
+   * @return the number of elements in the list
+   */
+  public int size() { return size; }
+
+  /**
+   * @return the total number of elements the nodes can hold, which differs
+   *   from nodes() * nodeSize() when nodes are sized adaptively
+   */
+  public long capacity() { return capacity; }
+
+  /**
+   * @return the number of nodes in the list
+   */
+  public long nodes()
+  {
+      long nodes = 0;
+      for (long n : occupancy) {
+          nodes += n;
+      }
+      return nodes;
+  }
+
+  /**
+   * Returns the number of nodes holding exactly count elements.
+   *
+   * @param count a count between 0 and the largest node capacity
+   * @return the number of nodes with that count
+   */
+  public long occupancy(int count) { return occupancy[count]; }
+
+  /**
+   * @return the average fraction of node capacity in use, or 0 if the list is empty
+   */
+  public double averageFill()
+  {
+      return capacity == 0 ? 0 : (double) size / capacity;
+  }
+
+  @Override
+  public String toString()
+  {
+      return "StoutListStats[size=" + size + ", nodeSize=" + nodeSize + ", nodes=" + nodes() + ", capacity=" + capacity
+              + ", averageFill=" + String.format("%.3f", averageFill())
+              + ", splits=" + splits + ", miniMerges=" + miniMerges + ", fullMerges=" + fullMerges
+              + ", nodeAllocations=" + nodeAllocations + ", lookups=" + lookups + ", fingerHits=" + fingerHits
+              + ", averageLookupSteps=" + String.format("%.2f", averageLookupSteps())
+              + ", maxLookupSteps=" + maxLookupSteps + ", occupancy=" + Arrays.toString(occupancy) + "]";
+  }
+}
@@ -0,0 +1,92 @@
+package edu.iastate.cs228.hw3;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks lists with adaptive node sizing against ArrayList, and that long
+ * append runs end up in a few large nodes.
+ */
+public class AdaptiveNodeSizeTest
+{
+  /**
+   * Returns the statistics of a list.
+   *
+   * @param list the list
+   * @return its statistics
+   */
+  private static StoutListStats stats(StoutList<Integer> list)
+  {
+      list.setStatsEnabled(true);
+      StoutListStats stats = list.stats();
+      list.setStatsEnabled(false);
+      return stats;
+  }
+
+  @Test
+  public void appendRunsGrowTheNodes()
+  {
+      StoutList<Integer> list = new StoutList<>(8);
+      list.setAdaptiveNodeSize(true);
+      for (int i = 0; i < 100000; ++i) {
+          list.add(i);
+      }
+      StoutListStats stats = stats(list);
+      // Capacities double up to 1024, so most elements sit in full-size nodes.
+      assertTrue(stats.nodes() < 2 * 100000 / 1024, stats.toString());
+      assertTrue(stats.averageFill() > 0.5, stats.toString());
+      for (int i = 0; i < 100000; i += 997) {
+          assertEquals(i, (int) list.get(i));
+      }
+  }
+
+  @Test
+  public void editsMatchArrayList()
+  {
+      for (boolean circular : new boolean[] { false, true }) {
+          Random random = new Random(1);
+          StoutList<Integer> list = new StoutList<>(4, circular);
+          List<Integer> expected = new ArrayList<>();
+          list.setAdaptiveNodeSize(true);
+          for (int i = 0; i < 20000; ++i) {
+              list.add(i);
+              expected.add(i);
+          }
+          long grownNodes = stats(list).nodes();
+
+          // Edits in the grown nodes split them back toward the node size.
+          for (int step = 0; step < 40000; ++step) {
+              int op = random.nextInt(4);
+              if (op < 2) {
+                  int pos = random.nextInt(expected.size() + 1);
+                  list.add(pos, -step);
+                  expected.add(pos, -step);
+              }
+              else if (op == 2) {
+                  int pos = random.nextInt(expected.size());
+                  assertEquals(expected.remove(pos), list.remove(pos));
+              }
+              else {
+                  list.add(step);
+                  expected.add(step);
+              }
+              if (step == 20000) {
+                  list.setAdaptiveNodeSize(false);
+              }
+          }
+          assertEquals(expected, new ArrayList<>(list));
+          for (int i = 0; i < expected.size(); i += 101) {
+              assertEquals(expected.get(i), list.get(i));
+          }
+          StoutListStats stats = stats(list);
+          assertTrue(stats.nodes() > grownNodes, stats.toString());
+          assertTrue(stats.averageFill() >= 0.5, stats.toString());
+      }
+  }
+}
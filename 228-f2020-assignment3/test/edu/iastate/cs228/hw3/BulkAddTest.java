@@ -0,0 +1,215 @@
+package edu.iastate.cs228.hw3;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the bulk addAll() against ArrayList, for batches small enough to be
+ * linked into the index one node at a time and large enough to rebuild it.
+ */
+public class BulkAddTest
+{
+  /**
+   * Collection whose size() does not match the elements it holds, as with a
+   * concurrent collection that changes between the two calls.
+   */
+  static final class MisreportingCollection extends AbstractCollection<Integer>
+  {
+    private final List<Integer> items;
+
+    private final int reported;
+
+    MisreportingCollection(List<Integer> items, int reported)
+    {
+      this.items = items;
+      this.reported = reported;
+    }
+
+    @Override
+    public Iterator<Integer> iterator() { return items.iterator(); }
+
+    @Override
+    public int size() { return reported; }
+  }
+
+  /**
+   * Checks a list against its copy, and that every node but the first and
+   * the last is at least half full, as shown by toStringInternal().
+   *
+   * @param expected the copy
+   * @param list the list
+   */
+  private static void check(List<Integer> expected, StoutList<Integer> list)
+  {
+      assertEquals(expected.size(), list.size());
+      assertEquals(expected, new ArrayList<>(list));
+      for (int i = 0; i < expected.size(); i += 11) {
+          assertEquals(expected.get(i), list.get(i));
+      }
+
+      String internal = list.toStringInternal();
+      if (expected.isEmpty()) {
+          assertEquals("[]", internal);
+          return;
+      }
+      String[] nodes = internal.substring(2, internal.length() - 2).split("\\), \\(");
+      for (int k = 1; k < nodes.length - 1; ++k) {
+          String[] slots = nodes[k].split(", ");
+          int count = 0;
+          while (count < slots.length && !slots[count].equals("-")) {
+              ++count;
+          }
+          assertTrue(2 * count >= slots.length, internal);
+      }
+  }
+
+  /**
+   * Returns a batch of distinct negative integers.
+   *
+   * @param n the size of the batch
+   * @param tag tells batches apart
+   * @return the batch
+   */
+  private static List<Integer> batch(int n, int tag)
+  {
+      List<Integer> items = new ArrayList<>();
+      for (int i = 0; i < n; ++i) {
+          items.add(-(tag * 100000 + i));
+      }
+      return items;
+  }
+
+  @Test
+  public void batchesOnBothSidesOfTheRebuild()
+  {
+      for (int nodeSize : new int[] { 2, 4, 16 }) {
+          for (boolean circular : new boolean[] { false, true }) {
+              Random random = new Random(nodeSize);
+              StoutList<Integer> list = new StoutList<>(nodeSize, circular);
+              List<Integer> expected = new ArrayList<>();
+              for (int i = 0; i < 4000; ++i) {
+                  int pos = random.nextInt(expected.size() + 1);
+                  list.add(pos, i);
+                  expected.add(pos, i);
+              }
+
+              // The index is rebuilt once a batch needs a quarter as many new
+              // nodes as the list has, so these sizes fall on both sides.
+              int nodes = expected.size() / nodeSize;
+              int[] sizes = { 1, nodeSize - 1, nodeSize, nodeSize + 1, 3 * nodeSize,
+                      nodes / 8 * nodeSize, nodes / 4 * nodeSize + nodeSize, 2 * expected.size() };
+              int tag = 1;
+              for (int n : sizes) {
+                  for (int where = 0; where < 4; ++where) {
+                      int pos = where == 0 ? 0 : where == 1 ? expected.size() : random.nextInt(expected.size() + 1);
+                      List<Integer> items = batch(n, tag++);
+                      assertTrue(list.addAll(pos, items));
+                      expected.addAll(pos, items);
+                      check(expected, list);
+                  }
+                  // Shrink back so the next batch size stays comparable.
+                  list.subList(2000, expected.size()).clear();
+                  expected.subList(2000, expected.size()).clear();
+              }
+
+              // The list stays usable afterwards.
+              for (int i = 0; i < 2000; ++i) {
+                  int pos = random.nextInt(expected.size() + 1);
+                  list.add(pos, i);
+                  expected.add(pos, i);
+                  pos = random.nextInt(expected.size());
+                  assertEquals(expected.remove(pos), list.remove(pos));
+              }
+              check(expected, list);
+          }
+      }
+  }
+
+  @Test
+  public void intoEmptyAndShortLists()
+  {
+      for (boolean circular : new boolean[] { false, true }) {
+          for (int n : new int[] { 1, 3, 4, 5, 100 }) {
+              StoutList<Integer> list = new StoutList<>(4, circular);
+              List<Integer> expected = new ArrayList<>();
+              assertTrue(list.addAll(batch(n, 1)));
+              expected.addAll(batch(n, 1));
+              check(expected, list);
+
+              list.addAll(0, batch(n, 2));
+              expected.addAll(0, batch(n, 2));
+              list.addAll(1, batch(2, 3));
+              expected.addAll(1, batch(2, 3));
+              check(expected, list);
+          }
+      }
+  }
+
+  @Test
+  public void otherKindsOfCollection()
+  {
+      StoutList<Integer> list = new StoutList<>(8);
+      List<Integer> expected = new ArrayList<>();
+      list.addAll(batch(100, 1));
+      expected.addAll(batch(100, 1));
+
+      // Another stout list, whose toArray() reads its nodes directly.
+      StoutList<Integer> other = new StoutList<>(4, true);
+      other.addAll(batch(50, 2));
+      other.addFirst(7);
+      list.addAll(30, other);
+      expected.addAll(30, new ArrayList<>(other));
+      check(expected, list);
+
+      // The list itself, copied out before it changes.
+      list.addAll(77, list);
+      expected.addAll(77, new ArrayList<>(expected));
+      check(expected, list);
+
+      // size() says more, then fewer, elements than the collection holds.
+      list.addAll(5, new MisreportingCollection(batch(20, 3), 40));
+      expected.addAll(5, batch(20, 3));
+      list.addAll(list.size(), new MisreportingCollection(batch(20, 4), 1));
+      expected.addAll(batch(20, 4));
+      check(expected, list);
+
+      list.addAll(3, Collections.singleton(-5));
+      expected.add(3, -5);
+      check(expected, list);
+  }
+
+  @Test
+  public void emptyAndRejectedBatches()
+  {
+      StoutList<Integer> list = new StoutList<>(4);
+      assertFalse(list.addAll(Collections.emptyList()));
+      assertFalse(list.addAll(0, new MisreportingCollection(Collections.emptyList(), 3)));
+      check(new ArrayList<>(), list);
+
+      List<Integer> expected = batch(10, 1);
+      list.addAll(expected);
+      Iterator<Integer> iter = list.iterator();
+      assertFalse(list.addAll(5, new ArrayList<>()));
+      // An empty batch is not a change, so the iterator stays valid.
+      iter.next();
+
+      Collection<Integer> withNull = Arrays.asList(1, null, 2);
+      assertThrows(NullPointerException.class, () -> list.addAll(3, withNull));
+      assertThrows(IndexOutOfBoundsException.class, () -> list.addAll(11, batch(2, 2)));
+      assertThrows(IndexOutOfBoundsException.class, () -> list.addAll(-1, batch(2, 2)));
+      check(expected, list);
+  }
+}
@@ -0,0 +1,241 @@
+package edu.iastate.cs228.hw3;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntFunction;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks writeTo() and readFrom() round trips with each of the provided
+ * codecs against ArrayList, and that damaged streams are rejected.
+ */
+public class CodecRoundTripTest
+{
+  /**
+   * Channel that hands out at most one byte per read, so every element is
+   * split across reads.
+   */
+  static final class TrickleChannel implements ReadableByteChannel
+  {
+    private final ByteBuffer bytes;
+
+    TrickleChannel(byte[] bytes) { this.bytes = ByteBuffer.wrap(bytes); }
+
+    @Override
+    public int read(ByteBuffer dst)
+    {
+      if (!bytes.hasRemaining()) {
+        return -1;
+      }
+      dst.put(bytes.get());
+      return 1;
+    }
+
+    @Override
+    public boolean isOpen() { return true; }
+
+    @Override
+    public void close() { }
+  }
+
+  /**
+   * Returns the bytes writeTo() writes for a list.
+   *
+   * @param list the list
+   * @param codec the codec for the elements
+   * @return the bytes written
+   * @throws IOException if writing fails
+   */
+  private static <E extends Comparable<? super E>> byte[] write(StoutList<E> list, ElementCodec<E> codec) throws IOException
+  {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      list.writeTo(Channels.newChannel(out), codec);
+      return out.toByteArray();
+  }
+
+  /**
+   * Reads a list back from bytes written by writeTo().
+   *
+   * @param bytes the bytes
+   * @param codec the codec for the elements
+   * @return the list read
+   * @throws IOException if reading fails or the bytes are not a valid list
+   */
+  private static <E extends Comparable<? super E>> StoutList<E> read(byte[] bytes, ElementCodec<E> codec) throws IOException
+  {
+      return StoutList.readFrom(Channels.newChannel(new ByteArrayInputStream(bytes)), codec);
+  }
+
+  /**
+   * Writes a list, reads it back and checks that the copy has the same
+   * elements in the same nodes, whole or a byte at a time.
+   *
+   * @param list the list
+   * @param codec the codec for the elements
+   * @param expected the elements of the list
+   * @throws IOException if writing or reading fails
+   */
+  private static <E extends Comparable<? super E>> void roundTrip(StoutList<E> list, ElementCodec<E> codec, List<E> expected) throws IOException
+  {
+      byte[] bytes = write(list, codec);
+      StoutList<E> copy = read(bytes, codec);
+      assertEquals(expected, new ArrayList<>(copy));
+      assertEquals(list.toStringInternal(), copy.toStringInternal());
+      for (int i = 0; i < expected.size(); i += 13) {
+          assertEquals(expected.get(i), copy.get(i));
+      }
+
+      StoutList<E> trickled = StoutList.readFrom(new TrickleChannel(bytes), codec);
+      assertEquals(list.toStringInternal(), trickled.toStringInternal());
+  }
+
+  /**
+   * Builds a list of random elements with some nodes partly full.
+   *
+   * @param nodeSize the node size of the list
+   * @param circular whether the list uses circular nodes
+   * @param n the number of elements to add
+   * @param random the source of positions and removals
+   * @param next makes the element at the given position
+   * @param expected receives the elements
+   * @return the list
+   */
+  private static <E extends Comparable<? super E>> StoutList<E> build(int nodeSize, boolean circular, int n, Random random,
+          IntFunction<E> next, List<E> expected)
+  {
+      StoutList<E> list = new StoutList<>(nodeSize, circular);
+      for (int i = 0; i < n; ++i) {
+          int pos = random.nextInt(expected.size() + 1);
+          E item = next.apply(i);
+          list.add(pos, item);
+          expected.add(pos, item);
+      }
+      for (int i = 0; i < n / 4; ++i) {
+          int pos = random.nextInt(expected.size());
+          assertEquals(expected.remove(pos), list.remove(pos));
+      }
+      return list;
+  }
+
+  @Test
+  public void numbersRoundTrip() throws IOException
+  {
+      Random random = new Random(1);
+      for (int nodeSize : new int[] { 2, 8, 64 }) {
+          for (int n : new int[] { 0, 1, 5, 3000 }) {
+              List<Integer> ints = new ArrayList<>();
+              roundTrip(build(nodeSize, false, n, random, i -> random.nextInt(), ints), ElementCodec.INTEGER, ints);
+              List<Long> longs = new ArrayList<>();
+              roundTrip(build(nodeSize, true, n, random, i -> random.nextLong(), longs), ElementCodec.LONG, longs);
+              List<Double> doubles = new ArrayList<>();
+              roundTrip(build(nodeSize, false, n, random, i -> random.nextGaussian(), doubles), ElementCodec.DOUBLE, doubles);
+          }
+      }
+  }
+
+  @Test
+  public void doublesKeepTheirBits() throws IOException
+  {
+      StoutList<Double> list = new StoutList<>(4);
+      double[] special = { -0.0, 0.0, Double.NaN, Double.MIN_VALUE, Double.MAX_VALUE, Double.NEGATIVE_INFINITY };
+      for (double value : special) {
+          list.add(value);
+      }
+      StoutList<Double> copy = read(write(list, ElementCodec.DOUBLE), ElementCodec.DOUBLE);
+      for (int i = 0; i < special.length; ++i) {
+          assertEquals(Double.doubleToRawLongBits(special[i]), Double.doubleToRawLongBits(copy.get(i)));
+      }
+  }
+
+  @Test
+  public void stringsRoundTrip() throws IOException
+  {
+      Random random = new Random(2);
+      String[] pieces = { "a", "\u00e9", "\u20ac", "\uD83D\uDE00", "stout", "" };
+      List<String> expected = new ArrayList<>();
+      StoutList<String> list = build(4, true, 2000, random, i -> {
+          StringBuilder sb = new StringBuilder();
+          for (int k = random.nextInt(6); k > 0; --k) {
+              sb.append(pieces[random.nextInt(pieces.length)]);
+          }
+          return sb.toString();
+      }, expected);
+      // An element larger than the stream buffer.
+      StringBuilder large = new StringBuilder();
+      while (large.length() < 100000) {
+          large.append("\u20ac\uD83D\uDE00");
+      }
+      list.add(700, large.toString());
+      expected.add(700, large.toString());
+      roundTrip(list, ElementCodec.STRING, expected);
+
+      for (String s : pieces) {
+          assertEquals(s.getBytes(StandardCharsets.UTF_8).length, ElementCodec.STRING.encodedSize(s));
+      }
+      assertEquals(1, ElementCodec.STRING.encodedSize("\uD83D"));
+  }
+
+  @Test
+  public void readListStaysUsable() throws IOException
+  {
+      Random random = new Random(3);
+      List<Integer> expected = new ArrayList<>();
+      StoutList<Integer> list = build(4, false, 1000, random, i -> i, expected);
+      StoutList<Integer> copy = read(write(list, ElementCodec.INTEGER), ElementCodec.INTEGER);
+      for (int i = 0; i < 2000; ++i) {
+          int pos = random.nextInt(expected.size() + 1);
+          copy.add(pos, -i);
+          expected.add(pos, -i);
+          pos = random.nextInt(expected.size());
+          assertEquals(expected.remove(pos), copy.remove(pos));
+      }
+      assertEquals(expected, new ArrayList<>(copy));
+  }
+
+  @Test
+  public void rejectsDamagedStreams() throws IOException
+  {
+      StoutList<Integer> list = new StoutList<>(4);
+      for (int i = 0; i < 10; ++i) {
+          list.add(i);
+      }
+      byte[] bytes = write(list, ElementCodec.INTEGER);
+
+      byte[] magic = bytes.clone();
+      magic[0] ^= 1;
+      assertThrows(StreamCorruptedException.class, () -> read(magic, ElementCodec.INTEGER));
+
+      byte[] version = bytes.clone();
+      version[7] ^= 1;
+      assertThrows(StreamCorruptedException.class, () -> read(version, ElementCodec.INTEGER));
+
+      // The size follows the magic, version, node size and layout byte.
+      byte[] size = bytes.clone();
+      ByteBuffer.wrap(size).putInt(13, 11);
+      assertThrows(StreamCorruptedException.class, () -> read(size, ElementCodec.INTEGER));
+
+      // The count of the first node follows its capacity after the header.
+      byte[] count = bytes.clone();
+      ByteBuffer.wrap(count).putInt(25, 5);
+      assertThrows(StreamCorruptedException.class, () -> read(count, ElementCodec.INTEGER));
+
+      byte[] shortened = Arrays.copyOf(bytes, bytes.length - 1);
+      assertThrows(EOFException.class, () -> read(shortened, ElementCodec.INTEGER));
+      assertThrows(EOFException.class, () -> read(new byte[3], ElementCodec.INTEGER));
+  }
+}
@@ -0,0 +1,159 @@
+package edu.iastate.cs228.hw3;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks compact(), trimToSize() and incremental compaction against
+ * ArrayList, and that compaction gives back the nodes left sparse by
+ * removals.
+ */
+public class CompactionTest
+{
+  /**
+   * Builds a list and an ArrayList of the same integers, then removes
+   * elements at random until about a third are left, leaving most nodes
+   * sparse.
+   *
+   * @param nodeSize the node size of the list
+   * @param circular whether the list uses circular nodes
+   * @param random the source of the removals
+   * @param expected receives the elements left
+   * @return the list
+   */
+  private static StoutList<Integer> thinned(int nodeSize, boolean circular, Random random, List<Integer> expected)
+  {
+      StoutList<Integer> list = new StoutList<>(nodeSize, circular);
+      for (int i = 0; i < 30000; ++i) {
+          list.add(i);
+          expected.add(i);
+      }
+      for (int i = 0; i < 20000; ++i) {
+          int pos = random.nextInt(expected.size());
+          assertEquals(expected.remove(pos), list.remove(pos));
+      }
+      return list;
+  }
+
+  /**
+   * Returns the statistics of a list.
+   *
+   * @param list the list
+   * @return its statistics
+   */
+  private static StoutListStats stats(StoutList<Integer> list)
+  {
+      list.setStatsEnabled(true);
+      StoutListStats stats = list.stats();
+      list.setStatsEnabled(false);
+      return stats;
+  }
+
+  @Test
+  public void compactFillsEveryNodeButTheLast()
+  {
+      for (int nodeSize : new int[] { 2, 8, 32 }) {
+          for (boolean circular : new boolean[] { false, true }) {
+              Random random = new Random(nodeSize);
+              List<Integer> expected = new ArrayList<>();
+              StoutList<Integer> list = thinned(nodeSize, circular, random, expected);
+              assertTrue(stats(list).averageFill() < 0.8);
+
+              list.compact();
+              StoutListStats stats = stats(list);
+              assertEquals(expected, new ArrayList<>(list));
+              assertEquals((expected.size() + nodeSize - 1) / nodeSize, stats.nodes());
+              assertEquals(stats.nodes() - 1, stats.occupancy(nodeSize) - (expected.size() % nodeSize == 0 ? 1 : 0));
+
+              // Positional access goes through the rebuilt index.
+              for (int i = 0; i < 500; ++i) {
+                  int pos = random.nextInt(expected.size());
+                  assertEquals(expected.get(pos), list.get(pos));
+                  list.add(pos, -i);
+                  expected.add(pos, -i);
+              }
+              assertEquals(expected, new ArrayList<>(list));
+          }
+      }
+  }
+
+  @Test
+  public void trimmedLastNodeGrowsBack()
+  {
+      for (boolean circular : new boolean[] { false, true }) {
+          StoutList<Integer> list = new StoutList<>(8, circular);
+          List<Integer> expected = new ArrayList<>();
+          for (int i = 0; i < 21; ++i) {
+              list.add(i);
+              expected.add(i);
+          }
+          list.trimToSize();
+          assertEquals(expected, new ArrayList<>(list));
+
+          // Appending, inserting into and splitting the trimmed node.
+          for (int i = 0; i < 20; ++i) {
+              list.trimToSize();
+              list.add(-i);
+              expected.add(-i);
+              list.trimToSize();
+              list.add(expected.size() - 2, 100 + i);
+              expected.add(expected.size() - 2, 100 + i);
+          }
+          list.trimToSize();
+          list.addFirst(-100);
+          expected.add(0, -100);
+          assertEquals(expected, new ArrayList<>(list));
+          assertEquals(expected.get(expected.size() - 1), list.getLast());
+
+          List<Integer> rest = new ArrayList<>();
+          StoutList<Integer> thinned = thinned(8, circular, new Random(1), rest);
+          thinned.compact();
+          thinned.trimToSize();
+          thinned.concat(list);
+          rest.addAll(expected);
+          assertEquals(rest, new ArrayList<>(thinned));
+      }
+  }
+
+  @Test
+  public void compactLeavesSnapshotsAlone()
+  {
+      List<Integer> expected = new ArrayList<>();
+      StoutList<Integer> list = thinned(4, false, new Random(2), expected);
+      List<Integer> snapshot = list.snapshot();
+      list.compact();
+      list.set(0, -1);
+      assertEquals(expected, new ArrayList<>(snapshot));
+      expected.set(0, -1);
+      assertEquals(expected, new ArrayList<>(list));
+  }
+
+  @Test
+  public void incrementalCompactionRefillsNodes()
+  {
+      for (boolean circular : new boolean[] { false, true }) {
+          Random random = new Random(3);
+          List<Integer> expected = new ArrayList<>();
+          StoutList<Integer> list = thinned(8, circular, random, expected);
+          double before = stats(list).averageFill();
+
+          list.setIncrementalCompaction(true);
+          for (int i = 0; i < 20000; ++i) {
+              int pos = random.nextInt(expected.size() + 1);
+              list.add(pos, -i);
+              expected.add(pos, -i);
+              pos = random.nextInt(expected.size());
+              assertEquals(expected.remove(pos), list.remove(pos));
+          }
+          assertEquals(expected, new ArrayList<>(list));
+          double after = stats(list).averageFill();
+          assertTrue(after > before + 0.1, before + " -> " + after);
+      }
+  }
+}
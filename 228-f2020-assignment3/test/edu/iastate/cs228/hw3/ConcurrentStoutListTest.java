@@ -0,0 +1,328 @@
+package edu.iastate.cs228.hw3;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks ConcurrentStoutList against ArrayList, alone and with several
+ * threads writing at once.
+ */
+public class ConcurrentStoutListTest
+{
+  /**
+   * Runs the given actions on their own threads, started together, and
+   * rethrows the first failure.
+   *
+   * @param actions the actions to run
+   * @throws InterruptedException if interrupted while waiting
+   */
+  static void runConcurrently(Runnable... actions) throws InterruptedException
+  {
+      CountDownLatch start = new CountDownLatch(1);
+      AtomicReference<Throwable> failure = new AtomicReference<>();
+      List<Thread> threads = new ArrayList<>();
+      for (Runnable action : actions) {
+          Thread thread = new Thread(() -> {
+              try {
+                  start.await();
+                  action.run();
+              }
+              catch (Throwable e) {
+                  failure.compareAndSet(null, e);
+              }
+          });
+          thread.start();
+          threads.add(thread);
+      }
+      start.countDown();
+      for (Thread thread : threads) {
+          thread.join();
+      }
+      if (failure.get() != null) {
+          throw new AssertionError(failure.get());
+      }
+  }
+
+  @Test
+  public void matchesArrayListSequentially()
+  {
+      Random random = new Random(1);
+      ConcurrentStoutList<Integer> list = new ConcurrentStoutList<>(4);
+      List<Integer> expected = new ArrayList<>();
+      for (int step = 0; step < 20000; ++step) {
+          int op = random.nextInt(6);
+          int value = random.nextInt(100);
+          if (op == 0 || expected.isEmpty()) {
+              list.add(value);
+              expected.add(value);
+          }
+          else if (op == 1) {
+              int pos = random.nextInt(expected.size() + 1);
+              list.add(pos, value);
+              expected.add(pos, value);
+          }
+          else if (op == 2) {
+              int pos = random.nextInt(expected.size());
+              assertEquals(expected.remove(pos), list.remove(pos));
+          }
+          else if (op == 3) {
+              int pos = random.nextInt(expected.size());
+              assertEquals(expected.set(pos, value), list.set(pos, value));
+          }
+          else if (op == 4) {
+              list.append(value);
+              expected.add(value);
+          }
+          else {
+              assertEquals(expected.remove((Integer) value), list.remove((Integer) value));
+          }
+          if (!expected.isEmpty()) {
+              int pos = random.nextInt(expected.size());
+              assertEquals(expected.get(pos), list.get(pos));
+          }
+          assertEquals(expected.size(), list.size());
+      }
+      assertEquals(expected, new ArrayList<>(list));
+      assertEquals(expected, Arrays.asList(list.toArray()));
+      assertEquals(expected.indexOf(42), list.indexOf(42));
+      assertEquals(expected.lastIndexOf(42), list.lastIndexOf(42));
+  }
+
+  @Test
+  public void bulkRemovals()
+  {
+      ConcurrentStoutList<Integer> list = new ConcurrentStoutList<>(4);
+      List<Integer> expected = new ArrayList<>();
+      for (int i = 0; i < 1000; ++i) {
+          list.append(i % 37);
+          expected.add(i % 37);
+      }
+
+      assertTrue(list.removeIf(x -> x % 3 == 0));
+      expected.removeIf(x -> x % 3 == 0);
+      assertEquals(expected, new ArrayList<>(list));
+      assertFalse(list.removeIf(x -> x % 3 == 0));
+
+      Set<Integer> doomed = new HashSet<>(Arrays.asList(1, 2, 4, 8, 16, 32));
+      assertTrue(list.removeAll(doomed));
+      expected.removeAll(doomed);
+      assertEquals(expected, new ArrayList<>(list));
+
+      Set<Integer> kept = new HashSet<>(Arrays.asList(5, 7, 11, 13));
+      assertTrue(list.retainAll(kept));
+      expected.retainAll(kept);
+      assertEquals(expected, new ArrayList<>(list));
+      assertEquals(expected.size(), list.size());
+
+      assertThrows(NullPointerException.class, () -> list.removeIf(null));
+      assertThrows(NullPointerException.class, () -> list.removeAll(null));
+      assertThrows(NullPointerException.class, () -> list.retainAll(null));
+  }
+
+  @Test
+  public void failingFilterLeavesListUnchanged()
+  {
+      ConcurrentStoutList<Integer> list = new ConcurrentStoutList<>(4);
+      for (int i = 0; i < 100; ++i) {
+          list.add(i);
+      }
+      assertThrows(IllegalStateException.class, () -> list.removeIf(x -> {
+          if (x == 50) throw new IllegalStateException();
+          return x < 50;
+      }));
+      assertEquals(100, list.size());
+      assertEquals(0, (int) list.get(0));
+  }
+
+  @Test
+  public void iteratorDoesNotRemove()
+  {
+      ConcurrentStoutList<Integer> list = new ConcurrentStoutList<>();
+      list.add(1);
+      Iterator<Integer> iter = list.iterator();
+      iter.next();
+      assertThrows(UnsupportedOperationException.class, iter::remove);
+  }
+
+  @Test
+  public void concurrentWritersKeepEveryElement() throws InterruptedException
+  {
+      ConcurrentStoutList<Integer> list = new ConcurrentStoutList<>(8);
+      int perThread = 5000;
+      Runnable[] writers = new Runnable[4];
+      for (int t = 0; t < writers.length; ++t) {
+          int base = t * perThread;
+          writers[t] = () -> {
+              Random random = new Random(base);
+              for (int i = 0; i < perThread; ++i) {
+                  list.add(random.nextInt(list.size() + 1), base + i);
+              }
+          };
+      }
+      runConcurrently(writers);
+
+      assertEquals(writers.length * perThread, list.size());
+      Set<Integer> seen = new HashSet<>(list);
+      assertEquals(writers.length * perThread, seen.size());
+  }
+
+  @Test
+  public void appendsAreSeenByTheAppendingThread() throws InterruptedException
+  {
+      ConcurrentStoutList<Integer> list = new ConcurrentStoutList<>(8);
+      AtomicInteger done = new AtomicInteger();
+      int perThread = 20000;
+      Runnable[] producers = new Runnable[6];
+      for (int t = 0; t < producers.length; ++t) {
+          int base = t * perThread;
+          producers[t] = () -> {
+              for (int i = 0; i < perThread; ++i) {
+                  int before = done.get();
+                  list.append(base + i);
+                  assertTrue(list.size() >= before + 1);
+                  if (i % 1000 == 0) {
+                      assertEquals(base + i, (int) list.get(list.lastIndexOf(base + i)));
+                  }
+                  done.incrementAndGet();
+              }
+          };
+      }
+      runConcurrently(producers);
+
+      assertEquals(producers.length * perThread, list.size());
+      int[] next = new int[producers.length];
+      for (int item : list) {
+          int t = item / perThread;
+          assertEquals(t * perThread + next[t]++, item);
+      }
+  }
+
+  @Test
+  public void readersSeeAStablePrefixDuringAppends() throws InterruptedException
+  {
+      ConcurrentStoutList<Integer> list = new ConcurrentStoutList<>(4);
+      int total = 50000;
+      AtomicInteger next = new AtomicInteger();
+      Runnable producer = () -> {
+          for (int i = next.getAndIncrement(); i < total; i = next.getAndIncrement()) {
+              list.append(i);
+          }
+      };
+      Runnable reader = () -> {
+          Random random = new Random(7);
+          int seen = 0;
+          while (seen < total) {
+              int size = list.size();
+              assertTrue(size >= seen);
+              seen = size;
+              if (size > 0) {
+                  int pos = random.nextInt(size);
+                  Integer item = list.get(pos);
+                  // Appends never move an element, so a position keeps its item.
+                  assertEquals(item, list.get(pos));
+              }
+          }
+      };
+      runConcurrently(producer, producer, producer, reader, reader);
+
+      assertEquals(total, list.size());
+      assertEquals(total, new HashSet<>(list).size());
+  }
+
+  @Test
+  public void appendsMixWithStructuralWriters() throws InterruptedException
+  {
+      ConcurrentStoutList<Integer> list = new ConcurrentStoutList<>(4);
+      int appends = 30000;
+      int inserts = 3000;
+      runConcurrently(
+          () -> {
+              for (int i = 0; i < appends; ++i) {
+                  list.append(i);
+              }
+          },
+          () -> {
+              for (int i = 0; i < inserts; ++i) {
+                  list.add(0, -1 - i);
+              }
+          },
+          () -> {
+              for (int i = 0; i < 200; ++i) {
+                  list.removeIf(x -> x == Integer.MIN_VALUE);
+                  list.toArray();
+              }
+          });
+
+      assertEquals(appends + inserts, list.size());
+      List<Integer> items = new ArrayList<>(list);
+      for (int i = 0; i < inserts; ++i) {
+          assertEquals(-inserts + i, (int) items.get(i));
+      }
+      int previous = -1;
+      for (int i = inserts; i < items.size(); ++i) {
+          assertTrue(items.get(i) > previous);
+          previous = items.get(i);
+      }
+  }
+
+  @Test
+  public void appendedElementsCanBeReplacedAndFound()
+  {
+      ConcurrentStoutList<String> list = new ConcurrentStoutList<>(4);
+      for (int i = 0; i < 100; ++i) {
+          list.append("a" + i);
+      }
+      assertEquals("a99", list.set(99, "b"));
+      assertEquals("b", list.get(99));
+      assertEquals(99, list.indexOf("b"));
+      assertEquals(99, list.lastIndexOf("b"));
+      assertEquals(-1, list.indexOf("zzz"));
+      assertEquals(100, list.toArray().length);
+      assertEquals(100, list.toArray(new String[0]).length);
+      assertThrows(IndexOutOfBoundsException.class, () -> list.get(100));
+      assertThrows(IndexOutOfBoundsException.class, () -> list.set(100, "c"));
+      assertThrows(NullPointerException.class, () -> list.append(null));
+  }
+
+  @Test
+  public void iterationDuringRemovalsIsWeaklyConsistent() throws InterruptedException
+  {
+      ConcurrentStoutList<Integer> list = new ConcurrentStoutList<>(4);
+      for (int i = 0; i < 20000; ++i) {
+          list.add(i);
+      }
+      runConcurrently(
+          () -> {
+              for (int i = 0; i < 10000; ++i) {
+                  list.remove(list.size() / 2);
+              }
+          },
+          () -> {
+              for (int round = 0; round < 20; ++round) {
+                  int previous = -1;
+                  for (int item : list) {
+                      // Elements are removed, never reordered, so even a
+                      // weakly consistent pass sees them in order.
+                      assertTrue(item > previous);
+                      previous = item;
+                  }
+              }
+          });
+      assertEquals(10000, list.size());
+  }
+}
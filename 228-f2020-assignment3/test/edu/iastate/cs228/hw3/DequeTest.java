@@ -0,0 +1,179 @@
+package edu.iastate.cs228.hw3;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the Deque methods against ArrayDeque, mixed with positional
+ * changes, and that adding at either end keeps the nodes well filled.
+ */
+public class DequeTest
+{
+  /**
+   * Returns the elements of a deque read through its descending iterator.
+   *
+   * @param deque the deque
+   * @return the elements from last to first
+   */
+  private static List<Integer> descending(Deque<Integer> deque)
+  {
+      List<Integer> result = new ArrayList<>();
+      Iterator<Integer> iter = deque.descendingIterator();
+      while (iter.hasNext()) {
+          result.add(iter.next());
+      }
+      return result;
+  }
+
+  /**
+   * Applies random deque operations to a stout list and an ArrayDeque alike.
+   *
+   * @param list the list to run on, empty
+   * @param seed the seed of the operations
+   */
+  private static void run(StoutList<Integer> list, long seed)
+  {
+      Random random = new Random(seed);
+      Deque<Integer> expected = new ArrayDeque<>();
+      for (int step = 0; step < 30000; ++step) {
+          int value = random.nextInt(100);
+          // Grow for the first half of the run and shrink for the second.
+          int op = random.nextInt(step < 15000 ? 20 : 28);
+          if (expected.isEmpty() && op >= 8) {
+              op = random.nextInt(8);
+          }
+          switch (op) {
+          case 0: list.addFirst(value); expected.addFirst(value); break;
+          case 1: list.addLast(value); expected.addLast(value); break;
+          case 2: assertTrue(list.offerFirst(value)); expected.offerFirst(value); break;
+          case 3: assertTrue(list.offerLast(value)); expected.offerLast(value); break;
+          case 4: assertTrue(list.offer(value)); expected.offer(value); break;
+          case 5: list.push(value); expected.push(value); break;
+          case 6: assertEquals(expected.peekFirst(), list.peekFirst()); break;
+          case 7: assertEquals(expected.peekLast(), list.peekLast()); break;
+          case 8: assertEquals(expected.getFirst(), list.getFirst()); break;
+          case 9: assertEquals(expected.getLast(), list.getLast()); break;
+          case 10: assertEquals(expected.element(), list.element()); break;
+          case 11: assertEquals(expected.peek(), list.peek()); break;
+          case 12:
+              assertEquals(expected.removeFirstOccurrence(value), list.removeFirstOccurrence(value));
+              break;
+          case 13:
+              assertEquals(expected.removeLastOccurrence(value), list.removeLastOccurrence(value));
+              break;
+          case 14:
+              // A positional change between the ends, which ArrayDeque lacks.
+              int pos = random.nextInt(list.size() + 1);
+              list.add(pos, value);
+              List<Integer> copy = new ArrayList<>(expected);
+              copy.add(pos, value);
+              expected = new ArrayDeque<>(copy);
+              break;
+          case 15: case 16: case 20: case 21:
+              assertEquals(expected.pollFirst(), list.pollFirst());
+              break;
+          case 17: case 18: case 22: case 23:
+              assertEquals(expected.pollLast(), list.pollLast());
+              break;
+          case 19: case 24: assertEquals(expected.removeFirst(), list.removeFirst()); break;
+          case 25: assertEquals(expected.removeLast(), list.removeLast()); break;
+          case 26: assertEquals(expected.pop(), list.pop()); break;
+          default: assertEquals(expected.poll(), list.poll()); break;
+          }
+          assertEquals(expected.size(), list.size());
+          if (step % 3000 == 0) {
+              assertEquals(new ArrayList<>(expected), new ArrayList<>(list));
+              assertEquals(descending(expected), descending(list));
+          }
+      }
+      assertEquals(new ArrayList<>(expected), new ArrayList<>(list));
+      assertEquals(descending(expected), descending(list));
+  }
+
+  @Test
+  public void matchesArrayDeque()
+  {
+      run(new StoutList<>(2), 1);
+      run(new StoutList<>(4), 2);
+      run(new StoutList<>(16), 3);
+  }
+
+  @Test
+  public void matchesArrayDequeInCircularNodes()
+  {
+      run(new StoutList<>(4, true), 4);
+      run(new StoutList<>(16, true), 5);
+  }
+
+  @Test
+  public void addingAtTheFrontFillsTheNodes()
+  {
+      StoutList<Integer> list = new StoutList<>(8, true);
+      for (int i = 0; i < 10000; ++i) {
+          list.addFirst(i);
+      }
+      list.setStatsEnabled(true);
+      assertTrue(list.stats().averageFill() >= 0.5, list.stats().toString());
+      for (int i = 0; i < 10000; ++i) {
+          assertEquals(9999 - i, (int) list.get(i));
+      }
+  }
+
+  @Test
+  public void descendingIteratorRemoves()
+  {
+      StoutList<Integer> list = new StoutList<>(4);
+      List<Integer> expected = new ArrayList<>();
+      for (int i = 0; i < 100; ++i) {
+          list.add(i);
+          expected.add(i);
+      }
+      Iterator<Integer> iter = list.descendingIterator();
+      for (int i = 99; i >= 0; --i) {
+          assertEquals(i, (int) iter.next());
+          if (i % 3 == 0) {
+              iter.remove();
+              expected.remove(i);
+          }
+      }
+      assertFalse(iter.hasNext());
+      assertThrows(NoSuchElementException.class, iter::next);
+      assertEquals(expected, new ArrayList<>(list));
+  }
+
+  @Test
+  public void emptyDeque()
+  {
+      StoutList<Integer> list = new StoutList<>();
+      assertNull(list.peekFirst());
+      assertNull(list.peekLast());
+      assertNull(list.peek());
+      assertNull(list.pollFirst());
+      assertNull(list.pollLast());
+      assertNull(list.poll());
+      assertThrows(NoSuchElementException.class, list::getFirst);
+      assertThrows(NoSuchElementException.class, list::getLast);
+      assertThrows(NoSuchElementException.class, list::element);
+      assertThrows(NoSuchElementException.class, list::removeFirst);
+      assertThrows(NoSuchElementException.class, list::removeLast);
+      assertThrows(NoSuchElementException.class, list::pop);
+      assertThrows(NoSuchElementException.class, () -> list.remove());
+      assertThrows(NoSuchElementException.class, () -> list.descendingIterator().next());
+      assertThrows(NullPointerException.class, () -> list.addFirst(null));
+      assertThrows(NullPointerException.class, () -> list.offerLast(null));
+      assertEquals(0, list.size());
+  }
+}
@@ -0,0 +1,171 @@
+package edu.iastate.cs228.hw3;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks forEach(), forEachChunk(), toArray() and the searches that scan the
+ * node arrays directly against ArrayList, including circular nodes whose
+ * elements wrap past the end of their arrays.
+ */
+public class DirectScanTest
+{
+  /**
+   * Builds a list and an ArrayList of the same integers by adding at both
+   * ends and removing at random, so that in circular nodes the elements wrap
+   * past the end of the arrays.
+   *
+   * @param nodeSize the node size of the list
+   * @param circular whether the list uses circular nodes
+   * @param n the number of adds
+   * @param random the source of the changes
+   * @param expected receives the elements
+   * @return the list
+   */
+  private static StoutList<Integer> build(int nodeSize, boolean circular, int n, Random random, List<Integer> expected)
+  {
+      StoutList<Integer> list = new StoutList<>(nodeSize, circular);
+      for (int i = 0; i < n; ++i) {
+          int value = random.nextInt(n);
+          if (random.nextBoolean()) {
+              list.addFirst(value);
+              expected.add(0, value);
+          }
+          else {
+              int pos = random.nextInt(expected.size() + 1);
+              list.add(pos, value);
+              expected.add(pos, value);
+          }
+          if (i % 4 == 0) {
+              int pos = random.nextInt(expected.size());
+              assertEquals(expected.remove(pos), list.remove(pos));
+          }
+      }
+      return list;
+  }
+
+  /**
+   * Returns the elements passed to forEachChunk(), and whether any node was
+   * passed as two ranges.
+   *
+   * @param list the list
+   * @param out receives the elements
+   * @return true if some node's elements wrapped past the end of its array
+   */
+  private static boolean chunks(StoutList<Integer> list, List<Integer> out)
+  {
+      Object[][] previous = new Object[1][];
+      int[] previousEnd = new int[1];
+      boolean[] wrapped = new boolean[1];
+      list.forEachChunk((data, from, length) -> {
+          assertTrue(length > 0 && from >= 0 && from + length <= data.length);
+          if (data == previous[0] && from == 0 && previousEnd[0] == data.length) {
+              wrapped[0] = true;
+          }
+          for (int i = from; i < from + length; ++i) {
+              out.add((Integer) data[i]);
+          }
+          previous[0] = data;
+          previousEnd[0] = from + length;
+      });
+      return wrapped[0];
+  }
+
+  @Test
+  public void scansMatchArrayList()
+  {
+      for (int nodeSize : new int[] { 2, 4, 16 }) {
+          for (boolean circular : new boolean[] { false, true }) {
+              Random random = new Random(nodeSize + (circular ? 100 : 0));
+              List<Integer> expected = new ArrayList<>();
+              StoutList<Integer> list = build(nodeSize, circular, 3000, random, expected);
+
+              List<Integer> seen = new ArrayList<>();
+              list.forEach(seen::add);
+              assertEquals(expected, seen);
+
+              List<Integer> chunked = new ArrayList<>();
+              boolean wrapped = chunks(list, chunked);
+              assertEquals(expected, chunked);
+              // Front inserts into circular nodes leave some of them wrapped.
+              assertEquals(circular, wrapped);
+
+              for (int i = 0; i < 500; ++i) {
+                  int value = random.nextInt(3500);
+                  assertEquals(expected.indexOf(value), list.indexOf(value));
+                  assertEquals(expected.lastIndexOf(value), list.lastIndexOf(value));
+                  assertEquals(expected.contains(value), list.contains(value));
+              }
+              assertEquals(-1, list.indexOf(null));
+              assertEquals(-1, list.indexOf("0"));
+              assertEquals(-1, list.lastIndexOf(null));
+          }
+      }
+  }
+
+  @Test
+  public void toArrayMatchesArrayList()
+  {
+      for (boolean circular : new boolean[] { false, true }) {
+          List<Integer> expected = new ArrayList<>();
+          StoutList<Integer> list = build(8, circular, 1000, new Random(1), expected);
+          int size = expected.size();
+
+          assertArrayEquals(expected.toArray(), list.toArray());
+          assertEquals(Object[].class, list.toArray().getClass());
+
+          Integer[] undersized = new Integer[size / 2];
+          Integer[] grown = list.toArray(undersized);
+          assertEquals(Integer[].class, grown.getClass());
+          assertArrayEquals(expected.toArray(new Integer[0]), grown);
+          assertNull(undersized[0]);
+
+          Integer[] exact = new Integer[size];
+          assertSame(exact, list.toArray(exact));
+          assertArrayEquals(expected.toArray(), exact);
+
+          Integer[] oversized = new Integer[size + 3];
+          oversized[size] = -1;
+          oversized[size + 1] = -2;
+          assertSame(oversized, list.toArray(oversized));
+          assertArrayEquals(expected.toArray(), Arrays.copyOf(oversized, size));
+          assertNull(oversized[size]);
+          assertEquals(-2, (int) oversized[size + 1]);
+
+          Number[] wider = list.toArray(new Number[0]);
+          assertEquals(size, wider.length);
+          assertThrows(ArrayStoreException.class, () -> list.toArray(new String[size]));
+      }
+  }
+
+  @Test
+  public void emptyAndChangedLists()
+  {
+      StoutList<Integer> empty = new StoutList<>(4, true);
+      assertEquals(0, empty.toArray().length);
+      Integer[] one = { 7 };
+      assertNull(empty.toArray(one)[0]);
+      assertEquals(-1, empty.indexOf(1));
+      assertFalse(chunks(empty, new ArrayList<>()));
+
+      List<Integer> expected = new ArrayList<>();
+      StoutList<Integer> list = build(4, true, 100, new Random(2), expected);
+      assertThrows(ConcurrentModificationException.class, () -> list.forEach(x -> list.removeFirst()));
+      assertThrows(ConcurrentModificationException.class, () -> list.forEachChunk((data, from, length) -> list.addFirst(0)));
+      assertThrows(NullPointerException.class, () -> list.forEachChunk(null));
+      assertThrows(NullPointerException.class, () -> list.forEach(null));
+  }
+}
@@ -0,0 +1,296 @@
+package edu.iastate.cs228.hw3;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Checks externalSort() against ArrayList.sort() across one and several
+ * merge passes, that it cleans up its run files, and that a failed sort
+ * leaves every element in the list.
+ */
+public class ExternalSortTest
+{
+  /**
+   * Integer codec that fails once, at a chosen encode or decode.
+   */
+  static final class FailingCodec implements ElementCodec<Integer>
+  {
+    int encodes;
+
+    int decodes;
+
+    int failEncodeAt = -1;
+
+    int failDecodeAt = -1;
+
+    @Override
+    public int fixedSize() { return Integer.BYTES; }
+
+    @Override
+    public int encodedSize(Integer item) { return Integer.BYTES; }
+
+    @Override
+    public void encode(Integer item, ByteBuffer out)
+    {
+      if (encodes++ == failEncodeAt) {
+        throw new UncheckedIOException(new IOException("encode"));
+      }
+      out.putInt(item);
+    }
+
+    @Override
+    public Integer decode(ByteBuffer in)
+    {
+      if (decodes++ == failDecodeAt) {
+        throw new UncheckedIOException(new IOException("decode"));
+      }
+      return in.getInt();
+    }
+  }
+
+  @TempDir
+  Path directory;
+
+  /**
+   * Returns the number of files left in the run directory.
+   *
+   * @return the number of files
+   * @throws IOException if the directory cannot be listed
+   */
+  private long leftover() throws IOException
+  {
+      try (Stream<Path> files = Files.list(directory)) {
+          return files.count();
+      }
+  }
+
+  /**
+   * Builds a stout list and an ArrayList of the same random integers.
+   *
+   * @param n the number of elements
+   * @param bound the bound of the values
+   * @param expected receives the elements
+   * @return the stout list
+   */
+  private static StoutList<Integer> build(int n, int bound, List<Integer> expected)
+  {
+      Random random = new Random(n + bound);
+      StoutList<Integer> list = new StoutList<>(8);
+      for (int i = 0; i < n; ++i) {
+          int value = random.nextInt(bound);
+          list.add(value);
+          expected.add(value);
+      }
+      return list;
+  }
+
+  @Test
+  public void singleMergePass() throws IOException
+  {
+      List<Integer> expected = new ArrayList<>();
+      StoutList<Integer> list = build(3000, 1000000, expected);
+      ExternalSortStats stats = list.externalSort(ElementCodec.INTEGER, directory, 100);
+      expected.sort(null);
+
+      assertEquals(expected, new ArrayList<>(list));
+      assertEquals(ExternalSortStats.Phase.DONE, stats.phase());
+      assertEquals(3000, stats.elements());
+      assertEquals(30, stats.runs());
+      assertEquals(1, stats.mergePasses());
+      assertEquals(stats.bytesWritten(), stats.bytesRead());
+      assertEquals(1.0, stats.progress());
+      assertEquals(0, leftover());
+  }
+
+  @Test
+  public void severalMergePasses() throws IOException
+  {
+      List<Integer> expected = new ArrayList<>();
+      StoutList<Integer> list = build(20000, 50, expected);
+      List<ExternalSortStats> reports = new ArrayList<>();
+      ExternalSortStats stats = list.externalSort(null, ElementCodec.INTEGER, directory, 16, reports::add);
+      expected.sort(null);
+
+      assertEquals(expected, new ArrayList<>(list));
+      assertEquals(1250, stats.runs());
+      assertEquals(2, stats.mergePasses());
+      assertEquals(stats.bytesWritten(), stats.bytesRead());
+      assertTrue(reports.size() > 2);
+      for (int i = 1; i < reports.size(); ++i) {
+          assertTrue(reports.get(i).elementsProcessed() >= reports.get(i - 1).elementsProcessed());
+      }
+      assertEquals(0, leftover());
+
+      list.add(7);
+      list.add(0, 3);
+      assertEquals(20002, list.size());
+  }
+
+  @Test
+  public void reverseAndComparatorOrders() throws IOException
+  {
+      List<Integer> expected = new ArrayList<>();
+      StoutList<Integer> list = build(5000, 100000, expected);
+      list.externalSortReverse(ElementCodec.INTEGER, directory, 64);
+      expected.sort(Collections.reverseOrder());
+      assertEquals(expected, new ArrayList<>(list));
+
+      // Equal keys keep their order, as with ArrayList.sort().
+      Comparator<Integer> byHundreds = Comparator.comparing(x -> x / 100);
+      list.externalSort(byHundreds, ElementCodec.INTEGER, directory, 64, null);
+      expected.sort(byHundreds);
+      assertEquals(expected, new ArrayList<>(list));
+  }
+
+  @Test
+  public void listNoLargerThanARun() throws IOException
+  {
+      List<Integer> expected = new ArrayList<>();
+      StoutList<Integer> list = build(50, 100, expected);
+      ExternalSortStats stats = list.externalSort(ElementCodec.INTEGER, directory, 64);
+      expected.sort(null);
+      assertEquals(expected, new ArrayList<>(list));
+      assertEquals(0, stats.bytesWritten());
+
+      StoutList<Integer> empty = new StoutList<>();
+      empty.externalSort(ElementCodec.INTEGER, directory, 64);
+      assertEquals(0, empty.size());
+      assertEquals(0, leftover());
+  }
+
+  @Test
+  public void spillingList() throws IOException
+  {
+      List<Integer> expected = new ArrayList<>();
+      StoutList<Integer> list = build(10000, 1000, expected);
+      list.enableSpill(directory.resolve("spill.bin"), ElementCodec.INTEGER, 4);
+      list.externalSort(ElementCodec.INTEGER, directory, 128);
+      expected.sort(null);
+      assertEquals(expected, new ArrayList<>(list));
+      list.disableSpill();
+      assertEquals(expected, new ArrayList<>(list));
+  }
+
+  /**
+   * Checks that a list holds the same elements as before a failed sort, in
+   * any order, and can still be changed.
+   *
+   * @param expected the elements before the sort
+   * @param list the list
+   * @throws IOException if the run directory cannot be listed
+   */
+  private void checkKept(List<Integer> expected, StoutList<Integer> list) throws IOException
+  {
+      assertEquals(expected.size(), list.size());
+      List<Integer> items = new ArrayList<>(list);
+      items.sort(null);
+      List<Integer> sorted = new ArrayList<>(expected);
+      sorted.sort(null);
+      assertEquals(sorted, items);
+      for (int i = 0; i < items.size(); i += 97) {
+          assertEquals(items.get(i), list.stream().sorted().skip(i).findFirst().get());
+      }
+      assertEquals(0, leftover());
+
+      list.add(0, -1);
+      list.add(list.size() / 2, -2);
+      assertEquals(expected.size() + 2, list.size());
+      assertEquals(-1, (int) list.get(0));
+      list.remove(0);
+      list.remove(Integer.valueOf(-2));
+  }
+
+  @Test
+  public void failuresKeepEveryElement() throws IOException
+  {
+      // 20000 elements in runs of 16 take two merge passes; the encodes
+      // fail while runs are formed or merged, the decodes while merging
+      // into runs or into the list.
+      List<Integer> expected = new ArrayList<>();
+      StoutList<Integer> list = build(20000, 50, expected);
+      for (int at : new int[] { 0, 5, 16, 7777, 19999, 20000, 30000 }) {
+          FailingCodec codec = new FailingCodec();
+          codec.failEncodeAt = at;
+          assertThrows(UncheckedIOException.class, () -> list.externalSort(null, codec, directory, 16, null));
+          checkKept(expected, list);
+      }
+      for (int at : new int[] { 0, 100, 19999, 20000, 25000, 39999 }) {
+          FailingCodec codec = new FailingCodec();
+          codec.failDecodeAt = at;
+          assertThrows(UncheckedIOException.class, () -> list.externalSort(null, codec, directory, 16, null));
+          checkKept(expected, list);
+      }
+
+      // The list sorts once nothing fails.
+      list.externalSort(ElementCodec.INTEGER, directory, 16);
+      expected.sort(null);
+      assertEquals(expected, new ArrayList<>(list));
+  }
+
+  @Test
+  public void failingConsumerOrDirectory() throws IOException
+  {
+      List<Integer> expected = new ArrayList<>();
+      StoutList<Integer> list = build(3000, 1000000, expected);
+      for (int at : new int[] { 0, 10, 29, 30 }) {
+          int[] reports = new int[1];
+          assertThrows(IllegalStateException.class, () -> list.externalSort(null, ElementCodec.INTEGER, directory, 100,
+                  stats -> {
+                      if (reports[0]++ == at) {
+                          throw new IllegalStateException();
+                      }
+                  }));
+          checkKept(expected, list);
+      }
+
+      Path missing = directory.resolve("missing");
+      assertThrows(IOException.class, () -> list.externalSort(ElementCodec.INTEGER, missing, 100));
+      checkKept(expected, list);
+  }
+
+  @Test
+  public void failureWhileSpilling() throws IOException
+  {
+      List<Integer> expected = new ArrayList<>();
+      StoutList<Integer> list = build(10000, 1000, expected);
+      Path file = directory.resolve("spill.bin");
+      list.enableSpill(file, ElementCodec.INTEGER, 4);
+      for (int at : new int[] { 3000, 15000 }) {
+          FailingCodec codec = new FailingCodec();
+          codec.failDecodeAt = at;
+          assertThrows(UncheckedIOException.class, () -> list.externalSort(null, codec, directory, 128, null));
+          // The spill file is the only file left.
+          assertEquals(expected.size(), list.size());
+          List<Integer> items = new ArrayList<>(list);
+          items.sort(null);
+          List<Integer> sorted = new ArrayList<>(expected);
+          sorted.sort(null);
+          assertEquals(sorted, items);
+      }
+      list.disableSpill();
+      assertEquals(0, leftover());
+  }
+
+  @Test
+  public void rejectsNonPositiveRunSize()
+  {
+      StoutList<Integer> list = new StoutList<>();
+      assertThrows(IllegalArgumentException.class, () -> list.externalSort(ElementCodec.INTEGER, directory, 0));
+  }
+}
@@ -0,0 +1,158 @@
+package edu.iastate.cs228.hw3;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Checks the memory-mapped lists against ArrayList, across closing and
+ * reopening their files.
+ */
+public class MappedStoutListTest
+{
+  @TempDir
+  Path directory;
+
+  /**
+   * Applies random adds, inserts, removals and replacements to a mapped list
+   * and an ArrayList alike.
+   *
+   * @param list the list to change
+   * @param expected the copy to change alike
+   * @param random the source of the changes
+   * @param steps the number of changes
+   */
+  private static void change(MappedIntStoutList list, List<Integer> expected, Random random, int steps)
+  {
+      for (int step = 0; step < steps; ++step) {
+          int op = random.nextInt(5);
+          int value = random.nextInt();
+          if (op == 0 || expected.isEmpty()) {
+              list.add(value);
+              expected.add(value);
+          }
+          else if (op == 1) {
+              int pos = random.nextInt(expected.size() + 1);
+              list.add(pos, value);
+              expected.add(pos, value);
+          }
+          else if (op == 2) {
+              int pos = random.nextInt(expected.size());
+              assertEquals((int) expected.remove(pos), list.removeInt(pos));
+          }
+          else if (op == 3) {
+              int pos = random.nextInt(expected.size());
+              assertEquals((int) expected.set(pos, value), list.setInt(pos, value));
+          }
+          else {
+              int pos = random.nextInt(expected.size());
+              assertEquals((int) expected.get(pos), list.getInt(pos));
+          }
+      }
+  }
+
+  /**
+   * Returns the values of a mapped list, read through its iterator.
+   *
+   * @param list the list
+   * @return the values in order
+   */
+  private static List<Integer> values(MappedIntStoutList list)
+  {
+      List<Integer> result = new ArrayList<>();
+      PrimitiveIterator.OfInt iter = list.iterator();
+      while (iter.hasNext()) {
+          result.add(iter.nextInt());
+      }
+      return result;
+  }
+
+  @Test
+  public void survivesReopening() throws IOException
+  {
+      Path file = directory.resolve("ints.bin");
+      Random random = new Random(1);
+      List<Integer> expected = new ArrayList<>();
+      for (int round = 0; round < 4; ++round) {
+          try (MappedIntStoutList list = new MappedIntStoutList(file, 8)) {
+              assertEquals(expected.size(), list.size());
+              assertEquals(expected, values(list));
+              change(list, expected, random, 5000);
+              assertEquals(expected, list.stream().boxed().collect(Collectors.toList()));
+          }
+      }
+
+      try (MappedIntStoutList list = new MappedIntStoutList(file, 8)) {
+          assertEquals(expected.toString(), list.toString());
+          list.clear();
+          expected.clear();
+          change(list, expected, random, 1000);
+      }
+      try (MappedIntStoutList list = new MappedIntStoutList(file, 8)) {
+          assertEquals(expected, values(list));
+      }
+  }
+
+  @Test
+  public void longAndDoubleValuesKeepTheirBits() throws IOException
+  {
+      Path longs = directory.resolve("longs.bin");
+      Path doubles = directory.resolve("doubles.bin");
+      double[] special = { -0.0, 0.0, Double.NaN, Double.MIN_VALUE, Double.NEGATIVE_INFINITY, 1.5 };
+      try (MappedLongStoutList longList = new MappedLongStoutList(longs, 4);
+              MappedDoubleStoutList doubleList = new MappedDoubleStoutList(doubles, 4)) {
+          for (int i = 0; i < 100; ++i) {
+              longList.add(0, Long.MIN_VALUE + i);
+              doubleList.add(special[i % special.length]);
+          }
+          assertEquals(Long.MIN_VALUE + 99, longList.setLong(0, -1L));
+          assertEquals(1.5, doubleList.removeDouble(5));
+      }
+
+      try (MappedLongStoutList longList = new MappedLongStoutList(longs, 4);
+              MappedDoubleStoutList doubleList = new MappedDoubleStoutList(doubles, 4)) {
+          assertEquals(-1L, longList.getLong(0));
+          assertEquals(Long.MIN_VALUE, longList.getLong(99));
+          assertEquals(99, doubleList.size());
+          for (int i = 0; i < 5; ++i) {
+              assertEquals(Double.doubleToRawLongBits(special[i]),
+                      Double.doubleToRawLongBits(doubleList.getDouble(i)));
+          }
+          assertTrue(doubleList.toStringInternal().startsWith("[(-0.0, 0.0, NaN, 4.9E-324), "));
+          assertEquals(99, doubleList.stream().count());
+      }
+  }
+
+  @Test
+  public void rejectsAnotherKindOrNodeSize() throws IOException
+  {
+      Path file = directory.resolve("ints.bin");
+      try (MappedIntStoutList list = new MappedIntStoutList(file, 8)) {
+          list.add(1);
+      }
+      assertThrows(IOException.class, () -> new MappedLongStoutList(file, 8));
+      assertThrows(IllegalArgumentException.class, () -> new MappedIntStoutList(file, 4));
+      assertThrows(IllegalArgumentException.class, () -> new MappedIntStoutList(directory.resolve("odd.bin"), 3));
+  }
+
+  @Test
+  public void rejectsUseAfterClose() throws IOException
+  {
+      MappedIntStoutList list = new MappedIntStoutList(directory.resolve("ints.bin"), 4);
+      list.add(1);
+      assertThrows(IndexOutOfBoundsException.class, () -> list.getInt(1));
+      list.close();
+      assertThrows(IllegalStateException.class, () -> list.getInt(0));
+  }
+}
@@ -0,0 +1,159 @@
+package edu.iastate.cs228.hw3;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks parallelSort() against sort() and ArrayList.sort() on random,
+ * duplicate-heavy and already sorted input, above and below the sequential
+ * threshold.  Elements carry their insertion sequence so that stability is
+ * checked as well as order.
+ */
+public class ParallelSortTest
+{
+  /**
+   * Threshold small enough that the test lists are split into many tasks.
+   */
+  private static final int THRESHOLD = 64;
+
+  /**
+   * Element ordered by key only, so equal keys expose unstable sorts.
+   */
+  static final class Keyed implements Comparable<Keyed>
+  {
+    final int key;
+    final int seq;
+
+    Keyed(int key, int seq)
+    {
+      this.key = key;
+      this.seq = seq;
+    }
+
+    @Override
+    public int compareTo(Keyed other) { return Integer.compare(key, other.key); }
+
+    @Override
+    public boolean equals(Object o)
+    {
+      return o instanceof Keyed && ((Keyed) o).key == key && ((Keyed) o).seq == seq;
+    }
+
+    @Override
+    public int hashCode() { return 31 * key + seq; }
+
+    @Override
+    public String toString() { return key + "#" + seq; }
+  }
+
+  /**
+   * Builds the same elements into a stout list and an ArrayList.
+   *
+   * @param keys the keys, in list order
+   * @param nodeSize the node size of the stout list
+   * @param expected receives the elements
+   * @return the stout list
+   */
+  private static StoutList<Keyed> build(int[] keys, int nodeSize, List<Keyed> expected)
+  {
+      StoutList<Keyed> list = new StoutList<>(nodeSize);
+      for (int i = 0; i < keys.length; ++i) {
+          Keyed item = new Keyed(keys[i], i);
+          list.add(item);
+          expected.add(item);
+      }
+      return list;
+  }
+
+  /**
+   * Sorts the keys three ways, by parallelSort(), sort() and ArrayList.sort(),
+   * and checks that all three agree.
+   *
+   * @param keys the keys to sort
+   * @param comp the comparator, or null for natural order
+   */
+  private static void check(int[] keys, Comparator<? super Keyed> comp)
+  {
+      for (int nodeSize : new int[] { 2, 4, 16 }) {
+          List<Keyed> expected = new ArrayList<>();
+          StoutList<Keyed> parallel = build(keys, nodeSize, expected);
+          StoutList<Keyed> sequential = build(keys, nodeSize, new ArrayList<>());
+
+          expected.sort(comp);
+          parallel.parallelSort(comp, THRESHOLD);
+          sequential.sort(comp);
+
+          assertEquals(expected, new ArrayList<>(parallel));
+          assertEquals(expected, new ArrayList<>(sequential));
+          assertEquals(keys.length, parallel.size());
+          for (int i = 0; i < keys.length; i += 97) {
+              assertEquals(expected.get(i), parallel.get(i));
+          }
+      }
+  }
+
+  @Test
+  public void randomInput()
+  {
+      Random random = new Random(3);
+      int[] keys = random.ints(20000, 0, 1000000).toArray();
+      check(keys, null);
+      check(keys, Comparator.reverseOrder());
+  }
+
+  @Test
+  public void duplicateHeavyInput()
+  {
+      Random random = new Random(4);
+      int[] keys = random.ints(20000, 0, 5).toArray();
+      check(keys, null);
+      check(keys, Comparator.reverseOrder());
+  }
+
+  @Test
+  public void alreadySortedInput()
+  {
+      int[] ascending = new int[10000];
+      int[] descending = new int[10000];
+      for (int i = 0; i < ascending.length; ++i) {
+          ascending[i] = i / 3;
+          descending[i] = (ascending.length - i) / 3;
+      }
+      check(ascending, null);
+      check(descending, null);
+  }
+
+  @Test
+  public void belowThreshold()
+  {
+      Random random = new Random(5);
+      check(random.ints(THRESHOLD - 1, 0, 10).toArray(), null);
+      check(new int[] { 7 }, null);
+      check(new int[0], null);
+  }
+
+  @Test
+  public void defaultThreshold()
+  {
+      Random random = new Random(6);
+      List<Keyed> expected = new ArrayList<>();
+      StoutList<Keyed> list = build(random.ints(50000, 0, 100).toArray(), 8, expected);
+      expected.sort(null);
+      list.parallelSort();
+      assertEquals(expected, new ArrayList<>(list));
+  }
+
+  @Test
+  public void rejectsNonPositiveThreshold()
+  {
+      StoutList<Keyed> list = new StoutList<>();
+      assertThrows(IllegalArgumentException.class, () -> list.parallelSort(null, 0));
+  }
+}
@@ -0,0 +1,160 @@
+package edu.iastate.cs228.hw3;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks positional access through the order-statistics index against
+ * ArrayList, and that lookups stay logarithmic in the number of nodes.
+ */
+public class PositionalIndexTest
+{
+  /**
+   * Checks that every node but the first and the last is at least half full.
+   *
+   * @param list the list to check
+   */
+  private static void checkFill(StoutList<Integer> list)
+  {
+      list.setStatsEnabled(true);
+      StoutListStats stats = list.stats();
+      long sparse = 0;
+      for (int count = 0; count < stats.nodeSize() / 2; ++count) {
+          sparse += stats.occupancy(count);
+      }
+      assertTrue(sparse <= 2, list.toStringInternal());
+      list.setStatsEnabled(false);
+  }
+
+  /**
+   * Applies random positional operations to the list and an ArrayList alike.
+   *
+   * @param list the list to run on, empty
+   * @param seed the seed of the operations
+   */
+  private static void run(StoutList<Integer> list, long seed)
+  {
+      Random random = new Random(seed);
+      List<Integer> expected = new ArrayList<>();
+      for (int step = 0; step < 30000; ++step) {
+          int size = expected.size();
+          int op = random.nextInt(10);
+          int value = random.nextInt(1000);
+          // Grow for the first half of the run and shrink for the second.
+          boolean grow = step < 15000 ? op < 5 : op < 3;
+          if (grow || size == 0) {
+              int pos = random.nextInt(size + 1);
+              list.add(pos, value);
+              expected.add(pos, value);
+          }
+          else if (op < 7) {
+              int pos = random.nextInt(size);
+              assertEquals(expected.remove(pos), list.remove(pos));
+          }
+          else if (op < 8) {
+              int pos = random.nextInt(size);
+              assertEquals(expected.set(pos, value), list.set(pos, value));
+          }
+          else {
+              int pos = random.nextInt(size);
+              assertEquals(expected.get(pos), list.get(pos));
+          }
+          assertEquals(expected.size(), list.size());
+          if (step % 5000 == 0) {
+              assertEquals(expected, new ArrayList<>(list));
+              checkFill(list);
+          }
+      }
+      assertEquals(expected, new ArrayList<>(list));
+      checkFill(list);
+  }
+
+  @Test
+  public void matchesArrayList()
+  {
+      run(new StoutList<>(2), 1);
+      run(new StoutList<>(4), 2);
+      run(new StoutList<>(64), 3);
+  }
+
+  @Test
+  public void matchesArrayListInCircularNodes()
+  {
+      run(new StoutList<>(4, true), 4);
+      run(new StoutList<>(32, true), 5);
+  }
+
+  @Test
+  public void listIteratorFromAnyPosition()
+  {
+      Random random = new Random(6);
+      StoutList<Integer> list = new StoutList<>(4);
+      List<Integer> expected = new ArrayList<>();
+      for (int i = 0; i < 2000; ++i) {
+          list.add(i);
+          expected.add(i);
+      }
+      for (int round = 0; round < 200; ++round) {
+          int pos = random.nextInt(expected.size() + 1);
+          ListIterator<Integer> iter = list.listIterator(pos);
+          ListIterator<Integer> expectedIter = expected.listIterator(pos);
+          for (int step = 0; step < 10; ++step) {
+              assertEquals(expectedIter.nextIndex(), iter.nextIndex());
+              if (random.nextBoolean() && expectedIter.hasPrevious()) {
+                  assertEquals(expectedIter.previous(), iter.previous());
+              }
+              else if (expectedIter.hasNext()) {
+                  assertEquals(expectedIter.next(), iter.next());
+                  if (random.nextInt(3) == 0) {
+                      iter.remove();
+                      expectedIter.remove();
+                  }
+              }
+              else {
+                  iter.add(-round);
+                  expectedIter.add(-round);
+              }
+          }
+      }
+      assertEquals(expected, new ArrayList<>(list));
+  }
+
+  @Test
+  public void lookupsStayLogarithmic()
+  {
+      StoutList<Integer> list = new StoutList<>(4);
+      Random random = new Random(7);
+      for (int i = 0; i < 200000; ++i) {
+          list.add(random.nextInt(list.size() + 1), i);
+      }
+      list.setStatsEnabled(true);
+      for (int i = 0; i < 20000; ++i) {
+          list.get(random.nextInt(list.size()));
+      }
+      StoutListStats stats = list.stats();
+      double log2Nodes = Math.log(stats.nodes()) / Math.log(2);
+      assertTrue(stats.averageLookupSteps() < 2 * log2Nodes, stats.toString());
+      assertTrue(stats.maxLookupSteps() < 4 * log2Nodes, stats.toString());
+  }
+
+  @Test
+  public void rejectsBadPositions()
+  {
+      StoutList<Integer> list = new StoutList<>(4);
+      assertThrows(IndexOutOfBoundsException.class, () -> list.get(0));
+      assertThrows(IndexOutOfBoundsException.class, () -> list.add(1, 1));
+      list.add(1);
+      assertThrows(IndexOutOfBoundsException.class, () -> list.get(-1));
+      assertThrows(IndexOutOfBoundsException.class, () -> list.set(1, 2));
+      assertThrows(IndexOutOfBoundsException.class, () -> list.remove(1));
+      assertThrows(IllegalArgumentException.class, () -> new StoutList<Integer>(3));
+  }
+}
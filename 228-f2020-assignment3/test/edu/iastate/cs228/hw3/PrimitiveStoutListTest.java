@@ -0,0 +1,203 @@
+package edu.iastate.cs228.hw3;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks IntStoutList, LongStoutList and DoubleStoutList against ArrayList,
+ * including sorts of lists whose nodes are only partly full.
+ */
+public class PrimitiveStoutListTest
+{
+  /**
+   * Applies random adds, inserts, removals and replacements to an
+   * IntStoutList and an ArrayList alike.
+   *
+   * @param list the list to change
+   * @param expected the copy to change alike
+   * @param random the source of the changes
+   * @param steps the number of changes
+   */
+  private static void change(IntStoutList list, List<Integer> expected, Random random, int steps)
+  {
+      for (int step = 0; step < steps; ++step) {
+          int op = random.nextInt(5);
+          int value = random.nextInt(1000) - 500;
+          if (op == 0 || expected.isEmpty()) {
+              list.add(value);
+              expected.add(value);
+          }
+          else if (op == 1) {
+              int pos = random.nextInt(expected.size() + 1);
+              list.add(pos, value);
+              expected.add(pos, value);
+          }
+          else if (op == 2) {
+              int pos = random.nextInt(expected.size());
+              assertEquals((int) expected.remove(pos), list.removeInt(pos));
+          }
+          else if (op == 3) {
+              int pos = random.nextInt(expected.size());
+              assertEquals((int) expected.set(pos, value), list.setInt(pos, value));
+          }
+          else {
+              int pos = random.nextInt(expected.size());
+              assertEquals((int) expected.get(pos), list.getInt(pos));
+          }
+      }
+  }
+
+  /**
+   * Returns the values of an IntStoutList, read through its iterator.
+   *
+   * @param list the list
+   * @return the values in order
+   */
+  private static List<Integer> values(IntStoutList list)
+  {
+      List<Integer> result = new ArrayList<>();
+      PrimitiveIterator.OfInt iter = list.iterator();
+      while (iter.hasNext()) {
+          result.add(iter.nextInt());
+      }
+      return result;
+  }
+
+  @Test
+  public void intListMatchesArrayList()
+  {
+      Random random = new Random(1);
+      IntStoutList list = new IntStoutList(4);
+      List<Integer> expected = new ArrayList<>();
+      change(list, expected, random, 20000);
+
+      assertEquals(expected.size(), list.size());
+      assertEquals(expected, values(list));
+      assertEquals(expected, list.stream().boxed().collect(Collectors.toList()));
+      assertArrayEquals(expected.stream().mapToInt(Integer::intValue).toArray(), list.toArray());
+  }
+
+  @Test
+  public void sortsMergeNodeRuns()
+  {
+      for (int nodeSize : new int[] { 2, 4, 16 }) {
+          for (int n : new int[] { 0, 1, 3, 17, 100, 1001 }) {
+              Random random = new Random(n * 31 + nodeSize);
+              IntStoutList list = new IntStoutList(nodeSize);
+              List<Integer> expected = new ArrayList<>();
+              // Removals leave the nodes partly full before the sort.
+              change(list, expected, random, 3 * n);
+
+              list.sort();
+              expected.sort(null);
+              assertEquals(expected, values(list));
+
+              list.sortReverse();
+              expected.sort(Collections.reverseOrder());
+              assertEquals(expected, values(list));
+
+              // The list stays usable, with full nodes after the sort.
+              change(list, expected, random, n);
+              assertEquals(expected, values(list));
+          }
+      }
+  }
+
+  @Test
+  public void sortFillsTheNodes()
+  {
+      IntStoutList list = new IntStoutList(4);
+      for (int i = 0; i < 20; ++i) {
+          list.add(i % 7);
+      }
+      for (int i = 0; i < 10; i += 3) {
+          list.removeInt(i);
+          list.removeInt(i);
+      }
+      assertEquals("[(2, 3, -, -), (4, 0, -, -), (1, 2, -, -), (5, 6, 0, -), (3, 4, 5, -)]",
+              list.toStringInternal());
+
+      list.sort();
+      assertEquals("[(0, 0, 1, 2), (2, 3, 3, 4), (4, 5, 5, 6)]", list.toStringInternal());
+      list.sortReverse();
+      assertEquals("[(6, 5, 5, 4), (4, 3, 3, 2), (2, 1, 0, 0)]", list.toStringInternal());
+      list.removeInt(0);
+      list.sort();
+      assertEquals("[(0, 0, 1, 2), (2, 3, 3, 4), (4, 5, 5, -)]", list.toStringInternal());
+  }
+
+  @Test
+  public void longListSortsAndIterates()
+  {
+      Random random = new Random(2);
+      LongStoutList list = new LongStoutList(8);
+      List<Long> expected = new ArrayList<>();
+      for (int i = 0; i < 5000; ++i) {
+          long value = random.nextLong();
+          int pos = random.nextInt(expected.size() + 1);
+          list.add(pos, value);
+          expected.add(pos, value);
+      }
+      for (int i = 0; i < 1000; ++i) {
+          int pos = random.nextInt(expected.size());
+          assertEquals((long) expected.remove(pos), list.removeLong(pos));
+      }
+
+      list.sortReverse();
+      expected.sort(Collections.reverseOrder());
+      assertEquals(expected, list.stream().boxed().collect(Collectors.toList()));
+      assertEquals((long) expected.get(1234), list.getLong(1234));
+      assertEquals((long) expected.set(7, 1L), list.setLong(7, 1L));
+  }
+
+  @Test
+  public void doubleListSortsLikeDoubleCompare()
+  {
+      DoubleStoutList list = new DoubleStoutList(4);
+      double[] values = { 3.5, Double.NaN, -0.0, 0.0, -1.0, Double.NEGATIVE_INFINITY, 0.0, -0.0, 2.0 };
+      List<Double> expected = new ArrayList<>();
+      for (double value : values) {
+          list.add(value);
+          expected.add(value);
+      }
+
+      list.sort();
+      expected.sort(null);
+      assertEquals(expected, list.stream().boxed().collect(Collectors.toList()));
+
+      list.sortReverse();
+      expected.sort(Collections.reverseOrder());
+      assertEquals(expected, list.stream().boxed().collect(Collectors.toList()));
+      assertEquals(Double.NaN, list.getDouble(0));
+      assertEquals(Double.NEGATIVE_INFINITY, list.removeDouble(list.size() - 1));
+  }
+
+  @Test
+  public void rejectsBadPositions()
+  {
+      IntStoutList list = new IntStoutList();
+      assertThrows(IndexOutOfBoundsException.class, () -> list.getInt(0));
+      assertThrows(IndexOutOfBoundsException.class, () -> list.add(1, 5));
+      list.add(5);
+      assertThrows(IndexOutOfBoundsException.class, () -> list.setInt(1, 5));
+      assertThrows(IndexOutOfBoundsException.class, () -> list.removeInt(-1));
+      assertThrows(IllegalArgumentException.class, () -> new IntStoutList(3));
+
+      PrimitiveIterator.OfInt iter = list.iterator();
+      iter.nextInt();
+      assertFalse(iter.hasNext());
+      assertThrows(NoSuchElementException.class, iter::nextInt);
+  }
+}
@@ -0,0 +1,190 @@
+package edu.iastate.cs228.hw3;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the single-pass removeIf(), removeAll() and retainAll() on a plain
+ * StoutList against ArrayList, and that they leave the nodes packed.
+ */
+public class RemoveIfTest
+{
+  /**
+   * Builds a list and an ArrayList of the same integers by random inserts
+   * and removals, so the nodes are partly full and, in circular nodes, the
+   * elements wrap past the end of the arrays.
+   *
+   * @param nodeSize the node size of the list
+   * @param circular whether the list uses circular nodes
+   * @param n the number of inserts
+   * @param random the source of the changes
+   * @param expected receives the elements
+   * @return the list
+   */
+  private static StoutList<Integer> build(int nodeSize, boolean circular, int n, Random random, List<Integer> expected)
+  {
+      StoutList<Integer> list = new StoutList<>(nodeSize, circular);
+      for (int i = 0; i < n; ++i) {
+          int value = random.nextInt(n);
+          if (random.nextInt(3) == 0) {
+              list.addFirst(value);
+              expected.add(0, value);
+          }
+          else {
+              int pos = random.nextInt(expected.size() + 1);
+              list.add(pos, value);
+              expected.add(pos, value);
+          }
+          if (i % 3 == 0) {
+              int pos = random.nextInt(expected.size());
+              assertEquals(expected.remove(pos), list.remove(pos));
+          }
+      }
+      return list;
+  }
+
+  /**
+   * Checks a list against its copy after a removal, and through
+   * toStringInternal() that every node but the last is full.
+   *
+   * @param expected the copy
+   * @param list the list
+   */
+  private static void checkPacked(List<Integer> expected, StoutList<Integer> list)
+  {
+      assertEquals(expected.size(), list.size());
+      assertEquals(expected, new ArrayList<>(list));
+      for (int i = 0; i < expected.size(); i += 7) {
+          assertEquals(expected.get(i), list.get(i));
+      }
+
+      String internal = list.toStringInternal();
+      if (expected.isEmpty()) {
+          assertEquals("[]", internal);
+          return;
+      }
+      String[] nodes = internal.substring(2, internal.length() - 2).split("\\), \\(");
+      for (int k = 0; k < nodes.length; ++k) {
+          String[] slots = nodes[k].split(", ");
+          int count = 0;
+          while (count < slots.length && !slots[count].equals("-")) {
+              ++count;
+          }
+          assertTrue(k == nodes.length - 1 ? count > 0 : count == slots.length, internal);
+      }
+  }
+
+  /**
+   * Applies a removal to a fresh list and ArrayList and compares the
+   * results.
+   *
+   * @param nodeSize the node size of the list
+   * @param circular whether the list uses circular nodes
+   * @param seed the seed of the list's contents
+   * @param filter the elements to remove
+   */
+  private static void removeIf(int nodeSize, boolean circular, long seed, Predicate<Integer> filter)
+  {
+      List<Integer> expected = new ArrayList<>();
+      StoutList<Integer> list = build(nodeSize, circular, 3000, new Random(seed), expected);
+      String before = list.toStringInternal();
+      boolean changed = expected.removeIf(filter);
+      assertEquals(changed, list.removeIf(filter));
+      if (changed) {
+          checkPacked(expected, list);
+      }
+      else {
+          // Nothing removed, so the nodes are left as they were.
+          assertEquals(before, list.toStringInternal());
+      }
+
+      // The list stays usable, with the index rebuilt.
+      Random random = new Random(seed);
+      for (int i = 0; i < 300; ++i) {
+          int pos = random.nextInt(expected.size() + 1);
+          list.add(pos, -i);
+          expected.add(pos, -i);
+      }
+      assertEquals(expected, new ArrayList<>(list));
+  }
+
+  @Test
+  public void removeIfMatchesArrayList()
+  {
+      for (int nodeSize : new int[] { 2, 4, 16 }) {
+          for (boolean circular : new boolean[] { false, true }) {
+              long seed = nodeSize + (circular ? 100 : 0);
+              removeIf(nodeSize, circular, seed, x -> x % 2 == 0);
+              removeIf(nodeSize, circular, seed, x -> x % 5 != 0);
+              removeIf(nodeSize, circular, seed, x -> x < 1500);
+              // Remove nothing, everything, and all but one element.
+              removeIf(nodeSize, circular, seed, x -> x < 0);
+              removeIf(nodeSize, circular, seed, x -> true);
+              List<Integer> expected = new ArrayList<>();
+              build(nodeSize, circular, 3000, new Random(seed), expected);
+              int kept = expected.get(expected.size() / 2);
+              removeIf(nodeSize, circular, seed, x -> x != kept);
+          }
+      }
+  }
+
+  @Test
+  public void removeAllAndRetainAllMatchArrayList()
+  {
+      for (boolean circular : new boolean[] { false, true }) {
+          Random random = new Random(circular ? 1 : 2);
+          List<Integer> expected = new ArrayList<>();
+          StoutList<Integer> list = build(8, circular, 3000, random, expected);
+
+          Collection<Integer> some = new HashSet<>();
+          for (int i = 0; i < 500; ++i) {
+              some.add(random.nextInt(3000));
+          }
+          assertEquals(expected.removeAll(some), list.removeAll(some));
+          checkPacked(expected, list);
+          assertEquals(expected.removeAll(some), list.removeAll(some));
+
+          some.clear();
+          for (int i = 0; i < 1500; ++i) {
+              some.add(random.nextInt(3000));
+          }
+          assertEquals(expected.retainAll(some), list.retainAll(some));
+          checkPacked(expected, list);
+          assertEquals(expected.retainAll(some), list.retainAll(some));
+
+          assertEquals(expected.retainAll(Arrays.asList()), list.retainAll(Arrays.asList()));
+          checkPacked(expected, list);
+      }
+  }
+
+  @Test
+  public void throwingPredicateLeavesTheListAlone()
+  {
+      List<Integer> expected = new ArrayList<>();
+      StoutList<Integer> list = build(4, true, 500, new Random(3), expected);
+      String before = list.toStringInternal();
+      int[] tested = new int[1];
+      assertThrows(IllegalStateException.class, () -> list.removeIf(x -> {
+          if (++tested[0] == 300) {
+              throw new IllegalStateException();
+          }
+          return x % 2 == 0;
+      }));
+      assertEquals(before, list.toStringInternal());
+      assertThrows(NullPointerException.class, () -> list.removeIf(null));
+      assertThrows(NullPointerException.class, () -> list.removeAll(null));
+      assertThrows(NullPointerException.class, () -> list.retainAll(null));
+      assertEquals(expected, new ArrayList<>(list));
+  }
+}
@@ -0,0 +1,270 @@
+package edu.iastate.cs228.hw3;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that snapshots keep the contents the list had when they were taken
+ * while the list goes on changing, compared against ArrayList copies.
+ */
+public class SnapshotTest
+{
+  /**
+   * Checks every snapshot against the copy taken with it, by get(),
+   * iteration and forEach().
+   *
+   * @param snapshots the snapshots
+   * @param expected the copies, in the same order
+   */
+  private static void checkAll(List<List<Integer>> snapshots, List<List<Integer>> expected)
+  {
+      for (int i = 0; i < snapshots.size(); ++i) {
+          List<Integer> snapshot = snapshots.get(i);
+          List<Integer> copy = expected.get(i);
+          assertEquals(copy.size(), snapshot.size());
+          assertEquals(copy, new ArrayList<>(snapshot));
+          List<Integer> seen = new ArrayList<>();
+          snapshot.forEach(seen::add);
+          assertEquals(copy, seen);
+          for (int pos = 0; pos < copy.size(); pos += 7) {
+              assertEquals(copy.get(pos), snapshot.get(pos));
+          }
+      }
+  }
+
+  /**
+   * Applies one random change to the list and the same change to the copy.
+   *
+   * @param random the source of the change
+   * @param list the list to change
+   * @param expected the copy to change alike
+   */
+  private static void change(Random random, StoutList<Integer> list, List<Integer> expected)
+  {
+      int size = expected.size();
+      int pos = random.nextInt(size + 1);
+      int value = random.nextInt(1000);
+      switch (random.nextInt(14)) {
+      case 0:
+          list.add(value);
+          expected.add(value);
+          break;
+      case 1:
+      case 2:
+          list.add(pos, value);
+          expected.add(pos, value);
+          break;
+      case 3:
+      case 4:
+          if (pos < size) {
+              assertEquals(expected.remove(pos), list.remove(pos));
+          }
+          break;
+      case 5:
+          if (pos < size) {
+              assertEquals(expected.set(pos, value), list.set(pos, value));
+          }
+          break;
+      case 6:
+          list.addFirst(value);
+          expected.add(0, value);
+          assertEquals(expected.get(expected.size() - 1), list.pollLast());
+          expected.remove(expected.size() - 1);
+          break;
+      case 7:
+          assertEquals(size == 0 ? null : expected.remove(0), list.pollFirst());
+          break;
+      case 8: {
+          ListIterator<Integer> iter = list.listIterator(pos);
+          ListIterator<Integer> expectedIter = expected.listIterator(pos);
+          for (int step = 0; step < 6 && expectedIter.hasNext(); ++step) {
+              assertEquals(expectedIter.next(), iter.next());
+              if (step % 3 == 0) {
+                  iter.set(value);
+                  expectedIter.set(value);
+              }
+              else if (step % 3 == 1) {
+                  iter.remove();
+                  expectedIter.remove();
+              }
+              else {
+                  iter.add(value);
+                  expectedIter.add(value);
+              }
+          }
+          break;
+      }
+      case 9: {
+          List<Integer> items = new ArrayList<>();
+          int count = random.nextBoolean() ? random.nextInt(5) : random.nextInt(200);
+          for (int i = 0; i < count; ++i) {
+              items.add(random.nextInt(1000));
+          }
+          list.addAll(pos, items);
+          expected.addAll(pos, items);
+          break;
+      }
+      case 10: {
+          StoutList<Integer> rest = list.splitAt(pos);
+          if (rest.size() > 0) {
+              rest.set(0, value);
+              expected.set(pos, value);
+          }
+          list.concat(rest);
+          break;
+      }
+      case 11: {
+          int to = pos + random.nextInt(Math.min(size - pos, 20) + 1);
+          list.subList(pos, to).clear();
+          expected.subList(pos, to).clear();
+          break;
+      }
+      case 12:
+          list.trimToSize();
+          if (random.nextInt(10) == 0) {
+              list.compact();
+          }
+          break;
+      default:
+          if (random.nextInt(10) == 0) {
+              list.removeIf(x -> x % 5 == 0);
+              expected.removeIf(x -> x % 5 == 0);
+          }
+          break;
+      }
+  }
+
+  /**
+   * Changes a list at random, taking snapshots now and then, and checks the
+   * list and every snapshot against ArrayList copies.
+   *
+   * @param list the list to run on, empty
+   * @param seed the seed of the changes
+   */
+  private static void run(StoutList<Integer> list, long seed)
+  {
+      Random random = new Random(seed);
+      List<Integer> expected = new ArrayList<>();
+      List<List<Integer>> snapshots = new ArrayList<>();
+      List<List<Integer>> copies = new ArrayList<>();
+      for (int i = 0; i < 500; ++i) {
+          list.add(i);
+          expected.add(i);
+      }
+
+      for (int step = 0; step < 4000; ++step) {
+          if (random.nextInt(40) == 0) {
+              snapshots.add(list.snapshot());
+              copies.add(new ArrayList<>(expected));
+          }
+          change(random, list, expected);
+          assertEquals(expected.size(), list.size());
+          if (step % 250 == 0) {
+              assertEquals(expected, new ArrayList<>(list));
+              checkAll(snapshots, copies);
+          }
+      }
+      assertEquals(expected, new ArrayList<>(list));
+      checkAll(snapshots, copies);
+
+      list.sort();
+      expected.sort(null);
+      assertEquals(expected, new ArrayList<>(list));
+      checkAll(snapshots, copies);
+  }
+
+  @Test
+  public void snapshotsKeepTheirContents()
+  {
+      run(new StoutList<>(4), 1);
+      run(new StoutList<>(16), 2);
+  }
+
+  @Test
+  public void snapshotsKeepTheirContentsInCircularNodes()
+  {
+      run(new StoutList<>(8, true), 3);
+  }
+
+  @Test
+  public void snapshotsKeepTheirContentsWithCompactionAndAdaptiveSizing()
+  {
+      StoutList<Integer> list = new StoutList<>(4);
+      list.setIncrementalCompaction(true);
+      list.setAdaptiveNodeSize(true);
+      run(list, 4);
+  }
+
+  @Test
+  public void snapshotIsReusedUntilTheNextWrite()
+  {
+      StoutList<Integer> list = new StoutList<>(4);
+      list.addAll(Arrays.asList(1, 2, 3, 4, 5));
+      List<Integer> first = list.snapshot();
+      assertSame(first, list.snapshot());
+
+      list.get(2);
+      assertSame(first, list.snapshot());
+
+      list.set(2, 30);
+      List<Integer> second = list.snapshot();
+      assertNotSame(first, second);
+      assertEquals(Arrays.asList(1, 2, 3, 4, 5), first);
+      assertEquals(Arrays.asList(1, 2, 30, 4, 5), second);
+  }
+
+  @Test
+  public void snapshotIsUnmodifiable()
+  {
+      StoutList<Integer> list = new StoutList<>(4);
+      list.add(1);
+      List<Integer> snapshot = list.snapshot();
+      assertThrows(UnsupportedOperationException.class, () -> snapshot.add(2));
+      assertThrows(UnsupportedOperationException.class, () -> snapshot.set(0, 2));
+      assertThrows(IndexOutOfBoundsException.class, () -> snapshot.get(1));
+  }
+
+  @Test
+  public void snapshotOfSplitOffPartSurvivesConcat()
+  {
+      StoutList<Integer> list = new StoutList<>(4);
+      List<Integer> expected = new ArrayList<>();
+      for (int i = 0; i < 200; ++i) {
+          list.add(i);
+          expected.add(i);
+      }
+      List<Integer> whole = list.snapshot();
+
+      StoutList<Integer> rest = list.splitAt(100);
+      List<Integer> part = rest.snapshot();
+      list.concat(rest);
+      for (int i = 0; i < 200; i += 3) {
+          list.set(i, -i);
+      }
+      list.remove(150);
+      list.add(120, 7);
+
+      assertEquals(expected, whole);
+      assertEquals(expected.subList(100, 200), part);
+  }
+
+  @Test
+  public void emptySnapshot()
+  {
+      StoutList<Integer> list = new StoutList<>(4);
+      List<Integer> snapshot = list.snapshot();
+      list.add(1);
+      assertEquals(0, snapshot.size());
+      assertEquals(new ArrayList<>(), new ArrayList<>(snapshot));
+  }
+}
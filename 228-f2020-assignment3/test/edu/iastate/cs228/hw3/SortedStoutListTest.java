@@ -0,0 +1,177 @@
+package edu.iastate.cs228.hw3;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks SortedStoutList against an ArrayList kept in order by linear scans,
+ * including the order of equal elements and the navigation methods.
+ */
+public class SortedStoutListTest
+{
+  /**
+   * Returns the position of the first element of a sorted list not before
+   * the key, or of the first element after it, found by a linear scan.
+   *
+   * @param list the sorted list
+   * @param key the key
+   * @param order the order of the list
+   * @param after whether to skip the elements equal to the key
+   * @return the position
+   */
+  private static int scan(List<Integer> list, int key, Comparator<Integer> order, boolean after)
+  {
+      int pos = 0;
+      while (pos < list.size() && order.compare(list.get(pos), key) < (after ? 1 : 0)) {
+          ++pos;
+      }
+      return pos;
+  }
+
+  /**
+   * Adds, removes and searches at random in a sorted list and an ArrayList
+   * kept in the same order.
+   *
+   * @param list the list to run on, empty
+   * @param order the order of the list
+   * @param seed the seed of the operations
+   */
+  private static void run(SortedStoutList<Integer> list, Comparator<Integer> order, long seed)
+  {
+      Random random = new Random(seed);
+      List<Integer> expected = new ArrayList<>();
+      for (int step = 0; step < 6000; ++step) {
+          int value = random.nextInt(2000);
+          int op = random.nextInt(10);
+          if (op < 4 || expected.isEmpty()) {
+              list.add(value);
+              expected.add(scan(expected, value, order, true), value);
+          }
+          else if (op == 4) {
+              int pos = scan(expected, value, order, false);
+              boolean found = pos < expected.size() && order.compare(expected.get(pos), value) == 0;
+              if (found) {
+                  expected.remove(pos);
+              }
+              assertEquals(found, list.remove((Object) value));
+          }
+          else if (op == 5) {
+              int pos = random.nextInt(expected.size());
+              assertEquals(expected.remove(pos), list.remove(pos));
+          }
+          else if (op == 6) {
+              int first = scan(expected, value, order, false);
+              int last = scan(expected, value, order, true) - 1;
+              assertEquals(first <= last ? first : -1, list.indexOf(value));
+              assertEquals(first <= last ? last : -1, list.lastIndexOf(value));
+              assertEquals(first <= last, list.contains(value));
+          }
+          else if (op == 7) {
+              int low = scan(expected, value, order, false);
+              int high = scan(expected, value, order, true);
+              assertEquals(low == 0 ? null : expected.get(low - 1), list.lower(value));
+              assertEquals(high == 0 ? null : expected.get(high - 1), list.floor(value));
+              assertEquals(low == expected.size() ? null : expected.get(low), list.ceiling(value));
+              assertEquals(high == expected.size() ? null : expected.get(high), list.higher(value));
+          }
+          else if (op == 8) {
+              int other = value + random.nextInt(300);
+              int low = order.compare(value, other) <= 0 ? value : other;
+              int high = low == value ? other : value;
+              int from = scan(expected, low, order, false);
+              int end = scan(expected, high, order, false);
+              assertEquals(end - from, list.rangeSize(low, high));
+              assertEquals(expected.subList(from, end), list.range(low, high));
+          }
+          else {
+              List<Integer> items = Arrays.asList(value, value + 1, value);
+              list.addAll(items);
+              for (Integer item : items) {
+                  expected.add(scan(expected, item, order, true), item);
+              }
+          }
+          assertEquals(expected.size(), list.size());
+          if (step % 1000 == 0) {
+              assertEquals(expected, new ArrayList<>(list));
+          }
+      }
+      assertEquals(expected, new ArrayList<>(list));
+      assertEquals(expected.get(0), list.first());
+      assertEquals(expected.get(expected.size() - 1), list.last());
+  }
+
+  @Test
+  public void matchesArrayList()
+  {
+      run(new SortedStoutList<>(), Comparator.naturalOrder(), 1);
+      run(new SortedStoutList<>(2, false, null), Comparator.naturalOrder(), 2);
+      run(new SortedStoutList<>(8, true, null), Comparator.naturalOrder(), 3);
+  }
+
+  @Test
+  public void equalElementsKeepTheirOrder()
+  {
+      // Elements in the same hundred compare equal, so their order shows
+      // where each was inserted.
+      Comparator<Integer> byHundreds = Comparator.comparing(x -> x / 100);
+      run(new SortedStoutList<>(byHundreds), byHundreds, 4);
+      run(new SortedStoutList<>(4, false, byHundreds.reversed()), byHundreds.reversed(), 5);
+  }
+
+  @Test
+  public void rangeViewRemovesFromTheList()
+  {
+      SortedStoutList<Integer> list = new SortedStoutList<>(4, false, null);
+      List<Integer> expected = new ArrayList<>();
+      for (int i = 0; i < 100; ++i) {
+          list.add(99 - i);
+          expected.add(i);
+      }
+      List<Integer> range = list.range(20, 30);
+      range.removeIf(x -> x % 2 == 0);
+      expected.subList(20, 30).removeIf(x -> x % 2 == 0);
+      assertEquals(expected, new ArrayList<>(list));
+
+      assertThrows(UnsupportedOperationException.class, () -> range.add(21));
+      assertThrows(UnsupportedOperationException.class, () -> range.set(0, 21));
+      assertThrows(IllegalArgumentException.class, () -> list.range(30, 20));
+  }
+
+  @Test
+  public void rejectsChangesThatBreakTheOrder()
+  {
+      SortedStoutList<Integer> list = new SortedStoutList<>();
+      assertThrows(NoSuchElementException.class, list::first);
+      assertThrows(NoSuchElementException.class, list::last);
+      assertEquals(null, list.floor(5));
+      list.add(3);
+      list.add(1);
+      list.add(2);
+      assertEquals(Arrays.asList(1, 2, 3), new ArrayList<>(list));
+
+      assertThrows(UnsupportedOperationException.class, () -> list.add(0, 5));
+      assertThrows(UnsupportedOperationException.class, () -> list.set(0, 5));
+      assertThrows(UnsupportedOperationException.class, () -> list.addFirst(5));
+      assertThrows(UnsupportedOperationException.class, () -> list.addLast(5));
+      assertThrows(UnsupportedOperationException.class, () -> list.sort(null));
+      assertThrows(UnsupportedOperationException.class, () -> list.concat(new SortedStoutList<>()));
+      assertThrows(NullPointerException.class, () -> list.add(null));
+
+      ListIterator<Integer> iter = list.listIterator();
+      iter.next();
+      assertThrows(UnsupportedOperationException.class, () -> iter.set(5));
+      assertThrows(UnsupportedOperationException.class, () -> iter.add(5));
+      iter.remove();
+      assertEquals(Arrays.asList(2, 3), new ArrayList<>(list));
+  }
+}
@@ -0,0 +1,249 @@
+package edu.iastate.cs228.hw3;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Checks lists that spill their nodes to a file against ArrayList, and that
+ * nodes are read back only when their elements are reached.
+ */
+public class SpillTest
+{
+  /**
+   * Integer codec that counts the elements it decodes.
+   */
+  static final class CountingCodec implements ElementCodec<Integer>
+  {
+    int decoded;
+
+    @Override
+    public int fixedSize() { return Integer.BYTES; }
+
+    @Override
+    public int encodedSize(Integer item) { return Integer.BYTES; }
+
+    @Override
+    public void encode(Integer item, ByteBuffer out) { out.putInt(item); }
+
+    @Override
+    public Integer decode(ByteBuffer in)
+    {
+      ++decoded;
+      return in.getInt();
+    }
+  }
+
+  @TempDir
+  Path directory;
+
+  @Test
+  public void matchesArrayListWhileSpilling() throws IOException
+  {
+      Random random = new Random(1);
+      StoutList<Integer> list = new StoutList<>(8);
+      List<Integer> expected = new ArrayList<>();
+      Path file = directory.resolve("spill.bin");
+      list.enableSpill(file, ElementCodec.INTEGER, 3);
+      assertTrue(list.isSpillEnabled());
+
+      for (int step = 0; step < 20000; ++step) {
+          int op = random.nextInt(5);
+          int value = random.nextInt(100000);
+          if (op <= 1 || expected.isEmpty()) {
+              int pos = random.nextInt(expected.size() + 1);
+              list.add(pos, value);
+              expected.add(pos, value);
+          }
+          else if (op == 2) {
+              int pos = random.nextInt(expected.size());
+              assertEquals(expected.remove(pos), list.remove(pos));
+          }
+          else if (op == 3) {
+              int pos = random.nextInt(expected.size());
+              assertEquals(expected.set(pos, value), list.set(pos, value));
+          }
+          else {
+              int pos = random.nextInt(expected.size());
+              assertEquals(expected.get(pos), list.get(pos));
+          }
+      }
+      assertEquals(expected, new ArrayList<>(list));
+
+      list.sort();
+      expected.sort(null);
+      assertEquals(expected, new ArrayList<>(list));
+
+      list.disableSpill();
+      assertFalse(list.isSpillEnabled());
+      assertFalse(Files.exists(file));
+      assertEquals(expected, new ArrayList<>(list));
+  }
+
+  @Test
+  public void snapshotReadsSpilledNodes() throws IOException
+  {
+      StoutList<String> list = new StoutList<>(4);
+      List<String> expected = new ArrayList<>();
+      list.enableSpill(directory.resolve("spill.bin"), ElementCodec.STRING, 2);
+      for (int i = 0; i < 1000; ++i) {
+          list.add("s" + i);
+          expected.add("s" + i);
+      }
+      List<String> snapshot = list.snapshot();
+      for (int i = 0; i < 1000; i += 3) {
+          list.set(i, "t" + i);
+      }
+      list.remove(500);
+
+      assertEquals(expected, new ArrayList<>(snapshot));
+      assertEquals(expected.get(777), snapshot.get(777));
+      assertEquals("t999", list.get(998));
+  }
+
+  @Test
+  public void splitListsShareTheFile() throws IOException
+  {
+      StoutList<Integer> list = new StoutList<>(4);
+      List<Integer> expected = new ArrayList<>();
+      list.enableSpill(directory.resolve("spill.bin"), ElementCodec.INTEGER, 4);
+      for (int i = 0; i < 2000; ++i) {
+          list.add(i);
+          expected.add(i);
+      }
+
+      StoutList<Integer> rest = list.splitAt(1200);
+      assertTrue(rest.isSpillEnabled());
+      assertEquals(expected.subList(1200, 2000), new ArrayList<>(rest));
+      rest.add(0, -1);
+      list.concat(rest);
+      expected.add(1200, -1);
+      assertEquals(expected, new ArrayList<>(list));
+  }
+
+  @Test
+  public void droppedPiecesGiveUpTheFile() throws IOException
+  {
+      Random random = new Random(3);
+      StoutList<Integer> list = new StoutList<>(4);
+      List<Integer> expected = new ArrayList<>();
+      Path file = directory.resolve("spill.bin");
+      list.enableSpill(file, ElementCodec.INTEGER, 4);
+      for (int i = 0; i < 4000; ++i) {
+          list.add(i);
+          expected.add(i);
+      }
+
+      // Each of these cuts a piece out with splitAt() and drops it or puts
+      // it back empty.
+      for (int round = 0; round < 20; ++round) {
+          int from = random.nextInt(expected.size() - 100);
+          list.subList(from, from + 50).clear();
+          expected.subList(from, from + 50).clear();
+          list.subList(from, from + 10).removeIf(x -> true);
+          expected.subList(from, from + 10).clear();
+      }
+      assertEquals(expected, new ArrayList<>(list));
+
+      // A piece the caller cuts off and no longer wants.
+      StoutList<Integer> rest = list.splitAt(1000);
+      expected.subList(1000, expected.size()).clear();
+      rest.clear();
+      rest.disableSpill();
+
+      // The file may be unlinked as soon as it is opened, so check that the
+      // last list to stop spilling closes it.
+      SpillStore store = list.spill;
+      assertEquals(1, store.users);
+      list.disableSpill();
+      assertEquals(0, store.users);
+      assertFalse(Files.exists(file));
+      assertEquals(expected, new ArrayList<>(list));
+  }
+
+  /**
+   * Returns a string of random length made of one repeated letter.
+   *
+   * @param random the source of the length and the letter
+   * @return the string
+   */
+  private static String randomString(Random random)
+  {
+      char[] chars = new char[1 + random.nextInt(40)];
+      Arrays.fill(chars, (char) ('a' + random.nextInt(26)));
+      return new String(chars);
+  }
+
+  @Test
+  public void fileStaysNearTheSizeOfItsRecords() throws IOException
+  {
+      Random random = new Random(4);
+      StoutList<String> list = new StoutList<>(8);
+      List<String> expected = new ArrayList<>();
+      list.enableSpill(directory.resolve("spill.bin"), ElementCodec.STRING, 4);
+      for (int i = 0; i < 2000; ++i) {
+          String item = randomString(random);
+          list.add(item);
+          expected.add(item);
+      }
+
+      // Each round rewrites every node with elements of new lengths, so
+      // records keep outgrowing their space, and drops and adds nodes.
+      SpillStore store = list.spill;
+      for (int round = 0; round < 50; ++round) {
+          for (int i = 0; i < expected.size(); ++i) {
+              String item = randomString(random);
+              list.set(i, item);
+              expected.set(i, item);
+          }
+          for (int i = 0; i < 200; ++i) {
+              int pos = random.nextInt(expected.size());
+              assertEquals(expected.remove(pos), list.remove(pos));
+              String item = randomString(random);
+              pos = random.nextInt(expected.size() + 1);
+              list.add(pos, item);
+              expected.add(pos, item);
+          }
+
+          long recordBytes = 0;
+          for (String item : expected) {
+              recordBytes += Integer.BYTES + item.length();
+          }
+          assertTrue(store.length() < 2 * recordBytes, store.length() + " bytes for " + recordBytes);
+      }
+      assertEquals(expected, new ArrayList<>(list));
+  }
+
+  @Test
+  public void sortedSearchReadsOnlyTheNodeFound() throws IOException
+  {
+      int nodeSize = 8;
+      CountingCodec codec = new CountingCodec();
+      SortedStoutList<Integer> list = new SortedStoutList<>(nodeSize, false, null);
+      list.enableSpill(directory.resolve("spill.bin"), codec, 4);
+      for (int i = 0; i < 20000; ++i) {
+          list.add(i * 2);
+      }
+
+      Random random = new Random(2);
+      for (int i = 0; i < 200; ++i) {
+          int key = random.nextInt(40000);
+          codec.decoded = 0;
+          assertEquals(key % 2 == 0, list.contains(key));
+          // The node found, and the next one when the key is past its end.
+          assertTrue(codec.decoded <= 2 * nodeSize, "decoded " + codec.decoded);
+      }
+  }
+}
@@ -0,0 +1,200 @@
+package edu.iastate.cs228.hw3;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks splitAt(), concat() and splice() against the same moves between
+ * ArrayLists, and that the lists stay usable afterwards.
+ */
+public class SpliceTest
+{
+  /**
+   * Builds a stout list and an ArrayList of the same consecutive integers.
+   *
+   * @param nodeSize the node size of the stout list
+   * @param circular whether the stout list uses circular nodes
+   * @param first the first value
+   * @param n the number of elements
+   * @param expected receives the elements
+   * @return the stout list
+   */
+  private static StoutList<Integer> build(int nodeSize, boolean circular, int first, int n, List<Integer> expected)
+  {
+      StoutList<Integer> list = new StoutList<>(nodeSize, circular);
+      for (int i = first; i < first + n; ++i) {
+          list.add(i);
+          expected.add(i);
+      }
+      return list;
+  }
+
+  /**
+   * Checks a list against its copy, including positional reads through the
+   * index and that every node but the first and the last is half full.
+   *
+   * @param expected the copy
+   * @param list the list
+   */
+  private static void check(List<Integer> expected, StoutList<Integer> list)
+  {
+      assertEquals(expected.size(), list.size());
+      assertEquals(expected, new ArrayList<>(list));
+      for (int i = 0; i < expected.size(); i += 7) {
+          assertEquals(expected.get(i), list.get(i));
+      }
+      list.setStatsEnabled(true);
+      StoutListStats stats = list.stats();
+      long sparse = 0;
+      for (int count = 0; count < stats.nodeSize() / 2; ++count) {
+          sparse += stats.occupancy(count);
+      }
+      assertTrue(sparse <= 2, list.toStringInternal());
+      list.setStatsEnabled(false);
+  }
+
+  /**
+   * Cuts and joins a few lists at random, and the ArrayLists alike.
+   *
+   * @param nodeSize the node size of the lists
+   * @param circular whether the lists use circular nodes
+   * @param seed the seed of the moves
+   */
+  private static void run(int nodeSize, boolean circular, long seed)
+  {
+      Random random = new Random(seed);
+      List<StoutList<Integer>> lists = new ArrayList<>();
+      List<List<Integer>> copies = new ArrayList<>();
+      for (int i = 0; i < 4; ++i) {
+          List<Integer> copy = new ArrayList<>();
+          lists.add(build(nodeSize, circular, i * 100000, random.nextInt(500), copy));
+          copies.add(copy);
+      }
+
+      for (int step = 0; step < 400; ++step) {
+          int a = random.nextInt(lists.size());
+          int b = random.nextInt(lists.size());
+          StoutList<Integer> list = lists.get(a);
+          List<Integer> copy = copies.get(a);
+          int op = random.nextInt(4);
+          if (op == 0) {
+              int pos = random.nextInt(copy.size() + 1);
+              StoutList<Integer> rest = list.splitAt(pos);
+              List<Integer> restCopy = new ArrayList<>(copy.subList(pos, copy.size()));
+              copy.subList(pos, copy.size()).clear();
+              check(copy, list);
+              check(restCopy, rest);
+              lists.set(b == a ? (a + 1) % lists.size() : b, rest);
+              copies.set(b == a ? (a + 1) % lists.size() : b, restCopy);
+          }
+          else if (op == 1 && a != b) {
+              list.concat(lists.get(b));
+              copy.addAll(copies.get(b));
+              copies.get(b).clear();
+              check(copy, list);
+              check(copies.get(b), lists.get(b));
+          }
+          else if (op == 2 && a != b) {
+              int pos = random.nextInt(copy.size() + 1);
+              list.splice(pos, lists.get(b));
+              copy.addAll(pos, copies.get(b));
+              copies.get(b).clear();
+              check(copy, list);
+              check(copies.get(b), lists.get(b));
+          }
+          else {
+              // Grow the list again so the cuts do not wear it down.
+              for (int i = random.nextInt(50); i > 0; --i) {
+                  int pos = random.nextInt(copy.size() + 1);
+                  list.add(pos, -step);
+                  copy.add(pos, -step);
+              }
+              if (!copy.isEmpty()) {
+                  int pos = random.nextInt(copy.size());
+                  assertEquals(copy.remove(pos), list.remove(pos));
+              }
+              check(copy, list);
+          }
+      }
+  }
+
+  @Test
+  public void matchesArrayList()
+  {
+      run(2, false, 1);
+      run(4, false, 2);
+      run(16, false, 3);
+  }
+
+  @Test
+  public void matchesArrayListInCircularNodes()
+  {
+      run(4, true, 4);
+      run(8, true, 5);
+  }
+
+  @Test
+  public void splitAtTheEnds()
+  {
+      List<Integer> expected = new ArrayList<>();
+      StoutList<Integer> list = build(4, false, 0, 10, expected);
+
+      StoutList<Integer> all = list.splitAt(0);
+      check(new ArrayList<>(), list);
+      check(expected, all);
+      StoutList<Integer> none = all.splitAt(10);
+      check(new ArrayList<>(), none);
+      check(expected, all);
+
+      list.concat(all);
+      list.concat(none);
+      check(expected, list);
+      list.splice(10, new StoutList<>(4));
+      list.splice(0, new StoutList<>(4));
+      check(expected, list);
+  }
+
+  @Test
+  public void snapshotsSurviveCuts()
+  {
+      List<Integer> expected = new ArrayList<>();
+      StoutList<Integer> list = build(4, false, 0, 1000, expected);
+      List<Integer> before = list.snapshot();
+
+      List<Integer> otherExpected = new ArrayList<>();
+      StoutList<Integer> other = build(4, false, 5000, 300, otherExpected);
+      List<Integer> otherBefore = other.snapshot();
+      StoutList<Integer> rest = list.splitAt(400);
+      list.splice(123, other);
+      list.concat(rest);
+      list.set(0, -1);
+
+      expected.addAll(123, otherExpected);
+      expected.set(0, -1);
+      check(expected, list);
+      assertEquals(build(4, false, 0, 1000, new ArrayList<>()), before);
+      assertEquals(otherExpected, otherBefore);
+  }
+
+  @Test
+  public void rejectsBadArguments()
+  {
+      StoutList<Integer> list = build(4, false, 0, 10, new ArrayList<>());
+      assertThrows(IndexOutOfBoundsException.class, () -> list.splitAt(11));
+      assertThrows(IndexOutOfBoundsException.class, () -> list.splitAt(-1));
+      assertThrows(IndexOutOfBoundsException.class, () -> list.splice(11, new StoutList<>(4)));
+      assertThrows(IllegalArgumentException.class, () -> list.concat(list));
+      assertThrows(IllegalArgumentException.class, () -> list.splice(0, list));
+      assertThrows(IllegalArgumentException.class, () -> list.concat(new StoutList<>(8)));
+      assertThrows(IllegalArgumentException.class, () -> list.splice(5, new StoutList<>(4, true)));
+      assertThrows(NullPointerException.class, () -> list.concat(null));
+      assertEquals(10, list.size());
+  }
+}
@@ -0,0 +1,166 @@
+package edu.iastate.cs228.hw3;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the node-boundary spliterator and the parallel streams built on it
+ * against ArrayList.
+ */
+public class SpliteratorTest
+{
+  /**
+   * Builds a list and an ArrayList of the same integers by random inserts
+   * and removals, so the nodes are partly full and, in circular nodes, the
+   * elements wrap past the end of the arrays.
+   *
+   * @param nodeSize the node size of the list
+   * @param circular whether the list uses circular nodes
+   * @param n the number of inserts
+   * @param random the source of the changes
+   * @param expected receives the elements
+   * @return the list
+   */
+  private static StoutList<Integer> build(int nodeSize, boolean circular, int n, Random random, List<Integer> expected)
+  {
+      StoutList<Integer> list = new StoutList<>(nodeSize, circular);
+      for (int i = 0; i < n; ++i) {
+          int pos = random.nextInt(expected.size() + 1);
+          list.add(pos, i);
+          expected.add(pos, i);
+          if (i % 3 == 0) {
+              pos = random.nextInt(expected.size());
+              assertEquals(expected.remove(pos), list.remove(pos));
+          }
+      }
+      return list;
+  }
+
+  /**
+   * Splits a spliterator recursively down to pieces of at most the given
+   * size, checking that the estimates of the two halves add up to that of
+   * the whole, and collects the elements of the pieces in order.
+   *
+   * @param spliterator the spliterator to split
+   * @param limit the size below which to stop splitting
+   * @param out receives the elements
+   * @return the number of pieces
+   */
+  private static int split(Spliterator<Integer> spliterator, int limit, List<Integer> out)
+  {
+      assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.ORDERED));
+      long size = spliterator.estimateSize();
+      assertEquals(size, spliterator.getExactSizeIfKnown());
+      Spliterator<Integer> prefix = size > limit ? spliterator.trySplit() : null;
+      if (prefix == null) {
+          int before = out.size();
+          spliterator.forEachRemaining(out::add);
+          assertEquals(size, out.size() - before);
+          assertEquals(0, spliterator.estimateSize());
+          return 1;
+      }
+      assertTrue(prefix.estimateSize() > 0 && spliterator.estimateSize() > 0);
+      assertEquals(size, prefix.estimateSize() + spliterator.estimateSize());
+      return split(prefix, limit, out) + split(spliterator, limit, out);
+  }
+
+  @Test
+  public void splitsAddUp()
+  {
+      for (int nodeSize : new int[] { 2, 4, 32 }) {
+          for (boolean circular : new boolean[] { false, true }) {
+              Random random = new Random(nodeSize);
+              List<Integer> expected = new ArrayList<>();
+              StoutList<Integer> list = build(nodeSize, circular, 5000, random, expected);
+              for (int limit : new int[] { 1, 7, 100, 10000 }) {
+                  List<Integer> out = new ArrayList<>();
+                  int pieces = split(list.spliterator(), limit, out);
+                  assertEquals(expected, out);
+                  assertTrue(limit >= expected.size() ? pieces == 1 : pieces > 1);
+              }
+          }
+      }
+  }
+
+  @Test
+  public void splitHalvesCanMixTryAdvance()
+  {
+      Random random = new Random(1);
+      List<Integer> expected = new ArrayList<>();
+      StoutList<Integer> list = build(8, true, 1000, random, expected);
+      Spliterator<Integer> suffix = list.spliterator();
+      List<Integer> out = new ArrayList<>();
+      // Take a few elements one at a time before splitting the rest.
+      for (int i = 0; i < 5; ++i) {
+          assertTrue(suffix.tryAdvance(out::add));
+      }
+      Spliterator<Integer> prefix = suffix.trySplit();
+      while (prefix.tryAdvance(out::add)) {
+          assertEquals(expected.size() - out.size(), prefix.estimateSize() + suffix.estimateSize());
+      }
+      suffix.forEachRemaining(out::add);
+      assertFalse(suffix.tryAdvance(out::add));
+      assertEquals(expected, out);
+
+      Spliterator<Integer> empty = new StoutList<Integer>(4).spliterator();
+      assertNull(empty.trySplit());
+      assertEquals(0, empty.estimateSize());
+      assertFalse(empty.tryAdvance(out::add));
+  }
+
+  @Test
+  public void parallelStreamMatchesArrayList()
+  {
+      for (int nodeSize : new int[] { 2, 8, 64 }) {
+          for (boolean circular : new boolean[] { false, true }) {
+              Random random = new Random(nodeSize + (circular ? 1 : 0));
+              List<Integer> expected = new ArrayList<>();
+              StoutList<Integer> list = build(nodeSize, circular, 30000, random, expected);
+
+              assertEquals(expected, list.parallelStream().collect(Collectors.toList()));
+              assertEquals(expected.stream().mapToLong(x -> x).sum(), list.parallelStream().mapToLong(x -> x).sum());
+              assertEquals(expected.stream().filter(x -> x % 7 == 0).collect(Collectors.toList()),
+                      list.parallelStream().filter(x -> x % 7 == 0).collect(Collectors.toList()));
+              assertEquals(expected.stream().skip(1234).limit(5000).collect(Collectors.toList()),
+                      list.parallelStream().skip(1234).limit(5000).collect(Collectors.toList()));
+              assertEquals(expected.size(), list.parallelStream().count());
+              assertEquals(expected.stream().max(Integer::compare), list.parallelStream().max(Integer::compare));
+              assertEquals(expected, list.stream().collect(Collectors.toList()));
+          }
+      }
+  }
+
+  @Test
+  public void changesDuringTraversalAreDetected()
+  {
+      List<Integer> expected = new ArrayList<>();
+      StoutList<Integer> list = build(4, false, 100, new Random(2), expected);
+
+      Spliterator<Integer> spliterator = list.spliterator();
+      assertThrows(ConcurrentModificationException.class, () -> spliterator.tryAdvance(x -> list.add(x)));
+
+      Spliterator<Integer> rest = list.spliterator();
+      rest.trySplit();
+      assertThrows(ConcurrentModificationException.class, () -> rest.forEachRemaining(x -> list.remove(0)));
+
+      // Removing the node being read must not leave the traversal on it.
+      Spliterator<Integer> whole = list.spliterator();
+      assertThrows(ConcurrentModificationException.class, () -> whole.forEachRemaining(x -> list.removeFirst()));
+
+      // set() is not a structural change.
+      list.stream().forEach(x -> list.set(0, x));
+      assertThrows(ConcurrentModificationException.class, () -> list.stream().forEach(x -> list.add(x)));
+  }
+}
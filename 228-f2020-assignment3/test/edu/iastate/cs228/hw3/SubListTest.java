@@ -0,0 +1,220 @@
+package edu.iastate.cs228.hw3;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks subList() views, nested and not, against ArrayList.subList(),
+ * including the bulk operations that cut the range out with splitAt().
+ */
+public class SubListTest
+{
+  /**
+   * Builds a stout list and an ArrayList of the same random integers.
+   *
+   * @param nodeSize the node size of the stout list
+   * @param n the number of elements
+   * @param random the source of the values
+   * @param expected receives the elements
+   * @return the stout list
+   */
+  private static StoutList<Integer> build(int nodeSize, int n, Random random, List<Integer> expected)
+  {
+      StoutList<Integer> list = new StoutList<>(nodeSize);
+      for (int i = 0; i < n; ++i) {
+          int value = random.nextInt(1000);
+          list.add(value);
+          expected.add(value);
+      }
+      return list;
+  }
+
+  /**
+   * Applies one random operation to a view and to the matching ArrayList
+   * view alike.
+   *
+   * @param view the view to change
+   * @param expected the ArrayList view to change alike
+   * @param random the source of the operation
+   */
+  private static void change(List<Integer> view, List<Integer> expected, Random random)
+  {
+      int size = expected.size();
+      int value = random.nextInt(1000);
+      switch (random.nextInt(12)) {
+      case 0:
+      case 1:
+          int pos = random.nextInt(size + 1);
+          view.add(pos, value);
+          expected.add(pos, value);
+          break;
+      case 2:
+          if (size > 0) {
+              pos = random.nextInt(size);
+              assertEquals(expected.remove(pos), view.remove(pos));
+          }
+          break;
+      case 3:
+          if (size > 0) {
+              pos = random.nextInt(size);
+              assertEquals(expected.set(pos, value), view.set(pos, value));
+          }
+          break;
+      case 4:
+          List<Integer> items = Arrays.asList(value, value + 1, value + 2);
+          pos = random.nextInt(size + 1);
+          view.addAll(pos, items);
+          expected.addAll(pos, items);
+          break;
+      case 5:
+          int bound = 2 + random.nextInt(5);
+          assertEquals(expected.removeIf(x -> x % bound == 0), view.removeIf(x -> x % bound == 0));
+          break;
+      case 6:
+          view.sort(null);
+          expected.sort(null);
+          break;
+      case 7:
+          // Equal keys keep their order, as with ArrayList.sort().
+          Comparator<Integer> byTens = Comparator.comparing(x -> x / 10);
+          view.sort(byTens.reversed());
+          expected.sort(byTens.reversed());
+          break;
+      case 8:
+          if (random.nextInt(4) == 0) {
+              view.clear();
+              expected.clear();
+          }
+          break;
+      case 9:
+          List<Integer> some = Arrays.asList(value, 1, 2, 3);
+          assertEquals(expected.retainAll(some), view.retainAll(some));
+          break;
+      case 10:
+          pos = random.nextInt(size + 1);
+          ListIterator<Integer> iter = view.listIterator(pos);
+          ListIterator<Integer> expectedIter = expected.listIterator(pos);
+          if (expectedIter.hasNext()) {
+              assertEquals(expectedIter.next(), iter.next());
+              iter.set(value);
+              expectedIter.set(value);
+          }
+          iter.add(-value);
+          expectedIter.add(-value);
+          if (expectedIter.hasPrevious()) {
+              assertEquals(expectedIter.previous(), iter.previous());
+              iter.remove();
+              expectedIter.remove();
+          }
+          break;
+      default:
+          if (size > 0) {
+              pos = random.nextInt(size);
+              assertEquals(expected.get(pos), view.get(pos));
+              assertEquals(expected.indexOf(value), view.indexOf(value));
+          }
+          break;
+      }
+      assertEquals(expected.size(), view.size());
+  }
+
+  @Test
+  public void matchesArrayList()
+  {
+      for (int nodeSize : new int[] { 2, 4, 16 }) {
+          Random random = new Random(nodeSize);
+          List<Integer> expected = new ArrayList<>();
+          StoutList<Integer> list = build(nodeSize, 2000, random, expected);
+          for (int round = 0; round < 100; ++round) {
+              int from = random.nextInt(expected.size() + 1);
+              int to = from + random.nextInt(expected.size() - from + 1);
+              List<Integer> view = list.subList(from, to);
+              List<Integer> expectedView = expected.subList(from, to);
+              for (int step = 0; step < 20; ++step) {
+                  change(view, expectedView, random);
+              }
+              assertEquals(expectedView, new ArrayList<>(view));
+              assertEquals(expected, new ArrayList<>(list));
+          }
+      }
+  }
+
+  @Test
+  public void nestedViewsMatchArrayList()
+  {
+      Random random = new Random(1);
+      List<Integer> expected = new ArrayList<>();
+      StoutList<Integer> list = build(4, 3000, random, expected);
+      for (int round = 0; round < 100; ++round) {
+          List<Integer> view = list;
+          List<Integer> expectedView = expected;
+          for (int depth = 0; depth < 3; ++depth) {
+              int from = random.nextInt(expectedView.size() + 1);
+              int to = from + random.nextInt(expectedView.size() - from + 1);
+              view = view.subList(from, to);
+              expectedView = expectedView.subList(from, to);
+          }
+          for (int step = 0; step < 20; ++step) {
+              change(view, expectedView, random);
+          }
+          assertEquals(expectedView, new ArrayList<>(view));
+          assertEquals(expected, new ArrayList<>(list));
+          if (expected.size() < 1000) {
+              for (int i = 0; i < 1000; ++i) {
+                  list.add(i);
+                  expected.add(i);
+              }
+          }
+      }
+  }
+
+  @Test
+  public void bulkOperationsLeaveTheRestAlone()
+  {
+      Random random = new Random(2);
+      List<Integer> expected = new ArrayList<>();
+      StoutList<Integer> list = build(8, 1000, random, expected);
+
+      list.subList(100, 900).sort(null);
+      expected.subList(100, 900).sort(null);
+      assertEquals(expected, new ArrayList<>(list));
+
+      list.subList(3, 997).removeIf(x -> x < 500);
+      expected.subList(3, 997).removeIf(x -> x < 500);
+      assertEquals(expected, new ArrayList<>(list));
+
+      list.subList(1, expected.size() - 1).clear();
+      expected.subList(1, expected.size() - 1).clear();
+      assertEquals(expected, new ArrayList<>(list));
+      assertEquals(2, list.size());
+  }
+
+  @Test
+  public void rejectsBadRangesAndStaleViews()
+  {
+      StoutList<Integer> list = build(4, 10, new Random(3), new ArrayList<>());
+      assertThrows(IndexOutOfBoundsException.class, () -> list.subList(-1, 5));
+      assertThrows(IndexOutOfBoundsException.class, () -> list.subList(0, 11));
+      assertThrows(IllegalArgumentException.class, () -> list.subList(6, 5));
+
+      List<Integer> view = list.subList(2, 8);
+      assertThrows(IndexOutOfBoundsException.class, () -> view.get(6));
+      assertThrows(IndexOutOfBoundsException.class, () -> view.subList(0, 7));
+      view.remove(0);
+      assertEquals(9, list.size());
+
+      list.add(1);
+      assertThrows(ConcurrentModificationException.class, () -> view.get(0));
+      assertThrows(ConcurrentModificationException.class, () -> view.sort(null));
+  }
+}